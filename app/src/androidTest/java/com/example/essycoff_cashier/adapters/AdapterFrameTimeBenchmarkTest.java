@@ -0,0 +1,232 @@
+package com.example.essycoff_cashier.adapters;
+
+import android.app.Activity;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.FrameMetrics;
+import android.view.Window;
+import android.widget.LinearLayout;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.essycoff_cashier.activities.LoginActivity;
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark waktu frame: grid 2k produk di-scroll terus sementara jumlah item keranjang berubah.
+ * Membandingkan pola lama (notifyDataSetChanged setiap perubahan keranjang) dengan diff
+ * ListAdapter + payload jumlah. LoginActivity hanya dipakai sebagai jendela; pada instalasi
+ * baru belum ada sesi login sehingga activity itu tidak berpindah layar.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AdapterFrameTimeBenchmarkTest {
+    private static final String TAG = "AdapterFrameBenchmark";
+    private static final int PRODUCTS = 2000;
+    private static final int CART_ITEMS = 3;
+    private static final int FRAMES = 300;
+    private static final int CART_UPDATE_EVERY = 10;
+    private static final int SCROLL_PX = 40;
+    private static final long JANK_NANOS = TimeUnit.MILLISECONDS.toNanos(17);
+
+    @Test
+    public void scrollProductGrid_whileCartUpdates() throws Exception {
+        try (ActivityScenario<LoginActivity> scenario = ActivityScenario.launch(LoginActivity.class)) {
+            Result legacy = run(scenario, true);
+            Result diffed = run(scenario, false);
+
+            Log.i(TAG, "legacy (notifyDataSetChanged): " + legacy);
+            Log.i(TAG, "diff (ListAdapter + payload):  " + diffed);
+            assertTrue(diffed.frameNanos.length > 0);
+            // Satu perubahan jumlah = satu bind parsial untuk baris itu saja
+            assertEquals(diffed.cartUpdates, diffed.cartPartialBinds);
+            assertEquals(0, diffed.cartFullBinds);
+            assertTrue(legacy.cartFullBinds >= legacy.cartUpdates * CART_ITEMS);
+        }
+    }
+
+    private Result run(ActivityScenario<LoginActivity> scenario, boolean rebindAll) throws Exception {
+        List<Product> products = catalog();
+        List<CartItem> cart = new ArrayList<>();
+        for (int i = 0; i < CART_ITEMS; i++) {
+            cart.add(new CartItem(products.get(i), 1));
+        }
+
+        CountingCartAdapter cartAdapter = new CountingCartAdapter();
+        RecyclerView[] grid = new RecyclerView[1];
+        scenario.onActivity(activity -> grid[0] = showLists(activity, products, cart, cartAdapter));
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        cartAdapter.fullBinds = 0;
+        cartAdapter.partialBinds = 0;
+
+        HandlerThread metricsThread = new HandlerThread("frame-metrics");
+        metricsThread.start();
+        List<Long> frames = Collections.synchronizedList(new ArrayList<>());
+        Window.OnFrameMetricsAvailableListener frameListener = (window, metrics, dropped) ->
+                frames.add(metrics.getMetric(FrameMetrics.TOTAL_DURATION));
+        CountDownLatch done = new CountDownLatch(1);
+        int[] cartUpdates = new int[1];
+
+        scenario.onActivity(activity -> {
+            activity.getWindow().addOnFrameMetricsAvailableListener(frameListener,
+                    new Handler(metricsThread.getLooper()));
+            Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+                private int frame;
+                private int direction = 1;
+
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    if (!grid[0].canScrollVertically(direction)) {
+                        direction = -direction;
+                    }
+                    grid[0].scrollBy(0, direction * SCROLL_PX);
+
+                    if (frame % CART_UPDATE_EVERY == 0) {
+                        cart.get(cartUpdates[0] % CART_ITEMS).increaseQuantity();
+                        cartUpdates[0]++;
+                        cartAdapter.submitCart(cart);
+                        if (rebindAll) {
+                            cartAdapter.notifyDataSetChanged();
+                        }
+                    }
+
+                    if (++frame < FRAMES) {
+                        Choreographer.getInstance().postFrameCallback(this);
+                    } else {
+                        done.countDown();
+                    }
+                }
+            });
+        });
+
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        // Tunggu hasil diff terakhir dari background thread diterapkan
+        Thread.sleep(200);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        scenario.onActivity(activity -> activity.getWindow().removeOnFrameMetricsAvailableListener(frameListener));
+        metricsThread.quitSafely();
+
+        long[] frameNanos;
+        synchronized (frames) {
+            frameNanos = new long[frames.size()];
+            for (int i = 0; i < frameNanos.length; i++) {
+                frameNanos[i] = frames.get(i);
+            }
+        }
+        return new Result(frameNanos, cartUpdates[0], cartAdapter.fullBinds, cartAdapter.partialBinds);
+    }
+
+    private static RecyclerView showLists(Activity activity, List<Product> products, List<CartItem> cart,
+                                          CartAdapter cartAdapter) {
+        LinearLayout root = new LinearLayout(activity);
+        root.setOrientation(LinearLayout.VERTICAL);
+
+        RecyclerView productGrid = new RecyclerView(activity);
+        productGrid.setLayoutManager(new GridLayoutManager(activity, 2));
+        ProductAdapter productAdapter = new ProductAdapter(null);
+        productGrid.setAdapter(productAdapter);
+        productAdapter.submitList(products);
+        root.addView(productGrid, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 3));
+
+        RecyclerView cartList = new RecyclerView(activity);
+        cartList.setLayoutManager(new LinearLayoutManager(activity));
+        cartList.setAdapter(cartAdapter);
+        cartAdapter.submitCart(cart);
+        root.addView(cartList, new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, 0, 2));
+
+        activity.setContentView(root);
+        return productGrid;
+    }
+
+    private static List<Product> catalog() {
+        String[] names = {"Espresso", "Cappuccino", "Latte", "Americano", "Mocha", "Croissant", "Teh Tarik"};
+        List<Product> products = new ArrayList<>(PRODUCTS);
+        for (int i = 1; i <= PRODUCTS; i++) {
+            products.add(new Product(String.valueOf(i), names[i % names.length] + " " + i,
+                    i % 3 == 0 ? "FOOD" : "COFFEE", 15000 + (i % 10) * 1000, i % 50, true));
+        }
+        return products;
+    }
+
+    private static long percentile(long[] samples, int p) {
+        if (samples.length == 0) {
+            return 0;
+        }
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    /**
+     * Menghitung bind penuh dan bind parsial (payload jumlah) di keranjang
+     */
+    private static class CountingCartAdapter extends CartAdapter {
+        int fullBinds;
+        int partialBinds;
+
+        CountingCartAdapter() {
+            super(null);
+        }
+
+        @Override
+        public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+            if (payloads.contains(PAYLOAD_QUANTITY)) {
+                partialBinds++;
+            } else {
+                fullBinds++;
+            }
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+
+    private static class Result {
+        final long[] frameNanos;
+        final int cartUpdates;
+        final int cartFullBinds;
+        final int cartPartialBinds;
+
+        Result(long[] frameNanos, int cartUpdates, int cartFullBinds, int cartPartialBinds) {
+            this.frameNanos = frameNanos;
+            this.cartUpdates = cartUpdates;
+            this.cartFullBinds = cartFullBinds;
+            this.cartPartialBinds = cartPartialBinds;
+        }
+
+        @Override
+        public String toString() {
+            int janky = 0;
+            for (long nanos : frameNanos) {
+                if (nanos > JANK_NANOS) {
+                    janky++;
+                }
+            }
+            return String.format("%d frames p50=%.2fms p90=%.2fms p99=%.2fms janky=%d; "
+                            + "cart updates=%d full binds=%d partial binds=%d",
+                    frameNanos.length,
+                    percentile(frameNanos, 50) / 1e6,
+                    percentile(frameNanos, 90) / 1e6,
+                    percentile(frameNanos, 99) / 1e6,
+                    janky, cartUpdates, cartFullBinds, cartPartialBinds);
+        }
+    }
+}
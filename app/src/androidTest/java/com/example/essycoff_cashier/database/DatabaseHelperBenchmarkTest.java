@@ -0,0 +1,171 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Benchmark checkout + reload produk di bawah beban baca bersamaan.
+ * Membandingkan pola lama (tutup database setiap pemanggilan, tanpa WAL)
+ * dengan koneksi tunggal yang terus terbuka dalam mode WAL.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseHelperBenchmarkTest {
+    private static final String TAG = "DbHelperBenchmark";
+    private static final String LEGACY_DB = "benchmark_legacy.db";
+    private static final String SHARED_DB = "benchmark_shared.db";
+    private static final int CHECKOUTS = 200;
+    private static final int READER_THREADS = 3;
+    private static final int PRODUCTS = 50;
+
+    private Context context;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(LEGACY_DB);
+        context.deleteDatabase(SHARED_DB);
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(LEGACY_DB);
+        context.deleteDatabase(SHARED_DB);
+    }
+
+    @Test
+    public void checkoutAndReload_underConcurrentReaders() throws Exception {
+        long[] legacyNanos = run(LEGACY_DB, true);
+        long[] sharedNanos = run(SHARED_DB, false);
+
+        Log.i(TAG, "legacy (close per call): " + summary(legacyNanos));
+        Log.i(TAG, "shared (WAL, kept open): " + summary(sharedNanos));
+        assertTrue(percentile(sharedNanos, 50) <= percentile(legacyNanos, 50));
+    }
+
+    /**
+     * @param legacy Pola lama: setiap thread punya helper sendiri tanpa WAL dan menutupnya
+     *               setelah setiap pemanggilan. Selain itu semua thread berbagi satu helper.
+     */
+    private long[] run(String databaseName, boolean legacy) throws Exception {
+        DatabaseHelper writer = open(databaseName, legacy);
+        // Buka dan isi data awal sebelum pengukuran dimulai
+        seedProducts(writer);
+        assertEquals(PRODUCTS, writer.getAllProducts().size());
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch readersDone = new CountDownLatch(READER_THREADS);
+        for (int i = 0; i < READER_THREADS; i++) {
+            DatabaseHelper reader = legacy ? open(databaseName, true) : writer;
+            new Thread(() -> {
+                try {
+                    while (running.get()) {
+                        reader.getAllProducts();
+                        if (legacy) {
+                            reader.close();
+                        }
+                    }
+                } catch (Exception e) {
+                    Log.w(TAG, "Reader stopped: " + e.getMessage());
+                } finally {
+                    if (legacy) {
+                        reader.close();
+                    }
+                    readersDone.countDown();
+                }
+            }).start();
+        }
+
+        long[] samples = new long[CHECKOUTS];
+        int failures = 0;
+        for (int i = 0; i < CHECKOUTS; i++) {
+            long start = System.nanoTime();
+            try {
+                if (!writer.insertTransaction(newTransaction(i))) {
+                    failures++;
+                }
+                if (legacy) {
+                    writer.close();
+                }
+                writer.getAllProducts();
+                if (legacy) {
+                    writer.close();
+                }
+            } catch (Exception e) {
+                // Pola lama: tanpa WAL, penulis bisa terkunci oleh pembaca di koneksi lain
+                failures++;
+            }
+            samples[i] = System.nanoTime() - start;
+        }
+
+        running.set(false);
+        readersDone.await();
+        writer.close();
+        Log.i(TAG, (legacy ? "legacy" : "shared") + " failed checkouts: " + failures);
+        if (!legacy) {
+            assertEquals(0, failures);
+        }
+        return samples;
+    }
+
+    private DatabaseHelper open(String databaseName, boolean legacy) {
+        DatabaseHelper helper = new DatabaseHelper(context, databaseName);
+        if (legacy) {
+            helper.setWriteAheadLoggingEnabled(false);
+        }
+        return helper;
+    }
+
+    /**
+     * Katalog milik benchmark sendiri; tidak bergantung pada data contoh bawaan database
+     */
+    private static void seedProducts(DatabaseHelper helper) {
+        String[] categories = {"Kopi", "Makanan", "Minuman"};
+        for (int i = 1; i <= PRODUCTS; i++) {
+            Product product = new Product(null, "Produk " + i, categories[i % categories.length],
+                    15000 + (i % 10) * 1000, 100, true);
+            assertTrue(helper.addProduct(product) > 0);
+        }
+    }
+
+    private Transaction newTransaction(int index) {
+        Transaction transaction = new Transaction("BENCH-" + index, "1", "Benchmark",
+                new ArrayList<>(), "Tunai");
+        transaction.setSubtotal(20000);
+        transaction.setTaxAmount(2000);
+        transaction.setTotalAmount(22000);
+        transaction.setPaidAmount(25000);
+        transaction.setStatus("completed");
+        return transaction;
+    }
+
+    private static long percentile(long[] samples, int p) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)];
+    }
+
+    private static String summary(long[] samples) {
+        return String.format("p50=%.2fms p90=%.2fms p99=%.2fms",
+                percentile(samples, 50) / 1e6,
+                percentile(samples, 90) / 1e6,
+                percentile(samples, 99) / 1e6);
+    }
+}
@@ -17,6 +17,7 @@ import com.example.essycoff_cashier.fragments.POSFragment;
 import com.example.essycoff_cashier.fragments.TransactionHistoryFragment;
 import com.example.essycoff_cashier.fragments.ProductManagementFragment;
 import com.example.essycoff_cashier.fragments.ReportsFragment;
+import com.example.essycoff_cashier.sync.OutboxSyncer;
 import com.example.essycoff_cashier.utils.SessionManager;
 import com.example.essycoff_cashier.models.User;
 import com.google.android.material.bottomnavigation.BottomNavigationView;
@@ -69,6 +70,9 @@ public class MainActivity extends AppCompatActivity {
             
             setContentView(R.layout.activity_main);
             
+            // Kirim transaksi yang masih tertahan di outbox dari sesi sebelumnya
+            OutboxSyncer.getInstance(getApplicationContext()).requestSync();
+            
             initViews();
             setupUserInfo();
             setupBottomNavigation();
@@ -14,8 +14,10 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.essycoff_cashier.MainActivity;
 import com.example.essycoff_cashier.R;
+import com.example.essycoff_cashier.config.AppConfig;
 import com.example.essycoff_cashier.database.DatabaseHelper;
 import com.example.essycoff_cashier.models.User;
+import com.example.essycoff_cashier.network.HttpClientProvider;
 import com.example.essycoff_cashier.utils.SessionManager;
 
 /**
@@ -44,6 +46,8 @@ public class LoginActivity extends AppCompatActivity {
             try {
                 sessionManager = new SessionManager(getApplicationContext());
                 databaseHelper = DatabaseHelper.getInstance(getApplicationContext());
+                // Handshake ke Supabase berjalan selagi pengguna mengetik, sinkron pertama tidak menunggu TLS
+                HttpClientProvider.prewarm(AppConfig.SUPABASE_URL);
             } catch (Exception e) {
                 showErrorAndExit("Gagal menginisialisasi aplikasi. Silakan restart aplikasi.");
                 return;
@@ -7,22 +7,52 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.essycoff_cashier.R;
 import com.example.essycoff_cashier.models.CartItem;
 import com.google.android.material.button.MaterialButton;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Adapter untuk menampilkan item-item dalam keranjang belanja
  * Digunakan di POSFragment untuk menampilkan cart items
+ * Perubahan jumlah hanya mem-bind ulang baris item itu (payload {@link #PAYLOAD_QUANTITY}).
  */
-public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder> {
+public class CartAdapter extends ListAdapter<CartItem, CartAdapter.CartViewHolder> {
     
-    private List<CartItem> cartItems;
-    private OnCartItemChangeListener listener;
+    static final Object PAYLOAD_QUANTITY = new Object();
+    
+    private static final DiffUtil.ItemCallback<CartItem> DIFF_CALLBACK = new DiffUtil.ItemCallback<CartItem>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return Objects.equals(oldItem.getProduct().getId(), newItem.getProduct().getId());
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return sameProduct(oldItem, newItem) && oldItem.getQuantity() == newItem.getQuantity();
+        }
+        
+        @Nullable
+        @Override
+        public Object getChangePayload(@NonNull CartItem oldItem, @NonNull CartItem newItem) {
+            return sameProduct(oldItem, newItem) ? PAYLOAD_QUANTITY : null;
+        }
+        
+        private boolean sameProduct(CartItem oldItem, CartItem newItem) {
+            return oldItem.getProduct().getPrice() == newItem.getProduct().getPrice()
+                    && Objects.equals(oldItem.getProduct().getName(), newItem.getProduct().getName());
+        }
+    };
+    
+    private final OnCartItemChangeListener listener;
     
     // Interface untuk handle perubahan cart item
     public interface OnCartItemChangeListener {
@@ -30,9 +60,24 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
         void onItemRemoved(CartItem item);
     }
     
-    public CartAdapter(List<CartItem> cartItems, OnCartItemChangeListener listener) {
-        this.cartItems = cartItems;
+    public CartAdapter(OnCartItemChangeListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
+    }
+    
+    /**
+     * Tampilkan isi keranjang
+     * Item keranjang diubah di tempat (increaseQuantity), jadi yang dikirim ke differ adalah
+     * salinannya; daftar lama dan baru yang berisi objek sama tidak akan pernah terlihat berbeda.
+     * Item yang diterima listener juga salinan, cocokkan dengan id produknya.
+     */
+    public void submitCart(List<CartItem> items) {
+        List<CartItem> snapshot = new ArrayList<>(items.size());
+        for (CartItem item : items) {
+            snapshot.add(new CartItem(item.getId(), item.getProduct(), item.getQuantity(), item.getNotes()));
+        }
+        submitList(snapshot);
     }
     
     @NonNull
@@ -40,18 +85,50 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
     public CartViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_cart, parent, false);
-        return new CartViewHolder(view);
+        CartViewHolder holder = new CartViewHolder(view);
+        // Listener dipasang sekali; jumlah dibaca dari item pada posisi saat tombol ditekan
+        if (holder.btnDecrease != null) {
+            holder.btnDecrease.setOnClickListener(v -> changeQuantity(holder, -1));
+        }
+        if (holder.btnIncrease != null) {
+            holder.btnIncrease.setOnClickListener(v -> changeQuantity(holder, 1));
+        }
+        if (holder.btnRemove != null) {
+            holder.btnRemove.setOnClickListener(v -> {
+                int position = holder.getBindingAdapterPosition();
+                if (position != RecyclerView.NO_POSITION && listener != null) {
+                    listener.onItemRemoved(getItem(position));
+                }
+            });
+        }
+        return holder;
+    }
+    
+    private void changeQuantity(CartViewHolder holder, int delta) {
+        int position = holder.getBindingAdapterPosition();
+        if (position != RecyclerView.NO_POSITION && listener != null) {
+            CartItem cartItem = getItem(position);
+            listener.onQuantityChanged(cartItem, cartItem.getQuantity() + delta);
+        }
     }
     
     @Override
     public void onBindViewHolder(@NonNull CartViewHolder holder, int position) {
-        CartItem cartItem = cartItems.get(position);
-        holder.bind(cartItem, listener);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return cartItems.size();
+    public void onBindViewHolder(@NonNull CartViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(PAYLOAD_QUANTITY)) {
+            holder.bindQuantity(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getProduct().getId());
     }
     
     /**
@@ -74,51 +151,23 @@ public class CartAdapter extends RecyclerView.Adapter<CartAdapter.CartViewHolder
             btnRemove = itemView.findViewById(R.id.btn_remove);
         }
         
-        public void bind(CartItem cartItem, OnCartItemChangeListener listener) {
+        public void bind(CartItem cartItem) {
             // Set item data
             tvItemName.setText(cartItem.getProduct().getName());
             tvItemPrice.setText(cartItem.getProduct().getFormattedPrice());
-            tvQuantity.setText(String.valueOf(cartItem.getQuantity()));
-            tvSubtotal.setText(cartItem.getFormattedSubtotal());
             
             // Set product image
             setProductImage(cartItem.getProduct().getName());
             
-            // Set click listeners
-            if (btnDecrease != null) {
-                btnDecrease.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        int newQuantity = cartItem.getQuantity() - 1;
-                        if (listener != null) {
-                            listener.onQuantityChanged(cartItem, newQuantity);
-                        }
-                    }
-                });
-            }
-            
-            if (btnIncrease != null) {
-                btnIncrease.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        int newQuantity = cartItem.getQuantity() + 1;
-                        if (listener != null) {
-                            listener.onQuantityChanged(cartItem, newQuantity);
-                        }
-                    }
-                });
-            }
-            
-            if (btnRemove != null) {
-                btnRemove.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View v) {
-                        if (listener != null) {
-                            listener.onItemRemoved(cartItem);
-                        }
-                    }
-                });
-            }
+            bindQuantity(cartItem);
+        }
+        
+        /**
+         * Bind sebagian: jumlah, subtotal, dan tombol kurang
+         */
+        void bindQuantity(CartItem cartItem) {
+            tvQuantity.setText(String.valueOf(cartItem.getQuantity()));
+            tvSubtotal.setText(cartItem.getFormattedSubtotal());
             
             // Disable decrease button jika quantity = 1
             btnDecrease.setEnabled(cartItem.getQuantity() > 1);
@@ -7,6 +7,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.essycoff_cashier.R;
@@ -18,20 +19,22 @@ import java.util.List;
 /**
  * Adapter untuk menampilkan daftar produk dalam RecyclerView
  * Digunakan di POSFragment untuk menampilkan menu produk
+ * Daftar baru dikirim lewat submitList; selisihnya dihitung di background thread sehingga
+ * hanya kartu yang berubah yang di-bind ulang.
  */
-public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductViewHolder> {
+public class ProductAdapter extends ListAdapter<Product, ProductAdapter.ProductViewHolder> {
     
-    private List<Product> productList;
-    private OnProductClickListener listener;
+    private final OnProductClickListener listener;
     
     // Interface untuk handle click event
     public interface OnProductClickListener {
         void onProductClick(Product product);
     }
     
-    public ProductAdapter(List<Product> productList, OnProductClickListener listener) {
-        this.productList = productList;
+    public ProductAdapter(OnProductClickListener listener) {
+        super(new ProductDiffCallback());
         this.listener = listener;
+        setHasStableIds(true);
     }
     
     @NonNull
@@ -39,18 +42,38 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
     public ProductViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_product, parent, false);
-        return new ProductViewHolder(view);
+        ProductViewHolder holder = new ProductViewHolder(view);
+        // Listener dipasang sekali per ViewHolder; produk dibaca saat diklik, bukan saat bind
+        holder.cardProduct.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            Product product = getItem(position);
+            if (product.canBeSold() && listener != null) {
+                listener.onProductClick(product);
+            }
+        });
+        return holder;
     }
     
     @Override
     public void onBindViewHolder(@NonNull ProductViewHolder holder, int position) {
-        Product product = productList.get(position);
-        holder.bind(product, listener);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return productList.size();
+    public void onBindViewHolder(@NonNull ProductViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.contains(ProductDiffCallback.PAYLOAD_STOCK)) {
+            holder.bindStock(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
+    }
+    
+    @Override
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getId());
     }
     
     /**
@@ -71,7 +94,7 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
             tvProductStock = itemView.findViewById(R.id.tv_product_stock);
         }
         
-        public void bind(Product product, OnProductClickListener listener) {
+        public void bind(Product product) {
             // Set product data
             tvProductName.setText(product.getName());
             tvProductPrice.setText(product.getFormattedPrice());
@@ -81,6 +104,16 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
                                 product.getCategory().toUpperCase();
             tvProductCategory.setText(categoryText);
             
+            // Set product image berdasarkan nama produk
+            setProductImage(product.getName());
+            
+            bindStock(product);
+        }
+        
+        /**
+         * Bind sebagian: hanya stok dan status bisa dijual
+         */
+        void bindStock(Product product) {
             // Set stock info
             if (product.getStock() > 0) {
                 tvProductStock.setText(String.valueOf(product.getStock()));
@@ -90,19 +123,9 @@ public class ProductAdapter extends RecyclerView.Adapter<ProductAdapter.ProductV
                 tvProductStock.setTextColor(itemView.getContext().getColor(R.color.error_color));
             }
             
-            // Set product image berdasarkan nama produk
-            setProductImage(product.getName());
-            
             // Set card enabled/disabled berdasarkan availability
             cardProduct.setEnabled(product.canBeSold());
             cardProduct.setAlpha(product.canBeSold() ? 1.0f : 0.5f);
-            
-            // Set click listener
-            cardProduct.setOnClickListener(v -> {
-                if (product.canBeSold() && listener != null) {
-                    listener.onProductClick(product);
-                }
-            });
         }
         
         /**
@@ -0,0 +1,44 @@
+package com.example.essycoff_cashier.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.essycoff_cashier.models.Product;
+
+import java.util.Objects;
+
+/**
+ * Pembanding produk untuk ListAdapter; dijalankan di background thread oleh AsyncListDiffer
+ * Jika yang berubah hanya stok/ketersediaan (push realtime, penjualan), payload
+ * {@link #PAYLOAD_STOCK} dikirim supaya baris cukup memperbarui angka stok tanpa bind ulang penuh.
+ */
+class ProductDiffCallback extends DiffUtil.ItemCallback<Product> {
+    static final Object PAYLOAD_STOCK = new Object();
+    
+    @Override
+    public boolean areItemsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+        return Objects.equals(oldItem.getId(), newItem.getId());
+    }
+    
+    @Override
+    public boolean areContentsTheSame(@NonNull Product oldItem, @NonNull Product newItem) {
+        return sameDetails(oldItem, newItem)
+                && oldItem.getStock() == newItem.getStock()
+                && oldItem.isAvailable() == newItem.isAvailable();
+    }
+    
+    @Nullable
+    @Override
+    public Object getChangePayload(@NonNull Product oldItem, @NonNull Product newItem) {
+        return sameDetails(oldItem, newItem) ? PAYLOAD_STOCK : null;
+    }
+    
+    private static boolean sameDetails(Product a, Product b) {
+        return a.getPrice() == b.getPrice()
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getDescription(), b.getDescription())
+                && Objects.equals(a.getImageUrl(), b.getImageUrl());
+    }
+}
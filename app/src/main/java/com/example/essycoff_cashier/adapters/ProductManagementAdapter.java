@@ -8,6 +8,7 @@ import android.widget.Switch;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.essycoff_cashier.R;
@@ -19,11 +20,11 @@ import java.util.List;
 /**
  * Adapter untuk manajemen produk (khusus Manager)
  * Menampilkan produk dengan kontrol untuk edit, hapus, dan update stock
+ * Ubah stok lewat salinan produk lalu submitList, jangan ubah objek yang sedang ditampilkan.
  */
-public class ProductManagementAdapter extends RecyclerView.Adapter<ProductManagementAdapter.ProductManagementViewHolder> {
+public class ProductManagementAdapter extends ListAdapter<Product, ProductManagementAdapter.ProductManagementViewHolder> {
     
-    private List<Product> productList;
-    private OnProductManagementListener listener;
+    private final OnProductManagementListener listener;
     
     // Interface untuk handle management actions
     public interface OnProductManagementListener {
@@ -33,9 +34,10 @@ public class ProductManagementAdapter extends RecyclerView.Adapter<ProductManage
         void onToggleAvailability(Product product);
     }
     
-    public ProductManagementAdapter(List<Product> productList, OnProductManagementListener listener) {
-        this.productList = productList;
+    public ProductManagementAdapter(OnProductManagementListener listener) {
+        super(new ProductDiffCallback());
         this.listener = listener;
+        setHasStableIds(true);
     }
     
     @NonNull
@@ -43,18 +45,69 @@ public class ProductManagementAdapter extends RecyclerView.Adapter<ProductManage
     public ProductManagementViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_product_management, parent, false);
-        return new ProductManagementViewHolder(view);
+        ProductManagementViewHolder holder = new ProductManagementViewHolder(view);
+        
+        // Set click listeners; produk diambil dari posisi saat ini, bukan dari bind terakhir
+        holder.btnEdit.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onEditProduct(product);
+            }
+        });
+        
+        holder.btnDelete.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onDeleteProduct(product);
+            }
+        });
+        
+        holder.btnStockMinus.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onUpdateStock(product, Math.max(0, product.getStock() - 1));
+            }
+        });
+        
+        holder.btnStockPlus.setOnClickListener(v -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null) {
+                listener.onUpdateStock(product, product.getStock() + 1);
+            }
+        });
+        
+        holder.switchAvailable.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            Product product = productAt(holder);
+            if (product != null && listener != null && buttonView.isPressed()) {
+                listener.onToggleAvailability(product);
+            }
+        });
+        return holder;
+    }
+    
+    private Product productAt(ProductManagementViewHolder holder) {
+        int position = holder.getBindingAdapterPosition();
+        return position == RecyclerView.NO_POSITION ? null : getItem(position);
     }
     
     @Override
     public void onBindViewHolder(@NonNull ProductManagementViewHolder holder, int position) {
-        Product product = productList.get(position);
-        holder.bind(product, listener);
+        holder.bind(getItem(position));
+    }
+    
+    @Override
+    public void onBindViewHolder(@NonNull ProductManagementViewHolder holder, int position,
+                                 @NonNull List<Object> payloads) {
+        if (payloads.contains(ProductDiffCallback.PAYLOAD_STOCK)) {
+            holder.bindStock(getItem(position));
+        } else {
+            super.onBindViewHolder(holder, position, payloads);
+        }
     }
     
     @Override
-    public int getItemCount() {
-        return productList.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getId());
     }
     
     /**
@@ -83,12 +136,20 @@ public class ProductManagementAdapter extends RecyclerView.Adapter<ProductManage
             btnStockPlus = itemView.findViewById(R.id.btn_stock_plus);
         }
         
-        public void bind(Product product, OnProductManagementListener listener) {
+        public void bind(Product product) {
             // Set product data
             tvProductName.setText(product.getName());
             tvProductPrice.setText(product.getFormattedPrice());
             tvProductCategory.setText(product.getCategory());
             tvProductDescription.setText(product.getDescription());
+            
+            bindStock(product);
+        }
+        
+        /**
+         * Bind sebagian: stok, status stok, dan switch ketersediaan
+         */
+        void bindStock(Product product) {
             tvCurrentStock.setText(String.valueOf(product.getStock()));
             
             // Set stock status
@@ -97,39 +158,6 @@ public class ProductManagementAdapter extends RecyclerView.Adapter<ProductManage
             // Set availability switch
             switchAvailable.setChecked(product.isAvailable());
             
-            // Set click listeners
-            btnEdit.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onEditProduct(product);
-                }
-            });
-            
-            btnDelete.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onDeleteProduct(product);
-                }
-            });
-            
-            btnStockMinus.setOnClickListener(v -> {
-                int newStock = Math.max(0, product.getStock() - 1);
-                if (listener != null) {
-                    listener.onUpdateStock(product, newStock);
-                }
-            });
-            
-            btnStockPlus.setOnClickListener(v -> {
-                int newStock = product.getStock() + 1;
-                if (listener != null) {
-                    listener.onUpdateStock(product, newStock);
-                }
-            });
-            
-            switchAvailable.setOnCheckedChangeListener((buttonView, isChecked) -> {
-                if (listener != null && buttonView.isPressed()) {
-                    listener.onToggleAvailability(product);
-                }
-            });
-            
             // Disable stock minus button jika stock = 0
             btnStockMinus.setEnabled(product.getStock() > 0);
         }
@@ -0,0 +1,36 @@
+package com.example.essycoff_cashier.adapters;
+
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * ID stabil untuk adapter dari id String model
+ * Id numerik dari server dipakai apa adanya. Id lain (data contoh, nomor transaksi) di-hash
+ * FNV-1a 64-bit dengan bit tanda dinyalakan, sehingga tidak bertabrakan dengan id numerik.
+ */
+final class StableIds {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private StableIds() {
+    }
+    
+    static long of(String id) {
+        if (id == null) {
+            return RecyclerView.NO_ID;
+        }
+        try {
+            long numeric = Long.parseLong(id);
+            if (numeric >= 0) {
+                return numeric;
+            }
+        } catch (NumberFormatException ignored) {
+            // bukan id numerik
+        }
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < id.length(); i++) {
+            hash ^= id.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+}
@@ -6,31 +6,56 @@ import android.view.ViewGroup;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.essycoff_cashier.R;
+import com.example.essycoff_cashier.config.AppConfig;
 import com.example.essycoff_cashier.models.Transaction;
 import com.google.android.material.card.MaterialCardView;
 
-import java.util.List;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Objects;
 
 /**
  * Adapter untuk menampilkan daftar transaksi dalam RecyclerView
  * Digunakan di TransactionHistoryFragment
+ * Halaman baru dikirim sebagai daftar lengkap lewat submitList; karena halaman hanya ditambah
+ * di akhir, selisihnya kecil dan baris yang sudah tampil tidak di-bind ulang.
  */
-public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.TransactionViewHolder> {
+public class TransactionAdapter extends ListAdapter<Transaction, TransactionAdapter.TransactionViewHolder> {
     
-    private List<Transaction> transactionList;
-    private OnTransactionClickListener listener;
+    private static final DiffUtil.ItemCallback<Transaction> DIFF_CALLBACK = new DiffUtil.ItemCallback<Transaction>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Transaction oldItem, @NonNull Transaction newItem) {
+            return Objects.equals(oldItem.getTransactionNumber(), newItem.getTransactionNumber());
+        }
+        
+        @Override
+        public boolean areContentsTheSame(@NonNull Transaction oldItem, @NonNull Transaction newItem) {
+            return oldItem.getTotalAmount() == newItem.getTotalAmount()
+                    && oldItem.getCreatedAt() == newItem.getCreatedAt()
+                    && oldItem.getTotalItems() == newItem.getTotalItems()
+                    && Objects.equals(oldItem.getStatus(), newItem.getStatus())
+                    && Objects.equals(oldItem.getPaymentMethod(), newItem.getPaymentMethod())
+                    && Objects.equals(oldItem.getUserFullName(), newItem.getUserFullName());
+        }
+    };
+    
+    private final OnTransactionClickListener listener;
     
     // Interface untuk handle click event
     public interface OnTransactionClickListener {
         void onTransactionClick(Transaction transaction);
     }
     
-    public TransactionAdapter(List<Transaction> transactionList, OnTransactionClickListener listener) {
-        this.transactionList = transactionList;
+    public TransactionAdapter(OnTransactionClickListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
+        setHasStableIds(true);
     }
     
     @NonNull
@@ -38,18 +63,24 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
     public TransactionViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_transaction, parent, false);
-        return new TransactionViewHolder(view);
+        TransactionViewHolder holder = new TransactionViewHolder(view);
+        holder.cardTransaction.setOnClickListener(v -> {
+            int position = holder.getBindingAdapterPosition();
+            if (position != RecyclerView.NO_POSITION && listener != null) {
+                listener.onTransactionClick(getItem(position));
+            }
+        });
+        return holder;
     }
     
     @Override
     public void onBindViewHolder(@NonNull TransactionViewHolder holder, int position) {
-        Transaction transaction = transactionList.get(position);
-        holder.bind(transaction, listener);
+        holder.bind(getItem(position));
     }
     
     @Override
-    public int getItemCount() {
-        return transactionList.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).getTransactionNumber());
     }
     
     /**
@@ -59,6 +90,8 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
         private MaterialCardView cardTransaction;
         private TextView tvTransactionNumber, tvDateTime, tvCashierName, tvTotalAmount, 
                         tvPaymentMethod, tvStatus, tvItemCount;
+        private final SimpleDateFormat dateFormat =
+                new SimpleDateFormat(AppConfig.DATE_FORMAT_DISPLAY, Locale.getDefault());
         
         public TransactionViewHolder(@NonNull View itemView) {
             super(itemView);
@@ -72,7 +105,7 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
             tvItemCount = itemView.findViewById(R.id.tv_item_count);
         }
         
-        public void bind(Transaction transaction, OnTransactionClickListener listener) {
+        public void bind(Transaction transaction) {
             // Set transaction data
             tvTransactionNumber.setText(transaction.getTransactionNumber());
             tvDateTime.setText(formatDateTime(transaction.getCreatedAt()));
@@ -87,27 +120,16 @@ public class TransactionAdapter extends RecyclerView.Adapter<TransactionAdapter.
             
             // Set payment method background
             setPaymentMethodBackground(transaction.getPaymentMethod());
-            
-            // Set click listener
-            cardTransaction.setOnClickListener(v -> {
-                if (listener != null) {
-                    listener.onTransactionClick(transaction);
-                }
-            });
         }
         
         /**
          * Format date time untuk display
          */
-        private String formatDateTime(String dateTime) {
-            if (dateTime == null) return "Unknown";
+        private String formatDateTime(long createdAt) {
+            if (createdAt <= 0) return "Unknown";
             
-            try {
-                // Simple format untuk demo - format: YYYY-MM-DD HH:MM
-                return dateTime.replace("T", " ").substring(0, 16);
-            } catch (Exception e) {
-                return dateTime;
-            }
+            // created_at disimpan sebagai epoch milidetik; format mengikuti zona waktu perangkat
+            return dateFormat.format(new Date(createdAt));
         }
         
         /**
@@ -25,6 +25,7 @@ public class AppConfig {
     public static final String APP_NAME = "EssyCoff POS";
     public static final String APP_VERSION = "1.0.0";
     public static final double TAX_RATE = 0.10; // 10% pajak
+    public static final int TAX_RATE_PERCENT = 10; // dipakai untuk perhitungan rupiah (long)
     
     // Transaction Configuration
     public static final String TRANSACTION_PREFIX = "ESC";
@@ -53,8 +54,9 @@ public class AppConfig {
     public static final String DEFAULT_STAFF_PASSWORD = "staff123";
     
     // Network Configuration
-    public static final int NETWORK_TIMEOUT_SECONDS = 30;
-    public static final int MAX_RETRY_ATTEMPTS = 3;
+    public static final int NETWORK_TIMEOUT_SECONDS = 30; // deadline satu call, termasuk semua percobaan ulang
+    public static final int ATTEMPT_TIMEOUT_SECONDS = 10; // connect/read/write per percobaan
+    public static final int MAX_RETRY_ATTEMPTS = 3; // percobaan ulang untuk request idempoten
     
     // UI Configuration
     public static final int PRODUCTS_GRID_SPAN = 2;
@@ -87,6 +89,7 @@ public class AppConfig {
     
     // Currency Format
     public static final String CURRENCY_FORMAT = "Rp %,.0f";
+    public static final String CURRENCY_FORMAT_RUPIAH = "Rp %,d";
     
     // Private constructor to prevent instantiation
     private AppConfig() {
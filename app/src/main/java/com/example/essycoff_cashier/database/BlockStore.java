@@ -0,0 +1,19 @@
+package com.example.essycoff_cashier.database;
+
+/**
+ * Penyimpanan blok nomor urut transaksi per terminal per hari
+ * Satu panggilan reserve memesan blockSize nomor sekaligus, sehingga
+ * TransactionNumberAllocator hanya menyentuh penyimpanan sekali per blok.
+ */
+public interface BlockStore {
+
+    /**
+     * Pesan blok nomor berikutnya secara atomik
+     *
+     * @param terminalId ID terminal (unik per perangkat)
+     * @param day        tanggal dalam format yyyyMMdd
+     * @param blockSize  jumlah nomor yang dipesan
+     * @return nomor pertama blok; nomor [start, start + blockSize) menjadi milik pemanggil
+     */
+    long reserve(String terminalId, String day, int blockSize);
+}
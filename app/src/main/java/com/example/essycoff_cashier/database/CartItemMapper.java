@@ -0,0 +1,57 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+
+/**
+ * Pemetaan baris tabel transaction_items ke model CartItem
+ * Produk dibentuk dari nama dan harga yang tersimpan saat transaksi,
+ * bukan dari katalog saat ini.
+ */
+public class CartItemMapper extends CursorMapper<CartItem> {
+    public static final String[] COLUMNS = {
+            "id", "product_id", "product_name", "quantity", "unit_price", "subtotal", "notes"
+    };
+
+    private final int idIndex;
+    private final int productIdIndex;
+    private final int productNameIndex;
+    private final int quantityIndex;
+    private final int unitPriceIndex;
+    private final int subtotalIndex;
+    private final int notesIndex;
+
+    public CartItemMapper(Cursor cursor) {
+        super(cursor);
+        idIndex = index("id");
+        productIdIndex = index("product_id");
+        productNameIndex = index("product_name");
+        quantityIndex = index("quantity");
+        unitPriceIndex = index("unit_price");
+        subtotalIndex = index("subtotal");
+        notesIndex = index("notes");
+    }
+
+    @Override
+    protected CartItem newRow() {
+        CartItem item = new CartItem();
+        item.setProduct(new Product());
+        return item;
+    }
+
+    @Override
+    protected void fill(CartItem item) {
+        Product product = item.getProduct();
+        product.setId(getString(productIdIndex));
+        product.setName(cursor.getString(productNameIndex));
+        product.setPrice(cursor.getLong(unitPriceIndex));
+
+        item.setId(cursor.getString(idIndex));
+        item.setQuantity(cursor.getInt(quantityIndex));
+        // Subtotal tersimpan dipakai apa adanya (setQuantity menghitung ulang dari harga)
+        item.setSubtotal(cursor.getLong(subtotalIndex));
+        item.setNotes(getString(notesIndex));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+import android.text.TextUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dasar pemetaan baris Cursor ke object model
+ * Index kolom dicari sekali saat mapper dibuat (sekali per query), bukan per sel,
+ * sehingga loop pembacaan hanya berisi cursor.getXxx(index).
+ * Mapper tidak thread-safe; buat satu instance per Cursor.
+ */
+public abstract class CursorMapper<T> {
+    protected final Cursor cursor;
+
+    protected CursorMapper(Cursor cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Buat object baru untuk satu baris
+     */
+    protected abstract T newRow();
+
+    /**
+     * Isi object dari baris cursor saat ini
+     */
+    protected abstract void fill(T row);
+
+    /**
+     * Petakan baris saat ini; jika reuse tidak null, object tersebut diisi ulang
+     */
+    public T map(T reuse) {
+        T row = reuse != null ? reuse : newRow();
+        fill(row);
+        return row;
+    }
+
+    /**
+     * Petakan semua baris yang tersisa ke list baru
+     */
+    public List<T> mapAll() {
+        List<T> rows = new ArrayList<>(Math.max(cursor.getCount(), 0));
+        while (cursor.moveToNext()) {
+            rows.add(map(null));
+        }
+        return rows;
+    }
+
+    /**
+     * Kirim setiap baris ke callback. Dengan reuseRow = true, object yang sama diisi
+     * ulang untuk setiap baris, jadi callback tidak boleh menyimpan referensinya.
+     */
+    public void forEach(RowCallback<T> callback, boolean reuseRow) {
+        T row = null;
+        while (cursor.moveToNext()) {
+            row = map(reuseRow ? row : null);
+            callback.onRow(row);
+        }
+    }
+
+    protected int index(String column) {
+        return cursor.getColumnIndexOrThrow(column);
+    }
+
+    protected String getString(int index) {
+        return index >= 0 && !cursor.isNull(index) ? cursor.getString(index) : null;
+    }
+
+    /**
+     * Gabungkan nama kolom untuk dipakai di klausa SELECT
+     */
+    static String select(String[] columns) {
+        return TextUtils.join(", ", columns);
+    }
+
+    /**
+     * Callback untuk membaca hasil query baris per baris
+     */
+    public interface RowCallback<T> {
+        void onRow(T row);
+    }
+}
@@ -3,10 +3,15 @@ package com.example.essycoff_cashier.database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 import android.util.Log;
 
+import com.example.essycoff_cashier.BuildConfig;
+import com.example.essycoff_cashier.models.CartItem;
 import com.example.essycoff_cashier.models.User;
 import com.example.essycoff_cashier.models.Product;
 import com.example.essycoff_cashier.models.Transaction;
@@ -14,18 +19,31 @@ import com.example.essycoff_cashier.models.Transaction;
 import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * SQLite Database Helper untuk EssyCoff POS
  * Menggantikan Supabase dengan database lokal
+ *
+ * Satu instance (dan satu koneksi) dipakai selama proses hidup; method di sini
+ * tidak boleh memanggil db.close() agar page cache SQLite tidak dibuang.
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String TAG = "DatabaseHelper";
     
     // Database Info
     private static final String DATABASE_NAME = "essycoff_pos.db";
-    private static final int DATABASE_VERSION = 1;
+    static final int DATABASE_VERSION = 8;
+    
+    private static final MigrationRunner MIGRATIONS = new MigrationRunner(DatabaseMigrations.all());
     
     // Table Names
     private static final String TABLE_USERS = "users";
@@ -75,7 +93,30 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String KEY_ITEM_SUBTOTAL = "subtotal";
     private static final String KEY_ITEM_NOTES = "notes";
     
+    // Query yang sering dipanggil; rencana eksekusinya diperiksa oleh QueryPlanChecker
+    static final String QUERY_AVAILABLE_PRODUCTS = "SELECT " + CursorMapper.select(ProductMapper.COLUMNS)
+            + " FROM " + TABLE_PRODUCTS + " WHERE " + KEY_IS_AVAILABLE + " = 1";
+    static final String QUERY_HISTORY = "SELECT " + CursorMapper.select(TransactionMapper.COLUMNS)
+            + " FROM " + TABLE_TRANSACTIONS + " ORDER BY " + KEY_CREATED_AT + " DESC";
+    static final String QUERY_HISTORY_BY_CASHIER = "SELECT " + CursorMapper.select(TransactionMapper.COLUMNS)
+            + " FROM " + TABLE_TRANSACTIONS
+            + " WHERE " + KEY_CASHIER_ID + " = ? ORDER BY " + KEY_CREATED_AT + " DESC";
+    static final String QUERY_REPORT_RANGE = "SELECT COUNT(*), SUM(" + KEY_TOTAL_AMOUNT + ") FROM " + TABLE_TRANSACTIONS
+            + " WHERE " + KEY_CREATED_AT + " >= ? AND " + KEY_CREATED_AT + " < ? AND " + KEY_STATUS + " = 'completed'";
+    static final String QUERY_ITEMS_BY_TRANSACTION = "SELECT " + CursorMapper.select(CartItemMapper.COLUMNS)
+            + " FROM " + TABLE_TRANSACTION_ITEMS
+            + " WHERE " + KEY_ITEM_TRANSACTION_ID + " = ?";
+    
+    private static final String SETTING_TERMINAL_ID = "terminal_id";
+    
     private static DatabaseHelper instance;
+    private TransactionNumberAllocator transactionNumberAllocator;
+    
+    // Statement yang dipakai ulang oleh insertTransaction (dijaga oleh lock instance)
+    private SQLiteStatement insertTransactionStatement;
+    private SQLiteStatement insertItemStatement;
+    private SQLiteStatement decrementStockStatement;
+    private SQLiteStatement insertOutboxStatement;
     
     public static synchronized DatabaseHelper getInstance(Context context) {
         if (instance == null) {
@@ -87,12 +128,52 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         return instance;
     }
     
-    public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+    private DatabaseHelper(Context context) {
+        this(context, DATABASE_NAME);
+    }
+    
+    /**
+     * Constructor dengan nama file database sendiri (dipakai oleh test/benchmark)
+     */
+    DatabaseHelper(Context context, String databaseName) {
+        super(context, databaseName, null, DATABASE_VERSION);
+        // WAL: pembaca (reload produk) tidak perlu menunggu penulis (checkout)
+        setWriteAheadLoggingEnabled(true);
+    }
+    
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        super.onConfigure(db);
+        // synchronous=NORMAL sudah aman untuk mode WAL dan menghemat fsync per commit
+        db.execSQL("PRAGMA synchronous = NORMAL");
+    }
+    
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        if (BuildConfig.DEBUG) {
+            QueryPlanChecker.checkHotQueries(db);
+        }
     }
     
     @Override
     public void onCreate(SQLiteDatabase db) {
+        // Database baru dibuat dari schema versi 1 lalu dibawa lewat migrasi yang sama
+        // dengan perangkat lama, sehingga keduanya selalu berakhir di schema yang identik
+        createBaselineSchema(db);
+        
+        // Insert default data
+        insertDefaultData(db);
+        
+        MIGRATIONS.migrate(db, 1, DATABASE_VERSION);
+        
+        Log.d(TAG, "Database tables created successfully");
+    }
+    
+    /**
+     * Buat schema versi 1 (titik awal semua migrasi)
+     */
+    static void createBaselineSchema(SQLiteDatabase db) {
         // Create Users Table
         String CREATE_USERS_TABLE = "CREATE TABLE " + TABLE_USERS + "("
                 + KEY_USER_ID + " INTEGER PRIMARY KEY AUTOINCREMENT,"
@@ -153,46 +234,13 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_PRODUCTS_TABLE);
         db.execSQL(CREATE_TRANSACTIONS_TABLE);
         db.execSQL(CREATE_TRANSACTION_ITEMS_TABLE);
-        
-        // Insert default data
-        insertDefaultData(db);
-        
-        Log.d(TAG, "Database tables created successfully");
     }
     
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        try {
-            // Mulai transaksi
-            db.beginTransaction();
-            
-            // Backup data penting jika diperlukan
-            // ...
-            
-            // Hapus tabel yang ada
-            db.execSQL("DROP TABLE IF EXISTS " + TABLE_USERS);
-            db.execSQL("DROP TABLE IF EXISTS " + TABLE_PRODUCTS);
-            db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRANSACTIONS);
-            db.execSQL("DROP TABLE IF EXISTS " + TABLE_TRANSACTION_ITEMS);
-            
-            // Buat ulang database
-            onCreate(db);
-            
-            // Restore data jika diperlukan
-            // ...
-            
-            db.setTransactionSuccessful();
-        } catch (Exception e) {
-            Log.e(TAG, "Error during database upgrade: " + e.getMessage(), e);
-            // Jika terjadi error, transaksi akan di-rollback secara otomatis
-            throw e;
-        } finally {
-            try {
-                db.endTransaction();
-            } catch (Exception e) {
-                Log.e(TAG, "Error ending transaction: " + e.getMessage());
-            }
-        }
+        // Migrasi bertahap, data penjualan yang sudah ada tetap disimpan.
+        // Jika satu langkah gagal, SQLiteOpenHelper me-rollback seluruh upgrade.
+        MIGRATIONS.migrate(db, oldVersion, newVersion);
     }
     
     /**
@@ -315,11 +363,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     
                     // Verifikasi password menggunakan BCrypt
                     if (BCrypt.checkpw(password, storedPassword)) {
-                        user = new User();
-                        user.setId(cursor.getString(cursor.getColumnIndexOrThrow(KEY_USER_ID)));
-                        user.setUsername(cursor.getString(cursor.getColumnIndexOrThrow(KEY_USERNAME)));
-                        user.setFullName(cursor.getString(cursor.getColumnIndexOrThrow(KEY_FULL_NAME)));
-                        user.setRole(cursor.getString(cursor.getColumnIndexOrThrow(KEY_ROLE)));
+                        user = new UserMapper(cursor).map(null);
                     }
                 } catch (Exception e) {
                     Log.e(TAG, "Error authenticating user: " + e.getMessage(), e);
@@ -337,14 +381,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     Log.e(TAG, "Error closing cursor: " + e.getMessage());
                 }
             }
-            
-            if (db != null) {
-                try {
-                    db.close();
-                } catch (Exception e) {
-                    Log.e(TAG, "Error closing database: " + e.getMessage());
-                }
-            }
         }
         
         return user;
@@ -354,31 +390,131 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * Get all products
      */
     public List<Product> getAllProducts() {
-        List<Product> products = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         
-        String selectQuery = "SELECT * FROM " + TABLE_PRODUCTS + " WHERE " + KEY_IS_AVAILABLE + " = 1";
-        Cursor cursor = db.rawQuery(selectQuery, null);
-        
-        if (cursor.moveToFirst()) {
-            do {
-                Product product = new Product();
-                product.setId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_PRODUCT_ID)));
-                product.setName(cursor.getString(cursor.getColumnIndexOrThrow(KEY_PRODUCT_NAME)));
-                product.setCategory(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CATEGORY)));
-                product.setPrice(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_PRICE)));
-                product.setStock(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_STOCK)));
-                product.setAvailable(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_IS_AVAILABLE)) == 1);
-                product.setImageUrl(cursor.getString(cursor.getColumnIndexOrThrow(KEY_IMAGE_URL)));
-                product.setDescription(cursor.getString(cursor.getColumnIndexOrThrow(KEY_DESCRIPTION)));
-                
-                products.add(product);
-            } while (cursor.moveToNext());
+        Cursor cursor = db.rawQuery(QUERY_AVAILABLE_PRODUCTS, null);
+        try {
+            return new ProductMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Baca ulang beberapa produk menurut id, termasuk yang tidak tersedia
+     * Dipakai untuk memperbarui baris yang berubah saja (mis. stok setelah checkout)
+     * tanpa memuat ulang seluruh katalog.
+     */
+    public List<Product> getProductsByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < ids.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+        SQLiteDatabase db = this.getReadableDatabase();
+        
+        Cursor cursor = db.rawQuery("SELECT " + CursorMapper.select(ProductMapper.COLUMNS)
+                + " FROM " + TABLE_PRODUCTS + " WHERE " + KEY_PRODUCT_ID + " IN (" + placeholders + ")",
+                ids.toArray(new String[0]));
+        try {
+            return new ProductMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
         }
+    }
+    
+    /**
+     * Cari produk di index lokal products_fts (tanpa jaringan)
+     * Setiap kata pada query dicocokkan sebagai prefix dan semua kata harus ada,
+     * contoh: "caf lat" menemukan "Café Latte".
+     *
+     * @param query    teks bebas dari kolom pencarian; kosong berarti tampilkan semua
+     * @param category filter kategori, atau null untuk semua kategori
+     */
+    public List<Product> searchProducts(String query, String category, int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<String> args = new ArrayList<>();
+        String sql = buildProductSearchQuery(query, category, limit, args);
         
-        cursor.close();
-        db.close();
-        return products;
+        Cursor cursor = db.rawQuery(sql, args.toArray(new String[0]));
+        try {
+            return new ProductMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Susun query pencarian produk; argumen bind ditambahkan ke args sesuai urutan
+     * Urutan relevansi: nama diawali kata pertama, semua kata ada di nama,
+     * lalu yang hanya cocok di deskripsi/kategori.
+     */
+    static String buildProductSearchQuery(String query, String category, int limit, List<String> args) {
+        String matchAll = toFtsQuery(query, null);
+        StringBuilder where = new StringBuilder();
+        
+        if (matchAll != null) {
+            appendCondition(where, KEY_PRODUCT_ID + " IN (SELECT docid FROM products_fts WHERE products_fts MATCH ?)");
+            args.add(matchAll);
+        }
+        if (category != null) {
+            appendCondition(where, KEY_CATEGORY + " = ?");
+            args.add(category);
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(CursorMapper.select(ProductMapper.COLUMNS))
+                .append(" FROM ").append(TABLE_PRODUCTS)
+                .append(where)
+                .append(" ORDER BY ");
+        if (matchAll != null) {
+            // Token hanya berisi huruf/angka, jadi aman dipakai langsung sebagai pola LIKE
+            String firstToken = matchAll.substring(0, matchAll.indexOf('*'));
+            sql.append("CASE WHEN ").append(KEY_PRODUCT_NAME).append(" LIKE ? THEN 0")
+                    .append(" WHEN ").append(KEY_PRODUCT_ID)
+                    .append(" IN (SELECT docid FROM products_fts WHERE products_fts MATCH ?) THEN 1")
+                    .append(" ELSE 2 END, ");
+            args.add(firstToken + "%");
+            args.add(toFtsQuery(query, KEY_PRODUCT_NAME));
+        }
+        sql.append(KEY_PRODUCT_NAME).append(" LIMIT ?");
+        args.add(String.valueOf(limit));
+        return sql.toString();
+    }
+    
+    /**
+     * Ubah input pengguna menjadi ekspresi MATCH FTS4: "Caf  lat!" -> "caf* lat*"
+     * Hanya huruf dan angka yang dipertahankan, jadi input tidak bisa membentuk
+     * operator FTS (tanda kutip, NEAR, minus, dsb).
+     *
+     * @param column batasi ke satu kolom index, atau null untuk semua kolom
+     * @return null jika input tidak berisi kata yang bisa dicari
+     */
+    static String toFtsQuery(String input, String column) {
+        if (input == null) {
+            return null;
+        }
+        StringBuilder match = new StringBuilder();
+        StringBuilder token = new StringBuilder();
+        String lower = input.toLowerCase(Locale.ROOT);
+        for (int i = 0; i <= lower.length(); i++) {
+            char c = i < lower.length() ? lower.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                if (match.length() > 0) {
+                    match.append(' ');
+                }
+                if (column != null) {
+                    match.append(column).append(':');
+                }
+                match.append(token).append('*');
+                token.setLength(0);
+            }
+        }
+        return match.length() == 0 ? null : match.toString();
     }
     
     /**
@@ -397,7 +533,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(KEY_DESCRIPTION, product.getDescription());
         
         long id = db.insert(TABLE_PRODUCTS, null, values);
-        db.close();
         
         return id;
     }
@@ -419,7 +554,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         
         int rowsAffected = db.update(TABLE_PRODUCTS, values, KEY_PRODUCT_ID + " = ?",
                 new String[]{String.valueOf(product.getId())});
-        db.close();
         
         return rowsAffected;
     }
@@ -431,7 +565,155 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         SQLiteDatabase db = this.getWritableDatabase();
         db.delete(TABLE_PRODUCTS, KEY_PRODUCT_ID + " = ?",
                 new String[]{String.valueOf(productId)});
-        db.close();
+    }
+    
+    /**
+     * Semua produk (termasuk yang tidak tersedia) urut kategori lalu nama, untuk manajemen produk
+     */
+    public List<Product> getProductsByCategory() {
+        SQLiteDatabase db = this.getReadableDatabase();
+        
+        Cursor cursor = db.rawQuery("SELECT " + CursorMapper.select(ProductMapper.COLUMNS)
+                + " FROM " + TABLE_PRODUCTS + " ORDER BY " + KEY_CATEGORY + ", " + KEY_PRODUCT_NAME, null);
+        try {
+            return new ProductMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Watermark sinkronisasi terakhir untuk tabel server, atau null jika belum pernah sinkron
+     */
+    public SyncState getSyncState(String tableName) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery("SELECT last_updated_at, last_id, synced_at FROM sync_state WHERE table_name = ?",
+                new String[]{tableName});
+        try {
+            if (cursor.moveToFirst()) {
+                return new SyncState(tableName, cursor.getString(0), cursor.getLong(1), cursor.getLong(2));
+            }
+            return null;
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Catat bahwa data lokal baru saja dicocokkan dengan server tanpa ada perubahan,
+     * agar umur data yang ditampilkan dihitung dari pemeriksaan terakhir, bukan perubahan terakhir
+     */
+    public void markSynced(String tableName) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put("synced_at", System.currentTimeMillis());
+        db.update("sync_state", values, "table_name = ?", new String[]{tableName});
+    }
+    
+    /**
+     * Terapkan perubahan katalog dari server dan simpan watermark-nya dalam satu transaksi,
+     * sehingga watermark tidak pernah mendahului data yang benar-benar tersimpan.
+     * Produk dicocokkan menurut id server; UPDATE dulu lalu INSERT agar trigger
+     * products_fts tetap berjalan (INSERT OR REPLACE tidak memicu trigger delete).
+     * Stok server belum memuat penjualan lokal yang masih di outbox, jadi jumlah itu
+     * dikurangkan dulu; tanpa ini stok lokal naik lagi sampai outbox terkirim.
+     *
+     * @param changed     produk baru/berubah
+     * @param deletedIds  id produk yang dihapus di server (tombstone)
+     * @param watermark   posisi baris terakhir yang diterima, atau null untuk perubahan dari
+     *                    realtime yang tidak boleh menggeser watermark sinkron inkremental
+     * @param replaceAll  true untuk sinkron penuh pertama: produk lokal yang tidak ada di server dihapus
+     */
+    public void applyProductSync(List<Product> changed, List<String> deletedIds, SyncState watermark,
+                                 boolean replaceAll) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        db.beginTransactionNonExclusive();
+        try {
+            Map<String, Integer> pending = changed.isEmpty()
+                    ? Collections.<String, Integer>emptyMap() : getPendingOutboxQuantities(db);
+            for (Product product : changed) {
+                Integer unsent = pending.get(product.getId());
+                ContentValues values = new ContentValues();
+                values.put(KEY_PRODUCT_NAME, product.getName());
+                values.put(KEY_CATEGORY, product.getCategory());
+                values.put(KEY_PRICE, product.getPrice());
+                values.put(KEY_STOCK, unsent == null ? product.getStock() : Math.max(0, product.getStock() - unsent));
+                values.put(KEY_IS_AVAILABLE, product.isAvailable() ? 1 : 0);
+                values.put(KEY_IMAGE_URL, product.getImageUrl());
+                values.put(KEY_DESCRIPTION, product.getDescription());
+                
+                String[] idArg = {product.getId()};
+                if (db.update(TABLE_PRODUCTS, values, KEY_PRODUCT_ID + " = ?", idArg) == 0) {
+                    values.put(KEY_PRODUCT_ID, Long.parseLong(product.getId()));
+                    db.insertOrThrow(TABLE_PRODUCTS, null, values);
+                }
+            }
+            for (String id : deletedIds) {
+                db.delete(TABLE_PRODUCTS, KEY_PRODUCT_ID + " = ?", new String[]{id});
+            }
+            if (replaceAll) {
+                deleteProductsNotIn(db, changed);
+            }
+            if (watermark != null) {
+                ContentValues state = new ContentValues();
+                state.put("table_name", watermark.getTableName());
+                state.put("last_updated_at", watermark.getLastUpdatedAt());
+                state.put("last_id", watermark.getLastId());
+                state.put("synced_at", System.currentTimeMillis());
+                db.insertWithOnConflict("sync_state", null, state, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+    
+    /**
+     * Jumlah terjual per produk dari checkout yang masih di outbox (belum diterima server)
+     * Entri outbox dihapus setelah terkirim. Entri dead tetap disimpan tetapi tidak akan
+     * pernah diterapkan server, jadi tidak ikut dihitung.
+     */
+    private Map<String, Integer> getPendingOutboxQuantities(SQLiteDatabase db) {
+        Map<String, Integer> quantities = new HashMap<>();
+        Cursor cursor = db.rawQuery("SELECT i." + KEY_ITEM_PRODUCT_ID + ", SUM(i." + KEY_QUANTITY + ")"
+                + " FROM outbox o"
+                + " JOIN " + TABLE_TRANSACTIONS + " t ON t." + KEY_TRANSACTION_NUMBER + " = o.dedup_key"
+                + " JOIN " + TABLE_TRANSACTION_ITEMS + " i ON i." + KEY_ITEM_TRANSACTION_ID + " = t." + KEY_TRANSACTION_ID
+                + " WHERE o.kind = ? AND o.dead = 0 AND i." + KEY_ITEM_PRODUCT_ID + " IS NOT NULL"
+                + " GROUP BY i." + KEY_ITEM_PRODUCT_ID, new String[]{OutboxEntry.KIND_TRANSACTION});
+        try {
+            while (cursor.moveToNext()) {
+                quantities.put(cursor.getString(0), cursor.getInt(1));
+            }
+        } finally {
+            cursor.close();
+        }
+        return quantities;
+    }
+    
+    private void deleteProductsNotIn(SQLiteDatabase db, List<Product> keep) {
+        Set<String> keepIds = new HashSet<>();
+        for (Product product : keep) {
+            keepIds.add(product.getId());
+        }
+        List<String> stale = new ArrayList<>();
+        Cursor cursor = db.rawQuery("SELECT " + KEY_PRODUCT_ID + " FROM " + TABLE_PRODUCTS, null);
+        try {
+            while (cursor.moveToNext()) {
+                String id = cursor.getString(0);
+                if (!keepIds.contains(id)) {
+                    stale.add(id);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        for (String id : stale) {
+            db.delete(TABLE_PRODUCTS, KEY_PRODUCT_ID + " = ?", new String[]{id});
+        }
+        if (!stale.isEmpty()) {
+            Log.d(TAG, "Removed " + stale.size() + " local products missing on server");
+        }
     }
     
     /**
@@ -453,7 +735,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(KEY_NOTES, transaction.getNotes());
         
         long id = db.insert(TABLE_TRANSACTIONS, null, values);
-        db.close();
         
         return id;
     }
@@ -462,74 +743,461 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * Get all transactions
      */
     public List<Transaction> getAllTransactions() {
-        List<Transaction> transactions = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
         
-        String selectQuery = "SELECT * FROM " + TABLE_TRANSACTIONS + " ORDER BY " + KEY_CREATED_AT + " DESC";
-        Cursor cursor = db.rawQuery(selectQuery, null);
-        
-        if (cursor.moveToFirst()) {
-            do {
-                Transaction transaction = new Transaction();
-                transaction.setId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_TRANSACTION_ID)));
-                transaction.setTransactionNumber(cursor.getString(cursor.getColumnIndexOrThrow(KEY_TRANSACTION_NUMBER)));
-                transaction.setCashierId(cursor.getInt(cursor.getColumnIndexOrThrow(KEY_CASHIER_ID)));
-                transaction.setSubtotal(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_SUBTOTAL)));
-                transaction.setTaxAmount(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_TAX_AMOUNT)));
-                transaction.setTotalAmount(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_TOTAL_AMOUNT)));
-                transaction.setPaymentMethod(cursor.getString(cursor.getColumnIndexOrThrow(KEY_PAYMENT_METHOD)));
-                transaction.setPaymentAmount(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_PAYMENT_AMOUNT)));
-                transaction.setChangeAmount(cursor.getDouble(cursor.getColumnIndexOrThrow(KEY_CHANGE_AMOUNT)));
-                transaction.setStatus(cursor.getString(cursor.getColumnIndexOrThrow(KEY_STATUS)));
-                transaction.setNotes(cursor.getString(cursor.getColumnIndexOrThrow(KEY_NOTES)));
-                transaction.setCreatedAt(cursor.getString(cursor.getColumnIndexOrThrow(KEY_CREATED_AT)));
-                
-                transactions.add(transaction);
-            } while (cursor.moveToNext());
+        Cursor cursor = db.rawQuery(QUERY_HISTORY, null);
+        try {
+            return new TransactionMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
+    }
+    
+    /**
+     * Get satu halaman riwayat transaksi, terbaru dulu
+     * Waktu per halaman tidak bergantung pada jumlah total baris karena posisi dicari
+     * lewat index (created_at, id) dan bukan dengan OFFSET.
+     *
+     * @param after key dari halaman sebelumnya, atau null untuk halaman pertama
+     */
+    public TransactionPage getTransactionsPage(TransactionFilter filter, TransactionPage.Key after, int pageSize) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        
+        List<String> args = new ArrayList<>();
+        String sql = buildTransactionPageQuery(filter, after, args);
+        // Ambil satu baris lebih untuk tahu apakah masih ada halaman berikutnya
+        args.add(String.valueOf(pageSize + 1));
+        
+        List<Transaction> items;
+        Cursor cursor = db.rawQuery(sql, args.toArray(new String[0]));
+        try {
+            items = new TransactionMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
+        
+        TransactionPage.Key nextKey = null;
+        if (items.size() > pageSize) {
+            items = new ArrayList<>(items.subList(0, pageSize));
+            Transaction last = items.get(pageSize - 1);
+            nextKey = new TransactionPage.Key(last.getCreatedAt(), Long.parseLong(last.getId()));
+        }
+        return new TransactionPage(items, nextKey);
+    }
+    
+    /**
+     * Susun query keyset untuk getTransactionsPage; parameter LIMIT ditambahkan pemanggil
+     */
+    static String buildTransactionPageQuery(TransactionFilter filter, TransactionPage.Key after, List<String> args) {
+        StringBuilder where = new StringBuilder();
+        appendFilterConditions(where, filter, args);
+        if (after != null) {
+            // "created_at <= ?" memberi batas range pada index; sisa kondisi hanya menyaring
+            // baris dengan created_at yang sama persis dengan baris terakhir halaman sebelumnya
+            appendCondition(where, KEY_CREATED_AT + " <= ? AND (" + KEY_CREATED_AT + " < ? OR "
+                    + KEY_TRANSACTION_ID + " < ?)");
+            args.add(String.valueOf(after.getCreatedAt()));
+            args.add(String.valueOf(after.getCreatedAt()));
+            args.add(String.valueOf(after.getId()));
+        }
+        
+        return "SELECT " + CursorMapper.select(TransactionMapper.COLUMNS) + " FROM " + TABLE_TRANSACTIONS
+                + where
+                + " ORDER BY " + KEY_CREATED_AT + " DESC, " + KEY_TRANSACTION_ID + " DESC LIMIT ?";
+    }
+    
+    /**
+     * Ringkasan riwayat dengan filter yang sama seperti getTransactionsPage, dihitung dengan
+     * satu query agregat atas semua baris yang cocok (bukan hanya halaman yang sudah dimuat)
+     */
+    public TransactionSummary getTransactionSummary(TransactionFilter filter) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        
+        List<String> args = new ArrayList<>();
+        StringBuilder where = new StringBuilder();
+        appendFilterConditions(where, filter, args);
+        args.add(0, toDatabaseStatus("COMPLETED"));
+        
+        Cursor cursor = db.rawQuery("SELECT COUNT(*), IFNULL(SUM(CASE WHEN " + KEY_STATUS + " = ? THEN "
+                + KEY_TOTAL_AMOUNT + " ELSE 0 END), 0) FROM " + TABLE_TRANSACTIONS + where,
+                args.toArray(new String[0]));
+        try {
+            cursor.moveToFirst();
+            return new TransactionSummary(cursor.getInt(0), cursor.getLong(1));
+        } finally {
+            cursor.close();
         }
+    }
+    
+    private static void appendFilterConditions(StringBuilder where, TransactionFilter filter, List<String> args) {
+        if (filter != null) {
+            if (filter.getCashierId() != null) {
+                appendCondition(where, KEY_CASHIER_ID + " = ?");
+                args.add(String.valueOf(filter.getCashierId()));
+            }
+            if (filter.getStatus() != null) {
+                appendCondition(where, KEY_STATUS + " = ?");
+                args.add(toDatabaseStatus(filter.getStatus()));
+            }
+            if (filter.getPaymentMethod() != null) {
+                appendCondition(where, KEY_PAYMENT_METHOD + " = ?");
+                args.add(toDatabasePaymentMethod(filter.getPaymentMethod()));
+            }
+            if (filter.getCreatedFrom() != null) {
+                appendCondition(where, KEY_CREATED_AT + " >= ?");
+                args.add(String.valueOf(filter.getCreatedFrom()));
+            }
+            if (filter.getCreatedUntil() != null) {
+                appendCondition(where, KEY_CREATED_AT + " < ?");
+                args.add(String.valueOf(filter.getCreatedUntil()));
+            }
+        }
+    }
+    
+    private static void appendCondition(StringBuilder where, String condition) {
+        where.append(where.length() == 0 ? " WHERE " : " AND ").append(condition);
+    }
+    
+    /**
+     * Get item-item dari satu transaksi
+     */
+    public List<CartItem> getTransactionItems(String transactionId) {
+        SQLiteDatabase db = this.getReadableDatabase();
         
-        cursor.close();
-        db.close();
-        return transactions;
+        Cursor cursor = db.rawQuery(QUERY_ITEMS_BY_TRANSACTION, new String[]{transactionId});
+        try {
+            return new CartItemMapper(cursor).mapAll();
+        } finally {
+            cursor.close();
+        }
     }
     
     /**
-     * Insert new transaction
+     * Insert transaksi beserta semua item keranjangnya dalam satu transaksi SQLite
+     * Statement INSERT dikompilasi sekali dan dipakai ulang untuk setiap checkout.
+     * Stok setiap produk dikurangi di transaksi yang sama; jika stok tidak cukup,
+     * seluruh checkout dibatalkan dan InsufficientStockException dilempar.
      */
-    public boolean insertTransaction(Transaction transaction) {
+    public synchronized boolean insertTransaction(Transaction transaction) {
         SQLiteDatabase db = this.getWritableDatabase();
+        // Non-exclusive: pembaca tetap jalan selama checkout ditulis (WAL)
+        // Di luar try: jika gagal (database terkunci koneksi lain), tidak ada yang perlu diakhiri
+        db.beginTransactionNonExclusive();
         
         try {
-            db.beginTransaction();
+            // Insert transaction header
+            SQLiteStatement header = getInsertTransactionStatement(db);
+            header.clearBindings();
+            bindStringOrNull(header, 1, transaction.getTransactionNumber());
+            header.bindLong(2, transaction.getCashierId());
+            long createdAt = transaction.getCreatedAt() > 0 ? transaction.getCreatedAt() : System.currentTimeMillis();
+            header.bindLong(3, transaction.getSubtotal());
+            header.bindLong(4, transaction.getTaxAmount());
+            header.bindLong(5, transaction.getTotalAmount());
+            bindStringOrNull(header, 6, toDatabasePaymentMethod(transaction.getPaymentMethod()));
+            header.bindLong(7, transaction.getPaymentAmount());
+            header.bindLong(8, Math.max(0, transaction.getChangeAmount()));
+            bindStringOrNull(header, 9, toDatabaseStatus(transaction.getStatus()));
+            bindStringOrNull(header, 10, transaction.getNotes());
+            header.bindLong(11, createdAt);
             
-            // Insert transaction
-            ContentValues values = new ContentValues();
-            values.put(KEY_TRANSACTION_NUMBER, transaction.getTransactionNumber());
-            values.put(KEY_CASHIER_ID, transaction.getCashierId());
-            values.put(KEY_SUBTOTAL, transaction.getSubtotal());
-            values.put(KEY_TAX_AMOUNT, transaction.getTaxAmount());
-            values.put(KEY_TOTAL_AMOUNT, transaction.getTotalAmount());
-            values.put(KEY_PAYMENT_METHOD, transaction.getPaymentMethod());
-            values.put(KEY_PAYMENT_AMOUNT, transaction.getPaymentAmount());
-            values.put(KEY_CHANGE_AMOUNT, transaction.getChangeAmount());
-            values.put(KEY_STATUS, transaction.getStatus());
-            values.put(KEY_NOTES, transaction.getNotes());
-            values.put(KEY_CREATED_AT, transaction.getCreatedAt());
+            long transactionId = header.executeInsert();
+            if (transactionId == -1) {
+                return false;
+            }
             
-            long transactionId = db.insert(TABLE_TRANSACTIONS, null, values);
+            // Insert semua item dengan statement yang sama, cukup bind ulang per baris
+            List<CartItem> items = transaction.getItems();
+            if (items != null) {
+                SQLiteStatement itemInsert = getInsertItemStatement(db);
+                for (CartItem item : items) {
+                    Product product = item.getProduct();
+                    itemInsert.clearBindings();
+                    itemInsert.bindLong(1, transactionId);
+                    bindProductId(itemInsert, 2, product.getId());
+                    bindStringOrNull(itemInsert, 3, product.getName());
+                    itemInsert.bindLong(4, item.getQuantity());
+                    itemInsert.bindLong(5, product.getPrice());
+                    itemInsert.bindLong(6, item.getSubtotal());
+                    bindStringOrNull(itemInsert, 7, item.getNotes());
+                    
+                    if (itemInsert.executeInsert() == -1) {
+                        return false;
+                    }
+                    
+                    decrementStock(db, product, item.getQuantity());
+                }
+            }
             
-            if (transactionId != -1) {
-                db.setTransactionSuccessful();
-                return true;
+            // Antre untuk dikirim ke server; commit bersama transaksi, jadi tidak ada
+            // penjualan yang tersimpan tanpa entri outbox (atau sebaliknya)
+            SQLiteStatement outboxInsert = getInsertOutboxStatement(db);
+            outboxInsert.clearBindings();
+            outboxInsert.bindString(1, OutboxEntry.KIND_TRANSACTION);
+            bindStringOrNull(outboxInsert, 2, transaction.getTransactionNumber());
+            outboxInsert.bindString(3, TransactionSyncPayload.toJson(transaction, createdAt));
+            outboxInsert.bindLong(4, createdAt);
+            if (outboxInsert.executeInsert() == -1) {
+                return false;
             }
             
+            db.setTransactionSuccessful();
+            transaction.setId((int) transactionId);
+            transaction.setCreatedAt(createdAt);
+            return true;
+            
+        } catch (InsufficientStockException e) {
+            Log.w(TAG, e.getMessage());
+            throw e;
         } catch (Exception e) {
             Log.e(TAG, "Error inserting transaction: " + e.getMessage());
         } finally {
             db.endTransaction();
-            db.close();
         }
         
         return false;
     }
+    
+    /**
+     * Ambil entri outbox tertua yang masih menunggu, urut sesuai waktu antre
+     */
+    public List<OutboxEntry> getPendingOutbox(int limit) {
+        SQLiteDatabase db = this.getReadableDatabase();
+        List<OutboxEntry> entries = new ArrayList<>();
+        
+        Cursor cursor = db.rawQuery("SELECT id, kind, dedup_key, payload, attempts FROM outbox"
+                + " WHERE dead = 0 ORDER BY id LIMIT ?", new String[]{String.valueOf(limit)});
+        try {
+            while (cursor.moveToNext()) {
+                entries.add(new OutboxEntry(cursor.getLong(0), cursor.getString(1),
+                        cursor.getString(2), cursor.getString(3), cursor.getInt(4)));
+            }
+        } finally {
+            cursor.close();
+        }
+        return entries;
+    }
+    
+    /**
+     * Jumlah entri outbox yang belum terkirim
+     */
+    public long getPendingOutboxCount() {
+        return DatabaseUtils.queryNumEntries(getReadableDatabase(), "outbox", "dead = 0");
+    }
+    
+    /**
+     * Hapus entri yang sudah diterima server
+     */
+    public void deleteOutboxEntries(List<OutboxEntry> entries) {
+        updateOutbox(entries, "DELETE FROM outbox WHERE id = ?", null);
+    }
+    
+    /**
+     * Catat kegagalan kirim. Entri dengan dead = true tidak diambil lagi oleh
+     * getPendingOutbox (ditolak permanen oleh server) tetapi tetap disimpan untuk diperiksa.
+     */
+    public void recordOutboxFailure(List<OutboxEntry> entries, String error, boolean dead) {
+        updateOutbox(entries, "UPDATE outbox SET attempts = attempts + 1, last_error = ?, dead = "
+                + (dead ? 1 : 0) + " WHERE id = ?", String.valueOf(error));
+    }
+    
+    /**
+     * Antrekan ulang semua entri dead; urutan kirim tetap mengikuti id
+     *
+     * @return jumlah entri yang diantrekan ulang
+     */
+    public int requeueDeadOutbox() {
+        ContentValues values = new ContentValues();
+        values.put("dead", 0);
+        return getWritableDatabase().update("outbox", values, "dead = 1", null);
+    }
+    
+    private void updateOutbox(List<OutboxEntry> entries, String sql, String error) {
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(sql);
+        db.beginTransactionNonExclusive();
+        try {
+            for (OutboxEntry entry : entries) {
+                statement.clearBindings();
+                int index = 1;
+                if (error != null) {
+                    statement.bindString(index++, error);
+                }
+                statement.bindLong(index, entry.getId());
+                statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+    }
+    
+    /**
+     * ID terminal perangkat ini, dibuat sekali lalu disimpan di app_settings.
+     * Menjadi bagian dari nomor transaksi agar nomor dari terminal berbeda tidak bentrok.
+     */
+    public synchronized String getTerminalId() {
+        SQLiteDatabase db = getWritableDatabase();
+        String terminalId;
+        try {
+            terminalId = DatabaseUtils.stringForQuery(db,
+                    "SELECT value FROM app_settings WHERE key = ?", new String[]{SETTING_TERMINAL_ID});
+        } catch (SQLiteDoneException e) {
+            terminalId = UUID.randomUUID().toString().replace("-", "")
+                    .substring(0, 6).toUpperCase(Locale.US);
+            ContentValues values = new ContentValues();
+            values.put("key", SETTING_TERMINAL_ID);
+            values.put("value", terminalId);
+            db.insertOrThrow("app_settings", null, values);
+            Log.d(TAG, "Generated terminal id " + terminalId);
+        }
+        return terminalId;
+    }
+    
+    /**
+     * Allocator nomor transaksi untuk terminal ini (dibuat saat pertama dipakai)
+     */
+    public synchronized TransactionNumberAllocator getTransactionNumberAllocator() {
+        if (transactionNumberAllocator == null) {
+            transactionNumberAllocator = new TransactionNumberAllocator(new SQLiteBlockStore(this), getTerminalId());
+        }
+        return transactionNumberAllocator;
+    }
+    
+    @Override
+    public synchronized void close() {
+        // Statement terikat ke koneksi lama, jadi ikut dibuang saat database ditutup
+        if (insertTransactionStatement != null) {
+            insertTransactionStatement.close();
+            insertTransactionStatement = null;
+        }
+        if (insertItemStatement != null) {
+            insertItemStatement.close();
+            insertItemStatement = null;
+        }
+        if (decrementStockStatement != null) {
+            decrementStockStatement.close();
+            decrementStockStatement = null;
+        }
+        if (insertOutboxStatement != null) {
+            insertOutboxStatement.close();
+            insertOutboxStatement = null;
+        }
+        // SQLiteBlockStore juga menyimpan statement; blok berikutnya memakai koneksi baru
+        transactionNumberAllocator = null;
+        super.close();
+    }
+    
+    /**
+     * Kurangi stok secara kondisional: UPDATE hanya berhasil jika stok masih cukup,
+     * sehingga dua checkout bersamaan tidak bisa menjual melebihi stok
+     */
+    private void decrementStock(SQLiteDatabase db, Product product, int quantity) {
+        long productId;
+        try {
+            productId = Long.parseLong(product.getId());
+        } catch (NumberFormatException | NullPointerException e) {
+            // Produk tanpa id numerik tidak dilacak stoknya di database lokal
+            return;
+        }
+        
+        SQLiteStatement decrement = getDecrementStockStatement(db);
+        decrement.clearBindings();
+        decrement.bindLong(1, quantity);
+        decrement.bindLong(2, productId);
+        decrement.bindLong(3, quantity);
+        if (decrement.executeUpdateDelete() == 1) {
+            return;
+        }
+        
+        // Tidak ada baris yang berubah: produk tidak ada di katalog lokal atau stok kurang
+        long available = DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX(" + KEY_STOCK + "), -1) FROM "
+                + TABLE_PRODUCTS + " WHERE " + KEY_PRODUCT_ID + " = ?", new String[]{String.valueOf(productId)});
+        if (available >= 0) {
+            throw new InsufficientStockException(product.getName(), quantity, (int) available);
+        }
+    }
+    
+    private SQLiteStatement getDecrementStockStatement(SQLiteDatabase db) {
+        if (decrementStockStatement == null) {
+            decrementStockStatement = db.compileStatement("UPDATE " + TABLE_PRODUCTS
+                    + " SET " + KEY_STOCK + " = " + KEY_STOCK + " - ?"
+                    + " WHERE " + KEY_PRODUCT_ID + " = ? AND " + KEY_STOCK + " >= ?");
+        }
+        return decrementStockStatement;
+    }
+    
+    private SQLiteStatement getInsertOutboxStatement(SQLiteDatabase db) {
+        if (insertOutboxStatement == null) {
+            insertOutboxStatement = db.compileStatement("INSERT INTO outbox (kind, dedup_key, payload, created_at)"
+                    + " VALUES (?, ?, ?, ?)");
+        }
+        return insertOutboxStatement;
+    }
+    
+    private SQLiteStatement getInsertTransactionStatement(SQLiteDatabase db) {
+        if (insertTransactionStatement == null) {
+            insertTransactionStatement = db.compileStatement("INSERT INTO " + TABLE_TRANSACTIONS + " ("
+                    + KEY_TRANSACTION_NUMBER + ", " + KEY_CASHIER_ID + ", " + KEY_SUBTOTAL + ", "
+                    + KEY_TAX_AMOUNT + ", " + KEY_TOTAL_AMOUNT + ", " + KEY_PAYMENT_METHOD + ", "
+                    + KEY_PAYMENT_AMOUNT + ", " + KEY_CHANGE_AMOUNT + ", " + KEY_STATUS + ", "
+                    + KEY_NOTES + ", " + KEY_CREATED_AT + ")"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        }
+        return insertTransactionStatement;
+    }
+    
+    private SQLiteStatement getInsertItemStatement(SQLiteDatabase db) {
+        if (insertItemStatement == null) {
+            insertItemStatement = db.compileStatement("INSERT INTO " + TABLE_TRANSACTION_ITEMS + " ("
+                    + KEY_ITEM_TRANSACTION_ID + ", " + KEY_ITEM_PRODUCT_ID + ", " + KEY_ITEM_PRODUCT_NAME + ", "
+                    + KEY_QUANTITY + ", " + KEY_UNIT_PRICE + ", " + KEY_ITEM_SUBTOTAL + ", " + KEY_ITEM_NOTES + ")"
+                    + " VALUES (?, ?, ?, ?, ?, ?, ?)");
+        }
+        return insertItemStatement;
+    }
+    
+    private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+    
+    private static void bindProductId(SQLiteStatement statement, int index, String productId) {
+        try {
+            statement.bindLong(index, Long.parseLong(productId));
+        } catch (NumberFormatException | NullPointerException e) {
+            // Produk contoh/offline tanpa id numerik tetap disimpan tanpa relasi
+            statement.bindNull(index);
+        }
+    }
+    
+    /**
+     * Samakan kode metode pembayaran dari PaymentDialog dengan CHECK di tabel transaksi
+     */
+    static String toDatabasePaymentMethod(String paymentMethod) {
+        if (paymentMethod == null) {
+            return null;
+        }
+        switch (paymentMethod) {
+            case "CASH":
+                return "Tunai";
+            case "CARD":
+                return "Kartu Debit";
+            case "DIGITAL_WALLET":
+                return "E-Wallet";
+            default:
+                return paymentMethod;
+        }
+    }
+    
+    /**
+     * Status di model ditulis huruf besar ("COMPLETED"), sedangkan CHECK memakai huruf kecil
+     */
+    static String toDatabaseStatus(String status) {
+        return status != null ? status.toLowerCase(Locale.ROOT) : "completed";
+    }
 }
@@ -0,0 +1,231 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Daftar semua langkah migrasi schema lokal, berurutan menurut versi
+ * Versi 1 adalah schema awal yang dibuat oleh DatabaseHelper.createBaselineSchema.
+ * Untuk mengubah schema: tambahkan Migration baru di sini dan naikkan
+ * DatabaseHelper.DATABASE_VERSION. Jangan mengubah langkah yang sudah dirilis.
+ */
+final class DatabaseMigrations {
+    
+    // Index yang mengikuti pola akses aplikasi (riwayat, filter kasir, laporan, detail item)
+    static final String CREATE_INDEX_TRANSACTIONS_CREATED_AT =
+            "CREATE INDEX IF NOT EXISTS idx_transactions_created_at ON transactions(created_at, id)";
+    static final String CREATE_INDEX_TRANSACTIONS_CASHIER =
+            "CREATE INDEX IF NOT EXISTS idx_transactions_cashier_created ON transactions(cashier_id, created_at, id)";
+    static final String CREATE_INDEX_ITEMS_TRANSACTION =
+            "CREATE INDEX IF NOT EXISTS idx_transaction_items_transaction ON transaction_items(transaction_id)";
+    static final String CREATE_INDEX_ITEMS_PRODUCT =
+            "CREATE INDEX IF NOT EXISTS idx_transaction_items_product ON transaction_items(product_id)";
+    
+    // Waktu sekarang dalam epoch milidetik, untuk DEFAULT kolom created_at
+    static final String NOW_MILLIS = "(CAST((julianday('now') - 2440587.5) * 86400000 AS INTEGER))";
+
+    private DatabaseMigrations() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Ekspresi SQL: DATETIME teks lama -> epoch milidetik (NULL/tidak valid -> sekarang)
+     */
+    static String toMillis(String column) {
+        return "COALESCE(CAST((julianday(" + column + ") - 2440587.5) * 86400000 AS INTEGER), " + NOW_MILLIS + ")";
+    }
+    
+    /**
+     * Ekspresi SQL: nilai REAL lama -> rupiah penuh
+     */
+    static String toRupiah(String column) {
+        return "CAST(ROUND(" + column + ") AS INTEGER)";
+    }
+    
+    /**
+     * Buat products_fts (FTS4 external content di atas products) beserta trigger sinkronisasinya.
+     * unicode61 melipat huruf besar/kecil dan diakritik ("cafe" cocok dengan "Café"),
+     * prefix index 2/3 huruf mempercepat pencarian sambil mengetik.
+     * Trigger hanya bereaksi pada kolom yang diindeks, jadi UPDATE stok saat checkout
+     * tidak menyentuh index. Jika tabel products dibangun ulang, panggil lagi method ini.
+     */
+    static void createProductSearchIndex(SQLiteDatabase db) {
+        db.execSQL("DROP TABLE IF EXISTS products_fts");
+        db.execSQL("CREATE VIRTUAL TABLE products_fts USING fts4("
+                + "content=\"products\", name, description, category,"
+                + " prefix=\"2,3\", tokenize=unicode61 \"remove_diacritics=1\")");
+        
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_bu BEFORE UPDATE OF name, description, category"
+                + " ON products BEGIN DELETE FROM products_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_bd BEFORE DELETE"
+                + " ON products BEGIN DELETE FROM products_fts WHERE docid = old.id; END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_au AFTER UPDATE OF name, description, category"
+                + " ON products BEGIN INSERT INTO products_fts(docid, name, description, category)"
+                + " VALUES (new.id, new.name, new.description, new.category); END");
+        db.execSQL("CREATE TRIGGER IF NOT EXISTS products_fts_ai AFTER INSERT"
+                + " ON products BEGIN INSERT INTO products_fts(docid, name, description, category)"
+                + " VALUES (new.id, new.name, new.description, new.category); END");
+        
+        // Isi index dari data produk yang sudah ada
+        db.execSQL("INSERT INTO products_fts(products_fts) VALUES ('rebuild')");
+    }
+    
+    static List<Migration> all() {
+        List<Migration> migrations = new ArrayList<>();
+
+        // v2: kolom updated_at di produk, sama seperti schema Supabase
+        migrations.add(new Migration(2, "add products.updated_at") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                db.execSQL("ALTER TABLE products ADD COLUMN updated_at DATETIME");
+                db.execSQL("UPDATE products SET updated_at = created_at");
+            }
+        });
+
+        // v3: index sekunder untuk transaksi dan item transaksi
+        migrations.add(new Migration(3, "secondary indexes for transactions and items") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                db.execSQL(CREATE_INDEX_TRANSACTIONS_CREATED_AT);
+                db.execSQL(CREATE_INDEX_TRANSACTIONS_CASHIER);
+                db.execSQL(CREATE_INDEX_ITEMS_TRANSACTION);
+                db.execSQL(CREATE_INDEX_ITEMS_PRODUCT);
+                db.execSQL("ANALYZE");
+            }
+        });
+        
+        // v4: created_at sebagai epoch milidetik (INTEGER) dan uang sebagai rupiah penuh (INTEGER)
+        migrations.add(new Migration(4, "epoch-millis timestamps and integer rupiah amounts") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                rebuildTable(db, "users",
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                + "username TEXT UNIQUE NOT NULL,"
+                                + "password TEXT NOT NULL,"
+                                + "full_name TEXT NOT NULL,"
+                                + "role TEXT NOT NULL CHECK(role IN ('staff', 'manager')),"
+                                + "is_active INTEGER DEFAULT 1,"
+                                + "created_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS,
+                        "id, username, password, full_name, role, is_active, created_at",
+                        "id, username, password, full_name, role, is_active, " + toMillis("created_at"));
+                
+                rebuildTable(db, "products",
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                + "name TEXT NOT NULL,"
+                                + "category TEXT NOT NULL CHECK(category IN ('Kopi', 'Makanan', 'Minuman', 'Lainnya')),"
+                                + "price INTEGER NOT NULL CHECK(price > 0),"
+                                + "stock INTEGER DEFAULT 0 CHECK(stock >= 0),"
+                                + "is_available INTEGER DEFAULT 1,"
+                                + "image_url TEXT,"
+                                + "description TEXT,"
+                                + "created_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS + ","
+                                + "updated_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS,
+                        "id, name, category, price, stock, is_available, image_url, description, created_at, updated_at",
+                        "id, name, category, " + toRupiah("price") + ", stock, is_available, image_url, description, "
+                                + toMillis("created_at") + ", " + toMillis("COALESCE(updated_at, created_at)"));
+                
+                rebuildTable(db, "transactions",
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                + "transaction_number TEXT UNIQUE NOT NULL,"
+                                + "cashier_id INTEGER,"
+                                + "subtotal INTEGER NOT NULL CHECK(subtotal >= 0),"
+                                + "tax_amount INTEGER NOT NULL CHECK(tax_amount >= 0),"
+                                + "total_amount INTEGER NOT NULL CHECK(total_amount >= 0),"
+                                + "payment_method TEXT NOT NULL CHECK(payment_method IN ('Tunai', 'Kartu Debit', 'Kartu Kredit', 'E-Wallet')),"
+                                + "payment_amount INTEGER NOT NULL CHECK(payment_amount >= 0),"
+                                + "change_amount INTEGER DEFAULT 0 CHECK(change_amount >= 0),"
+                                + "status TEXT DEFAULT 'completed' CHECK(status IN ('pending', 'completed', 'cancelled')),"
+                                + "notes TEXT,"
+                                + "created_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS + ","
+                                + "FOREIGN KEY(cashier_id) REFERENCES users(id)",
+                        "id, transaction_number, cashier_id, subtotal, tax_amount, total_amount, payment_method,"
+                                + " payment_amount, change_amount, status, notes, created_at",
+                        "id, transaction_number, cashier_id, " + toRupiah("subtotal") + ", " + toRupiah("tax_amount") + ", "
+                                + toRupiah("total_amount") + ", payment_method, " + toRupiah("payment_amount") + ", "
+                                + toRupiah("change_amount") + ", status, notes, " + toMillis("created_at"));
+                
+                rebuildTable(db, "transaction_items",
+                        "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                                + "transaction_id INTEGER,"
+                                + "product_id INTEGER,"
+                                + "product_name TEXT NOT NULL,"
+                                + "quantity INTEGER NOT NULL CHECK(quantity > 0),"
+                                + "unit_price INTEGER NOT NULL CHECK(unit_price > 0),"
+                                + "subtotal INTEGER NOT NULL CHECK(subtotal > 0),"
+                                + "notes TEXT,"
+                                + "FOREIGN KEY(transaction_id) REFERENCES transactions(id) ON DELETE CASCADE,"
+                                + "FOREIGN KEY(product_id) REFERENCES products(id)",
+                        "id, transaction_id, product_id, product_name, quantity, unit_price, subtotal, notes",
+                        "id, transaction_id, product_id, product_name, quantity, " + toRupiah("unit_price") + ", "
+                                + toRupiah("subtotal") + ", notes");
+                
+                // Index ikut terhapus bersama tabel lama
+                db.execSQL(CREATE_INDEX_TRANSACTIONS_CREATED_AT);
+                db.execSQL(CREATE_INDEX_TRANSACTIONS_CASHIER);
+                db.execSQL(CREATE_INDEX_ITEMS_TRANSACTION);
+                db.execSQL(CREATE_INDEX_ITEMS_PRODUCT);
+                db.execSQL("ANALYZE");
+            }
+        });
+        
+        // v5: pengaturan lokal (ID terminal) dan blok nomor transaksi per terminal per hari
+        migrations.add(new Migration(5, "app settings and transaction number blocks") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS app_settings ("
+                        + "key TEXT PRIMARY KEY,"
+                        + "value TEXT NOT NULL)");
+                db.execSQL("CREATE TABLE IF NOT EXISTS transaction_number_blocks ("
+                        + "terminal_id TEXT NOT NULL,"
+                        + "day TEXT NOT NULL,"
+                        + "next_start INTEGER NOT NULL,"
+                        + "PRIMARY KEY (terminal_id, day))");
+            }
+        });
+        
+        // v6: full-text index produk untuk pencarian lokal di POS
+        migrations.add(new Migration(6, "products_fts full-text index") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                createProductSearchIndex(db);
+                // Daftar produk tanpa kata kunci: filter kategori dan urutan nama dari index
+                db.execSQL("CREATE INDEX IF NOT EXISTS idx_products_category_name ON products(category, name)");
+                db.execSQL("CREATE INDEX IF NOT EXISTS idx_products_name ON products(name)");
+            }
+        });
+        
+        // v7: outbox untuk perubahan yang belum terkirim ke Supabase (dikuras berurutan menurut id)
+        migrations.add(new Migration(7, "sync outbox") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS outbox ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT,"
+                        + "kind TEXT NOT NULL,"
+                        + "dedup_key TEXT NOT NULL,"
+                        + "payload TEXT NOT NULL,"
+                        + "created_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS + ","
+                        + "attempts INTEGER NOT NULL DEFAULT 0,"
+                        + "last_error TEXT,"
+                        + "dead INTEGER NOT NULL DEFAULT 0,"
+                        + "UNIQUE (kind, dedup_key))");
+                db.execSQL("CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox(dead, id)");
+            }
+        });
+        
+        // v8: watermark sinkronisasi per tabel (updated_at + id baris terakhir yang sudah diterapkan)
+        migrations.add(new Migration(8, "sync watermarks") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+                db.execSQL("CREATE TABLE IF NOT EXISTS sync_state ("
+                        + "table_name TEXT PRIMARY KEY,"
+                        + "last_updated_at TEXT NOT NULL,"
+                        + "last_id INTEGER NOT NULL,"
+                        + "synced_at INTEGER NOT NULL DEFAULT " + NOW_MILLIS + ")");
+            }
+        });
+        
+        return migrations;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.essycoff_cashier.database;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BlockStore tanpa persistensi, untuk test dan benchmark
+ */
+public class InMemoryBlockStore implements BlockStore {
+    private final ConcurrentHashMap<String, AtomicLong> nextStart = new ConcurrentHashMap<>();
+
+    @Override
+    public long reserve(String terminalId, String day, int blockSize) {
+        AtomicLong counter = nextStart.computeIfAbsent(terminalId + "|" + day, key -> new AtomicLong(1));
+        return counter.getAndAdd(blockSize);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.essycoff_cashier.database;
+
+import com.example.essycoff_cashier.config.AppConfig;
+
+/**
+ * Dilempar saat checkout akan menjual produk melebihi stok yang tersisa
+ * Seluruh transaksi SQLite checkout sudah di-rollback saat exception ini diterima.
+ */
+public class InsufficientStockException extends RuntimeException {
+    private final String productName;
+    private final int requested;
+    private final int available;
+
+    public InsufficientStockException(String productName, int requested, int available) {
+        super(AppConfig.ERROR_INSUFFICIENT_STOCK + ": " + productName
+                + " (diminta " + requested + ", tersisa " + available + ")");
+        this.productName = productName;
+        this.requested = requested;
+        this.available = available;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public int getRequested() {
+        return requested;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Satu langkah migrasi schema SQLite lokal
+ * Setiap langkah membawa database dari versi (targetVersion - 1) ke targetVersion
+ * tanpa menghapus data yang sudah ada
+ */
+public abstract class Migration {
+    private final int targetVersion;
+    private final String description;
+
+    protected Migration(int targetVersion, String description) {
+        this.targetVersion = targetVersion;
+        this.description = description;
+    }
+
+    public int getTargetVersion() {
+        return targetVersion;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * Jalankan perubahan schema. Dipanggil di dalam transaksi oleh MigrationRunner,
+     * jadi method ini tidak boleh membuka/menutup transaksi sendiri.
+     */
+    public abstract void migrate(SQLiteDatabase db);
+
+    /**
+     * Bangun ulang tabel dengan definisi kolom baru sambil menyalin datanya.
+     * SQLite tidak mendukung ALTER COLUMN, jadi pola yang dipakai adalah:
+     * buat tabel baru, salin data, hapus tabel lama, lalu rename.
+     * Index milik tabel lama ikut terhapus dan harus dibuat ulang oleh pemanggil.
+     *
+     * @param columnDefinitions isi CREATE TABLE (kolom dan constraint) untuk tabel baru
+     * @param targetColumns     kolom tabel baru yang diisi, dipisah koma
+     * @param sourceExpressions ekspresi SELECT dari tabel lama untuk setiap kolom target
+     */
+    protected static void rebuildTable(SQLiteDatabase db, String table, String columnDefinitions,
+                                       String targetColumns, String sourceExpressions) {
+        String tempTable = table + "__new";
+        db.execSQL("DROP TABLE IF EXISTS " + tempTable);
+        db.execSQL("CREATE TABLE " + tempTable + "(" + columnDefinitions + ")");
+        db.execSQL("INSERT INTO " + tempTable + " (" + targetColumns + ") SELECT "
+                + sourceExpressions + " FROM " + table);
+        db.execSQL("DROP TABLE " + table);
+        db.execSQL("ALTER TABLE " + tempTable + " RENAME TO " + table);
+    }
+
+    @Override
+    public String toString() {
+        return "Migration{v" + targetVersion + ": " + description + '}';
+    }
+}
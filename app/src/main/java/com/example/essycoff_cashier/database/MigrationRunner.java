@@ -0,0 +1,80 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Menjalankan daftar Migration secara berurutan dari satu versi ke versi lain
+ * Setiap langkah berjalan di dalam transaksinya sendiri; jika satu langkah gagal,
+ * exception diteruskan sehingga SQLiteOpenHelper me-rollback seluruh upgrade
+ * dan database tetap di versi lamanya.
+ */
+public class MigrationRunner {
+    private static final String TAG = "MigrationRunner";
+
+    private final List<Migration> migrations;
+
+    public MigrationRunner(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        Collections.sort(sorted, (a, b) -> Integer.compare(a.getTargetVersion(), b.getTargetVersion()));
+
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).getTargetVersion() != sorted.get(i - 1).getTargetVersion() + 1) {
+                throw new IllegalArgumentException("Migration versions must be contiguous: " + sorted);
+            }
+        }
+        this.migrations = Collections.unmodifiableList(sorted);
+    }
+
+    public List<Migration> getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * Jalankan semua langkah dengan fromVersion < targetVersion <= toVersion
+     *
+     * @return durasi setiap langkah dalam milidetik, dikunci dengan versi target
+     */
+    public Map<Integer, Long> migrate(SQLiteDatabase db, int fromVersion, int toVersion) {
+        Map<Integer, Long> timings = new LinkedHashMap<>();
+        int current = fromVersion;
+
+        for (Migration migration : migrations) {
+            int target = migration.getTargetVersion();
+            if (target <= fromVersion || target > toVersion) {
+                continue;
+            }
+            if (target != current + 1) {
+                throw new IllegalStateException("Missing migration from v" + current + " to v" + target);
+            }
+
+            long start = System.nanoTime();
+            db.beginTransaction();
+            try {
+                migration.migrate(db);
+                db.setTransactionSuccessful();
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Migration to v" + target + " failed: " + e.getMessage(), e);
+                throw e;
+            } finally {
+                db.endTransaction();
+            }
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000L;
+            timings.put(target, elapsedMs);
+            Log.i(TAG, "Migrated to v" + target + " (" + migration.getDescription() + ") in " + elapsedMs + " ms");
+            current = target;
+        }
+
+        if (current != toVersion) {
+            throw new IllegalStateException("No migration path from v" + current + " to v" + toVersion);
+        }
+        return timings;
+    }
+}
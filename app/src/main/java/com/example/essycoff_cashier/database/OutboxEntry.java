@@ -0,0 +1,48 @@
+package com.example.essycoff_cashier.database;
+
+/**
+ * Satu baris tabel outbox: perubahan lokal yang menunggu dikirim ke Supabase
+ */
+public class OutboxEntry {
+    public static final String KIND_TRANSACTION = "transaction";
+
+    private final long id;
+    private final String kind;
+    private final String dedupKey;
+    private final String payload;
+    private final int attempts;
+
+    public OutboxEntry(long id, String kind, String dedupKey, String payload, int attempts) {
+        this.id = id;
+        this.kind = kind;
+        this.dedupKey = dedupKey;
+        this.payload = payload;
+        this.attempts = attempts;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Kunci idempotensi di server, untuk transaksi berupa transaction_number
+     */
+    public String getDedupKey() {
+        return dedupKey;
+    }
+
+    /**
+     * JSON yang dikirim apa adanya ke server
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
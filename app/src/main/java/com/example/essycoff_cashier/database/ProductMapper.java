@@ -0,0 +1,52 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+
+import com.example.essycoff_cashier.models.Product;
+
+/**
+ * Pemetaan baris tabel products ke model Product
+ */
+public class ProductMapper extends CursorMapper<Product> {
+    public static final String[] COLUMNS = {
+            "id", "name", "category", "price", "stock", "is_available", "image_url", "description"
+    };
+
+    private final int idIndex;
+    private final int nameIndex;
+    private final int categoryIndex;
+    private final int priceIndex;
+    private final int stockIndex;
+    private final int availableIndex;
+    private final int imageUrlIndex;
+    private final int descriptionIndex;
+
+    public ProductMapper(Cursor cursor) {
+        super(cursor);
+        idIndex = index("id");
+        nameIndex = index("name");
+        categoryIndex = index("category");
+        priceIndex = index("price");
+        stockIndex = index("stock");
+        availableIndex = index("is_available");
+        imageUrlIndex = index("image_url");
+        descriptionIndex = index("description");
+    }
+
+    @Override
+    protected Product newRow() {
+        return new Product();
+    }
+
+    @Override
+    protected void fill(Product product) {
+        product.setId(cursor.getInt(idIndex));
+        product.setName(cursor.getString(nameIndex));
+        product.setCategory(cursor.getString(categoryIndex));
+        product.setPrice(cursor.getLong(priceIndex));
+        product.setStock(cursor.getInt(stockIndex));
+        product.setAvailable(cursor.getInt(availableIndex) == 1);
+        product.setImageUrl(getString(imageUrlIndex));
+        product.setDescription(getString(descriptionIndex));
+    }
+}
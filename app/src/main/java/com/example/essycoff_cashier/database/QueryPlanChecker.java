@@ -0,0 +1,102 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pemeriksa rencana eksekusi (EXPLAIN QUERY PLAN) untuk query yang sering dipanggil
+ * Hanya dipakai di build debug dan test: jika query riwayat, laporan, atau detail item
+ * jatuh ke full table scan atau sort sementara, pemeriksaan ini gagal.
+ */
+public final class QueryPlanChecker {
+    private static final String TAG = "QueryPlanChecker";
+
+    private QueryPlanChecker() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Query panas beserta argumen contoh untuk EXPLAIN
+     */
+    static Map<String, Object[]> hotQueries() {
+        Map<String, Object[]> queries = new LinkedHashMap<>();
+        queries.put("history", new Object[]{DatabaseHelper.QUERY_HISTORY, null});
+        queries.put("history_by_cashier", new Object[]{DatabaseHelper.QUERY_HISTORY_BY_CASHIER, new String[]{"1"}});
+        queries.put("history_page", new Object[]{pageQuery(null),
+                new String[]{"1704103200000", "1704103200000", "100", "21"}});
+        queries.put("history_page_by_cashier", new Object[]{pageQuery(new TransactionFilter().setCashierId(1)),
+                new String[]{"1", "1704103200000", "1704103200000", "100", "21"}});
+        queries.put("report_range", new Object[]{DatabaseHelper.QUERY_REPORT_RANGE,
+                new String[]{"1704067200000", "1706745600000"}});
+        queries.put("items_by_transaction", new Object[]{DatabaseHelper.QUERY_ITEMS_BY_TRANSACTION, new String[]{"1"}});
+        return queries;
+    }
+
+    private static String pageQuery(TransactionFilter filter) {
+        return DatabaseHelper.buildTransactionPageQuery(filter,
+                new TransactionPage.Key(1704103200000L, 100), new ArrayList<>());
+    }
+
+    /**
+     * Periksa semua query panas dan lempar exception jika ada yang tidak memakai index
+     */
+    public static void checkHotQueries(SQLiteDatabase db) {
+        List<String> problems = new ArrayList<>();
+        for (Map.Entry<String, Object[]> entry : hotQueries().entrySet()) {
+            String sql = (String) entry.getValue()[0];
+            String[] args = (String[]) entry.getValue()[1];
+            for (String step : findFullScans(db, sql, args)) {
+                problems.add(entry.getKey() + ": " + step);
+            }
+        }
+
+        if (!problems.isEmpty()) {
+            Log.e(TAG, "Hot queries without index: " + problems);
+            throw new IllegalStateException("Hot queries without index: " + problems);
+        }
+    }
+
+    /**
+     * Kembalikan langkah rencana yang berupa full scan atau sort memakai temp b-tree
+     */
+    public static List<String> findFullScans(SQLiteDatabase db, String sql, String[] args) {
+        List<String> fullScans = new ArrayList<>();
+        for (String detail : explain(db, sql, args)) {
+            if (isFullScan(detail)) {
+                fullScans.add(detail);
+            }
+        }
+        return fullScans;
+    }
+
+    static List<String> explain(SQLiteDatabase db, String sql, String[] args) {
+        List<String> details = new ArrayList<>();
+        Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        try {
+            int detailIndex = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                details.add(cursor.getString(detailIndex));
+            }
+        } finally {
+            cursor.close();
+        }
+        return details;
+    }
+
+    static boolean isFullScan(String detail) {
+        if (detail == null) {
+            return false;
+        }
+        // "SCAN transactions" atau "SCAN TABLE transactions" (SQLite lama) tanpa index
+        if (detail.startsWith("SCAN ") && !detail.contains(" USING ")) {
+            return true;
+        }
+        return detail.contains("USE TEMP B-TREE");
+    }
+}
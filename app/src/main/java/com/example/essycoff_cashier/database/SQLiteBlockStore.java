@@ -0,0 +1,49 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * BlockStore di tabel transaction_number_blocks
+ * Batas blok disimpan sebelum nomornya dipakai, jadi setelah aplikasi crash
+ * nomor tidak pernah terulang (sisa blok yang belum terpakai hanya menjadi celah).
+ */
+public class SQLiteBlockStore implements BlockStore {
+    private final DatabaseHelper databaseHelper;
+
+    // Dijaga oleh lock instance
+    private SQLiteStatement selectStatement;
+    private SQLiteStatement upsertStatement;
+
+    public SQLiteBlockStore(DatabaseHelper databaseHelper) {
+        this.databaseHelper = databaseHelper;
+    }
+
+    @Override
+    public synchronized long reserve(String terminalId, String day, int blockSize) {
+        SQLiteDatabase db = databaseHelper.getWritableDatabase();
+        if (selectStatement == null) {
+            selectStatement = db.compileStatement("SELECT COALESCE(MAX(next_start), 1)"
+                    + " FROM transaction_number_blocks WHERE terminal_id = ? AND day = ?");
+            upsertStatement = db.compileStatement("INSERT OR REPLACE INTO transaction_number_blocks"
+                    + " (terminal_id, day, next_start) VALUES (?, ?, ?)");
+        }
+
+        db.beginTransactionNonExclusive();
+        try {
+            selectStatement.bindString(1, terminalId);
+            selectStatement.bindString(2, day);
+            long start = selectStatement.simpleQueryForLong();
+
+            upsertStatement.bindString(1, terminalId);
+            upsertStatement.bindString(2, day);
+            upsertStatement.bindLong(3, start + blockSize);
+            upsertStatement.execute();
+
+            db.setTransactionSuccessful();
+            return start;
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
@@ -2,16 +2,33 @@ package com.example.essycoff_cashier.database;
 
 import android.util.Log;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
 import okhttp3.*;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Source;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import com.example.essycoff_cashier.config.AppConfig;
+import com.example.essycoff_cashier.models.SalesReport;
+import com.example.essycoff_cashier.network.Deadline;
+import com.example.essycoff_cashier.network.HttpClientProvider;
+import com.example.essycoff_cashier.network.ReadCoalescer;
 
 /**
  * Client untuk koneksi ke Supabase Database
@@ -20,24 +37,37 @@ import com.example.essycoff_cashier.config.AppConfig;
 public class SupabaseClient {
     private static final String TAG = "SupabaseClient";
     
-    // Supabase configuration - GANTI DENGAN URL DAN KEY ANDA
-    private static final String SUPABASE_URL = AppConfig.SUPABASE_URL;
-    private static final String SUPABASE_KEY = AppConfig.SUPABASE_ANON_KEY;
+    private static final MediaType JSON = MediaType.get("application/json");
+    
+    // Batas ukuran body per request bulk; PostgREST/nginx umumnya menolak body yang sangat besar
+    static final int MAX_BULK_CHUNK_BYTES = 256 * 1024;
+    
+    static final String SALES_REPORT_FUNCTION = "get_sales_report";
     
     private static SupabaseClient instance;
-    private OkHttpClient httpClient;
-    private Gson gson;
+    private final OkHttpClient httpClient;
+    private final Gson gson;
+    private final Map<Class<?>, TypeAdapter<?>> adapters = new ConcurrentHashMap<>();
+    private final ReadCoalescer<Object> selectReads = new ReadCoalescer<>("select");
+    private final ReadCoalescer<Object> rpcReads = new ReadCoalescer<>("rpc");
+    
+    // Supabase configuration - diambil dari AppConfig
+    private final String baseUrl;
+    private final String apiKey;
     
     private SupabaseClient() {
-        // Inisialisasi HTTP client dengan timeout
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BODY))
-                .build();
-        
-        gson = new Gson();
+        // Transport bersama dengan client Kotlin (pool, dispatcher, timeout, logging)
+        this(HttpClientProvider.get(), AppConfig.SUPABASE_URL, AppConfig.SUPABASE_ANON_KEY);
+    }
+    
+    /**
+     * Client dengan HTTP client dan server sendiri (misalnya MockWebServer di test)
+     */
+    public SupabaseClient(OkHttpClient httpClient, String baseUrl, String apiKey) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.apiKey = apiKey;
+        this.gson = new Gson();
     }
     
     // Singleton pattern untuk memastikan hanya ada satu instance
@@ -50,20 +80,31 @@ public class SupabaseClient {
     
     /**
      * Method untuk membuat request GET ke Supabase
+     * Select identik yang sedang berjalan digabung menjadi satu request; hasilnya tidak disimpan.
+     * List hasil dipakai bersama oleh semua pemanggil yang digabung, jadi tidak bisa diubah.
      */
     public <T> void select(String table, String filter, Class<T> clazz, SupabaseCallback<List<T>> callback) {
-        String url = SUPABASE_URL + "/rest/v1/" + table;
-        if (filter != null && !filter.isEmpty()) {
-            url += "?" + filter;
-        }
-        
-        Request request = new Request.Builder()
-                .url(url)
-                .addHeader("apikey", SUPABASE_KEY)
-                .addHeader("Authorization", "Bearer " + SUPABASE_KEY)
-                .addHeader("Content-Type", "application/json")
-                .get()
-                .build();
+        String key = table + "?" + (filter != null ? filter : "") + "#" + clazz.getName();
+        selectReads.get(key, loaded -> fetchList(table, filter, clazz, loaded), new ReadCoalescer.Callback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onSuccess(Object value) {
+                callback.onSuccess((List<T>) value);
+            }
+            
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+    
+    /**
+     * Request GET yang sebenarnya; response di-decode langsung dari stream body,
+     * tanpa menyalin seluruh body ke String dulu.
+     */
+    private <T> void fetchList(String table, String filter, Class<T> clazz, ReadCoalescer.Callback<Object> callback) {
+        Request request = buildSelectRequest(table, filter);
         
         httpClient.newCall(request).enqueue(new Callback() {
             @Override
@@ -74,36 +115,156 @@ public class SupabaseClient {
             
             @Override
             public void onResponse(Call call, Response response) throws IOException {
-                if (response.isSuccessful()) {
-                    String responseBody = response.body().string();
-                    try {
-                        Type listType = TypeToken.getParameterized(List.class, clazz).getType();
-                        List<T> result = gson.fromJson(responseBody, listType);
-                        callback.onSuccess(result);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Error parsing response", e);
-                        callback.onError("Error parsing response: " + e.getMessage());
+                try (Response r = response) {
+                    if (r.isSuccessful()) {
+                        List<T> result = new ArrayList<>();
+                        try {
+                            readRows(r.body().source(), adapterFor(clazz), result::add);
+                        } catch (JsonParseException | IllegalStateException | IOException e) {
+                            Log.e(TAG, "Error parsing response", e);
+                            callback.onError("Error parsing response: " + e.getMessage());
+                            return;
+                        }
+                        callback.onSuccess(Collections.unmodifiableList(result));
+                    } else {
+                        Log.e(TAG, "HTTP Error: " + r.code() + " - " + r.message());
+                        callback.onError("HTTP Error: " + r.code());
                     }
-                } else {
-                    Log.e(TAG, "HTTP Error: " + response.code() + " - " + response.message());
-                    callback.onError("HTTP Error: " + response.code());
                 }
             }
         });
     }
     
+    /**
+     * Statistik penggabungan select (request yang dijalankan dan yang digabung)
+     */
+    public ReadCoalescer<?> getSelectReads() {
+        return selectReads;
+    }
+    
+    /**
+     * Select tabel ini setelah penulisan tidak ikut request yang dimulai sebelumnya;
+     * dipanggil setelah setiap penulisan
+     */
+    public void invalidateTable(String table) {
+        selectReads.invalidate(table + "?");
+    }
+    
+    /**
+     * GET ke Supabase secara sinkron (blocking); setiap baris diserahkan ke handler
+     * segera setelah di-decode, jadi hasil besar tidak pernah ada utuh di memori.
+     * Hanya untuk background thread, misalnya CatalogSyncer.
+     *
+     * @param query query string PostgREST yang sudah di-encode (tanpa "?")
+     * @return jumlah baris dan byte body yang dibaca
+     * @throws SupabaseException jika server membalas dengan status selain 2xx
+     */
+    public <T> SelectStats selectEach(String table, String query, Class<T> clazz, RowHandler<T> handler)
+            throws IOException {
+        return selectEach(table, query, clazz, handler, null);
+    }
+    
+    /**
+     * selectEach dengan deadline bersama, misalnya untuk semua halaman satu sinkron;
+     * percobaan ulang berhenti begitu deadline habis
+     */
+    public <T> SelectStats selectEach(String table, String query, Class<T> clazz, RowHandler<T> handler,
+                                      Deadline deadline) throws IOException {
+        Request request = buildSelectRequest(table, query);
+        if (deadline != null) {
+            request = request.newBuilder().tag(Deadline.class, deadline).build();
+        }
+        try (Response response = httpClient.newCall(request).execute()) {
+            if (!response.isSuccessful()) {
+                String responseBody = response.body() != null ? response.body().string() : "";
+                Log.e(TAG, "Select " + table + " HTTP Error: " + response.code() + " - " + responseBody);
+                throw new SupabaseException(response.code(), responseBody);
+            }
+            try {
+                return readRows(response.body().source(), adapterFor(clazz), handler);
+            } catch (JsonParseException | IllegalStateException e) {
+                throw new IOException("Error parsing " + table + " response: " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    private Request buildSelectRequest(String table, String query) {
+        String url = baseUrl + "/rest/v1/" + table;
+        if (query != null && !query.isEmpty()) {
+            url += "?" + query;
+        }
+        
+        return new Request.Builder()
+                .url(url)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .get()
+                .build();
+    }
+    
+    /**
+     * Baca JSON array baris demi baris dari body
+     */
+    private <T> SelectStats readRows(BufferedSource body, TypeAdapter<T> adapter, RowHandler<T> handler)
+            throws IOException {
+        CountingSource counting = new CountingSource(body);
+        JsonReader reader = gson.newJsonReader(
+                new InputStreamReader(Okio.buffer(counting).inputStream(), StandardCharsets.UTF_8));
+        int rows = 0;
+        reader.beginArray();
+        while (reader.hasNext()) {
+            handler.onRow(adapter.read(reader));
+            rows++;
+        }
+        reader.endArray();
+        return new SelectStats(rows, counting.bytes);
+    }
+    
+    /**
+     * TypeAdapter per class dibuat sekali lalu dipakai ulang untuk setiap baris dan request
+     */
+    @SuppressWarnings("unchecked")
+    private <T> TypeAdapter<T> adapterFor(Class<T> clazz) {
+        TypeAdapter<?> adapter = adapters.get(clazz);
+        if (adapter == null) {
+            adapter = gson.getAdapter(clazz);
+            adapters.put(clazz, adapter);
+        }
+        return (TypeAdapter<T>) adapter;
+    }
+    
+    /**
+     * Menghitung byte body yang sudah dibaca (setelah dekompresi gzip oleh OkHttp)
+     */
+    private static final class CountingSource extends ForwardingSource {
+        long bytes;
+        
+        CountingSource(Source delegate) {
+            super(delegate);
+        }
+        
+        @Override
+        public long read(Buffer sink, long byteCount) throws IOException {
+            long read = super.read(sink, byteCount);
+            if (read > 0) {
+                bytes += read;
+            }
+            return read;
+        }
+    }
+    
     /**
      * Method untuk membuat request POST ke Supabase (Insert)
      */
     public <T> void insert(String table, T data, SupabaseCallback<T> callback) {
-        String url = SUPABASE_URL + "/rest/v1/" + table;
+        String url = baseUrl + "/rest/v1/" + table;
         String jsonData = gson.toJson(data);
         
         RequestBody body = RequestBody.create(jsonData, MediaType.get("application/json"));
         Request request = new Request.Builder()
                 .url(url)
-                .addHeader("apikey", SUPABASE_KEY)
-                .addHeader("Authorization", "Bearer " + SUPABASE_KEY)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
                 .addHeader("Content-Type", "application/json")
                 .addHeader("Prefer", "return=representation")
                 .post(body)
@@ -112,12 +273,14 @@ public class SupabaseClient {
         httpClient.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
+                invalidateTable(table);
                 Log.e(TAG, "Error inserting to " + table, e);
                 callback.onError(e.getMessage());
             }
             
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                invalidateTable(table);
                 if (response.isSuccessful()) {
                     String responseBody = response.body().string();
                     try {
@@ -136,18 +299,151 @@ public class SupabaseClient {
         });
     }
     
+    /**
+     * Insert banyak baris sekaligus: satu request POST berisi JSON array per chunk
+     * Baris dipecah otomatis menjadi chunk maksimal MAX_BULK_CHUNK_BYTES dan dikirim berurutan.
+     */
+    public <T> void bulkInsert(String table, List<T> rows, BulkCallback callback) {
+        bulkWrite(table, rows, null, MAX_BULK_CHUNK_BYTES, callback);
+    }
+    
+    /**
+     * Upsert banyak baris sekaligus (Prefer: resolution=merge-duplicates)
+     * Baris yang sudah ada menurut kolom onConflict diperbarui, sisanya di-insert,
+     * sehingga mengirim ulang chunk yang sama aman.
+     *
+     * @param onConflict kolom unik untuk mendeteksi duplikat, misalnya "id"; transactions berpartisi
+     *                   tidak punya UNIQUE transaction_number, jadi transaksi lewat ingest_transactions
+     */
+    public <T> void bulkUpsert(String table, List<T> rows, String onConflict, BulkCallback callback) {
+        bulkWrite(table, rows, onConflict, MAX_BULK_CHUNK_BYTES, callback);
+    }
+    
+    <T> void bulkWrite(String table, List<T> rows, String onConflict, int maxChunkBytes, BulkCallback callback) {
+        List<String> jsonRows = new ArrayList<>(rows.size());
+        for (T row : rows) {
+            jsonRows.add(gson.toJson(row));
+        }
+        
+        String url = baseUrl + "/rest/v1/" + table;
+        String prefer = "return=minimal";
+        if (onConflict != null) {
+            url += "?on_conflict=" + onConflict;
+            prefer = "resolution=merge-duplicates,return=minimal";
+        }
+        
+        sendChunk(table, url, prefer, chunkRows(jsonRows, maxChunkBytes), 0, new ArrayList<>(), callback);
+    }
+    
+    /**
+     * Kirim chunk ke-index, lalu lanjut ke chunk berikutnya dari callback OkHttp.
+     * Chunk yang gagal tidak menghentikan chunk berikutnya; hasilnya dilaporkan per chunk.
+     */
+    private void sendChunk(String table, String url, String prefer, List<Chunk> chunks, int index,
+                           List<ChunkResult> results, BulkCallback callback) {
+        if (index >= chunks.size()) {
+            callback.onComplete(new BulkResult(results));
+            return;
+        }
+        
+        Chunk chunk = chunks.get(index);
+        Request request = new Request.Builder()
+                .url(url)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .addHeader("Prefer", prefer)
+                .post(RequestBody.create(chunk.json, JSON))
+                .build();
+        
+        long start = System.nanoTime();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.e(TAG, "Error bulk writing chunk " + index + " to " + table, e);
+                finish(0, e.getMessage());
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try (Response r = response) {
+                    if (r.isSuccessful()) {
+                        finish(r.code(), null);
+                    } else {
+                        String errorBody = r.body() != null ? r.body().string() : "Unknown error";
+                        Log.e(TAG, "Bulk HTTP Error: " + r.code() + " - " + errorBody);
+                        finish(r.code(), errorBody);
+                    }
+                }
+            }
+            
+            private void finish(int code, String error) {
+                invalidateTable(table);
+                long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                ChunkResult result = new ChunkResult(index, chunk.rows, chunk.bytes, code, error, latencyMs);
+                results.add(result);
+                callback.onChunk(result);
+                sendChunk(table, url, prefer, chunks, index + 1, results, callback);
+            }
+        });
+    }
+    
+    /**
+     * Gabungkan baris JSON menjadi array-array JSON yang masing-masing <= maxBytes.
+     * Baris yang sendirian sudah melebihi maxBytes tetap dikirim sebagai satu chunk.
+     */
+    static List<Chunk> chunkRows(List<String> jsonRows, int maxBytes) {
+        List<Chunk> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder("[");
+        int currentBytes = 2; // "[" dan "]"
+        int rowsInChunk = 0;
+        for (String row : jsonRows) {
+            int rowBytes = row.getBytes(StandardCharsets.UTF_8).length + 1; // + koma
+            if (rowsInChunk > 0 && currentBytes + rowBytes > maxBytes) {
+                chunks.add(new Chunk(current.append(']').toString(), rowsInChunk, currentBytes - 1));
+                current = new StringBuilder("[");
+                currentBytes = 2;
+                rowsInChunk = 0;
+            }
+            if (rowsInChunk > 0) {
+                current.append(',');
+            }
+            current.append(row);
+            currentBytes += rowBytes;
+            rowsInChunk++;
+        }
+        if (rowsInChunk > 0) {
+            chunks.add(new Chunk(current.append(']').toString(), rowsInChunk, currentBytes - 1));
+        }
+        return chunks;
+    }
+    
+    /**
+     * Satu JSON array siap kirim
+     */
+    static final class Chunk {
+        final String json;
+        final int rows;
+        final int bytes;
+        
+        Chunk(String json, int rows, int bytes) {
+            this.json = json;
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+    }
+    
     /**
      * Method untuk membuat request PATCH ke Supabase (Update)
      */
     public <T> void update(String table, String filter, T data, SupabaseCallback<List<T>> callback) {
-        String url = SUPABASE_URL + "/rest/v1/" + table + "?" + filter;
+        String url = baseUrl + "/rest/v1/" + table + "?" + filter;
         String jsonData = gson.toJson(data);
         
         RequestBody body = RequestBody.create(jsonData, MediaType.get("application/json"));
         Request request = new Request.Builder()
                 .url(url)
-                .addHeader("apikey", SUPABASE_KEY)
-                .addHeader("Authorization", "Bearer " + SUPABASE_KEY)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
                 .addHeader("Content-Type", "application/json")
                 .addHeader("Prefer", "return=representation")
                 .patch(body)
@@ -156,12 +452,14 @@ public class SupabaseClient {
         httpClient.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
+                invalidateTable(table);
                 Log.e(TAG, "Error updating " + table, e);
                 callback.onError(e.getMessage());
             }
             
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                invalidateTable(table);
                 if (response.isSuccessful()) {
                     String responseBody = response.body().string();
                     try {
@@ -185,24 +483,26 @@ public class SupabaseClient {
      * Method untuk membuat request DELETE ke Supabase
      */
     public void delete(String table, String filter, SupabaseCallback<Void> callback) {
-        String url = SUPABASE_URL + "/rest/v1/" + table + "?" + filter;
+        String url = baseUrl + "/rest/v1/" + table + "?" + filter;
         
         Request request = new Request.Builder()
                 .url(url)
-                .addHeader("apikey", SUPABASE_KEY)
-                .addHeader("Authorization", "Bearer " + SUPABASE_KEY)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
                 .delete()
                 .build();
         
         httpClient.newCall(request).enqueue(new Callback() {
             @Override
             public void onFailure(Call call, IOException e) {
+                invalidateTable(table);
                 Log.e(TAG, "Error deleting from " + table, e);
                 callback.onError(e.getMessage());
             }
             
             @Override
             public void onResponse(Call call, Response response) throws IOException {
+                invalidateTable(table);
                 if (response.isSuccessful()) {
                     callback.onSuccess(null);
                 } else {
@@ -214,6 +514,260 @@ public class SupabaseClient {
         });
     }
     
+    /**
+     * Panggil function PostgreSQL lewat /rest/v1/rpc secara sinkron (blocking)
+     * Hanya untuk background thread, misalnya OutboxSyncer.
+     *
+     * @param jsonParams objek JSON berisi parameter function
+     * @return body response
+     * @throws SupabaseException jika server membalas dengan status selain 2xx
+     */
+    public String callRpc(String function, String jsonParams) throws IOException {
+        Request request = new Request.Builder()
+                .url(baseUrl + "/rest/v1/rpc/" + function)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .post(RequestBody.create(jsonParams, JSON))
+                .build();
+        
+        try (Response response = httpClient.newCall(request).execute()) {
+            // Function bisa menulis ke tabel mana pun (misalnya ingest_transactions ke products)
+            selectReads.invalidateAll();
+            String responseBody = response.body() != null ? response.body().string() : "";
+            if (!response.isSuccessful()) {
+                Log.e(TAG, "RPC " + function + " HTTP Error: " + response.code() + " - " + responseBody);
+                throw new SupabaseException(response.code(), responseBody);
+            }
+            return responseBody;
+        }
+    }
+    
+    /**
+     * Laporan penjualan rentang [fromMs, toMs) yang diagregasi di server (function get_sales_report)
+     *
+     * @param topLimit jumlah produk dan kategori terlaris yang dikembalikan
+     */
+    public void getSalesReport(long fromMs, long toMs, int topLimit, SupabaseCallback<SalesReport> callback) {
+        String query = "p_from_ms=" + fromMs + "&p_to_ms=" + toMs + "&p_top_limit=" + topLimit;
+        callReadOnlyRpc(SALES_REPORT_FUNCTION, query, SalesReport.class, callback);
+    }
+    
+    /**
+     * Panggil function STABLE lewat GET /rest/v1/rpc (asinkron)
+     * Tidak menulis apa pun, jadi select yang sedang berjalan tidak dilepas, dan GET boleh
+     * dicoba ulang oleh ResilienceInterceptor. Panggilan identik yang sedang berjalan digabung.
+     */
+    public <T> void callReadOnlyRpc(String function, String query, Class<T> clazz, SupabaseCallback<T> callback) {
+        String key = function + "?" + query + "#" + clazz.getName();
+        rpcReads.get(key, loaded -> fetchRpc(function, query, clazz, loaded), new ReadCoalescer.Callback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void onSuccess(Object value) {
+                callback.onSuccess((T) value);
+            }
+            
+            @Override
+            public void onError(String error) {
+                callback.onError(error);
+            }
+        });
+    }
+    
+    private <T> void fetchRpc(String function, String query, Class<T> clazz, ReadCoalescer.Callback<Object> callback) {
+        Request request = new Request.Builder()
+                .url(baseUrl + "/rest/v1/rpc/" + function + "?" + query)
+                .addHeader("apikey", apiKey)
+                .addHeader("Authorization", "Bearer " + apiKey)
+                .get()
+                .build();
+        
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.e(TAG, "Error calling RPC " + function, e);
+                callback.onError(e.getMessage());
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try (Response r = response) {
+                    if (!r.isSuccessful()) {
+                        Log.e(TAG, "RPC " + function + " HTTP Error: " + r.code() + " - " + r.message());
+                        callback.onError("HTTP Error: " + r.code());
+                        return;
+                    }
+                    T result;
+                    try {
+                        JsonReader reader = gson.newJsonReader(new InputStreamReader(
+                                r.body().byteStream(), StandardCharsets.UTF_8));
+                        result = adapterFor(clazz).read(reader);
+                    } catch (JsonParseException | IllegalStateException | IOException e) {
+                        Log.e(TAG, "Error parsing RPC response", e);
+                        callback.onError("Error parsing response: " + e.getMessage());
+                        return;
+                    }
+                    if (result == null) {
+                        callback.onError("Empty response from " + function);
+                    } else {
+                        callback.onSuccess(result);
+                    }
+                }
+            }
+        });
+    }
+    
+    /**
+     * Response non-2xx dari PostgREST
+     * 5xx dan 429 boleh dicoba lagi; 4xx lain berarti request-nya sendiri ditolak.
+     */
+    public static class SupabaseException extends IOException {
+        private final int code;
+        private final String body;
+        
+        public SupabaseException(int code, String body) {
+            super("HTTP " + code + ": " + body);
+            this.code = code;
+            this.body = body;
+        }
+        
+        public int getCode() {
+            return code;
+        }
+        
+        public boolean isRetryable() {
+            return code >= 500 || code == 429 || code == 408;
+        }
+        
+        /**
+         * Server menolak isi data yang dikirim (constraint, tipe, nilai tidak valid), bukan
+         * endpoint-nya. Error PostgREST sendiri (kode PGRSTxxx, misalnya function tidak ada
+         * atau schema cache basi) dan 401/403 berlaku untuk semua request, bukan satu baris.
+         */
+        public boolean isDataRejection() {
+            return (code == 400 || code == 409 || code == 422)
+                    && (body == null || !body.contains("\"PGRST"));
+        }
+    }
+    
+    /**
+     * Callback operasi bulk: onChunk setiap chunk selesai, onComplete setelah chunk terakhir
+     */
+    public interface BulkCallback {
+        void onChunk(ChunkResult result);
+        void onComplete(BulkResult result);
+    }
+    
+    /**
+     * Hasil satu chunk (satu request HTTP)
+     */
+    public static class ChunkResult {
+        private final int index;
+        private final int rowCount;
+        private final int bytes;
+        private final int httpCode; // 0 jika gagal di level jaringan
+        private final String error;
+        private final long latencyMs;
+        
+        public ChunkResult(int index, int rowCount, int bytes, int httpCode, String error, long latencyMs) {
+            this.index = index;
+            this.rowCount = rowCount;
+            this.bytes = bytes;
+            this.httpCode = httpCode;
+            this.error = error;
+            this.latencyMs = latencyMs;
+        }
+        
+        public boolean isSuccessful() {
+            return error == null;
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public int getRowCount() {
+            return rowCount;
+        }
+        
+        public int getBytes() {
+            return bytes;
+        }
+        
+        public int getHttpCode() {
+            return httpCode;
+        }
+        
+        public String getError() {
+            return error;
+        }
+        
+        public long getLatencyMs() {
+            return latencyMs;
+        }
+    }
+    
+    /**
+     * Ringkasan semua chunk dari satu panggilan bulk
+     */
+    public static class BulkResult {
+        private final List<ChunkResult> chunks;
+        
+        public BulkResult(List<ChunkResult> chunks) {
+            this.chunks = chunks;
+        }
+        
+        public List<ChunkResult> getChunks() {
+            return chunks;
+        }
+        
+        public boolean isSuccessful() {
+            for (ChunkResult chunk : chunks) {
+                if (!chunk.isSuccessful()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        public int getRowsWritten() {
+            int rows = 0;
+            for (ChunkResult chunk : chunks) {
+                if (chunk.isSuccessful()) {
+                    rows += chunk.getRowCount();
+                }
+            }
+            return rows;
+        }
+    }
+    
+    /**
+     * Penerima baris untuk selectEach, dipanggil di thread pemanggil untuk setiap baris
+     */
+    public interface RowHandler<T> {
+        void onRow(T row);
+    }
+    
+    /**
+     * Ringkasan satu selectEach
+     */
+    public static class SelectStats {
+        private final int rows;
+        private final long bytes;
+        
+        public SelectStats(int rows, long bytes) {
+            this.rows = rows;
+            this.bytes = bytes;
+        }
+        
+        public int getRows() {
+            return rows;
+        }
+        
+        public long getBytes() {
+            return bytes;
+        }
+    }
+    
     /**
      * Interface untuk callback hasil operasi database
      */
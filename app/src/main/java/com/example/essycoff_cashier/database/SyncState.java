@@ -0,0 +1,48 @@
+package com.example.essycoff_cashier.database;
+
+/**
+ * Watermark sinkronisasi satu tabel: posisi baris server terakhir yang sudah diterapkan
+ * Baris diurutkan (updated_at, id), jadi baris dengan updated_at yang sama tidak terlewat.
+ */
+public class SyncState {
+    private final String tableName;
+    private final String lastUpdatedAt;
+    private final long lastId;
+    private final long syncedAt;
+
+    /**
+     * @param lastUpdatedAt nilai updated_at persis seperti dikirim server (tidak diubah zona/presisinya)
+     */
+    public SyncState(String tableName, String lastUpdatedAt, long lastId) {
+        this(tableName, lastUpdatedAt, lastId, 0);
+    }
+
+    /**
+     * @param syncedAt waktu lokal (epoch ms) sinkron terakhir yang berhasil, dengan atau tanpa perubahan
+     */
+    public SyncState(String tableName, String lastUpdatedAt, long lastId, long syncedAt) {
+        this.tableName = tableName;
+        this.lastUpdatedAt = lastUpdatedAt;
+        this.lastId = lastId;
+        this.syncedAt = syncedAt;
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    public String getLastUpdatedAt() {
+        return lastUpdatedAt;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * 0 untuk watermark yang belum disimpan (misalnya kursor di tengah sinkron)
+     */
+    public long getSyncedAt() {
+        return syncedAt;
+    }
+}
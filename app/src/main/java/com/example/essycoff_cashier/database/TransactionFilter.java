@@ -0,0 +1,57 @@
+package com.example.essycoff_cashier.database;
+
+/**
+ * Filter untuk query riwayat transaksi per halaman
+ * Field yang null tidak dipakai sebagai filter.
+ */
+public class TransactionFilter {
+    private Integer cashierId;
+    private String status;
+    private String paymentMethod;
+    private Long createdFrom; // epoch milidetik, inklusif
+    private Long createdUntil; // epoch milidetik, eksklusif
+
+    public Integer getCashierId() {
+        return cashierId;
+    }
+
+    public TransactionFilter setCashierId(Integer cashierId) {
+        this.cashierId = cashierId;
+        return this;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public TransactionFilter setStatus(String status) {
+        this.status = status;
+        return this;
+    }
+
+    public String getPaymentMethod() {
+        return paymentMethod;
+    }
+
+    public TransactionFilter setPaymentMethod(String paymentMethod) {
+        this.paymentMethod = paymentMethod;
+        return this;
+    }
+
+    public Long getCreatedFrom() {
+        return createdFrom;
+    }
+
+    public Long getCreatedUntil() {
+        return createdUntil;
+    }
+
+    /**
+     * Batasi rentang waktu [from, until); salah satunya boleh null
+     */
+    public TransactionFilter setCreatedRange(Long from, Long until) {
+        this.createdFrom = from;
+        this.createdUntil = until;
+        return this;
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+
+import com.example.essycoff_cashier.models.Transaction;
+
+/**
+ * Pemetaan baris tabel transactions ke model Transaction (tanpa item)
+ */
+public class TransactionMapper extends CursorMapper<Transaction> {
+    public static final String[] COLUMNS = {
+            "id", "transaction_number", "cashier_id", "subtotal", "tax_amount", "total_amount",
+            "payment_method", "payment_amount", "change_amount", "status", "notes", "created_at"
+    };
+
+    private final int idIndex;
+    private final int numberIndex;
+    private final int cashierIndex;
+    private final int subtotalIndex;
+    private final int taxIndex;
+    private final int totalIndex;
+    private final int paymentMethodIndex;
+    private final int paymentAmountIndex;
+    private final int changeIndex;
+    private final int statusIndex;
+    private final int notesIndex;
+    private final int createdAtIndex;
+
+    public TransactionMapper(Cursor cursor) {
+        super(cursor);
+        idIndex = index("id");
+        numberIndex = index("transaction_number");
+        cashierIndex = index("cashier_id");
+        subtotalIndex = index("subtotal");
+        taxIndex = index("tax_amount");
+        totalIndex = index("total_amount");
+        paymentMethodIndex = index("payment_method");
+        paymentAmountIndex = index("payment_amount");
+        changeIndex = index("change_amount");
+        statusIndex = index("status");
+        notesIndex = index("notes");
+        createdAtIndex = index("created_at");
+    }
+
+    @Override
+    protected Transaction newRow() {
+        return new Transaction();
+    }
+
+    @Override
+    protected void fill(Transaction transaction) {
+        transaction.setId(cursor.getInt(idIndex));
+        transaction.setTransactionNumber(cursor.getString(numberIndex));
+        transaction.setCashierId(cursor.getInt(cashierIndex));
+        transaction.setSubtotal(cursor.getLong(subtotalIndex));
+        transaction.setTaxAmount(cursor.getLong(taxIndex));
+        transaction.setTotalAmount(cursor.getLong(totalIndex));
+        transaction.setPaymentMethod(cursor.getString(paymentMethodIndex));
+        // setPaymentAmount tidak menghitung ulang kembalian, jadi nilai tersimpan dipakai apa adanya
+        transaction.setPaymentAmount(cursor.getLong(paymentAmountIndex));
+        transaction.setChangeAmount(cursor.getLong(changeIndex));
+        transaction.setStatus(cursor.getString(statusIndex));
+        transaction.setNotes(getString(notesIndex));
+        transaction.setCreatedAt(cursor.getLong(createdAtIndex));
+    }
+}
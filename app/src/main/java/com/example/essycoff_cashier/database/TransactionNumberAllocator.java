@@ -0,0 +1,118 @@
+package com.example.essycoff_cashier.database;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pembuat nomor transaksi unik: TRX-yyyyMMdd-TERMINAL-000001
+ * Urutan dihitung per terminal per hari. Nomor diambil dari blok yang sudah
+ * dipesan di BlockStore, sehingga jalur normal hanya berupa satu
+ * getAndIncrement tanpa lock maupun akses disk. Lock hanya dipakai saat
+ * blok habis atau hari berganti.
+ */
+public class TransactionNumberAllocator {
+    public static final String PREFIX = "TRX-";
+    static final int DEFAULT_BLOCK_SIZE = 100;
+    private static final int SEQUENCE_DIGITS = 6;
+
+    private final BlockStore store;
+    private final String terminalId;
+    private final int blockSize;
+
+    private volatile Block current;
+
+    public TransactionNumberAllocator(BlockStore store, String terminalId) {
+        this(store, terminalId, DEFAULT_BLOCK_SIZE);
+    }
+
+    public TransactionNumberAllocator(BlockStore store, String terminalId, int blockSize) {
+        if (terminalId == null || terminalId.isEmpty()) {
+            throw new IllegalArgumentException("terminalId cannot be empty");
+        }
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive");
+        }
+        this.store = store;
+        this.terminalId = terminalId;
+        this.blockSize = blockSize;
+    }
+
+    public String getTerminalId() {
+        return terminalId;
+    }
+
+    /**
+     * Nomor transaksi berikutnya untuk hari ini (zona waktu perangkat)
+     */
+    public String next() {
+        return next(System.currentTimeMillis());
+    }
+
+    String next(long nowMillis) {
+        while (true) {
+            Block block = current;
+            if (block != null && block.covers(nowMillis)) {
+                long sequence = block.next.getAndIncrement();
+                if (sequence < block.end) {
+                    return block.format(sequence);
+                }
+            }
+            refill(block, nowMillis);
+        }
+    }
+
+    /**
+     * Pesan blok baru. Thread lain yang juga melihat blok habis akan menunggu di sini,
+     * lalu langsung kembali karena blok sudah diganti oleh thread pertama.
+     */
+    private synchronized void refill(Block seen, long nowMillis) {
+        if (current != seen) {
+            return;
+        }
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(nowMillis);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        long dayStart = calendar.getTimeInMillis();
+        String day = new SimpleDateFormat("yyyyMMdd", Locale.US).format(calendar.getTime());
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        long dayEnd = calendar.getTimeInMillis();
+
+        long start = store.reserve(terminalId, day, blockSize);
+        current = new Block(PREFIX + day + "-" + terminalId + "-", dayStart, dayEnd, start, start + blockSize);
+    }
+
+    private static final class Block {
+        final String prefix;
+        final long dayStart; // inklusif
+        final long dayEnd; // eksklusif
+        final long end; // eksklusif
+        final AtomicLong next;
+
+        Block(String prefix, long dayStart, long dayEnd, long start, long end) {
+            this.prefix = prefix;
+            this.dayStart = dayStart;
+            this.dayEnd = dayEnd;
+            this.end = end;
+            this.next = new AtomicLong(start);
+        }
+
+        boolean covers(long nowMillis) {
+            return nowMillis >= dayStart && nowMillis < dayEnd;
+        }
+
+        String format(long sequence) {
+            String digits = Long.toString(sequence);
+            StringBuilder builder = new StringBuilder(prefix.length() + Math.max(SEQUENCE_DIGITS, digits.length()));
+            builder.append(prefix);
+            for (int i = digits.length(); i < SEQUENCE_DIGITS; i++) {
+                builder.append('0');
+            }
+            return builder.append(digits).toString();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.essycoff_cashier.database;
+
+import com.example.essycoff_cashier.models.Transaction;
+
+import java.util.List;
+
+/**
+ * Satu halaman riwayat transaksi beserta posisi untuk halaman berikutnya
+ * Posisi berupa pasangan (created_at, id) dari baris terakhir, sehingga halaman
+ * berikutnya dicari lewat index, bukan dengan OFFSET yang makin lambat.
+ */
+public class TransactionPage {
+    private final List<Transaction> items;
+    private final Key nextKey;
+
+    TransactionPage(List<Transaction> items, Key nextKey) {
+        this.items = items;
+        this.nextKey = nextKey;
+    }
+
+    public List<Transaction> getItems() {
+        return items;
+    }
+
+    /**
+     * Key untuk halaman berikutnya, null jika sudah halaman terakhir
+     */
+    public Key getNextKey() {
+        return nextKey;
+    }
+
+    public boolean hasMore() {
+        return nextKey != null;
+    }
+
+    /**
+     * Posisi keyset: transaksi sebelum (createdAt, id) ini dalam urutan terbaru dulu
+     */
+    public static class Key {
+        private final long createdAt;
+        private final long id;
+
+        public Key(long createdAt, long id) {
+            this.createdAt = createdAt;
+            this.id = id;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+
+        public long getId() {
+            return id;
+        }
+    }
+}
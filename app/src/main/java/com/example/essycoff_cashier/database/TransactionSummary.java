@@ -0,0 +1,28 @@
+package com.example.essycoff_cashier.database;
+
+/**
+ * Ringkasan riwayat transaksi untuk satu filter, dihitung atas semua baris yang cocok
+ */
+public class TransactionSummary {
+    private final int transactionCount;
+    private final long completedTotal;
+
+    TransactionSummary(int transactionCount, long completedTotal) {
+        this.transactionCount = transactionCount;
+        this.completedTotal = completedTotal;
+    }
+
+    /**
+     * Jumlah transaksi yang cocok dengan filter, apa pun statusnya
+     */
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Total penjualan transaksi berstatus completed, dalam rupiah penuh
+     */
+    public long getCompletedTotal() {
+        return completedTotal;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.essycoff_cashier.database;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bentuk JSON satu transaksi di outbox, sesuai parameter function ingest_transactions
+ * Nilai payment_method/status sudah dalam format tabel (Tunai, completed, ...),
+ * created_at dalam epoch milidetik.
+ */
+class TransactionSyncPayload {
+    private static final Gson GSON = new Gson();
+
+    @SerializedName("transaction_number") String transactionNumber;
+    @SerializedName("cashier_id") Integer cashierId;
+    @SerializedName("subtotal") long subtotal;
+    @SerializedName("tax_amount") long taxAmount;
+    @SerializedName("total_amount") long totalAmount;
+    @SerializedName("payment_method") String paymentMethod;
+    @SerializedName("payment_amount") long paymentAmount;
+    @SerializedName("change_amount") long changeAmount;
+    @SerializedName("status") String status;
+    @SerializedName("notes") String notes;
+    @SerializedName("created_at") long createdAt;
+    @SerializedName("items") List<Item> items = new ArrayList<>();
+
+    static class Item {
+        @SerializedName("product_id") Integer productId;
+        @SerializedName("product_name") String productName;
+        @SerializedName("quantity") int quantity;
+        @SerializedName("unit_price") long unitPrice;
+        @SerializedName("subtotal") long subtotal;
+    }
+
+    static String toJson(Transaction transaction, long createdAt) {
+        TransactionSyncPayload payload = new TransactionSyncPayload();
+        payload.transactionNumber = transaction.getTransactionNumber();
+        payload.cashierId = transaction.getCashierId() > 0 ? transaction.getCashierId() : null;
+        payload.subtotal = transaction.getSubtotal();
+        payload.taxAmount = transaction.getTaxAmount();
+        payload.totalAmount = transaction.getTotalAmount();
+        payload.paymentMethod = DatabaseHelper.toDatabasePaymentMethod(transaction.getPaymentMethod());
+        payload.paymentAmount = transaction.getPaymentAmount();
+        payload.changeAmount = Math.max(0, transaction.getChangeAmount());
+        payload.status = DatabaseHelper.toDatabaseStatus(transaction.getStatus());
+        payload.notes = transaction.getNotes();
+        payload.createdAt = createdAt;
+
+        if (transaction.getItems() != null) {
+            for (CartItem cartItem : transaction.getItems()) {
+                Product product = cartItem.getProduct();
+                Item item = new Item();
+                item.productId = parseId(product.getId());
+                item.productName = product.getName();
+                item.quantity = cartItem.getQuantity();
+                item.unitPrice = product.getPrice();
+                item.subtotal = cartItem.getSubtotal();
+                payload.items.add(item);
+            }
+        }
+        return GSON.toJson(payload);
+    }
+
+    private static Integer parseId(String id) {
+        try {
+            return id == null ? null : Integer.valueOf(id);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+
+import com.example.essycoff_cashier.models.User;
+
+/**
+ * Pemetaan baris tabel users ke model User (tanpa hash password)
+ */
+public class UserMapper extends CursorMapper<User> {
+    public static final String[] COLUMNS = {
+            "id", "username", "full_name", "role", "is_active"
+    };
+
+    private final int idIndex;
+    private final int usernameIndex;
+    private final int fullNameIndex;
+    private final int roleIndex;
+    private final int activeIndex;
+
+    public UserMapper(Cursor cursor) {
+        super(cursor);
+        idIndex = index("id");
+        usernameIndex = index("username");
+        fullNameIndex = index("full_name");
+        roleIndex = index("role");
+        activeIndex = cursor.getColumnIndex("is_active");
+    }
+
+    @Override
+    protected User newRow() {
+        return new User();
+    }
+
+    @Override
+    protected void fill(User user) {
+        user.setId(cursor.getString(idIndex));
+        user.setUsername(cursor.getString(usernameIndex));
+        user.setFullName(cursor.getString(fullNameIndex));
+        user.setRole(cursor.getString(roleIndex));
+        if (activeIndex >= 0) {
+            user.setActive(cursor.getInt(activeIndex) == 1);
+        }
+    }
+}
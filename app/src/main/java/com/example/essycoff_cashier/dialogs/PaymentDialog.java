@@ -18,6 +18,7 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.DialogFragment;
 
 import com.example.essycoff_cashier.R;
+import com.example.essycoff_cashier.utils.MoneyUtils;
 
 /**
  * Dialog untuk proses pembayaran
@@ -25,7 +26,7 @@ import com.example.essycoff_cashier.R;
  */
 public class PaymentDialog extends DialogFragment {
     
-    private double totalAmount;
+    private long totalAmount; // rupiah penuh
     private OnPaymentCompleteListener listener;
     
     // UI Components
@@ -37,10 +38,10 @@ public class PaymentDialog extends DialogFragment {
     
     // Interface untuk callback
     public interface OnPaymentCompleteListener {
-        void onPaymentComplete(String paymentMethod, double paidAmount);
+        void onPaymentComplete(String paymentMethod, long paidAmount);
     }
     
-    public PaymentDialog(double totalAmount, OnPaymentCompleteListener listener) {
+    public PaymentDialog(long totalAmount, OnPaymentCompleteListener listener) {
         this.totalAmount = totalAmount;
         this.listener = listener;
     }
@@ -87,14 +88,14 @@ public class PaymentDialog extends DialogFragment {
      */
     private void setupData() {
         // Hitung subtotal, pajak, dan grand total
-        double subtotal = totalAmount;
-        double tax = subtotal * 0.10; // PPN 10%
-        double grandTotal = subtotal + tax;
+        long subtotal = totalAmount;
+        long tax = MoneyUtils.calculateTax(subtotal);
+        long grandTotal = subtotal + tax;
         
         // Set text
-        tvTotalAmount.setText(String.format("Rp %.0f", subtotal));
-        tvTaxAmount.setText(String.format("Rp %.0f", tax));
-        tvGrandTotal.setText(String.format("Rp %.0f", grandTotal));
+        tvTotalAmount.setText(MoneyUtils.format(subtotal));
+        tvTaxAmount.setText(MoneyUtils.format(tax));
+        tvGrandTotal.setText(MoneyUtils.format(grandTotal));
         
         // Update totalAmount dengan grand total
         this.totalAmount = grandTotal;
@@ -103,7 +104,7 @@ public class PaymentDialog extends DialogFragment {
         rbCash.setChecked(true);
         
         // Set default paid amount untuk non-cash
-        etPaidAmount.setText(String.format("%.0f", grandTotal));
+        etPaidAmount.setText(String.valueOf(grandTotal));
     }
     
     /**
@@ -142,7 +143,7 @@ public class PaymentDialog extends DialogFragment {
         }
         
         try {
-            double paidAmount = Double.parseDouble(paidAmountStr);
+            long paidAmount = MoneyUtils.parse(paidAmountStr);
             
             if (paidAmount < totalAmount) {
                 etPaidAmount.setError("Jumlah bayar kurang");
@@ -152,8 +153,8 @@ public class PaymentDialog extends DialogFragment {
                 return;
             }
             
-            double change = paidAmount - totalAmount;
-            tvChangeAmount.setText(String.format("Kembalian: Rp %.0f", change));
+            long change = paidAmount - totalAmount;
+            tvChangeAmount.setText("Kembalian: " + MoneyUtils.format(change));
             tvChangeAmount.setTextColor(getResources().getColor(R.color.success_color));
             btnProcessPayment.setEnabled(true);
             
@@ -178,7 +179,7 @@ public class PaymentDialog extends DialogFragment {
         }
         
         try {
-            double paidAmount = Double.parseDouble(paidAmountStr);
+            long paidAmount = MoneyUtils.parse(paidAmountStr);
             
             // Validasi untuk cash
             if ("CASH".equals(paymentMethod) && paidAmount < totalAmount) {
@@ -28,21 +28,27 @@ import com.example.essycoff_cashier.R;
 import com.example.essycoff_cashier.adapters.ProductAdapter;
 import com.example.essycoff_cashier.adapters.CartAdapter;
 import com.example.essycoff_cashier.database.DatabaseHelper;
+import com.example.essycoff_cashier.database.InsufficientStockException;
 import com.example.essycoff_cashier.models.Product;
 import com.example.essycoff_cashier.models.CartItem;
 import com.example.essycoff_cashier.models.Transaction;
+import com.example.essycoff_cashier.sync.OutboxSyncer;
+import com.example.essycoff_cashier.sync.ProductChangeFeed;
+import com.example.essycoff_cashier.utils.MoneyUtils;
 import com.example.essycoff_cashier.utils.SessionManager;
 import com.example.essycoff_cashier.dialogs.PaymentDialog;
 import com.example.essycoff_cashier.viewmodels.ProductViewModel;
 import androidx.lifecycle.ViewModelProvider;
+import com.google.android.material.chip.Chip;
 import com.google.android.material.progressindicator.CircularProgressIndicator;
 import com.google.android.material.snackbar.Snackbar;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * Fragment utama untuk Point of Sale (POS)
@@ -76,12 +82,35 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
     // Data
     private List<Product> productList;
     private List<CartItem> cartItems;
-    private double totalAmount = 0.0;
+    // Salinan keranjang saat dialog pembayaran dibuka; harga inilah yang dicek PaymentDialog,
+    // jadi push harga dari terminal lain selama dialog terbuka tidak mengubah transaksi
+    private List<CartItem> paymentItems;
+    private long subtotalAmount = 0;
+    private long totalAmount = 0;
     
     // Utils
     private DatabaseHelper databaseHelper;
+    private OutboxSyncer outboxSyncer;
+    private ProductChangeFeed productChangeFeed;
     private SessionManager sessionManager;
     
+    // Perubahan stok/harga dari terminal lain; dipanggil di thread feed
+    private final ProductChangeFeed.Listener productChangeListener = new ProductChangeFeed.Listener() {
+        @Override
+        public void onProductsChanged(List<Product> changed, List<String> deletedIds) {
+            if (getActivity() != null) {
+                getActivity().runOnUiThread(() -> applyProductChanges(changed, deletedIds));
+            }
+        }
+        
+        @Override
+        public void onCatalogResynced() {
+            if (getActivity() != null) {
+                getActivity().runOnUiThread(() -> productViewModel.loadProducts());
+            }
+        }
+    };
+    
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -120,13 +149,28 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
         setupClickListeners();
     }
     
+    @Override
+    public void onStart() {
+        super.onStart();
+        // Langganan realtime hanya selama layar kasir terlihat
+        productChangeFeed.addListener(productChangeListener);
+        productChangeFeed.start();
+    }
+    
+    @Override
+    public void onStop() {
+        productChangeFeed.removeListener(productChangeListener);
+        productChangeFeed.stop();
+        super.onStop();
+    }
+    
     private void setupObservers() {
         // Observe products
         productViewModel.getProducts().observe(getViewLifecycleOwner(), products -> {
             if (products != null && !products.isEmpty()) {
                 productList.clear();
                 productList.addAll(products);
-                productAdapter.notifyDataSetChanged();
+                productAdapter.submitList(new ArrayList<>(productList));
                 progressBar.setVisibility(View.GONE);
             } else {
                 showError("No products available");
@@ -169,18 +213,18 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
             btnCheckout.setEnabled(false);
             btnClearCart.setEnabled(false);
         } else {
-            double subtotal = 0;
+            long subtotal = 0;
             for (CartItem item : cartItems) {
                 subtotal += item.getProduct().getPrice() * item.getQuantity();
             }
             
-            double tax = subtotal * 0.11; // 11% tax
-            double total = subtotal + tax;
+            long tax = MoneyUtils.calculateTax(subtotal);
+            long total = subtotal + tax;
             
             tvTotalItems.setText(String.format(Locale.getDefault(), "%d item", cartItems.size()));
-            tvSubtotal.setText(String.format(Locale.getDefault(), "Rp %,.0f", subtotal));
-            tvTax.setText(String.format(Locale.getDefault(), "Rp %,.0f", tax));
-            tvTotalAmount.setText(String.format(Locale.getDefault(), "Rp %,.0f", total));
+            tvSubtotal.setText(MoneyUtils.format(subtotal));
+            tvTax.setText(MoneyUtils.format(tax));
+            tvTotalAmount.setText(MoneyUtils.format(total));
             
             btnCheckout.setEnabled(true);
             btnClearCart.setEnabled(true);
@@ -209,13 +253,89 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
         btnClearCart = view.findViewById(R.id.btn_clear_cart);
     }
     
+    /**
+     * Inisialisasi pencarian produk dan chip kategori
+     * Query dan kategori diteruskan ke ViewModel; hasilnya datang lewat observer produk.
+     */
+    private void initSearchAndFilter() {
+        searchLayout = rootView.findViewById(R.id.search_layout);
+        etSearch = rootView.findViewById(R.id.et_search);
+        categoryChipGroup = rootView.findViewById(R.id.category_chip_group);
+        
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+            
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+            
+            @Override
+            public void afterTextChanged(Editable s) {
+                productViewModel.setSearchQuery(s.toString());
+            }
+        });
+        etSearch.setOnEditorActionListener((v, actionId, event) ->
+                actionId == EditorInfo.IME_ACTION_SEARCH
+                        || (event != null && event.getKeyCode() == KeyEvent.KEYCODE_ENTER));
+        
+        Chip chipAll = rootView.findViewById(R.id.chip_all);
+        chipAll.setOnClickListener(v -> selectCategory(null));
+        productViewModel.getCategories().observe(getViewLifecycleOwner(), this::showCategoryChips);
+    }
+    
+    /**
+     * Buat ulang chip kategori setelah chip "Semua"
+     */
+    private void showCategoryChips(List<String> categories) {
+        if (categories == null) {
+            return;
+        }
+        // Chip pertama adalah chip "Semua" dari layout
+        categoryChipGroup.removeViews(1, categoryChipGroup.getChildCount() - 1);
+        for (String category : categories) {
+            Chip chip = new Chip(requireContext());
+            chip.setText(category);
+            chip.setTag(category);
+            chip.setCheckable(true);
+            chip.setCheckedIconVisible(false);
+            chip.setOnClickListener(v -> selectCategory(category));
+            categoryChipGroup.addView(chip);
+        }
+        // Kategori yang dipilih sudah tidak ada lagi: kembali ke semua produk
+        if (selectedCategoryId != null && !categories.contains(selectedCategoryId)) {
+            selectCategory(null);
+        } else {
+            updateCategoryChecks();
+        }
+    }
+    
+    private void selectCategory(@Nullable String category) {
+        selectedCategoryId = category;
+        updateCategoryChecks();
+        productViewModel.setSelectedCategory(category);
+    }
+    
+    private void updateCategoryChecks() {
+        for (int i = 0; i < categoryChipGroup.getChildCount(); i++) {
+            View child = categoryChipGroup.getChildAt(i);
+            if (child instanceof Chip) {
+                Object tag = child.getTag();
+                ((Chip) child).setChecked(i == 0 ? selectedCategoryId == null : tag.equals(selectedCategoryId));
+            }
+        }
+    }
+    
     /**
      * Inisialisasi data dan utils
      */
     private void initData() {
         productList = new ArrayList<>();
         cartItems = new ArrayList<>();
-        databaseHelper = new DatabaseHelper(requireContext());
+        databaseHelper = DatabaseHelper.getInstance(requireContext());
+        outboxSyncer = OutboxSyncer.getInstance(requireContext());
+        productChangeFeed = ProductChangeFeed.getInstance(requireContext());
         sessionManager = new SessionManager(requireContext());
     }
     
@@ -227,7 +347,8 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
         if (productList == null) {
             productList = new ArrayList<>();
         }
-        productAdapter = new ProductAdapter(productList, this);
+        productAdapter = new ProductAdapter(this);
+        productAdapter.submitList(new ArrayList<>(productList));
         rvProducts.setLayoutManager(new GridLayoutManager(getContext(), 2));
         rvProducts.setAdapter(productAdapter);
         
@@ -235,7 +356,8 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
         if (cartItems == null) {
             cartItems = new ArrayList<>();
         }
-        cartAdapter = new CartAdapter(cartItems, this);
+        cartAdapter = new CartAdapter(this);
+        cartAdapter.submitCart(cartItems);
         rvCart.setLayoutManager(new LinearLayoutManager(getContext()));
         rvCart.setAdapter(cartAdapter);
         
@@ -253,9 +375,6 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
                 return;
             }
             
-            // Show payment dialog
-            PaymentDialog paymentDialog = new PaymentDialog(requireContext(), totalAmount, this);
-            paymentDialog.show(getParentFragmentManager(), "PaymentDialog");
             showPaymentDialog();
         });
         
@@ -263,84 +382,81 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
     }
     
     /**
-     * Load produk dari database SQLite
+     * Perbarui hanya baris produk yang berubah, tanpa memuat ulang seluruh daftar
+     * Produk yang tidak sedang ditampilkan (tersaring atau baru) diabaikan; produk itu
+     * muncul saat daftar dimuat ulang berikutnya. Adapter menghitung baris yang berubah sendiri.
+     * Item keranjang ikut memakai data produk terbaru, supaya harga dan total tidak basi.
+     * Keranjang yang sedang dibayar sudah disalin ke paymentItems, jadi tidak ikut berubah.
      */
-    private void loadProducts() {
-        new Thread(() -> {
-            try {
-                List<Product> products = databaseHelper.getAllProducts();
-                
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        productList.clear();
-                        if (products != null && !products.isEmpty()) {
-                            productList.addAll(products);
-                        } else {
-                            loadSampleProducts();
-                        }
-                        productAdapter.notifyDataSetChanged();
-                    });
-                }
-            } catch (Exception e) {
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() -> {
-                        if (getContext() != null) {
-                            Toast.makeText(getContext(), "Error loading products: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                            loadSampleProducts();
-                        }
-                    });
-                }
+    private void applyProductChanges(List<Product> changed, List<String> deletedIds) {
+        if (productList == null || productAdapter == null) {
+            return;
+        }
+        boolean cartChanged = false;
+        for (Product product : changed) {
+            CartItem cartItem = findCartItem(product.getId());
+            if (cartItem != null) {
+                cartItem.setProduct(product);
+                cartChanged = true;
             }
-        }).start();
+            int index = indexOfProduct(product.getId());
+            if (index < 0) {
+                continue;
+            }
+            if (product.isAvailable()) {
+                productList.set(index, product);
+            } else {
+                productList.remove(index);
+            }
+        }
+        for (String id : deletedIds) {
+            int index = indexOfProduct(id);
+            if (index >= 0) {
+                productList.remove(index);
+            }
+        }
+        productAdapter.submitList(new ArrayList<>(productList));
+        if (cartChanged && cartAdapter != null) {
+            updateCartDisplay();
+        }
+    }
+    
+    private int indexOfProduct(String id) {
+        for (int i = 0; i < productList.size(); i++) {
+            if (productList.get(i).getId().equals(id)) {
+                return i;
+            }
+        }
+        return -1;
     }
     
     /**
-     * Load sample products untuk testing
+     * Baca ulang stok produk yang ada di keranjang (dipanggil dari background thread)
+     * Katalog di memori ikut diperbarui, supaya grid dan pencarian tidak memakai stok sebelum checkout.
      */
-    private void loadSampleProducts() {
-        if (productList == null) {
-            productList = new ArrayList<>();
+    private void refreshCartProducts(List<CartItem> items) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (CartItem item : items) {
+            ids.add(item.getProduct().getId());
         }
-        productList.clear();
-        
-        // Sample data produk
-        productList.add(new Product("1", "Espresso", "COFFEE", 15000, 100, true));
-        productList.add(new Product("2", "Americano", "COFFEE", 18000, 100, true));
-        productList.add(new Product("3", "Cappuccino", "COFFEE", 22000, 100, true));
-        productList.add(new Product("4", "Latte", "COFFEE", 25000, 100, true));
-        productList.add(new Product("5", "Mocha", "COFFEE", 28000, 100, true));
-        productList.add(new Product("6", "Croissant", "FOOD", 18000, 20, true));
-        productList.add(new Product("7", "Sandwich Club", "FOOD", 35000, 15, true));
-        productList.add(new Product("8", "Donat Glazed", "FOOD", 12000, 25, true));
-        
-        if (productAdapter != null) {
-            productAdapter.notifyDataSetChanged();
+        List<Product> updated = databaseHelper.getProductsByIds(ids);
+        productViewModel.applyLocalChanges(updated, Collections.emptyList());
+        if (getActivity() != null) {
+            getActivity().runOnUiThread(() -> applyProductChanges(updated, Collections.emptyList()));
         }
     }
-        for (CartItem item : cartItems) {
-            databaseHelper.addTransactionItem(transactionId, item);
-            
-            // Update product stock in Supabase
-            int newStock = item.getProduct().getStock() - item.getQuantity();
-            productViewModel.updateProductStock(item.getProduct().getId(), newStock, success -> {
-                if (!success) {
-                    Log.e(TAG, "Failed to update stock for product: " + item.getProduct().getName());
-                }
-            });
-            }
-        }
-        
-        // Add new product to cart
-        CartItem newItem = new CartItem(product, 1);
-        cartItems.add(newItem);
-        cartAdapter.notifyItemInserted(cartItems.size() - 1);
-        updateCartUI();
-        
-        // Show success message
-        if (getView() != null) {
-            Snackbar.make(getView(), "Added to cart: " + product.getName(), 
-                Snackbar.LENGTH_SHORT).show();
+    
+    /**
+     * Callback ketika produk di grid diklik
+     */
+    @Override
+    public void onProductClick(Product product) {
+        if (!product.canBeSold()) {
+            Toast.makeText(getContext(), "Stok " + product.getName() + " habis", 
+                Toast.LENGTH_SHORT).show();
+            return;
         }
+        addToCart(product);
     }
     
     /**
@@ -375,12 +491,32 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
         }
         return null;
     }
+    
+    /**
+     * Callback ketika jumlah cart item diubah; jumlah di bawah 1 menghapus item
+     */
+    @Override
+    public void onQuantityChanged(CartItem item, int newQuantity) {
+        // Adapter memberi salinan item, jadi cari item keranjang menurut produknya
+        CartItem cartItem = findCartItem(item.getProduct().getId());
+        if (cartItem == null) {
+            return;
+        }
+        if (newQuantity < 1) {
+            cartItems.remove(cartItem);
+        } else {
+            cartItem.setQuantity(newQuantity);
+        }
+        updateCartDisplay();
+    }
+    
     /**
      * Callback ketika cart item dihapus
      */
     @Override
     public void onItemRemoved(CartItem item) {
-        cartItems.remove(item);
+        // Adapter memberi salinan item, jadi cari item keranjang menurut produknya
+        cartItems.remove(findCartItem(item.getProduct().getId()));
         updateCartDisplay();
         Toast.makeText(getContext(), item.getProduct().getName() + " dihapus dari keranjang", 
             Toast.LENGTH_SHORT).show();
@@ -390,7 +526,7 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
      * Update tampilan keranjang dan total
      */
     private void updateCartDisplay() {
-        cartAdapter.notifyDataSetChanged();
+        cartAdapter.submitCart(cartItems);
         calculateTotal();
         updateTotalDisplay();
     }
@@ -399,7 +535,7 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
      * Hitung total amount dan items
      */
     private void calculateTotal() {
-        double subtotal = 0.0;
+        long subtotal = 0;
         int totalItems = 0;
         
         for (CartItem item : cartItems) {
@@ -407,16 +543,17 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
             totalItems += item.getQuantity();
         }
         
-        // Hitung pajak 10%
-        double tax = subtotal * 0.10;
+        // Pajak dihitung dengan aturan yang sama seperti Transaction.calculateTotals()
+        long tax = MoneyUtils.calculateTax(subtotal);
+        subtotalAmount = subtotal;
         totalAmount = subtotal + tax;
         
         // Update tampilan subtotal dan pajak
         if (tvSubtotal != null) {
-            tvSubtotal.setText(String.format("Rp %,.0f", subtotal));
+            tvSubtotal.setText(MoneyUtils.format(subtotal));
         }
         if (tvTax != null) {
-            tvTax.setText(String.format("Rp %,.0f", tax));
+            tvTax.setText(MoneyUtils.format(tax));
         }
     }
     
@@ -425,7 +562,7 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
      */
     private void updateTotalDisplay() {
         if (tvTotalAmount != null) {
-            tvTotalAmount.setText(String.format("Rp %.0f", totalAmount));
+            tvTotalAmount.setText(MoneyUtils.format(totalAmount));
         }
         if (tvTotalItems != null) {
             tvTotalItems.setText(cartItems.size() + " items");
@@ -444,27 +581,56 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
      * Tampilkan dialog pembayaran
      */
     private void showPaymentDialog() {
-        PaymentDialog dialog = new PaymentDialog(totalAmount, this);
+        paymentItems = new ArrayList<>(cartItems.size());
+        long subtotal = 0;
+        for (CartItem item : cartItems) {
+            CartItem copy = new CartItem(item.getId(), item.getProduct(), item.getQuantity(), item.getNotes());
+            paymentItems.add(copy);
+            subtotal += copy.getSubtotal();
+        }
+        // Dialog menambahkan pajak sendiri, jadi yang dikirim adalah subtotal
+        PaymentDialog dialog = new PaymentDialog(subtotal, this);
         dialog.show(getParentFragmentManager(), "PaymentDialog");
     }
-        // Generate transaction number
-        String transactionNumber = generateTransactionNumber();
-        
-        // Create transaction object
+    
+    /**
+     * Callback dari PaymentDialog: simpan transaksi dan kosongkan keranjang
+     * Stok server dikurangi oleh ingest_transactions saat outbox dikirim, bukan di sini.
+     */
+    @Override
+    public void onPaymentComplete(String paymentMethod, long paidAmount) {
+        if (paymentItems == null) {
+            return;
+        }
+        // Nomor transaksi diisi di background thread (bisa memesan blok baru dari SQLite)
         Transaction transaction = new Transaction(
-            transactionNumber,
+            null,
             sessionManager.getCurrentUserId(),
             sessionManager.getCurrentUserName(),
-            new ArrayList<>(cartItems),
+            paymentItems,
             paymentMethod
         );
+        paymentItems = null;
         
+        // Total dihitung ulang dari item yang disimpan; harus sama dengan yang dibayar
+        if ("CASH".equals(paymentMethod) && paidAmount < transaction.getTotalAmount()) {
+            Toast.makeText(getContext(), "Jumlah bayar kurang dari total "
+                    + MoneyUtils.format(transaction.getTotalAmount()), Toast.LENGTH_LONG).show();
+            return;
+        }
         transaction.setPaidAmount(paidAmount);
         
         // Simpan ke database SQLite
         new Thread(() -> {
             try {
+                transaction.setTransactionNumber(generateTransactionNumber());
                 boolean success = databaseHelper.insertTransaction(transaction);
+                if (success) {
+                    // Kirim ke server di background; checkout tidak menunggu jaringan
+                    outboxSyncer.requestSync();
+                    // Hanya stok produk yang terjual yang berubah
+                    refreshCartProducts(transaction.getItems());
+                }
                 
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
@@ -475,9 +641,6 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
                             
                             // Clear cart setelah checkout berhasil
                             clearCart();
-                            
-                            // Refresh product list untuk update stock
-                            loadProducts();
                         } else {
                             Toast.makeText(getContext(), 
                                 "Gagal menyimpan transaksi", 
@@ -485,6 +648,13 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
                         }
                     });
                 }
+            } catch (InsufficientStockException e) {
+                // Checkout dibatalkan seluruhnya; tampilkan stok terbaru
+                if (getActivity() != null) {
+                    getActivity().runOnUiThread(() ->
+                            Toast.makeText(getContext(), e.getMessage(), Toast.LENGTH_LONG).show());
+                }
+                refreshCartProducts(transaction.getItems());
             } catch (Exception e) {
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() -> {
@@ -498,13 +668,10 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
     }
     
     /**
-     * Generate nomor transaksi unik
+     * Generate nomor transaksi unik (urutan per terminal per hari)
      */
     private String generateTransactionNumber() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd", Locale.getDefault());
-        String dateStr = sdf.format(new Date());
-        long timestamp = System.currentTimeMillis() % 10000; // 4 digit terakhir
-        return "TRX-" + dateStr + "-" + String.format("%04d", timestamp);
+        return databaseHelper.getTransactionNumberAllocator().next();
     }
     
     /**
@@ -512,10 +679,9 @@ public class POSFragment extends Fragment implements ProductAdapter.OnProductCli
      */
     private void clearCart() {
         if (cartItems != null && !cartItems.isEmpty()) {
-            int size = cartItems.size();
             cartItems.clear();
             if (cartAdapter != null) {
-                cartAdapter.notifyItemRangeRemoved(0, size);
+                cartAdapter.submitCart(cartItems);
             }
             updateCartUI();
             
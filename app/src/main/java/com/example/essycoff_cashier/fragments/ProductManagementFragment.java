@@ -15,8 +15,9 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.essycoff_cashier.R;
 import com.example.essycoff_cashier.adapters.ProductManagementAdapter;
-import com.example.essycoff_cashier.database.SupabaseClient;
+import com.example.essycoff_cashier.database.DatabaseHelper;
 import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.sync.CatalogSyncer;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
 import java.util.ArrayList;
@@ -42,7 +43,8 @@ public class ProductManagementFragment extends Fragment implements ProductManage
     private List<Product> productList;
     
     // Utils
-    private SupabaseClient supabaseClient;
+    private DatabaseHelper databaseHelper;
+    private CatalogSyncer catalogSyncer;
     
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
@@ -76,14 +78,15 @@ public class ProductManagementFragment extends Fragment implements ProductManage
      */
     private void initData() {
         productList = new ArrayList<>();
-        supabaseClient = SupabaseClient.getInstance();
+        databaseHelper = DatabaseHelper.getInstance(getContext());
+        catalogSyncer = CatalogSyncer.getInstance(getContext());
     }
     
     /**
      * Setup RecyclerView untuk produk
      */
     private void setupRecyclerView() {
-        productAdapter = new ProductManagementAdapter(productList, this);
+        productAdapter = new ProductManagementAdapter(this);
         rvProducts.setLayoutManager(new LinearLayoutManager(getContext()));
         rvProducts.setAdapter(productAdapter);
     }
@@ -119,45 +122,35 @@ public class ProductManagementFragment extends Fragment implements ProductManage
     }
     
     /**
-     * Load produk dari database
+     * Load produk dari database lokal setelah sinkron perubahan katalog dari Supabase
+     * Hanya produk yang berubah sejak sinkron terakhir yang diunduh.
      */
     private void loadProducts() {
         swipeRefreshLayout.setRefreshing(true);
         
-        String filter = "order=category,name";
-        
-        supabaseClient.select("products", filter, Product.class,
-            new SupabaseClient.SupabaseCallback<List<Product>>() {
-                @Override
-                public void onSuccess(List<Product> products) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            swipeRefreshLayout.setRefreshing(false);
-                            
-                            productList.clear();
-                            if (products != null) {
-                                productList.addAll(products);
-                            }
-                            
-                            productAdapter.notifyDataSetChanged();
-                        });
-                    }
-                }
-                
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            swipeRefreshLayout.setRefreshing(false);
-                            Toast.makeText(getContext(), "Error loading products: " + error,
-                                Toast.LENGTH_SHORT).show();
-                                
+        new Thread(() -> {
+            boolean synced = catalogSyncer.sync();
+            List<Product> products = databaseHelper.getProductsByCategory();
+            
+            if (getActivity() != null) {
+                getActivity().runOnUiThread(() -> {
+                    swipeRefreshLayout.setRefreshing(false);
+                    
+                    productList.clear();
+                    productList.addAll(products);
+                    productAdapter.submitList(new ArrayList<>(productList));
+                    
+                    if (!synced) {
+                        Toast.makeText(getContext(), "Gagal sinkron produk, menampilkan data lokal",
+                            Toast.LENGTH_SHORT).show();
+                        if (products.isEmpty()) {
                             // Load sample data untuk testing
                             loadSampleProducts();
-                        });
+                        }
                     }
-                }
-            });
+                });
+            }
+        }).start();
     }
     
     /**
@@ -182,13 +175,13 @@ public class ProductManagementFragment extends Fragment implements ProductManage
         productList.add(createSampleProduct("9", "Iced Tea", "Refreshing iced tea", 12000, "BEVERAGE", 35));
         productList.add(createSampleProduct("10", "Fresh Juice", "Orange juice", 18000, "BEVERAGE", 20));
         
-        productAdapter.notifyDataSetChanged();
+        productAdapter.submitList(new ArrayList<>(productList));
     }
     
     /**
      * Helper method untuk membuat sample product
      */
-    private Product createSampleProduct(String id, String name, String description, double price, String category, int stock) {
+    private Product createSampleProduct(String id, String name, String description, long price, String category, int stock) {
         Product product = new Product(id, name, description, price, category);
         product.setStock(stock);
         product.setAvailable(stock > 0);
@@ -262,29 +255,44 @@ public class ProductManagementFragment extends Fragment implements ProductManage
      * Update stock produk
      */
     private void updateProductStock(Product product, int newStock) {
-        product.setStock(newStock);
-        product.setAvailable(newStock > 0);
+        Product updated = new Product(product);
+        updated.setStock(newStock);
+        updated.setAvailable(newStock > 0);
+        replaceProduct(updated);
         
         // TODO: Update ke database
         Toast.makeText(getContext(), 
             "Stock " + product.getName() + " diupdate menjadi " + newStock, 
             Toast.LENGTH_SHORT).show();
-        
-        productAdapter.notifyDataSetChanged();
     }
     
     /**
      * Toggle availability produk
      */
     private void toggleProductAvailability(Product product) {
-        product.setAvailable(!product.isAvailable());
+        Product updated = new Product(product);
+        updated.setAvailable(!product.isAvailable());
+        replaceProduct(updated);
         
         // TODO: Update ke database
-        String status = product.isAvailable() ? "tersedia" : "tidak tersedia";
+        String status = updated.isAvailable() ? "tersedia" : "tidak tersedia";
         Toast.makeText(getContext(), 
             product.getName() + " sekarang " + status, 
             Toast.LENGTH_SHORT).show();
-        
-        productAdapter.notifyDataSetChanged();
+    }
+    
+    /**
+     * Ganti produk dengan id yang sama lalu kirim daftar baru ke adapter
+     * Produk lama tidak diubah di tempat: differ membandingkan objek lama dan baru,
+     * jadi hanya baris itu yang diperbarui.
+     */
+    private void replaceProduct(Product updated) {
+        for (int i = 0; i < productList.size(); i++) {
+            if (productList.get(i).getId().equals(updated.getId())) {
+                productList.set(i, updated);
+                break;
+            }
+        }
+        productAdapter.submitList(new ArrayList<>(productList));
     }
 }
@@ -1,6 +1,7 @@
 package com.example.essycoff_cashier.fragments;
 
 import android.os.Bundle;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -13,14 +14,17 @@ import androidx.fragment.app.Fragment;
 
 import com.example.essycoff_cashier.R;
 import com.example.essycoff_cashier.database.SupabaseClient;
-import com.example.essycoff_cashier.models.Transaction;
+import com.example.essycoff_cashier.models.SalesReport;
+import com.example.essycoff_cashier.utils.MoneyUtils;
 import com.example.essycoff_cashier.utils.SessionManager;
 import com.google.android.material.card.MaterialCardView;
 
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
  * Fragment untuk laporan penjualan (khusus Manager)
@@ -29,6 +33,7 @@ import java.util.Locale;
 public class ReportsFragment extends Fragment {
     
     private static final String TAG = "ReportsFragment";
+    private static final int TOP_LIMIT = 5;
     
     // UI Components
     private TextView tvTodaySales, tvTodayTransactions, tvWeeklySales, tvWeeklyTransactions,
@@ -40,6 +45,9 @@ public class ReportsFragment extends Fragment {
     private SupabaseClient supabaseClient;
     private SessionManager sessionManager;
     
+    // Satu pesan gagal per pemuatan, bukan satu per kartu laporan
+    private boolean loadErrorShown;
+    
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container,
                              @Nullable Bundle savedInstanceState) {
@@ -94,103 +102,154 @@ public class ReportsFragment extends Fragment {
      * Load data laporan dari database
      */
     private void loadReportsData() {
+        loadErrorShown = false;
+        
         // Load today's report
         loadTodayReport();
         
         // Load weekly report
         loadWeeklyReport();
         
-        // Load monthly report
+        // Load monthly report (termasuk analytics)
         loadMonthlyReport();
-        
-        // Load analytics
-        loadAnalytics();
     }
     
     /**
      * Load laporan hari ini
      */
     private void loadTodayReport() {
-        // Load sample data for demo purposes
-        updateTodayReportSample();
+        Calendar from = startOfToday();
+        Calendar to = (Calendar) from.clone();
+        to.add(Calendar.DAY_OF_MONTH, 1);
+        loadReport(from, to, this::updateTodayReport,
+                () -> showUnavailable(tvTodaySales, tvTodayTransactions));
     }
     
     /**
-     * Load laporan mingguan
+     * Load laporan mingguan (minggu berjalan, hari pertama mengikuti locale)
      */
     private void loadWeeklyReport() {
-        // TODO: Implementasi query untuk data mingguan
-        updateWeeklyReportSample();
+        Calendar from = startOfToday();
+        from.set(Calendar.DAY_OF_WEEK, from.getFirstDayOfWeek());
+        if (from.after(startOfToday())) {
+            from.add(Calendar.WEEK_OF_YEAR, -1);
+        }
+        Calendar to = (Calendar) from.clone();
+        to.add(Calendar.WEEK_OF_YEAR, 1);
+        loadReport(from, to, this::updateWeeklyReport,
+                () -> showUnavailable(tvWeeklySales, tvWeeklyTransactions));
     }
     
     /**
-     * Load laporan bulanan
+     * Load laporan bulanan sekaligus analytics (produk/kategori terlaris bulan ini)
      */
     private void loadMonthlyReport() {
-        // TODO: Implementasi query untuk data bulanan
-        updateMonthlyReportSample();
+        Calendar from = startOfToday();
+        from.set(Calendar.DAY_OF_MONTH, 1);
+        Calendar to = (Calendar) from.clone();
+        to.add(Calendar.MONTH, 1);
+        loadReport(from, to, report -> {
+            updateMonthlyReport(report);
+            updateAnalytics(report);
+        }, () -> {
+            showUnavailable(tvMonthlySales, tvMonthlyTransactions);
+            showUnavailable(tvTopProduct, tvTopCategory, tvAverageTransaction, tvTotalRevenue);
+        });
     }
     
     /**
-     * Load data analytics
+     * Ambil ringkasan satu rentang dari server (function get_sales_report)
+     * Hanya total dan daftar terlaris yang dikirim, bukan baris transaksinya.
      */
-    private void loadAnalytics() {
-        // TODO: Implementasi query untuk analytics
-        updateAnalyticsSample();
+    private void loadReport(Calendar from, Calendar to, Consumer<SalesReport> onLoaded, Runnable onFailed) {
+        supabaseClient.getSalesReport(from.getTimeInMillis(), to.getTimeInMillis(), TOP_LIMIT,
+                new SupabaseClient.SupabaseCallback<SalesReport>() {
+                    @Override
+                    public void onSuccess(SalesReport report) {
+                        if (getActivity() != null) {
+                            getActivity().runOnUiThread(() -> {
+                                if (isAdded()) {
+                                    onLoaded.accept(report);
+                                }
+                            });
+                        }
+                    }
+                    
+                    @Override
+                    public void onError(String error) {
+                        Log.w(TAG, "Failed to load sales report: " + error);
+                        if (getActivity() != null) {
+                            getActivity().runOnUiThread(() -> {
+                                if (isAdded()) {
+                                    onFailed.run();
+                                    showLoadError();
+                                }
+                            });
+                        }
+                    }
+                });
+    }
+    
+    private static Calendar startOfToday() {
+        Calendar calendar = Calendar.getInstance();
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        return calendar;
     }
     
     /**
      * Update tampilan laporan hari ini
      */
-    private void updateTodayReport(List<Transaction> transactions) {
-        if (transactions == null) {
-            updateTodayReportSample();
-            return;
-        }
-        
-        int totalTransactions = transactions.size();
-        double totalSales = 0.0;
-        
-        for (Transaction transaction : transactions) {
-            totalSales += transaction.getTotalAmount();
-        }
-        
-        tvTodaySales.setText(String.format("Rp %.0f", totalSales));
-        tvTodayTransactions.setText(totalTransactions + " transaksi");
+    private void updateTodayReport(SalesReport report) {
+        tvTodaySales.setText(MoneyUtils.format(report.getTotalSales()));
+        tvTodayTransactions.setText(report.getTransactionCount() + " transaksi");
     }
     
     /**
-     * Update sample data untuk laporan hari ini
+     * Update tampilan laporan mingguan
      */
-    private void updateTodayReportSample() {
-        tvTodaySales.setText("Rp 1,250,000");
-        tvTodayTransactions.setText("45 transaksi");
+    private void updateWeeklyReport(SalesReport report) {
+        tvWeeklySales.setText(MoneyUtils.format(report.getTotalSales()));
+        tvWeeklyTransactions.setText(report.getTransactionCount() + " transaksi");
     }
     
     /**
-     * Update sample data untuk laporan mingguan
+     * Update tampilan laporan bulanan
      */
-    private void updateWeeklyReportSample() {
-        tvWeeklySales.setText("Rp 8,750,000");
-        tvWeeklyTransactions.setText("315 transaksi");
+    private void updateMonthlyReport(SalesReport report) {
+        tvMonthlySales.setText(MoneyUtils.format(report.getTotalSales()));
+        tvMonthlyTransactions.setText(report.getTransactionCount() + " transaksi");
     }
     
     /**
-     * Update sample data untuk laporan bulanan
+     * Update tampilan analytics dari laporan bulan ini
      */
-    private void updateMonthlyReportSample() {
-        tvMonthlySales.setText("Rp 35,200,000");
-        tvMonthlyTransactions.setText("1,260 transaksi");
+    private void updateAnalytics(SalesReport report) {
+        List<SalesReport.ProductSales> topProducts = report.getTopProducts();
+        List<SalesReport.CategorySales> topCategories = report.getTopCategories();
+        tvTopProduct.setText(topProducts.isEmpty() ? "-" : topProducts.get(0).getProductName());
+        tvTopCategory.setText(topCategories.isEmpty() ? "-" : topCategories.get(0).getCategory());
+        tvAverageTransaction.setText(MoneyUtils.format(report.getAverageTransaction()));
+        tvTotalRevenue.setText(MoneyUtils.format(report.getTotalSales()));
     }
     
     /**
-     * Update sample data untuk analytics
+     * Laporan gagal dimuat (misalnya offline): tampilkan "-", bukan angka yang terlihat asli
      */
-    private void updateAnalyticsSample() {
-        tvTopProduct.setText("Cappuccino");
-        tvTopCategory.setText("COFFEE");
-        tvAverageTransaction.setText("Rp 27,950");
-        tvTotalRevenue.setText("Rp 35,200,000");
+    private void showUnavailable(TextView... views) {
+        for (TextView view : views) {
+            view.setText("-");
+        }
+    }
+    
+    private void showLoadError() {
+        if (!loadErrorShown) {
+            loadErrorShown = true;
+            Toast.makeText(getContext(), "Gagal memuat laporan. Periksa koneksi internet.",
+                    Toast.LENGTH_LONG).show();
+        }
     }
     
     @Override
@@ -16,12 +16,20 @@ import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.essycoff_cashier.R;
 import com.example.essycoff_cashier.adapters.TransactionAdapter;
-import com.example.essycoff_cashier.database.SupabaseClient;
+import com.example.essycoff_cashier.config.AppConfig;
+import com.example.essycoff_cashier.database.DatabaseHelper;
+import com.example.essycoff_cashier.database.TransactionFilter;
+import com.example.essycoff_cashier.database.TransactionPage;
+import com.example.essycoff_cashier.database.TransactionSummary;
 import com.example.essycoff_cashier.models.Transaction;
+import com.example.essycoff_cashier.utils.MoneyUtils;
 import com.example.essycoff_cashier.utils.SessionManager;
 
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Fragment untuk menampilkan riwayat transaksi
@@ -30,6 +38,9 @@ import java.util.List;
 public class TransactionHistoryFragment extends Fragment implements TransactionAdapter.OnTransactionClickListener {
     
     private static final String TAG = "TransactionHistoryFragment";
+    private static final int PAGE_SIZE = 30;
+    // Mulai muat halaman berikutnya saat tersisa sekian item di bawah layar
+    private static final int LOAD_MORE_THRESHOLD = 5;
     
     // UI Components
     private SwipeRefreshLayout swipeRefreshLayout;
@@ -41,9 +52,15 @@ public class TransactionHistoryFragment extends Fragment implements TransactionA
     
     // Data
     private List<Transaction> transactionList;
+    private TransactionFilter filter;
+    private TransactionPage.Key nextKey;
+    private boolean hasMore = true;
+    private boolean isLoadingPage = false;
+    // Naik setiap refresh agar hasil halaman dari query lama diabaikan
+    private int loadGeneration = 0;
     
     // Utils
-    private SupabaseClient supabaseClient;
+    private DatabaseHelper databaseHelper;
     private SessionManager sessionManager;
     
     @Override
@@ -79,17 +96,42 @@ public class TransactionHistoryFragment extends Fragment implements TransactionA
      */
     private void initData() {
         transactionList = new ArrayList<>();
-        supabaseClient = SupabaseClient.getInstance();
+        databaseHelper = DatabaseHelper.getInstance(requireContext());
         sessionManager = new SessionManager(requireContext());
+        
+        // Filter berdasarkan role user: staff hanya bisa lihat transaksi sendiri
+        filter = new TransactionFilter();
+        if (!sessionManager.isCurrentUserManager()) {
+            try {
+                filter.setCashierId(Integer.parseInt(sessionManager.getCurrentUserId()));
+            } catch (NumberFormatException e) {
+                filter.setCashierId(-1);
+            }
+        }
     }
     
     /**
      * Setup RecyclerView untuk transaksi
      */
     private void setupRecyclerView() {
-        transactionAdapter = new TransactionAdapter(transactionList, this);
-        rvTransactions.setLayoutManager(new LinearLayoutManager(getContext()));
+        transactionAdapter = new TransactionAdapter(this);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        rvTransactions.setLayoutManager(layoutManager);
         rvTransactions.setAdapter(transactionAdapter);
+        
+        // Endless scrolling: muat halaman berikutnya saat mendekati akhir daftar
+        rvTransactions.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) {
+                    return;
+                }
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= transactionList.size() - LOAD_MORE_THRESHOLD) {
+                    loadNextPage();
+                }
+            }
+        });
     }
     
     /**
@@ -110,110 +152,79 @@ public class TransactionHistoryFragment extends Fragment implements TransactionA
     }
     
     /**
-     * Load transaksi dari database
+     * Load ulang transaksi dari halaman pertama
      */
     private void loadTransactions() {
+        loadGeneration++;
+        nextKey = null;
+        hasMore = true;
+        isLoadingPage = false;
         swipeRefreshLayout.setRefreshing(true);
-        
-        // Filter berdasarkan role user
-        String filter;
-        if (sessionManager.isCurrentUserManager()) {
-            // Manager bisa lihat semua transaksi
-            filter = "order=created_at.desc&limit=50";
-        } else {
-            // Staff hanya bisa lihat transaksi sendiri
-            filter = "user_id=eq." + sessionManager.getCurrentUserId() + "&order=created_at.desc&limit=50";
-        }
-        
-        supabaseClient.select("transactions", filter, Transaction.class,
-            new SupabaseClient.SupabaseCallback<List<Transaction>>() {
-                @Override
-                public void onSuccess(List<Transaction> transactions) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            swipeRefreshLayout.setRefreshing(false);
-                            
-                            transactionList.clear();
-                            if (transactions != null) {
-                                transactionList.addAll(transactions);
-                            }
-                            
-                            transactionAdapter.notifyDataSetChanged();
-                            updateSummary();
-                            updateEmptyState();
-                        });
-                    }
-                }
-                
-                @Override
-                public void onError(String error) {
-                    if (getActivity() != null) {
-                        getActivity().runOnUiThread(() -> {
-                            swipeRefreshLayout.setRefreshing(false);
-                            Toast.makeText(getContext(), "Error loading transactions: " + error,
-                                Toast.LENGTH_SHORT).show();
-                        });
-                    }
-                }
-            });
+        loadNextPage();
     }
     
     /**
-     * Load sample transactions untuk testing
+     * Load satu halaman transaksi dari database lokal
      */
-    private void loadSampleTransactions() {
-        transactionList.clear();
-        
-        // Sample transactions
-        Transaction tx1 = new Transaction("TRX-20241001-0001", 
-            sessionManager.getCurrentUserId(),
-            sessionManager.getCurrentUserName(),
-            new ArrayList<>(), "CASH");
-        tx1.setTotalAmount(45000);
-        tx1.setPaidAmount(50000);
-        tx1.setStatus("COMPLETED");
-        tx1.setCreatedAt("2024-10-01T10:30:00");
-        
-        Transaction tx2 = new Transaction("TRX-20241001-0002",
-            sessionManager.getCurrentUserId(),
-            sessionManager.getCurrentUserName(),
-            new ArrayList<>(), "CARD");
-        tx2.setTotalAmount(32000);
-        tx2.setPaidAmount(32000);
-        tx2.setStatus("COMPLETED");
-        tx2.setCreatedAt("2024-10-01T09:15:00");
-        
-        Transaction tx3 = new Transaction("TRX-20241001-0003",
-            sessionManager.getCurrentUserId(),
-            sessionManager.getCurrentUserName(),
-            new ArrayList<>(), "DIGITAL_WALLET");
-        tx3.setTotalAmount(28000);
-        tx3.setPaidAmount(28000);
-        tx3.setStatus("COMPLETED");
-        tx3.setCreatedAt("2024-10-01T08:45:00");
-        
-        transactionList.add(tx1);
-        transactionList.add(tx2);
-        transactionList.add(tx3);
+    private void loadNextPage() {
+        if (isLoadingPage || !hasMore) {
+            return;
+        }
+        isLoadingPage = true;
         
-        transactionAdapter.notifyDataSetChanged();
+        final int generation = loadGeneration;
+        final TransactionPage.Key after = nextKey;
+        new Thread(() -> {
+            try {
+                TransactionPage page = databaseHelper.getTransactionsPage(filter, after, PAGE_SIZE);
+                // Ringkasan dihitung atas seluruh riwayat yang cocok, cukup sekali per refresh
+                TransactionSummary summary = after == null ? databaseHelper.getTransactionSummary(filter) : null;
+                
+                if (getActivity() != null) {
+                    getActivity().runOnUiThread(() -> {
+                        if (generation != loadGeneration) {
+                            return;
+                        }
+                        swipeRefreshLayout.setRefreshing(false);
+                        isLoadingPage = false;
+                        
+                        if (after == null) {
+                            transactionList.clear();
+                        }
+                        transactionList.addAll(page.getItems());
+                        // Adapter hanya mem-bind baris baru; saat refresh transaksi yang sama tidak di-bind ulang
+                        transactionAdapter.submitList(new ArrayList<>(transactionList));
+                        
+                        nextKey = page.getNextKey();
+                        hasMore = page.hasMore();
+                        if (summary != null) {
+                            updateSummary(summary);
+                        }
+                        updateEmptyState();
+                    });
+                }
+            } catch (Exception e) {
+                if (getActivity() != null) {
+                    getActivity().runOnUiThread(() -> {
+                        if (generation != loadGeneration) {
+                            return;
+                        }
+                        swipeRefreshLayout.setRefreshing(false);
+                        isLoadingPage = false;
+                        Toast.makeText(getContext(), "Error loading transactions: " + e.getMessage(),
+                            Toast.LENGTH_SHORT).show();
+                    });
+                }
+            }
+        }).start();
     }
     
     /**
-     * Update summary information
+     * Update summary information (semua transaksi yang cocok dengan filter, bukan hanya yang dimuat)
      */
-    private void updateSummary() {
-        int totalTransactions = transactionList.size();
-        double totalAmount = 0.0;
-        
-        for (Transaction transaction : transactionList) {
-            if ("COMPLETED".equals(transaction.getStatus())) {
-                totalAmount += transaction.getTotalAmount();
-            }
-        }
-        
-        tvTotalTransactions.setText(totalTransactions + " transaksi");
-        tvTotalAmount.setText(String.format("Rp %.0f", totalAmount));
+    private void updateSummary(TransactionSummary summary) {
+        tvTotalTransactions.setText(summary.getTransactionCount() + " transaksi");
+        tvTotalAmount.setText(MoneyUtils.format(summary.getCompletedTotal()));
     }
     
     /**
@@ -274,12 +285,10 @@ public class TransactionHistoryFragment extends Fragment implements TransactionA
     /**
      * Format date time untuk display
      */
-    private String formatDateTime(String dateTime) {
-        if (dateTime == null) return "Unknown";
+    private String formatDateTime(long createdAt) {
+        if (createdAt <= 0) return "Unknown";
         
-        // Simple format untuk demo
-        // TODO: Implement proper date formatting
-        return dateTime.replace("T", " ").substring(0, 16);
+        return new SimpleDateFormat(AppConfig.DATE_FORMAT_DISPLAY, Locale.getDefault()).format(new Date(createdAt));
     }
     
     @Override
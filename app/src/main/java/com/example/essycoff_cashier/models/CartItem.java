@@ -1,5 +1,7 @@
 package com.example.essycoff_cashier.models;
 
+import com.example.essycoff_cashier.utils.MoneyUtils;
+
 /**
  * Model class untuk item dalam keranjang belanja
  * Digunakan untuk menyimpan produk yang dipilih customer beserta jumlahnya
@@ -8,7 +10,7 @@ public class CartItem {
     private String id;
     private Product product;
     private int quantity;
-    private double subtotal;
+    private long subtotal; // rupiah penuh
     private String notes; // Catatan khusus untuk item (misal: tanpa gula, extra shot)
 
     // Constructor kosong
@@ -61,11 +63,11 @@ public class CartItem {
         }
     }
 
-    public double getSubtotal() {
+    public long getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(double subtotal) {
+    public void setSubtotal(long subtotal) {
         this.subtotal = subtotal;
     }
 
@@ -100,7 +102,7 @@ public class CartItem {
 
     // Method untuk format subtotal dalam Rupiah
     public String getFormattedSubtotal() {
-        return String.format("Rp %.0f", subtotal);
+        return MoneyUtils.format(subtotal);
     }
 
     @Override
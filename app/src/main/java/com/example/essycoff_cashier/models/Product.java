@@ -1,5 +1,7 @@
 package com.example.essycoff_cashier.models;
 
+import com.example.essycoff_cashier.utils.MoneyUtils;
+
 /**
  * Model class untuk data produk kopi dan makanan
  * Digunakan untuk menyimpan informasi menu coffee shop
@@ -8,19 +10,19 @@ public class Product {
     private String id;
     private String name;
     private String description;
-    private double price;
+    private long price; // rupiah penuh
     private String category; // "COFFEE", "FOOD", "BEVERAGE"
     private String imageUrl;
     private int stock;
     private boolean isAvailable;
-    private String createdAt;
-    private String updatedAt;
+    private long createdAt; // epoch milidetik
+    private long updatedAt; // epoch milidetik
 
     // Constructor kosong untuk JSON parsing
     public Product() {}
 
     // Constructor dengan parameter
-    public Product(String id, String name, String description, double price, String category) {
+    public Product(String id, String name, String description, long price, String category) {
         this.id = id;
         this.name = name;
         this.description = description;
@@ -31,7 +33,7 @@ public class Product {
     }
 
     // Constructor untuk sample data dengan stock dan availability
-    public Product(String id, String name, String category, double price, int stock, boolean isAvailable) {
+    public Product(String id, String name, String category, long price, int stock, boolean isAvailable) {
         this.id = id;
         this.name = name;
         this.description = "";
@@ -41,6 +43,20 @@ public class Product {
         this.isAvailable = isAvailable;
     }
 
+    // Constructor salinan, untuk mengubah produk tanpa mengubah objek yang sedang ditampilkan adapter
+    public Product(Product other) {
+        this.id = other.id;
+        this.name = other.name;
+        this.description = other.description;
+        this.price = other.price;
+        this.category = other.category;
+        this.imageUrl = other.imageUrl;
+        this.stock = other.stock;
+        this.isAvailable = other.isAvailable;
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+    }
+
     // Getter dan Setter methods
     public String getId() {
         return id;
@@ -70,11 +86,11 @@ public class Product {
         this.description = description;
     }
 
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
-    public void setPrice(double price) {
+    public void setPrice(long price) {
         this.price = price;
     }
 
@@ -110,25 +126,25 @@ public class Product {
         isAvailable = available;
     }
 
-    public String getCreatedAt() {
+    public long getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(String createdAt) {
+    public void setCreatedAt(long createdAt) {
         this.createdAt = createdAt;
     }
 
-    public String getUpdatedAt() {
+    public long getUpdatedAt() {
         return updatedAt;
     }
 
-    public void setUpdatedAt(String updatedAt) {
+    public void setUpdatedAt(long updatedAt) {
         this.updatedAt = updatedAt;
     }
 
     // Method untuk format harga dalam Rupiah
     public String getFormattedPrice() {
-        return String.format("Rp %.0f", price);
+        return MoneyUtils.format(price);
     }
 
     // Method untuk mengecek apakah produk tersedia (stock > 0 dan available)
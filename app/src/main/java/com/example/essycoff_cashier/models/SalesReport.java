@@ -0,0 +1,128 @@
+package com.example.essycoff_cashier.models;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Ringkasan penjualan satu rentang waktu, hasil function get_sales_report di Supabase
+ * Semua nilai uang dalam rupiah penuh.
+ */
+public class SalesReport {
+    @SerializedName("from_ms")
+    private long fromMs;
+    @SerializedName("to_ms")
+    private long toMs;
+    @SerializedName("total_sales")
+    private long totalSales;
+    @SerializedName("transaction_count")
+    private int transactionCount;
+    @SerializedName("payment_methods")
+    private List<PaymentMethodTotal> paymentMethods;
+    @SerializedName("top_products")
+    private List<ProductSales> topProducts;
+    @SerializedName("top_categories")
+    private List<CategorySales> topCategories;
+
+    public long getFromMs() {
+        return fromMs;
+    }
+
+    public long getToMs() {
+        return toMs;
+    }
+
+    public long getTotalSales() {
+        return totalSales;
+    }
+
+    public int getTransactionCount() {
+        return transactionCount;
+    }
+
+    /**
+     * Rata-rata per transaksi, dibulatkan ke rupiah terdekat
+     */
+    public long getAverageTransaction() {
+        return transactionCount == 0 ? 0 : (totalSales + transactionCount / 2) / transactionCount;
+    }
+
+    public List<PaymentMethodTotal> getPaymentMethods() {
+        return paymentMethods != null ? paymentMethods : Collections.emptyList();
+    }
+
+    /**
+     * Produk terlaris menurut pendapatan, terbesar lebih dulu
+     */
+    public List<ProductSales> getTopProducts() {
+        return topProducts != null ? topProducts : Collections.emptyList();
+    }
+
+    public List<CategorySales> getTopCategories() {
+        return topCategories != null ? topCategories : Collections.emptyList();
+    }
+
+    public static class PaymentMethodTotal {
+        @SerializedName("payment_method")
+        private String paymentMethod;
+        @SerializedName("transaction_count")
+        private int transactionCount;
+        @SerializedName("total_sales")
+        private long totalSales;
+
+        public String getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        public int getTransactionCount() {
+            return transactionCount;
+        }
+
+        public long getTotalSales() {
+            return totalSales;
+        }
+    }
+
+    public static class ProductSales {
+        @SerializedName("product_name")
+        private String productName;
+        private String category;
+        private int quantity;
+        private long revenue;
+
+        public String getProductName() {
+            return productName;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getRevenue() {
+            return revenue;
+        }
+    }
+
+    public static class CategorySales {
+        private String category;
+        private int quantity;
+        private long revenue;
+
+        public String getCategory() {
+            return category;
+        }
+
+        public int getQuantity() {
+            return quantity;
+        }
+
+        public long getRevenue() {
+            return revenue;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.essycoff_cashier.models;
 
+import com.example.essycoff_cashier.utils.MoneyUtils;
+
 import java.util.List;
 
 /**
@@ -12,15 +14,16 @@ public class Transaction {
     private String userId; // ID kasir yang melayani
     private String userFullName; // Nama kasir
     private List<CartItem> items;
-    private double subtotal;
-    private double tax; // PPN 10%
-    private double discount;
-    private double totalAmount;
-    private double paidAmount;
-    private double changeAmount;
+    // Semua nilai uang dalam rupiah penuh
+    private long subtotal;
+    private long tax; // PPN 10%
+    private long discount;
+    private long totalAmount;
+    private long paidAmount;
+    private long changeAmount;
     private String paymentMethod; // "CASH", "CARD", "DIGITAL_WALLET"
     private String status; // "COMPLETED", "CANCELLED", "REFUNDED"
-    private String createdAt;
+    private long createdAt; // epoch milidetik
     private String notes;
 
     // Constructor kosong
@@ -84,28 +87,28 @@ public class Transaction {
         calculateTotals();
     }
 
-    public double getSubtotal() {
+    public long getSubtotal() {
         return subtotal;
     }
 
-    public void setSubtotal(double subtotal) {
+    public void setSubtotal(long subtotal) {
         this.subtotal = subtotal;
     }
 
-    public double getTax() {
+    public long getTax() {
         return tax;
     }
 
-    public void setTax(double tax) {
+    public void setTax(long tax) {
         this.tax = tax;
     }
     
     // Alias methods for DatabaseHelper compatibility
-    public double getTaxAmount() {
+    public long getTaxAmount() {
         return tax;
     }
     
-    public void setTaxAmount(double taxAmount) {
+    public void setTaxAmount(long taxAmount) {
         this.tax = taxAmount;
     }
     
@@ -117,44 +120,44 @@ public class Transaction {
         this.userId = String.valueOf(cashierId);
     }
     
-    public double getPaymentAmount() {
+    public long getPaymentAmount() {
         return paidAmount;
     }
     
-    public void setPaymentAmount(double paymentAmount) {
+    public void setPaymentAmount(long paymentAmount) {
         this.paidAmount = paymentAmount;
     }
 
-    public double getDiscount() {
+    public long getDiscount() {
         return discount;
     }
 
-    public void setDiscount(double discount) {
+    public void setDiscount(long discount) {
         this.discount = discount;
     }
 
-    public double getTotalAmount() {
+    public long getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(double totalAmount) {
+    public void setTotalAmount(long totalAmount) {
         this.totalAmount = totalAmount;
     }
 
-    public double getPaidAmount() {
+    public long getPaidAmount() {
         return paidAmount;
     }
 
-    public void setPaidAmount(double paidAmount) {
+    public void setPaidAmount(long paidAmount) {
         this.paidAmount = paidAmount;
         this.changeAmount = paidAmount - totalAmount;
     }
 
-    public double getChangeAmount() {
+    public long getChangeAmount() {
         return changeAmount;
     }
 
-    public void setChangeAmount(double changeAmount) {
+    public void setChangeAmount(long changeAmount) {
         this.changeAmount = changeAmount;
     }
 
@@ -174,11 +177,11 @@ public class Transaction {
         this.status = status;
     }
 
-    public String getCreatedAt() {
+    public long getCreatedAt() {
         return createdAt;
     }
 
-    public void setCreatedAt(String createdAt) {
+    public void setCreatedAt(long createdAt) {
         this.createdAt = createdAt;
     }
 
@@ -198,8 +201,8 @@ public class Transaction {
                 subtotal += item.getSubtotal();
             }
             
-            // Hitung pajak 10%
-            tax = subtotal * 0.10;
+            // Hitung pajak 10% (bilangan bulat, dibulatkan ke rupiah terdekat)
+            tax = MoneyUtils.calculateTax(subtotal);
             
             // Total = subtotal + pajak - diskon
             totalAmount = subtotal + tax - discount;
@@ -208,27 +211,27 @@ public class Transaction {
 
     // Method untuk format mata uang
     public String getFormattedSubtotal() {
-        return String.format("Rp %.0f", subtotal);
+        return MoneyUtils.format(subtotal);
     }
 
     public String getFormattedTax() {
-        return String.format("Rp %.0f", tax);
+        return MoneyUtils.format(tax);
     }
 
     public String getFormattedDiscount() {
-        return String.format("Rp %.0f", discount);
+        return MoneyUtils.format(discount);
     }
 
     public String getFormattedTotalAmount() {
-        return String.format("Rp %.0f", totalAmount);
+        return MoneyUtils.format(totalAmount);
     }
 
     public String getFormattedPaidAmount() {
-        return String.format("Rp %.0f", paidAmount);
+        return MoneyUtils.format(paidAmount);
     }
 
     public String getFormattedChangeAmount() {
-        return String.format("Rp %.0f", changeAmount);
+        return MoneyUtils.format(changeAmount);
     }
 
     // Method untuk mendapatkan jumlah total item
@@ -0,0 +1,92 @@
+package com.example.essycoff_cashier.network;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker untuk satu host
+ * Setelah failureThreshold kegagalan berturut-turut (jaringan atau 5xx) breaker terbuka dan
+ * request langsung ditolak selama openMs, sehingga layar bisa segera memakai data lokal.
+ * Setelah itu satu request percobaan dibiarkan lewat (HALF_OPEN): berhasil menutup breaker,
+ * gagal membukanya lagi.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMs;
+    private final LongSupplier clockMs;
+
+    // Dijaga oleh lock instance
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMs;
+    private boolean probeInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMs, LongSupplier clockMs) {
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+        this.clockMs = clockMs;
+    }
+
+    /**
+     * @return false jika request harus langsung ditolak
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clockMs.getAsLong() - openedAtMs < openMs) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+        return true;
+    }
+
+    /**
+     * Server menjawab (termasuk 4xx): host dianggap sehat
+     */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    /**
+     * @return true jika kegagalan ini membuka breaker
+     */
+    synchronized boolean onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAtMs = clockMs.getAsLong();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Request dibatalkan pemanggil: bukan bukti host sehat atau rusak
+     */
+    synchronized void onIgnored() {
+        probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && clockMs.getAsLong() - openedAtMs >= openMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+}
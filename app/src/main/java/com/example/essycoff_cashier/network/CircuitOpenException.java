@@ -0,0 +1,20 @@
+package com.example.essycoff_cashier.network;
+
+import java.io.IOException;
+
+/**
+ * Request ditolak tanpa menyentuh jaringan karena circuit breaker host sedang terbuka
+ * Turunan IOException supaya jalur error yang sudah ada (toast, data lokal) tetap berlaku.
+ */
+public class CircuitOpenException extends IOException {
+    private final String host;
+
+    public CircuitOpenException(String host) {
+        super("Circuit open for " + host);
+        this.host = host;
+    }
+
+    public String getHost() {
+        return host;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.essycoff_cashier.network;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Batas waktu absolut untuk satu pekerjaan yang terdiri dari beberapa request
+ * (misalnya semua halaman satu sinkron katalog). Dipasang pada request dengan
+ * {@code Request.Builder.tag(Deadline.class, deadline)}; ResilienceInterceptor tidak akan
+ * mencoba ulang atau menunggu melewati batas ini.
+ */
+public final class Deadline {
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    long deadlineNanos() {
+        return deadlineNanos;
+    }
+
+    public long remainingMillis() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.essycoff_cashier.network;
+
+import android.util.Log;
+
+import com.example.essycoff_cashier.BuildConfig;
+import com.example.essycoff_cashier.config.AppConfig;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * Satu OkHttpClient untuk seluruh aplikasi
+ * Dipakai oleh database/SupabaseClient (Java) dan engine ktor di utils/SupabaseClient.kt,
+ * sehingga keduanya berbagi connection pool, dispatcher, dan sesi TLS.
+ * Client turunan untuk kebutuhan khusus dibuat dengan get().newBuilder() agar
+ * pool dan dispatcher tetap sama.
+ */
+public final class HttpClientProvider {
+    private static final String TAG = "HttpClientProvider";
+
+    // Semua request menuju satu host Supabase; dengan HTTP/2 cukup satu koneksi,
+    // sisanya cadangan untuk host lain (storage, auth) dan fallback HTTP/1.1
+    static final int MAX_IDLE_CONNECTIONS = 5;
+    static final long KEEP_ALIVE_MINUTES = 5;
+    static final int MAX_REQUESTS = 32;
+    static final int MAX_REQUESTS_PER_HOST = 16;
+
+    private static OkHttpClient client;
+    private static ResilienceInterceptor resilience;
+
+    private HttpClientProvider() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+
+    public static synchronized OkHttpClient get() {
+        if (client == null) {
+            resilience = new ResilienceInterceptor();
+            client = newBuilder(resilience).build();
+        }
+        return client;
+    }
+
+    /**
+     * Retry, circuit breaker, dan statistiknya untuk transport bersama
+     */
+    public static synchronized ResilienceInterceptor getResilience() {
+        get();
+        return resilience;
+    }
+
+    /**
+     * Konfigurasi transport dengan pool dan dispatcher baru (dipakai get() dan test)
+     */
+    static OkHttpClient.Builder newBuilder() {
+        return newBuilder(new ResilienceInterceptor());
+    }
+
+    static OkHttpClient.Builder newBuilder(ResilienceInterceptor resilienceInterceptor) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(MAX_REQUESTS);
+        // Stream HTTP/2 ke host yang sama berbagi satu koneksi, jadi batas ini tidak menambah koneksi
+        dispatcher.setMaxRequestsPerHost(MAX_REQUESTS_PER_HOST);
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+                .dispatcher(dispatcher)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                // Satu Wi-Fi yang putus-putus tidak boleh menahan layar lebih dari deadline call;
+                // tiap percobaan dibatasi lebih pendek agar masih ada waktu untuk mencoba ulang
+                .callTimeout(AppConfig.NETWORK_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .connectTimeout(AppConfig.ATTEMPT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .readTimeout(AppConfig.ATTEMPT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .writeTimeout(AppConfig.ATTEMPT_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                // Paling luar: setiap percobaan ulang tetap tercatat oleh logging di bawahnya
+                .addInterceptor(resilienceInterceptor);
+
+        if (BuildConfig.DEBUG) {
+            // BASIC: method, URL, status, durasi. Body dan header (apikey) tidak pernah ditulis ke log
+            builder.addInterceptor(new HttpLoggingInterceptor().setLevel(HttpLoggingInterceptor.Level.BASIC));
+        }
+        return builder;
+    }
+
+    /**
+     * Buka koneksi (DNS, TCP, TLS, negosiasi HTTP/2) ke server sebelum request pertama
+     * Tidak blocking; hasilnya diabaikan, yang penting koneksinya tersimpan di pool.
+     */
+    public static void prewarm(String baseUrl) {
+        prewarm(get(), baseUrl);
+    }
+
+    static void prewarm(OkHttpClient httpClient, String baseUrl) {
+        Request request = new Request.Builder()
+                .url(baseUrl)
+                .head()
+                .build();
+
+        long start = System.nanoTime();
+        httpClient.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                Log.d(TAG, "Prewarm " + baseUrl + " failed: " + e.getMessage());
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                response.close();
+                Log.d(TAG, "Prewarmed " + baseUrl + " (" + response.protocol() + ") in "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+            }
+        });
+    }
+}
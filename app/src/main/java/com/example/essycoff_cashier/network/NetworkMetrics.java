@@ -0,0 +1,88 @@
+package com.example.essycoff_cashier.network;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistik ResilienceInterceptor: satu call bisa terdiri dari beberapa attempt
+ */
+public class NetworkMetrics {
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong shortCircuited = new AtomicLong();
+    private final AtomicLong breakerTrips = new AtomicLong();
+
+    void recordCall() {
+        calls.incrementAndGet();
+    }
+
+    void recordAttempt() {
+        attempts.incrementAndGet();
+    }
+
+    void recordRetry() {
+        retries.incrementAndGet();
+    }
+
+    void recordTimeout() {
+        timeouts.incrementAndGet();
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    void recordShortCircuit() {
+        shortCircuited.incrementAndGet();
+    }
+
+    void recordBreakerTrip() {
+        breakerTrips.incrementAndGet();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Attempt yang habis waktu (connect/read/write) atau call yang melewati deadline
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * Call yang akhirnya gagal (exception atau 5xx terakhir) setelah semua percobaan
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    /**
+     * Call yang ditolak langsung karena breaker terbuka
+     */
+    public long getShortCircuited() {
+        return shortCircuited.get();
+    }
+
+    public long getBreakerTrips() {
+        return breakerTrips.get();
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkMetrics{calls=" + calls + ", attempts=" + attempts + ", retries=" + retries
+                + ", timeouts=" + timeouts + ", failures=" + failures + ", shortCircuited=" + shortCircuited
+                + ", breakerTrips=" + breakerTrips + '}';
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.essycoff_cashier.network;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Penggabungan baca di depan Supabase/SQLite: request identik yang sedang berjalan digabung
+ * menjadi satu panggilan. Hasil tidak disimpan; begitu panggilan selesai, request berikutnya
+ * memicu panggilan baru.
+ *
+ * Kunci diawali nama tabel (misalnya "products?order=name") supaya penulisan bisa melepas
+ * semua request tabel itu lewat invalidate("products?"): request setelah penulisan tidak
+ * ikut request lama yang mungkin membaca data sebelum ditulis.
+ */
+public class ReadCoalescer<V> {
+    private final String name;
+
+    // Dijaga oleh lock instance
+    private final Map<String, CompletableFuture<V>> inFlight = new HashMap<>();
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Loader asinkron, misalnya request OkHttp dengan callback
+     */
+    public interface Loader<V> {
+        void load(Callback<V> callback);
+    }
+
+    public interface Callback<V> {
+        void onSuccess(V value);
+        void onError(String error);
+    }
+
+    public ReadCoalescer(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Ikut request yang sedang berjalan, atau jalankan loader (blocking)
+     */
+    public V get(String key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> flight;
+        boolean leader = false;
+        synchronized (this) {
+            flight = inFlight.get(key);
+            if (flight != null) {
+                coalesced.incrementAndGet();
+            } else {
+                loads.incrementAndGet();
+                flight = new CompletableFuture<>();
+                inFlight.put(key, flight);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            return await(flight);
+        }
+        V value;
+        try {
+            value = loader.call();
+        } catch (Exception e) {
+            complete(key, flight, null, e);
+            throw e;
+        }
+        complete(key, flight, value, null);
+        return value;
+    }
+
+    /**
+     * Versi asinkron dari get: callback dipanggil di thread yang menyelesaikan loader
+     */
+    public void get(String key, Loader<V> loader, Callback<V> callback) {
+        CompletableFuture<V> flight;
+        boolean leader = false;
+        synchronized (this) {
+            flight = inFlight.get(key);
+            if (flight != null) {
+                coalesced.incrementAndGet();
+            } else {
+                loads.incrementAndGet();
+                flight = new CompletableFuture<>();
+                inFlight.put(key, flight);
+                leader = true;
+            }
+        }
+
+        flight.whenComplete((value, error) -> {
+            if (error == null) {
+                callback.onSuccess(value);
+            } else {
+                callback.onError(error.getMessage());
+            }
+        });
+        if (leader) {
+            CompletableFuture<V> leaderFlight = flight;
+            loader.load(new Callback<V>() {
+                @Override
+                public void onSuccess(V value) {
+                    complete(key, leaderFlight, value, null);
+                }
+
+                @Override
+                public void onError(String error) {
+                    complete(key, leaderFlight, null, new IOException(error));
+                }
+            });
+        }
+    }
+
+    /**
+     * Lepas request yang kuncinya diawali keyPrefix; dipanggil setelah penulisan ke tabel terkait.
+     * Request yang sudah berjalan tetap selesai untuk pemanggilnya sendiri.
+     */
+    public synchronized void invalidate(String keyPrefix) {
+        inFlight.keySet().removeIf(key -> key.startsWith(keyPrefix));
+        invalidations.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        invalidate("");
+    }
+
+    private void complete(String key, CompletableFuture<V> flight, V value, Exception error) {
+        synchronized (this) {
+            if (inFlight.get(key) == flight) {
+                inFlight.remove(key);
+            }
+        }
+        if (error == null) {
+            flight.complete(value);
+        } else {
+            flight.completeExceptionally(error);
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Panggilan loader yang benar-benar dijalankan
+     */
+    public long getLoads() {
+        return loads.get();
+    }
+
+    /**
+     * Permintaan yang menumpang request identik yang sedang berjalan (tidak memicu panggilan baru)
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadCoalescer{" + name + ": loads=" + loads + ", coalesced=" + coalesced
+                + ", invalidations=" + invalidations + '}';
+    }
+}
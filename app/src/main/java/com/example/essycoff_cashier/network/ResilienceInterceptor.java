@@ -0,0 +1,270 @@
+package com.example.essycoff_cashier.network;
+
+import android.util.Log;
+
+import com.example.essycoff_cashier.config.AppConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Lapisan eksekusi untuk semua request ke Supabase, dipasang di HttpClientProvider sehingga
+ * berlaku untuk client Java dan Kotlin sekaligus:
+ * - request idempoten (GET/HEAD/PUT/DELETE dan upsert) dicoba ulang maksimal
+ *   AppConfig.MAX_RETRY_ATTEMPTS kali dengan exponential backoff + jitter penuh,
+ *   setelah kegagalan jaringan, timeout, atau status 408/429/502/503/504;
+ *   insert biasa, PATCH, dan RPC tidak pernah dikirim ulang di sini
+ * - circuit breaker per host: host yang terus gagal langsung ditolak dengan CircuitOpenException
+ * - deadline: semua percobaan dan jeda backoff satu call muat dalam call timeout
+ *   (AppConfig.NETWORK_TIMEOUT_SECONDS) atau Deadline pada tag request, mana yang lebih dulu;
+ *   timeout tiap percobaan dipotong ke sisa waktunya
+ *
+ * Untuk call asinkron jeda backoff berjalan di thread dispatcher OkHttp. Jedanya pendek
+ * (maksimal BACKOFF_MAX_MS) dan dispatcher punya cukup thread, jadi ini sengaja dibiarkan.
+ */
+public class ResilienceInterceptor implements Interceptor {
+    private static final String TAG = "ResilienceInterceptor";
+
+    static final long BACKOFF_BASE_MS = 250;
+    static final long BACKOFF_MAX_MS = 4_000;
+    static final int BREAKER_FAILURE_THRESHOLD = 5;
+    static final long BREAKER_OPEN_MS = 15_000;
+
+    private final int maxRetries;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final long defaultDeadlineMs;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMs;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final NetworkMetrics metrics = new NetworkMetrics();
+
+    public ResilienceInterceptor() {
+        this(AppConfig.MAX_RETRY_ATTEMPTS, BACKOFF_BASE_MS, BACKOFF_MAX_MS,
+                TimeUnit.SECONDS.toMillis(AppConfig.NETWORK_TIMEOUT_SECONDS),
+                BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN_MS);
+    }
+
+    ResilienceInterceptor(int maxRetries, long backoffBaseMs, long backoffMaxMs, long defaultDeadlineMs,
+                          int breakerFailureThreshold, long breakerOpenMs) {
+        this.maxRetries = maxRetries;
+        this.backoffBaseMs = backoffBaseMs;
+        this.backoffMaxMs = backoffMaxMs;
+        this.defaultDeadlineMs = defaultDeadlineMs;
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMs = breakerOpenMs;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        long deadlineNanos = deadlineFor(chain);
+        boolean idempotent = isIdempotent(request);
+        String host = request.url().host();
+        CircuitBreaker breaker = breakerFor(host);
+        metrics.recordCall();
+
+        for (int attempt = 0; ; attempt++) {
+            if (!breaker.tryAcquire()) {
+                metrics.recordShortCircuit();
+                throw new CircuitOpenException(host);
+            }
+            long remainingMs = remainingMs(deadlineNanos);
+            if (remainingMs <= 0) {
+                breaker.onIgnored();
+                metrics.recordTimeout();
+                metrics.recordFailure();
+                throw new InterruptedIOException("Deadline exceeded for " + request.url().encodedPath());
+            }
+
+            metrics.recordAttempt();
+            Response response;
+            try {
+                response = proceed(chain, remainingMs);
+            } catch (IOException e) {
+                boolean timeout = e instanceof InterruptedIOException;
+                if (!timeout && chain.call().isCanceled()) {
+                    // Dibatalkan pemanggil, bukan kesalahan host
+                    breaker.onIgnored();
+                    throw e;
+                }
+                if (timeout) {
+                    metrics.recordTimeout();
+                }
+                recordHostFailure(breaker, host);
+                long delayMs = retryDelayMs(attempt, -1);
+                if (!canRetry(chain, idempotent, attempt, delayMs, deadlineNanos)) {
+                    metrics.recordFailure();
+                    throw e;
+                }
+                Log.d(TAG, "Retrying " + request.method() + " " + request.url().encodedPath() + " in "
+                        + delayMs + " ms after " + e.getClass().getSimpleName() + ": " + e.getMessage());
+                sleep(delayMs);
+                continue;
+            }
+
+            int code = response.code();
+            if (code >= 500) {
+                recordHostFailure(breaker, host);
+            } else {
+                breaker.onSuccess();
+            }
+            if (!isRetryableStatus(code)) {
+                if (code >= 500) {
+                    metrics.recordFailure();
+                }
+                return response;
+            }
+            long delayMs = retryDelayMs(attempt, retryAfterMs(response));
+            if (!canRetry(chain, idempotent, attempt, delayMs, deadlineNanos)) {
+                metrics.recordFailure();
+                return response;
+            }
+            response.close();
+            Log.d(TAG, "Retrying " + request.method() + " " + request.url().encodedPath() + " in "
+                    + delayMs + " ms after HTTP " + code);
+            sleep(delayMs);
+        }
+    }
+
+    public NetworkMetrics getMetrics() {
+        return metrics;
+    }
+
+    public CircuitBreaker.State getBreakerState(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        return breaker != null ? breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+
+    private CircuitBreaker breakerFor(String host) {
+        CircuitBreaker breaker = breakers.get(host);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMs,
+                    () -> System.nanoTime() / 1_000_000);
+            CircuitBreaker existing = breakers.putIfAbsent(host, breaker);
+            if (existing != null) {
+                breaker = existing;
+            }
+        }
+        return breaker;
+    }
+
+    private void recordHostFailure(CircuitBreaker breaker, String host) {
+        if (breaker.onFailure()) {
+            metrics.recordBreakerTrip();
+            Log.w(TAG, "Circuit opened for " + host + " for " + breakerOpenMs + " ms; " + metrics);
+        }
+    }
+
+    /**
+     * Deadline terdekat dari: tag Deadline pada request, call timeout OkHttp, dan default
+     */
+    private long deadlineFor(Chain chain) {
+        long now = System.nanoTime();
+        long deadline = now + TimeUnit.MILLISECONDS.toNanos(defaultDeadlineMs);
+        long callTimeoutNanos = chain.call().timeout().timeoutNanos();
+        if (callTimeoutNanos > 0 && now + callTimeoutNanos - deadline < 0) {
+            deadline = now + callTimeoutNanos;
+        }
+        Deadline tagged = chain.request().tag(Deadline.class);
+        if (tagged != null && tagged.deadlineNanos() - deadline < 0) {
+            deadline = tagged.deadlineNanos();
+        }
+        return deadline;
+    }
+
+    private static long remainingMs(long deadlineNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * Satu percobaan dengan timeout connect/read/write yang tidak melewati sisa deadline
+     */
+    private static Response proceed(Chain chain, long remainingMs) throws IOException {
+        int budget = (int) Math.min(Integer.MAX_VALUE, remainingMs);
+        return chain
+                .withConnectTimeout(cap(chain.connectTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .withReadTimeout(cap(chain.readTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .withWriteTimeout(cap(chain.writeTimeoutMillis(), budget), TimeUnit.MILLISECONDS)
+                .proceed(chain.request());
+    }
+
+    private static int cap(int timeoutMs, int budgetMs) {
+        // 0 berarti tanpa batas di OkHttp
+        return timeoutMs == 0 ? budgetMs : Math.min(timeoutMs, budgetMs);
+    }
+
+    private boolean canRetry(Chain chain, boolean idempotent, int attempt, long delayMs, long deadlineNanos) {
+        return idempotent
+                && attempt < maxRetries
+                && !chain.call().isCanceled()
+                && delayMs < remainingMs(deadlineNanos);
+    }
+
+    /**
+     * Full jitter: acak antara 0 dan base * 2^attempt (maksimal backoffMaxMs), supaya terminal yang
+     * gagal bersamaan tidak mencoba ulang bersamaan. Retry-After dari server dihormati sebagai batas bawah.
+     */
+    private long retryDelayMs(int attempt, long retryAfterMs) {
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        return Math.max(delay, retryAfterMs);
+    }
+
+    private static long retryAfterMs(Response response) {
+        String retryAfter = response.header("Retry-After");
+        if (retryAfter == null) {
+            return -1;
+        }
+        try {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+        } catch (NumberFormatException e) {
+            // Format tanggal HTTP tidak dipakai PostgREST; abaikan
+            return -1;
+        }
+    }
+
+    private static void sleep(long delayMs) throws InterruptedIOException {
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during retry backoff");
+        }
+    }
+
+    /**
+     * Aman dikirim ulang: server menghasilkan keadaan yang sama walau request diterima dua kali
+     */
+    static boolean isIdempotent(Request request) {
+        if (request.body() != null && request.body().isOneShot()) {
+            return false;
+        }
+        switch (request.method()) {
+            case "GET":
+            case "HEAD":
+            case "PUT":
+            case "DELETE":
+            case "OPTIONS":
+                return true;
+            case "POST":
+                // Upsert PostgREST (bulkUpsert): baris yang sama ditimpa, bukan digandakan
+                String prefer = request.header("Prefer");
+                return prefer != null && prefer.contains("resolution=");
+            default:
+                return false;
+        }
+    }
+
+    static boolean isRetryableStatus(int code) {
+        return code == 408 || code == 429 || code == 502 || code == 503 || code == 504;
+    }
+}
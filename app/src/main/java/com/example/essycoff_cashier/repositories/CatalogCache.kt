@@ -0,0 +1,180 @@
+package com.example.essycoff_cashier.repositories
+
+import com.example.essycoff_cashier.models.Product
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.flow.updateAndGet
+
+/**
+ * Stale-while-revalidate product catalog: an in-memory snapshot in front of the SQLite rows.
+ *
+ * [catalog] emits whatever is cached right away (memory, else SQLite) and only then asks
+ * the server for changes, emitting a second snapshot if anything changed. A cold start
+ * therefore renders the last synced catalog without waiting on the network, and an
+ * offline terminal keeps working with it.
+ */
+class CatalogCache(
+    private val source: Source,
+    private val maxAgeMs: Long = MAX_AGE_MS,
+    private val clock: () -> Long = System::currentTimeMillis
+) {
+
+    /** Where the catalog comes from; every call blocks, so use a background dispatcher */
+    interface Source {
+        /** Every product stored locally, empty if the catalog was never synced */
+        fun readLocal(): List<Product>
+
+        /** Epoch ms of the last successful sync of the local rows, 0 if never */
+        fun localSyncedAt(): Long
+
+        /**
+         * Sync watermark of the local rows, null if never synced. Moves whenever a sync writes
+         * rows, whoever ran it, so the cache can tell whether its snapshot is behind SQLite.
+         */
+        fun localVersion(): String?
+
+        /** Pull changes from the server into local storage; false if the server was unreachable */
+        fun refresh(): Boolean
+    }
+
+    enum class Refresh { CHANGED, UNCHANGED, FAILED }
+
+    enum class Origin { MEMORY, DISK, NETWORK }
+
+    /**
+     * One version of the catalog.
+     * @param syncedAt Epoch ms at which these rows were last confirmed by the server, 0 if never
+     * @param facets Category counts of [products]
+     * @param version [Source.localVersion] when [products] were read from local storage
+     */
+    data class Snapshot(
+        val products: List<Product>,
+        val syncedAt: Long,
+        val origin: Origin,
+        val facets: CategoryFacets = CategoryFacets.of(products),
+        val version: String? = null
+    ) {
+        fun ageMs(now: Long = System.currentTimeMillis()): Long =
+            if (syncedAt == 0L) Long.MAX_VALUE else (now - syncedAt).coerceAtLeast(0L)
+    }
+
+    private val memory = MutableStateFlow<Snapshot?>(null)
+
+    val stats = CatalogCacheStats()
+
+    /**
+     * Cached catalog first, then the revalidated one if the server had changes.
+     * Revalidation is skipped while the cached rows are younger than maxAgeMs. With nothing
+     * cached the flow waits for the server; if that fails too it emits an empty catalog.
+     * Collect on a background dispatcher.
+     */
+    fun catalog(): Flow<Snapshot> = flow {
+        val cached = cached()
+        if (cached != null) {
+            emit(cached)
+            if (cached.ageMs(clock()) < maxAgeMs) {
+                stats.recordFresh()
+                return@flow
+            }
+        }
+        val refreshed = revalidate(cached)
+        if (refreshed != null) {
+            emit(refreshed)
+        } else if (cached == null) {
+            emit(Snapshot(emptyList(), 0L, Origin.NETWORK))
+        }
+    }
+
+    /**
+     * Current snapshot from memory, else from SQLite (kept in memory afterwards).
+     * Never touches the network; null when nothing is stored locally.
+     */
+    fun cached(): Snapshot? {
+        memory.value?.let {
+            stats.recordHit(Origin.MEMORY, it.ageMs(clock()))
+            return it.copy(origin = Origin.MEMORY)
+        }
+        val fromDisk = readDisk()
+        if (fromDisk == null) {
+            stats.recordMiss()
+            return null
+        }
+        stats.recordHit(Origin.DISK, fromDisk.ageMs(clock()))
+        return fromDisk
+    }
+
+    /**
+     * Drop the memory snapshot and read SQLite again, after someone else rewrote the rows
+     */
+    fun reload(): Snapshot? {
+        memory.value = null
+        return readDisk()
+    }
+
+    /**
+     * Patch the memory snapshot with rows that local storage already holds (realtime pushes,
+     * stock lowered by a local checkout), so the next read does not have to go back to SQLite. Category facets are
+     * adjusted for the changed rows only.
+     * @return The patched snapshot, or null if nothing is in memory yet
+     */
+    fun apply(changed: List<Product>, deletedIds: List<String>): Snapshot? {
+        if (changed.isEmpty() && deletedIds.isEmpty()) return memory.value
+        return memory.updateAndGet { current ->
+            current?.let { snapshot ->
+                val byId = LinkedHashMap<String, Product>(snapshot.products.size + changed.size)
+                snapshot.products.forEach { byId[it.id] = it }
+                val facetChanges = ArrayList<Pair<Product?, Product?>>(changed.size + deletedIds.size)
+                changed.forEach { facetChanges += byId.put(it.id, it) to it }
+                deletedIds.forEach { id -> byId.remove(id)?.let { facetChanges += it to null } }
+                // Same order as the SQLite read: category, then name
+                val products = byId.values.sortedWith(compareBy({ it.category }, { it.name }))
+                snapshot.copy(products = products, facets = snapshot.facets.plus(facetChanges))
+            }
+        }
+    }
+
+    private fun readDisk(): Snapshot? {
+        // Watermark first: a sync landing in between makes the snapshot look older, never newer
+        val version = source.localVersion()
+        val products = source.readLocal()
+        if (products.isEmpty()) return null
+        val snapshot = Snapshot(products, source.localSyncedAt(), Origin.DISK, version = version)
+        memory.value = snapshot
+        return snapshot
+    }
+
+    /**
+     * Ask the server for changes. Returns the snapshot to publish, or null when there is
+     * nothing new to show (unchanged while cached, or unreachable).
+     *
+     * Changes are judged against the watermark the cached rows were read at, not against the
+     * watermark just before this sync: another screen may have synced in between.
+     */
+    private fun revalidate(cached: Snapshot?): Snapshot? {
+        val result = when {
+            !source.refresh() -> Refresh.FAILED
+            cached != null && cached.version == source.localVersion() -> Refresh.UNCHANGED
+            else -> Refresh.CHANGED
+        }
+        stats.recordRevalidation(result)
+        return when (result) {
+            Refresh.FAILED -> null
+            Refresh.UNCHANGED -> {
+                // Keep patches applied since cached was read; only the confirmation time moves
+                memory.update { it?.copy(syncedAt = clock()) }
+                null
+            }
+            Refresh.CHANGED -> {
+                memory.value = null
+                readDisk()?.copy(origin = Origin.NETWORK)
+            }
+        }
+    }
+
+    companion object {
+        /** Cached rows younger than this are served without asking the server */
+        const val MAX_AGE_MS = 30_000L
+    }
+}
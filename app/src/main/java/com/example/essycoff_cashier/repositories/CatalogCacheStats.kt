@@ -0,0 +1,71 @@
+package com.example.essycoff_cashier.repositories
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters for [CatalogCache]: which tier answered reads and how old the data was
+ */
+class CatalogCacheStats {
+    private val memoryHits = AtomicLong()
+    private val diskHits = AtomicLong()
+    private val misses = AtomicLong()
+    private val fresh = AtomicLong()
+    private val revalidations = AtomicLong()
+    private val revalidationFailures = AtomicLong()
+    @Volatile private var lastAgeMs = -1L
+
+    /** Reads answered from the in-memory snapshot */
+    val memoryHitCount: Long get() = memoryHits.get()
+
+    /** Reads answered from SQLite */
+    val diskHitCount: Long get() = diskHits.get()
+
+    /** Reads that found nothing stored locally and had to wait for the server */
+    val missCount: Long get() = misses.get()
+
+    /** Reads whose cached rows were young enough to skip revalidation */
+    val freshCount: Long get() = fresh.get()
+
+    /** Server checks made in the background */
+    val revalidationCount: Long get() = revalidations.get()
+
+    /** Server checks that failed (offline, timeout); the cached catalog stayed on screen */
+    val revalidationFailureCount: Long get() = revalidationFailures.get()
+
+    /** Share of reads answered locally, memory or SQLite */
+    val hitRate: Double
+        get() {
+            val hits = memoryHitCount + diskHitCount
+            val total = hits + missCount
+            return if (total == 0L) 0.0 else hits.toDouble() / total
+        }
+
+    /**
+     * Age in ms of the catalog served by the last local hit; -1 before the first hit,
+     * [Long.MAX_VALUE] if those rows were never confirmed by the server
+     */
+    val lastServedAgeMs: Long get() = lastAgeMs
+
+    internal fun recordHit(origin: CatalogCache.Origin, ageMs: Long) {
+        if (origin == CatalogCache.Origin.MEMORY) memoryHits.incrementAndGet() else diskHits.incrementAndGet()
+        lastAgeMs = ageMs
+    }
+
+    internal fun recordMiss() {
+        misses.incrementAndGet()
+    }
+
+    internal fun recordFresh() {
+        fresh.incrementAndGet()
+    }
+
+    internal fun recordRevalidation(result: CatalogCache.Refresh) {
+        revalidations.incrementAndGet()
+        if (result == CatalogCache.Refresh.FAILED) revalidationFailures.incrementAndGet()
+    }
+
+    override fun toString(): String =
+        "CatalogCacheStats{memory=$memoryHitCount, disk=$diskHitCount, miss=$missCount, " +
+            "hitRate=${"%.2f".format(hitRate)}, fresh=$freshCount, revalidations=$revalidationCount, " +
+            "failed=$revalidationFailureCount, lastAgeMs=$lastServedAgeMs}"
+}
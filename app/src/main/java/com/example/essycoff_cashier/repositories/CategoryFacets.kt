@@ -0,0 +1,71 @@
+package com.example.essycoff_cashier.repositories
+
+import com.example.essycoff_cashier.models.Product
+import java.util.TreeMap
+
+/**
+ * Product counts per category for the cached catalog, sorted by category name.
+ *
+ * Built once when the catalog is read, then updated per changed row with [plus], so a
+ * stock or price push touches one or two entries instead of re-scanning every product.
+ * Instances are immutable; updates return a copy (the map holds one entry per category).
+ */
+class CategoryFacets private constructor(private val facets: TreeMap<String, Facet>) {
+
+    /**
+     * @param productCount Products in the category, including ones that cannot be sold now
+     * @param availableCount Products that can be sold now ([Product.canBeSold])
+     */
+    data class Facet(val category: String, val productCount: Int, val availableCount: Int) {
+        val isAvailable: Boolean get() = availableCount > 0
+    }
+
+    /** Category names, sorted */
+    val categories: List<String> by lazy { facets.keys.toList() }
+
+    val size: Int get() = facets.size
+
+    fun all(): List<Facet> = facets.values.toList()
+
+    operator fun get(category: String): Facet? = facets[category]
+
+    /**
+     * Copy with product changes applied. Each pair is (before, after): before is null for
+     * a new product, after is null for a deleted one.
+     */
+    fun plus(changes: List<Pair<Product?, Product?>>): CategoryFacets {
+        if (changes.isEmpty()) return this
+        val updated = TreeMap(facets)
+        for ((before, after) in changes) {
+            before?.let { add(updated, it, -1) }
+            after?.let { add(updated, it, 1) }
+        }
+        return CategoryFacets(updated)
+    }
+
+    override fun equals(other: Any?): Boolean = other is CategoryFacets && other.facets == facets
+
+    override fun hashCode(): Int = facets.hashCode()
+
+    override fun toString(): String = "CategoryFacets${facets.values}"
+
+    companion object {
+        val EMPTY = CategoryFacets(TreeMap())
+
+        fun of(products: Collection<Product>): CategoryFacets {
+            val facets = TreeMap<String, Facet>()
+            products.forEach { add(facets, it, 1) }
+            return CategoryFacets(facets)
+        }
+
+        private fun add(facets: TreeMap<String, Facet>, product: Product, sign: Int) {
+            val category = product.category ?: return
+            val current = facets[category] ?: Facet(category, 0, 0)
+            val next = current.copy(
+                productCount = current.productCount + sign,
+                availableCount = current.availableCount + if (product.canBeSold()) sign else 0
+            )
+            if (next.productCount <= 0) facets.remove(category) else facets[category] = next
+        }
+    }
+}
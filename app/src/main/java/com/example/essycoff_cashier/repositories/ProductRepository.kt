@@ -1,25 +1,56 @@
 package com.example.essycoff_cashier.repositories
 
+import com.example.essycoff_cashier.database.DatabaseHelper
 import com.example.essycoff_cashier.models.Product
+import com.example.essycoff_cashier.network.ReadCoalescer
+import com.example.essycoff_cashier.sync.CatalogSyncer
 import com.example.essycoff_cashier.utils.SupabaseClient
 import io.github.jan.supabase.postgrest.from
-import io.github.jan.supabase.postgrest.query.Columns
+import io.github.jan.supabase.postgrest.postgrest
+import io.github.jan.supabase.postgrest.rpc
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.catch
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.flow
 import kotlinx.coroutines.flow.flowOn
 import kotlinx.coroutines.withContext
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.put
+import java.util.concurrent.Callable
 
-class ProductRepository {
+class ProductRepository(
+    private val databaseHelper: DatabaseHelper,
+    private val catalogSyncer: CatalogSyncer
+) {
     
     private val client = SupabaseClient.client
     
+    // Screens sharing this repository can ask for the same search at once; run it once.
+    // Results are not kept, so catalog changes show up immediately.
+    private val searchReads = ReadCoalescer<List<Product>>("product-search")
+    
+    // Catalog in memory, backed by the synced SQLite rows; the server is asked in the background
+    private val catalogCache = CatalogCache(object : CatalogCache.Source {
+        override fun readLocal(): List<Product> = databaseHelper.getProductsByCategory()
+        
+        override fun localSyncedAt(): Long = databaseHelper.getSyncState(CatalogSyncer.TABLE)?.syncedAt ?: 0L
+        
+        override fun localVersion(): String? =
+            databaseHelper.getSyncState(CatalogSyncer.TABLE)?.let { "${it.lastUpdatedAt}|${it.lastId}" }
+        
+        override fun refresh(): Boolean = catalogSyncer.sync()
+    })
+    
+    /** Which tier answered catalog reads and how old the served data was */
+    val catalogStats: CatalogCacheStats get() = catalogCache.stats
+    
     /**
-     * Get all products with optional search query and category filter
-     * @param query Search query to filter products by name or description
+     * Search products in the local full-text index (works offline, no request per keystroke)
+     * @param query Search text; every word is matched as a prefix of name, description or category
      * @param category Category to filter products by
      * @param limit Maximum number of products to return
-     * @return Flow of list of products
+     * @return Flow of list of products, most relevant first
      */
     fun searchProducts(
         query: String = "",
@@ -27,31 +58,10 @@ class ProductRepository {
         limit: Int = 20
     ): Flow<List<Product>> = flow {
         try {
-            val result = client.from("products").select(
-                columns = Columns.list(
-                    "id", "name", "description", "price", "category", "image_url", "stock"
-                )
-            ) {
-                // Apply search query if provided
-                if (query.isNotBlank()) {
-                    or {
-                        ilike("name", "%$query%")
-                        ilike("description", "%$query%")
-                    }
-                }
-                
-                // Apply category filter if provided
-                if (!category.isNullOrBlank()) {
-                    eq("category", category)
-                }
-                
-                // Apply limit
-                limit(limit)
-                
-                // Order by name
-                order("name")
-            }.decodeList<Product>()
-            
+            val filter = category?.takeIf { it.isNotBlank() }
+            val result = searchReads.get("$query|$filter|$limit", Callable {
+                databaseHelper.searchProducts(query, filter, limit)
+            })
             emit(result)
         } catch (e: Exception) {
             e.printStackTrace()
@@ -60,44 +70,79 @@ class ProductRepository {
     }.flowOn(Dispatchers.IO)
     
     /**
-     * Get all unique product categories
+     * Every category in the catalog, sorted, from the facets kept with the cached catalog
      */
-    suspend fun getCategories(): List<String> = withContext(Dispatchers.IO) {
+    suspend fun getCategories(): List<String> = getCategoryFacets().categories
+    
+    /**
+     * Product and sellable counts per category. Served from memory (or SQLite on a cold start);
+     * the server is only asked when nothing has been synced yet.
+     */
+    suspend fun getCategoryFacets(): CategoryFacets = withContext(Dispatchers.IO) {
         try {
-            client.from("products")
-                .select(columns = Columns.list("category"))
-                .decodeList<Map<String, String>>()
-                .mapNotNull { it["category"] }
-                .distinct()
-                .sorted()
+            currentCatalog().facets
         } catch (e: Exception) {
             e.printStackTrace()
-            emptyList()
+            CategoryFacets.EMPTY
         }
     }
     
-    suspend fun getAllProducts(): List<Product> = withContext(Dispatchers.IO) {
+    /**
+     * The product catalog, stale-while-revalidate: the cached catalog is emitted at once,
+     * then again after a background sync if the server had changes. Offline, only the cached
+     * catalog is emitted. Each snapshot carries its age ([CatalogCache.Snapshot.ageMs]).
+     */
+    fun observeCatalog(): Flow<CatalogCache.Snapshot> = catalogCache.catalog()
+        // Whatever was already emitted stays on screen
+        .catch { e -> e.printStackTrace() }
+        .flowOn(Dispatchers.IO)
+    
+    /**
+     * Every product cached locally, without contacting the server
+     * @param reload Read SQLite again instead of the memory snapshot, after a sync elsewhere rewrote it
+     */
+    suspend fun getLocalProducts(reload: Boolean = false): List<Product> = withContext(Dispatchers.IO) {
         try {
-            client.from("products").select().decodeList<Product>()
+            val snapshot = if (reload) catalogCache.reload() else catalogCache.cached()
+            snapshot?.products ?: emptyList()
         } catch (e: Exception) {
             e.printStackTrace()
             emptyList()
         }
     }
     
+    /**
+     * Keep the memory snapshot in step with rows the change feed already wrote to SQLite
+     * @return The patched catalog, or null if the catalog is not in memory yet
+     */
+    fun applyLocalChanges(changed: List<Product>, deletedIds: List<String>): CatalogCache.Snapshot? =
+        catalogCache.apply(changed, deletedIds)
+    
+    /**
+     * Look the product up in the cached catalog; only products not synced yet go to Supabase
+     */
     suspend fun getProductById(productId: String): Product? = withContext(Dispatchers.IO) {
         try {
-            client.from("products").select {
-                filter {
-                    eq("id", productId)
-                }
-            }.decodeSingleOrNull<Product>()
+            currentCatalog().products.firstOrNull { it.id == productId }
+                ?: client.from("products").select {
+                    filter {
+                        eq("id", productId)
+                    }
+                }.decodeSingleOrNull<Product>()
         } catch (e: Exception) {
             e.printStackTrace()
             null
         }
     }
     
+    // Cached catalog without revalidating; waits for the first sync only when nothing is cached
+    private suspend fun currentCatalog(): CatalogCache.Snapshot = catalogCache.catalog().first()
+    
+    /**
+     * Set stock to an absolute value. Two terminals writing absolute values overwrite
+     * each other's sales, so prefer [adjustProductStock] for manual corrections.
+     */
+    @Deprecated("Use adjustProductStock with a delta", ReplaceWith("adjustProductStock(productId, delta)"))
     suspend fun updateProductStock(productId: String, newStock: Int): Boolean = withContext(Dispatchers.IO) {
         try {
             client.from("products").update(
@@ -113,4 +158,33 @@ class ProductRepository {
             false
         }
     }
+    
+    /**
+     * Apply a relative stock change on the server via the adjust_product_stock RPC, for
+     * manual corrections such as restocking. Sales must not call this: ingest_transactions
+     * already decrements stock when the outbox delivers a checkout.
+     * The update is conditional server-side, so a negative delta that would take
+     * stock below zero is rejected instead of overselling.
+     * @param delta Change in stock, negative for sales
+     * @return New stock level, or null if the change was rejected or failed
+     */
+    suspend fun adjustProductStock(productId: String, delta: Int): Int? = withContext(Dispatchers.IO) {
+        try {
+            client.postgrest.rpc(
+                "adjust_product_stock",
+                buildJsonObject {
+                    put("p_product_id", productId.toInt())
+                    put("p_delta", delta)
+                }
+            ).decodeAs<Int>()
+        } catch (e: Exception) {
+            e.printStackTrace()
+            null
+        }
+    }
+    
+    /**
+     * Loads vs. coalesced reads of the repository, for diagnostics
+     */
+    fun readStats(): List<ReadCoalescer<*>> = listOf(searchReads)
 }
@@ -0,0 +1,416 @@
+package com.example.essycoff_cashier.search;
+
+import com.example.essycoff_cashier.models.Product;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Index pencarian produk di memori: setiap ketikan dijawab tanpa query SQLite atau jaringan
+ * Kata pada nama, kategori, dan deskripsi disimpan di kamus terurut untuk pencocokan prefix
+ * ("capp" -> Cappuccino). Kata yang tidak punya prefix cocok dicari lewat trigram lalu
+ * diverifikasi dengan edit distance, sehingga salah ketik seperti "kroisan" tetap menemukan
+ * Croissant. Perubahan katalog diterapkan per produk (upsert/remove) tanpa membangun ulang.
+ *
+ * Semua method thread-safe. Objek Product yang dimasukkan dianggap tidak diubah lagi;
+ * untuk perubahan, upsert objek baru.
+ */
+public class ProductSearchIndex {
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    private static final int SCORE_EXACT = 3;
+    private static final int SCORE_PREFIX = 2;
+    private static final int SCORE_FUZZY = 1;
+    private static final int BOOST_NAME_PREFIX = 2;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    // kata -> id produk yang memuatnya
+    private final TreeMap<String, Set<String>> terms = new TreeMap<>();
+    // trigram -> kata di kamus yang memuatnya
+    private final Map<String, Set<String>> trigrams = new HashMap<>();
+    // Urutan nama untuk query kosong; null setelah katalog berubah
+    private List<Entry> byName;
+
+    /**
+     * Hasil satu pencarian
+     */
+    public static class SearchResult {
+        private final List<Product> products;
+        private final Map<String, Integer> categoryCounts;
+        private final int totalMatches;
+
+        SearchResult(List<Product> products, Map<String, Integer> categoryCounts, int totalMatches) {
+            this.products = products;
+            this.categoryCounts = categoryCounts;
+            this.totalMatches = totalMatches;
+        }
+
+        /**
+         * Produk paling relevan lebih dulu, paling banyak sebanyak limit
+         */
+        public List<Product> getProducts() {
+            return products;
+        }
+
+        /**
+         * Jumlah produk yang cocok dengan teks per kategori, tanpa filter kategori,
+         * untuk angka di chip kategori. Urut nama kategori.
+         */
+        public Map<String, Integer> getCategoryCounts() {
+            return categoryCounts;
+        }
+
+        /**
+         * Jumlah produk yang cocok dengan teks dan kategori sebelum dipotong limit
+         */
+        public int getTotalMatches() {
+            return totalMatches;
+        }
+    }
+
+    private static final class Entry {
+        final Product product;
+        final String sortName;
+        final Set<String> terms;
+
+        Entry(Product product) {
+            this.product = product;
+            this.sortName = normalize(product.getName());
+            this.terms = new LinkedHashSet<>(tokenize(product.getName()));
+            terms.addAll(tokenize(product.getCategory()));
+            terms.addAll(tokenize(product.getDescription()));
+        }
+    }
+
+    private static final Comparator<Entry> BY_NAME = (a, b) -> {
+        int order = a.sortName.compareTo(b.sortName);
+        return order != 0 ? order : a.product.getId().compareTo(b.product.getId());
+    };
+
+    /**
+     * Urutan hasil: skor tertinggi dulu, lalu nama
+     */
+    private static final class Scored implements Comparable<Scored> {
+        final Entry entry;
+        final int score;
+
+        Scored(Entry entry, int score) {
+            this.entry = entry;
+            this.score = score;
+        }
+
+        @Override
+        public int compareTo(Scored other) {
+            int order = Integer.compare(other.score, score);
+            return order != 0 ? order : BY_NAME.compare(entry, other.entry);
+        }
+    }
+
+    /**
+     * Ganti seluruh isi index (sinkron penuh atau muat pertama)
+     */
+    public synchronized void replaceAll(Collection<Product> products) {
+        entries.clear();
+        terms.clear();
+        trigrams.clear();
+        for (Product product : products) {
+            add(product);
+        }
+        byName = null;
+    }
+
+    /**
+     * Tambah produk baru atau ganti versi lama dengan id yang sama
+     */
+    public synchronized void upsert(Collection<Product> products) {
+        for (Product product : products) {
+            removeEntry(product.getId());
+            add(product);
+        }
+        byName = null;
+    }
+
+    public synchronized void remove(Collection<String> ids) {
+        for (String id : ids) {
+            removeEntry(id);
+        }
+        byName = null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Jumlah kata unik di kamus, untuk diagnosa ukuran index
+     */
+    public synchronized int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Cari produk; semua kata di query harus cocok (persis, prefix, atau mirip)
+     *
+     * @param query    teks dari kolom pencarian; kosong berarti semua produk urut nama
+     * @param category filter kategori, atau null untuk semua kategori
+     */
+    public synchronized SearchResult search(String query, String category, int limit) {
+        List<String> tokens = tokenize(query);
+        Map<String, Integer> categoryCounts = new TreeMap<>();
+        int total = 0;
+        if (tokens.isEmpty()) {
+            List<Product> products = new ArrayList<>(Math.min(limit, entries.size()));
+            for (Entry entry : sortedByName()) {
+                countCategory(categoryCounts, entry);
+                if (category == null || category.equals(entry.product.getCategory())) {
+                    total++;
+                    if (products.size() < limit) {
+                        products.add(entry.product);
+                    }
+                }
+            }
+            return new SearchResult(products, categoryCounts, total);
+        }
+
+        Map<String, Integer> scores = null;
+        for (String token : tokens) {
+            Map<String, Integer> tokenScores = matchToken(token);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                scores.keySet().retainAll(tokenScores.keySet());
+                for (Map.Entry<String, Integer> score : scores.entrySet()) {
+                    score.setValue(score.getValue() + tokenScores.get(score.getKey()));
+                }
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+
+        // Hanya `limit` hasil terbaik yang diurutkan; kepala antrean adalah yang terburuk
+        String first = tokens.get(0);
+        PriorityQueue<Scored> top = new PriorityQueue<>(Math.max(1, limit), Collections.reverseOrder());
+        for (Map.Entry<String, Integer> score : scores.entrySet()) {
+            Entry entry = entries.get(score.getKey());
+            countCategory(categoryCounts, entry);
+            if (category != null && !category.equals(entry.product.getCategory())) {
+                continue;
+            }
+            total++;
+            int value = score.getValue() + (entry.sortName.startsWith(first) ? BOOST_NAME_PREFIX : 0);
+            Scored scored = new Scored(entry, value);
+            if (top.size() < limit) {
+                top.add(scored);
+            } else if (limit > 0 && scored.compareTo(top.peek()) < 0) {
+                top.poll();
+                top.add(scored);
+            }
+        }
+        List<Scored> best = new ArrayList<>(top);
+        Collections.sort(best);
+        List<Product> products = new ArrayList<>(best.size());
+        for (Scored scored : best) {
+            products.add(scored.entry.product);
+        }
+        return new SearchResult(products, categoryCounts, total);
+    }
+
+    private static void countCategory(Map<String, Integer> counts, Entry entry) {
+        String category = entry.product.getCategory();
+        if (category != null) {
+            Integer count = counts.get(category);
+            counts.put(category, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * Skor terbaik per produk untuk satu kata query; mirip (fuzzy) hanya dipakai jika
+     * tidak ada kata di kamus yang diawali kata query
+     */
+    private Map<String, Integer> matchToken(String token) {
+        Map<String, Integer> scores = new HashMap<>();
+        NavigableMap<String, Set<String>> prefixed = terms.subMap(token, true, token + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Set<String>> term : prefixed.entrySet()) {
+            int score = term.getKey().equals(token) ? SCORE_EXACT : SCORE_PREFIX;
+            for (String id : term.getValue()) {
+                Integer current = scores.get(id);
+                if (current == null || current < score) {
+                    scores.put(id, score);
+                }
+            }
+        }
+        if (scores.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            for (String term : fuzzyTerms(token)) {
+                for (String id : terms.get(term)) {
+                    scores.put(id, SCORE_FUZZY);
+                }
+            }
+        }
+        return scores;
+    }
+
+    /**
+     * Kata di kamus yang awalannya berjarak edit kecil dari token
+     * Kandidat dikumpulkan dari trigram yang sama, lalu diverifikasi satu per satu.
+     */
+    private List<String> fuzzyTerms(String token) {
+        Set<String> candidates = new HashSet<>();
+        for (String trigram : trigramsOf(token)) {
+            Set<String> withTrigram = trigrams.get(trigram);
+            if (withTrigram != null) {
+                candidates.addAll(withTrigram);
+            }
+        }
+        int maxEdits = token.length() <= 4 ? 1 : 2;
+        List<String> result = new ArrayList<>();
+        for (String term : candidates) {
+            if (prefixEditDistance(token, term, maxEdits) <= maxEdits) {
+                result.add(term);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Edit distance Levenshtein terkecil antara query dan awalan mana pun dari term,
+     * sehingga query yang belum selesai diketik ("kroisan") tidak dihukum karena
+     * sisa huruf term ("croissant")
+     *
+     * @param maxEdits batas yang dicari; perhitungan berhenti begitu semua kemungkinan melewatinya
+     */
+    static int prefixEditDistance(String query, String term, int maxEdits) {
+        int n = query.length();
+        int m = Math.min(term.length(), n + maxEdits);
+        int[] previous = new int[n + 1];
+        int[] current = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            previous[i] = i;
+        }
+        int best = previous[n];
+        for (int j = 1; j <= m; j++) {
+            current[0] = j;
+            int rowMin = current[0];
+            char t = term.charAt(j - 1);
+            for (int i = 1; i <= n; i++) {
+                int cost = query.charAt(i - 1) == t ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            best = Math.min(best, current[n]);
+            if (rowMin > maxEdits) {
+                // Baris berikutnya tidak bisa lebih kecil dari baris ini
+                break;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return best;
+    }
+
+    private List<Entry> sortedByName() {
+        if (byName == null) {
+            byName = new ArrayList<>(entries.values());
+            Collections.sort(byName, BY_NAME);
+        }
+        return byName;
+    }
+
+    private void add(Product product) {
+        Entry entry = new Entry(product);
+        entries.put(product.getId(), entry);
+        for (String term : entry.terms) {
+            Set<String> ids = terms.get(term);
+            if (ids == null) {
+                ids = new HashSet<>();
+                terms.put(term, ids);
+                for (String trigram : trigramsOf(term)) {
+                    Set<String> withTrigram = trigrams.get(trigram);
+                    if (withTrigram == null) {
+                        withTrigram = new HashSet<>();
+                        trigrams.put(trigram, withTrigram);
+                    }
+                    withTrigram.add(term);
+                }
+            }
+            ids.add(product.getId());
+        }
+    }
+
+    private void removeEntry(String id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms) {
+            Set<String> ids = terms.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                terms.remove(term);
+                for (String trigram : trigramsOf(term)) {
+                    Set<String> withTrigram = trigrams.get(trigram);
+                    withTrigram.remove(term);
+                    if (withTrigram.isEmpty()) {
+                        trigrams.remove(trigram);
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> trigramsOf(String term) {
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i + 3 <= term.length(); i++) {
+            result.add(term.substring(i, i + 3));
+        }
+        return result;
+    }
+
+    /**
+     * Huruf kecil tanpa aksen: "Café Latte" -> "cafe latte"
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Pecah teks menjadi kata huruf/angka yang sudah dinormalisasi
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        String normalized = normalize(text);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (token.length() > 0) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.essycoff_cashier.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.essycoff_cashier.config.AppConfig;
+import com.example.essycoff_cashier.database.DatabaseHelper;
+import com.example.essycoff_cashier.database.SupabaseClient;
+import com.example.essycoff_cashier.database.SyncState;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.network.Deadline;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sinkronisasi katalog produk dari Supabase ke SQLite secara inkremental
+ * Hanya baris dengan (updated_at, id) setelah watermark terakhir yang diminta, jadi refresh
+ * tanpa perubahan cukup menerima "[]". Produk yang dihapus di server tetap ada sebagai
+ * tombstone (deleted_at terisi) sampai terminal menerapkannya.
+ * Sinkron pertama (belum ada watermark) mengambil seluruh katalog dan membuang produk
+ * lokal yang tidak ada di server.
+ */
+public class CatalogSyncer {
+    private static final String TAG = "CatalogSyncer";
+
+    public static final String TABLE = "products";
+    static final int PAGE_SIZE = 500;
+    private static final String COLUMNS =
+            "id,name,category,price,stock,is_available,image_url,description,updated_at,deleted_at";
+
+    private static CatalogSyncer instance;
+
+    private final DatabaseHelper databaseHelper;
+    private final SupabaseClient supabaseClient;
+    private final SyncMetrics metrics = new SyncMetrics();
+
+    public static synchronized CatalogSyncer getInstance(Context context) {
+        if (instance == null) {
+            instance = new CatalogSyncer(DatabaseHelper.getInstance(context), SupabaseClient.getInstance());
+        }
+        return instance;
+    }
+
+    public CatalogSyncer(DatabaseHelper databaseHelper, SupabaseClient supabaseClient) {
+        this.databaseHelper = databaseHelper;
+        this.supabaseClient = supabaseClient;
+    }
+
+    public SyncMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Ambil perubahan katalog sejak watermark lalu terapkan ke SQLite
+     * Blocking; panggil dari background thread. Pemanggilan bersamaan dijalankan bergiliran
+     * sehingga dua refresh tidak mengunduh halaman yang sama dua kali.
+     *
+     * @return false jika server tidak bisa dihubungi; data lokal tetap utuh dan bisa ditampilkan
+     */
+    public synchronized boolean sync() {
+        long start = System.nanoTime();
+        SyncState state = databaseHelper.getSyncState(TABLE);
+        boolean initial = state == null;
+
+        List<Product> changed = new ArrayList<>();
+        List<String> deletedIds = new ArrayList<>();
+        SyncState cursor = state;
+        int requests = 0;
+        long bytes = 0;
+        int rows = 0;
+        // Satu deadline untuk semua halaman: koneksi lambat tidak bisa memperpanjang sinkron per halaman
+        Deadline deadline = Deadline.after(AppConfig.NETWORK_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            while (true) {
+                RemoteProduct[] last = new RemoteProduct[1];
+                SupabaseClient.SelectStats page = supabaseClient.selectEach(TABLE,
+                        buildDeltaQuery(cursor, PAGE_SIZE), RemoteProduct.class, row -> {
+                            if (row.isDeleted()) {
+                                deletedIds.add(String.valueOf(row.id));
+                            } else {
+                                changed.add(row.toProduct());
+                            }
+                            last[0] = row;
+                        }, deadline);
+                requests++;
+                bytes += page.getBytes();
+                rows += page.getRows();
+                if (last[0] != null) {
+                    cursor = new SyncState(TABLE, last[0].updatedAt, last[0].id);
+                }
+                if (page.getRows() < PAGE_SIZE) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            // Halaman yang sudah diterima dibuang; watermark lama tetap berlaku
+            Log.w(TAG, "Catalog sync failed: " + e.getMessage());
+            metrics.recordFailure();
+            return false;
+        }
+
+        // Katalog server kosong (atau disembunyikan RLS) tidak dianggap alasan menghapus data lokal
+        if (rows > 0) {
+            databaseHelper.applyProductSync(changed, deletedIds, cursor, initial);
+        } else if (!initial) {
+            databaseHelper.markSynced(TABLE);
+        }
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        metrics.recordSync(requests, bytes, rows, deletedIds.size(), durationMs);
+        Log.d(TAG, "Synced " + rows + " product rows (" + bytes + " bytes, " + requests
+                + " requests) in " + durationMs + " ms; " + metrics);
+        return true;
+    }
+
+    /**
+     * Query PostgREST untuk satu halaman setelah watermark, urut (updated_at, id)
+     * Nilai updated_at dikutip karena berisi titik dan titik dua, yang punya arti khusus di filter or=.
+     */
+    static String buildDeltaQuery(SyncState after, int limit) {
+        StringBuilder query = new StringBuilder("select=").append(COLUMNS)
+                .append("&order=updated_at.asc,id.asc")
+                .append("&limit=").append(limit);
+        if (after != null) {
+            String updatedAt = "\"" + after.getLastUpdatedAt() + "\"";
+            query.append("&or=").append(encode("(updated_at.gt." + updatedAt
+                    + ",and(updated_at.eq." + updatedAt + ",id.gt." + after.getLastId() + "))"));
+        }
+        return query.toString();
+    }
+
+    private static String encode(String value) {
+        try {
+            return URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.essycoff_cashier.sync;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistik ProductChangeFeed: koneksi, perubahan yang diterima, dan sinkron susulan
+ */
+public class ChangeFeedMetrics {
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong disconnects = new AtomicLong();
+    private final AtomicLong missedHeartbeats = new AtomicLong();
+    private final AtomicLong changesReceived = new AtomicLong();
+    private final AtomicLong batchesApplied = new AtomicLong();
+    private final AtomicLong catchUpSyncs = new AtomicLong();
+    private final AtomicLong fallbackPolls = new AtomicLong();
+    private volatile String lastCommitTimestamp;
+
+    void recordConnect() {
+        connects.incrementAndGet();
+    }
+
+    void recordDisconnect() {
+        disconnects.incrementAndGet();
+    }
+
+    void recordMissedHeartbeat() {
+        missedHeartbeats.incrementAndGet();
+    }
+
+    void recordChange(String commitTimestamp) {
+        changesReceived.incrementAndGet();
+        if (commitTimestamp != null) {
+            lastCommitTimestamp = commitTimestamp;
+        }
+    }
+
+    void recordBatch() {
+        batchesApplied.incrementAndGet();
+    }
+
+    void recordCatchUp() {
+        catchUpSyncs.incrementAndGet();
+    }
+
+    void recordPoll() {
+        fallbackPolls.incrementAndGet();
+    }
+
+    /**
+     * Channel berhasil join (koneksi pertama dan setiap reconnect)
+     */
+    public long getConnects() {
+        return connects.get();
+    }
+
+    public long getDisconnects() {
+        return disconnects.get();
+    }
+
+    public long getMissedHeartbeats() {
+        return missedHeartbeats.get();
+    }
+
+    public long getChangesReceived() {
+        return changesReceived.get();
+    }
+
+    /**
+     * Transaksi SQLite untuk perubahan realtime; beberapa perubahan berdekatan digabung dalam satu batch
+     */
+    public long getBatchesApplied() {
+        return batchesApplied.get();
+    }
+
+    public long getCatchUpSyncs() {
+        return catchUpSyncs.get();
+    }
+
+    /**
+     * Sinkron katalog lewat polling selama websocket terputus
+     */
+    public long getFallbackPolls() {
+        return fallbackPolls.get();
+    }
+
+    /**
+     * commit_timestamp perubahan terakhir yang diterima, atau null
+     */
+    public String getLastCommitTimestamp() {
+        return lastCommitTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeFeedMetrics{connects=" + connects + ", disconnects=" + disconnects
+                + ", missedHeartbeats=" + missedHeartbeats + ", changes=" + changesReceived
+                + ", batches=" + batchesApplied + ", catchUps=" + catchUpSyncs + ", polls=" + fallbackPolls + '}';
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.essycoff_cashier.sync;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistik pengiriman outbox, dihitung per batch
+ */
+public class OutboxMetrics {
+    private final AtomicLong batchesSent = new AtomicLong();
+    private final AtomicLong entriesSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong totalLatencyMs = new AtomicLong();
+    private volatile long lastLatencyMs;
+
+    void recordSuccess(int entries, long bytes, long latencyMs) {
+        batchesSent.incrementAndGet();
+        entriesSent.addAndGet(entries);
+        bytesSent.addAndGet(bytes);
+        totalLatencyMs.addAndGet(latencyMs);
+        lastLatencyMs = latencyMs;
+    }
+
+    void recordFailure(long latencyMs) {
+        failedBatches.incrementAndGet();
+        lastLatencyMs = latencyMs;
+    }
+
+    void recordDeadLetter() {
+        deadLettered.incrementAndGet();
+    }
+
+    public long getBatchesSent() {
+        return batchesSent.get();
+    }
+
+    public long getEntriesSent() {
+        return entriesSent.get();
+    }
+
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+
+    public long getFailedBatches() {
+        return failedBatches.get();
+    }
+
+    public long getDeadLettered() {
+        return deadLettered.get();
+    }
+
+    public long getLastLatencyMs() {
+        return lastLatencyMs;
+    }
+
+    public long getAverageLatencyMs() {
+        long batches = batchesSent.get();
+        return batches == 0 ? 0 : totalLatencyMs.get() / batches;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboxMetrics{batches=" + batchesSent + ", entries=" + entriesSent + ", bytes=" + bytesSent
+                + ", failed=" + failedBatches + ", dead=" + deadLettered
+                + ", avgLatencyMs=" + getAverageLatencyMs() + '}';
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.essycoff_cashier.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.essycoff_cashier.database.DatabaseHelper;
+import com.example.essycoff_cashier.database.OutboxEntry;
+import com.example.essycoff_cashier.database.SupabaseClient;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menguras outbox lokal ke Supabase di satu background thread
+ * Entri dikirim berurutan (id terkecil dulu) dalam batch lewat RPC ingest_transactions.
+ * Server mengabaikan transaction_number yang sudah ada, jadi batch yang dikirim ulang
+ * setelah timeout aman. Checkout tidak pernah menunggu proses ini.
+ */
+public class OutboxSyncer {
+    private static final String TAG = "OutboxSyncer";
+
+    static final int BATCH_SIZE = 50;
+    static final long INITIAL_BACKOFF_MS = 1_000;
+    static final long MAX_BACKOFF_MS = 5 * 60 * 1_000;
+    private static final String INGEST_FUNCTION = "ingest_transactions";
+
+    /**
+     * Hasil satu kali pengurasan
+     */
+    public enum DrainResult {
+        /** Outbox kosong */
+        DRAINED,
+        /**
+         * Gagal sementara (jaringan/5xx) atau endpoint/otorisasi bermasalah (404, 401/403);
+         * sisa entri dicoba lagi setelah backoff
+         */
+        RETRY_LATER
+    }
+
+    private static OutboxSyncer instance;
+
+    private final DatabaseHelper databaseHelper;
+    private final SupabaseClient supabaseClient;
+    private final ScheduledExecutorService executor;
+    private final OutboxMetrics metrics = new OutboxMetrics();
+
+    // Dijaga oleh lock instance
+    private ScheduledFuture<?> pendingDrain;
+    private boolean rerunRequested;
+    private long backoffMs = INITIAL_BACKOFF_MS;
+
+    public static synchronized OutboxSyncer getInstance(Context context) {
+        if (instance == null) {
+            instance = new OutboxSyncer(DatabaseHelper.getInstance(context), SupabaseClient.getInstance(),
+                    Executors.newSingleThreadScheduledExecutor());
+        }
+        return instance;
+    }
+
+    public OutboxSyncer(DatabaseHelper databaseHelper, SupabaseClient supabaseClient,
+                        ScheduledExecutorService executor) {
+        this.databaseHelper = databaseHelper;
+        this.supabaseClient = supabaseClient;
+        this.executor = executor;
+    }
+
+    public OutboxMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Minta outbox dikuras secepatnya. Aman dipanggil dari UI thread dan berkali-kali;
+     * jika pengurasan atau retry sudah terjadwal, permintaan ini digabung ke sana.
+     */
+    public synchronized void requestSync() {
+        if (pendingDrain != null && !pendingDrain.isDone()) {
+            // Entri baru bisa masuk setelah pengurasan yang sedang berjalan membaca outbox kosong
+            rerunRequested = true;
+            return;
+        }
+        pendingDrain = executor.schedule(this::runScheduledDrain, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private void runScheduledDrain() {
+        synchronized (this) {
+            rerunRequested = false;
+        }
+        DrainResult result = drainNow();
+        synchronized (this) {
+            if (result == DrainResult.RETRY_LATER) {
+                long delay = backoffMs;
+                backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+                Log.d(TAG, "Retrying outbox in " + delay + " ms");
+                pendingDrain = executor.schedule(this::runScheduledDrain, delay, TimeUnit.MILLISECONDS);
+            } else {
+                backoffMs = INITIAL_BACKOFF_MS;
+                if (rerunRequested) {
+                    pendingDrain = executor.schedule(this::runScheduledDrain, 0, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Kirim semua entri yang menunggu sampai outbox kosong atau terjadi kegagalan sementara
+     * Dipanggil di thread executor (atau langsung oleh test), tidak pernah di UI thread.
+     */
+    public DrainResult drainNow() {
+        while (true) {
+            List<OutboxEntry> batch = databaseHelper.getPendingOutbox(BATCH_SIZE);
+            if (batch.isEmpty()) {
+                return DrainResult.DRAINED;
+            }
+            try {
+                send(batch);
+            } catch (SupabaseClient.SupabaseException e) {
+                if (!e.isDataRejection()) {
+                    // Berlaku untuk semua entri (jaringan, 5xx, function belum di-deploy, token):
+                    // jangan ada yang dibuang, tunggu sampai server bisa menerima lagi
+                    Log.w(TAG, "Outbox sync failed: " + e.getMessage());
+                    databaseHelper.recordOutboxFailure(batch, e.getMessage(), false);
+                    return DrainResult.RETRY_LATER;
+                }
+                // Isi data ditolak: cari entri penyebabnya agar entri lain tetap terkirim
+                if (!sendIndividually(batch)) {
+                    return DrainResult.RETRY_LATER;
+                }
+            } catch (IOException e) {
+                Log.w(TAG, "Outbox sync failed: " + e.getMessage());
+                databaseHelper.recordOutboxFailure(batch, e.getMessage(), false);
+                return DrainResult.RETRY_LATER;
+            }
+        }
+    }
+
+    /**
+     * Kirim ulang satu per satu, berhenti pada kegagalan sementara agar urutan tetap terjaga
+     * Hanya entri yang isinya ditolak server yang ditandai dead.
+     *
+     * @return false jika ada kegagalan sementara
+     */
+    private boolean sendIndividually(List<OutboxEntry> batch) {
+        for (OutboxEntry entry : batch) {
+            List<OutboxEntry> single = Collections.singletonList(entry);
+            try {
+                send(single);
+            } catch (SupabaseClient.SupabaseException e) {
+                if (!e.isDataRejection()) {
+                    databaseHelper.recordOutboxFailure(single, e.getMessage(), false);
+                    return false;
+                }
+                Log.e(TAG, "Outbox entry " + entry.getDedupKey() + " rejected: " + e.getMessage());
+                databaseHelper.recordOutboxFailure(single, e.getMessage(), true);
+                metrics.recordDeadLetter();
+            } catch (IOException e) {
+                databaseHelper.recordOutboxFailure(single, e.getMessage(), false);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Kembalikan entri dead ke antrean dan kuras lagi, misalnya setelah data atau function
+     * di server diperbaiki
+     *
+     * @return jumlah entri yang diantrekan ulang
+     */
+    public int requeueDeadLetters() {
+        int requeued = databaseHelper.requeueDeadOutbox();
+        if (requeued > 0) {
+            Log.i(TAG, "Requeued " + requeued + " dead outbox entries");
+            requestSync();
+        }
+        return requeued;
+    }
+
+    private void send(List<OutboxEntry> batch) throws IOException {
+        String body = buildIngestBody(batch);
+        long start = System.nanoTime();
+        try {
+            supabaseClient.callRpc(INGEST_FUNCTION, body);
+        } catch (IOException e) {
+            metrics.recordFailure(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            throw e;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        databaseHelper.deleteOutboxEntries(batch);
+        metrics.recordSuccess(batch.size(), body.getBytes(StandardCharsets.UTF_8).length, latencyMs);
+        Log.d(TAG, "Sent " + batch.size() + " outbox entries in " + latencyMs + " ms; " + metrics);
+    }
+
+    /**
+     * {"p_batch":[...]} dari payload yang sudah berupa JSON, tanpa parse ulang
+     */
+    static String buildIngestBody(List<OutboxEntry> batch) {
+        StringBuilder body = new StringBuilder("{\"p_batch\":[");
+        for (int i = 0; i < batch.size(); i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(batch.get(i).getPayload());
+        }
+        return body.append("]}").toString();
+    }
+}
@@ -0,0 +1,457 @@
+package com.example.essycoff_cashier.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.essycoff_cashier.config.AppConfig;
+import com.example.essycoff_cashier.database.DatabaseHelper;
+import com.example.essycoff_cashier.database.SyncState;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.network.HttpClientProvider;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonSyntaxException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * Menerima perubahan tabel products dari Supabase Realtime (postgres_changes) dan
+ * menerapkannya ke SQLite, supaya stok dan harga di terminal ikut berubah tanpa polling.
+ * Protokol Phoenix (join, heartbeat, reply) dijalankan langsung di atas WebSocket OkHttp.
+ *
+ * Setiap kali channel berhasil join, termasuk setelah reconnect, CatalogSyncer dijalankan
+ * dari watermark terakhir untuk mengambil perubahan yang terlewat selama terputus. Perubahan
+ * realtime tidak menggeser watermark, jadi sinkron susulan selalu aman. Selama websocket
+ * terputus katalog di-poll dengan interval panjang sebagai cadangan.
+ *
+ * Semua state hanya disentuh dari satu thread executor; listener juga dipanggil di sana.
+ */
+public class ProductChangeFeed {
+    private static final String TAG = "ProductChangeFeed";
+
+    static final String TOPIC = "realtime:public:" + CatalogSyncer.TABLE;
+    static final long HEARTBEAT_INTERVAL_MS = 25_000;
+    static final long BATCH_WINDOW_MS = 250;
+    static final int MAX_BATCH = 200;
+    static final long RECONNECT_BASE_MS = 1_000;
+    static final long RECONNECT_MAX_MS = 60_000;
+    static final long POLL_INTERVAL_MS = 60_000;
+
+    /**
+     * Penerima perubahan katalog; dipanggil di thread feed, bukan UI thread
+     */
+    public interface Listener {
+        /** Satu batch perubahan realtime yang sudah tersimpan di SQLite */
+        void onProductsChanged(List<Product> changed, List<String> deletedIds);
+
+        /** Sinkron susulan atau polling menerapkan perubahan; tampilan sebaiknya dimuat ulang */
+        void onCatalogResynced();
+    }
+
+    private static ProductChangeFeed instance;
+
+    private final OkHttpClient client;
+    private final String url;
+    private final String apiKey;
+    private final DatabaseHelper databaseHelper;
+    private final CatalogSyncer catalogSyncer;
+    private final ScheduledExecutorService executor;
+    private final Gson gson = new Gson();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ChangeFeedMetrics metrics = new ChangeFeedMetrics();
+
+    // Hanya diakses dari thread executor
+    private boolean started;
+    private WebSocket socket;
+    private int generation;
+    private long nextRef;
+    private String joinRef;
+    private String pendingHeartbeatRef;
+    private boolean joined;
+    private int reconnectAttempt;
+    private long lastPollMs;
+    private ScheduledFuture<?> heartbeat;
+    private ScheduledFuture<?> reconnect;
+    private ScheduledFuture<?> flush;
+    private final Map<String, Product> pendingChanged = new LinkedHashMap<>();
+    private final Set<String> pendingDeleted = new LinkedHashSet<>();
+
+    public static synchronized ProductChangeFeed getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProductChangeFeed(HttpClientProvider.get(),
+                    websocketUrl(AppConfig.SUPABASE_URL, AppConfig.SUPABASE_ANON_KEY), AppConfig.SUPABASE_ANON_KEY,
+                    DatabaseHelper.getInstance(context), CatalogSyncer.getInstance(context),
+                    Executors.newSingleThreadScheduledExecutor());
+        }
+        return instance;
+    }
+
+    public ProductChangeFeed(OkHttpClient client, String url, String apiKey, DatabaseHelper databaseHelper,
+                             CatalogSyncer catalogSyncer, ScheduledExecutorService executor) {
+        this.client = client;
+        this.url = url;
+        this.apiKey = apiKey;
+        this.databaseHelper = databaseHelper;
+        this.catalogSyncer = catalogSyncer;
+        this.executor = executor;
+    }
+
+    /**
+     * Endpoint websocket Realtime untuk project Supabase, contoh
+     * https://xyz.supabase.co -> wss://xyz.supabase.co/realtime/v1/websocket?apikey=...&vsn=1.0.0
+     */
+    static String websocketUrl(String supabaseUrl, String apiKey) {
+        String base = supabaseUrl.endsWith("/") ? supabaseUrl.substring(0, supabaseUrl.length() - 1) : supabaseUrl;
+        if (base.startsWith("https://")) {
+            base = "wss://" + base.substring("https://".length());
+        } else if (base.startsWith("http://")) {
+            base = "ws://" + base.substring("http://".length());
+        }
+        return base + "/realtime/v1/websocket?apikey=" + apiKey + "&vsn=1.0.0";
+    }
+
+    public ChangeFeedMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Mulai berlangganan; aman dipanggil berkali-kali dan dari UI thread
+     */
+    public void start() {
+        executor.execute(() -> {
+            if (started) {
+                return;
+            }
+            started = true;
+            reconnectAttempt = 0;
+            connect();
+        });
+    }
+
+    /**
+     * Tutup websocket dan batalkan reconnect/polling; perubahan yang masih menunggu tetap disimpan
+     */
+    public void stop() {
+        executor.execute(() -> {
+            if (!started) {
+                return;
+            }
+            started = false;
+            cancel(reconnect);
+            reconnect = null;
+            closeSocket();
+            flushPending();
+        });
+    }
+
+    private void connect() {
+        reconnect = null;
+        int connection = ++generation;
+        joined = false;
+        joinRef = null;
+        pendingHeartbeatRef = null;
+        Log.d(TAG, "Connecting to realtime (attempt " + (reconnectAttempt + 1) + ")");
+        socket = client.newWebSocket(new Request.Builder().url(url).build(), new WebSocketListener() {
+            @Override
+            public void onOpen(WebSocket webSocket, Response response) {
+                executor.execute(() -> {
+                    if (connection == generation) {
+                        join();
+                    }
+                });
+            }
+
+            @Override
+            public void onMessage(WebSocket webSocket, String text) {
+                executor.execute(() -> {
+                    if (connection == generation) {
+                        handleMessage(text);
+                    }
+                });
+            }
+
+            @Override
+            public void onClosing(WebSocket webSocket, int code, String reason) {
+                webSocket.close(1000, null);
+            }
+
+            @Override
+            public void onClosed(WebSocket webSocket, int code, String reason) {
+                executor.execute(() -> onDisconnected(connection, "closed " + code));
+            }
+
+            @Override
+            public void onFailure(WebSocket webSocket, Throwable t, Response response) {
+                executor.execute(() -> onDisconnected(connection, String.valueOf(t.getMessage())));
+            }
+        });
+    }
+
+    private void join() {
+        JsonObject change = new JsonObject();
+        change.addProperty("event", "*");
+        change.addProperty("schema", "public");
+        change.addProperty("table", CatalogSyncer.TABLE);
+        JsonArray changes = new JsonArray();
+        changes.add(change);
+        JsonObject config = new JsonObject();
+        config.add("postgres_changes", changes);
+        JsonObject payload = new JsonObject();
+        payload.add("config", config);
+        payload.addProperty("access_token", apiKey);
+
+        joinRef = send(TOPIC, "phx_join", payload);
+        heartbeat = executor.scheduleWithFixedDelay(this::heartbeat,
+                HEARTBEAT_INTERVAL_MS, HEARTBEAT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Kirim heartbeat; jika heartbeat sebelumnya belum dibalas, koneksi dianggap mati
+     * (jaringan bisa hilang tanpa socket pernah ditutup).
+     */
+    private void heartbeat() {
+        if (socket == null) {
+            return;
+        }
+        if (pendingHeartbeatRef != null) {
+            Log.w(TAG, "Heartbeat not acknowledged, reconnecting");
+            metrics.recordMissedHeartbeat();
+            // cancel() berujung ke onFailure, yang menjadwalkan reconnect
+            socket.cancel();
+            return;
+        }
+        pendingHeartbeatRef = send("phoenix", "heartbeat", new JsonObject());
+    }
+
+    private String send(String topic, String event, JsonObject payload) {
+        String ref = String.valueOf(++nextRef);
+        JsonObject message = new JsonObject();
+        message.addProperty("topic", topic);
+        message.addProperty("event", event);
+        message.add("payload", payload);
+        message.addProperty("ref", ref);
+        socket.send(message.toString());
+        return ref;
+    }
+
+    private void handleMessage(String text) {
+        JsonObject message;
+        try {
+            message = JsonParser.parseString(text).getAsJsonObject();
+        } catch (JsonSyntaxException | IllegalStateException e) {
+            Log.w(TAG, "Ignoring malformed realtime message: " + e.getMessage());
+            return;
+        }
+        String event = string(message, "event");
+        String ref = string(message, "ref");
+        JsonObject payload = message.has("payload") && message.get("payload").isJsonObject()
+                ? message.getAsJsonObject("payload") : new JsonObject();
+
+        if ("phx_reply".equals(event)) {
+            if (ref != null && ref.equals(pendingHeartbeatRef)) {
+                pendingHeartbeatRef = null;
+            } else if (ref != null && ref.equals(joinRef)) {
+                onJoinReply("ok".equals(string(payload, "status")), payload);
+            }
+        } else if ("postgres_changes".equals(event)) {
+            if (payload.has("data") && payload.get("data").isJsonObject()) {
+                onChange(payload.getAsJsonObject("data"));
+            }
+        } else if ("phx_error".equals(event) || "phx_close".equals(event)) {
+            Log.w(TAG, "Channel " + event + ", reconnecting");
+            if (socket != null) {
+                socket.cancel();
+            }
+        }
+    }
+
+    private void onJoinReply(boolean ok, JsonObject payload) {
+        if (!ok) {
+            Log.e(TAG, "Realtime join rejected: " + payload);
+            socket.cancel();
+            return;
+        }
+        joined = true;
+        reconnectAttempt = 0;
+        metrics.recordConnect();
+        Log.d(TAG, "Subscribed to " + TOPIC);
+        // Perubahan yang masuk sebelum join tidak pernah dikirim ulang oleh server
+        metrics.recordCatchUp();
+        syncCatalog();
+    }
+
+    private void onChange(JsonObject data) {
+        String type = string(data, "type");
+        metrics.recordChange(string(data, "commit_timestamp"));
+        try {
+            if ("DELETE".equals(type)) {
+                JsonObject old = object(data, "old_record");
+                if (old != null && old.has("id")) {
+                    String id = old.get("id").getAsString();
+                    pendingChanged.remove(id);
+                    pendingDeleted.add(id);
+                }
+            } else {
+                JsonObject record = object(data, "record");
+                if (record == null) {
+                    return;
+                }
+                RemoteProduct row = gson.fromJson(record, RemoteProduct.class);
+                String id = String.valueOf(row.id);
+                if (row.isDeleted()) {
+                    pendingChanged.remove(id);
+                    pendingDeleted.add(id);
+                } else {
+                    pendingDeleted.remove(id);
+                    pendingChanged.put(id, row.toProduct());
+                }
+            }
+        } catch (JsonSyntaxException | IllegalStateException | NumberFormatException e) {
+            Log.w(TAG, "Ignoring unreadable product change: " + e.getMessage());
+            return;
+        }
+
+        // Perubahan berdekatan (mis. checkout banyak item di terminal lain) disimpan dalam satu transaksi
+        if (pendingChanged.size() + pendingDeleted.size() >= MAX_BATCH) {
+            cancel(flush);
+            flushPending();
+        } else if (flush == null) {
+            flush = executor.schedule(this::flushPending, BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flushPending() {
+        flush = null;
+        if (pendingChanged.isEmpty() && pendingDeleted.isEmpty()) {
+            return;
+        }
+        List<Product> changed = new ArrayList<>(pendingChanged.values());
+        List<String> deletedIds = new ArrayList<>(pendingDeleted);
+        pendingChanged.clear();
+        pendingDeleted.clear();
+
+        try {
+            databaseHelper.applyProductSync(changed, deletedIds, null, false);
+        } catch (RuntimeException e) {
+            // Sinkron susulan berikutnya mengambil ulang baris ini karena watermark tidak bergeser
+            Log.e(TAG, "Failed to apply product changes: " + e.getMessage(), e);
+            return;
+        }
+        metrics.recordBatch();
+        Log.d(TAG, "Applied " + changed.size() + " changed and " + deletedIds.size() + " deleted products");
+        for (Listener listener : listeners) {
+            listener.onProductsChanged(changed, deletedIds);
+        }
+    }
+
+    private void onDisconnected(int connection, String reason) {
+        if (connection != generation) {
+            return;
+        }
+        cancel(heartbeat);
+        heartbeat = null;
+        socket = null;
+        flushPending();
+        if (!started) {
+            return;
+        }
+        if (joined) {
+            metrics.recordDisconnect();
+        }
+        joined = false;
+        Log.w(TAG, "Realtime disconnected: " + reason);
+
+        // Cadangan jika reconnect pertama sudah gagal (reconnect yang berhasil melakukan sinkron susulan sendiri);
+        // dibatasi supaya reconnect yang sering gagal tidak membanjiri server
+        long now = System.currentTimeMillis();
+        if (reconnectAttempt > 0 && now - lastPollMs >= POLL_INTERVAL_MS) {
+            lastPollMs = now;
+            metrics.recordPoll();
+            syncCatalog();
+        }
+
+        long delay = reconnectDelay(reconnectAttempt++);
+        Log.d(TAG, "Reconnecting in " + delay + " ms");
+        reconnect = executor.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Full jitter: acak antara 0 dan base * 2^attempt, dibatasi RECONNECT_MAX_MS,
+     * supaya semua terminal tidak menyerbu server bersamaan setelah gangguan
+     */
+    private long reconnectDelay(int attempt) {
+        long ceiling = Math.min(RECONNECT_MAX_MS, RECONNECT_BASE_MS << Math.min(attempt, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void syncCatalog() {
+        SyncState before = databaseHelper.getSyncState(CatalogSyncer.TABLE);
+        if (!catalogSyncer.sync()) {
+            return;
+        }
+        SyncState after = databaseHelper.getSyncState(CatalogSyncer.TABLE);
+        if (after != null && (before == null || after.getLastId() != before.getLastId()
+                || !Objects.equals(after.getLastUpdatedAt(), before.getLastUpdatedAt()))) {
+            for (Listener listener : listeners) {
+                listener.onCatalogResynced();
+            }
+        }
+    }
+
+    private void closeSocket() {
+        cancel(heartbeat);
+        heartbeat = null;
+        if (socket != null) {
+            // Callback onClosed milik koneksi lama diabaikan karena generation sudah berganti
+            generation++;
+            socket.close(1000, null);
+            socket = null;
+        }
+        joined = false;
+    }
+
+    private static void cancel(ScheduledFuture<?> future) {
+        if (future != null) {
+            future.cancel(false);
+        }
+    }
+
+    private static String string(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+
+    private static JsonObject object(JsonObject object, String name) {
+        JsonElement element = object.get(name);
+        return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+    }
+}
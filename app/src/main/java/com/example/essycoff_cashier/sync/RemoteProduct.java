@@ -0,0 +1,35 @@
+package com.example.essycoff_cashier.sync;
+
+import com.example.essycoff_cashier.models.Product;
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Satu baris products seperti dikirim PostgREST (nama kolom snake_case, harga DECIMAL)
+ */
+class RemoteProduct {
+    long id;
+    String name;
+    String category;
+    double price;
+    int stock;
+    @SerializedName("is_available")
+    boolean available;
+    @SerializedName("image_url")
+    String imageUrl;
+    String description;
+    @SerializedName("updated_at")
+    String updatedAt;
+    @SerializedName("deleted_at")
+    String deletedAt;
+
+    boolean isDeleted() {
+        return deletedAt != null;
+    }
+
+    Product toProduct() {
+        Product product = new Product(String.valueOf(id), name, category, Math.round(price), stock, available);
+        product.setImageUrl(imageUrl);
+        product.setDescription(description);
+        return product;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.essycoff_cashier.sync;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Statistik sinkronisasi katalog: byte dan baris yang diterima per sinkron
+ * Byte dihitung dari body JSON yang sudah didekompresi OkHttp, bukan ukuran di jaringan.
+ */
+public class SyncMetrics {
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong rowsReceived = new AtomicLong();
+    private final AtomicLong tombstones = new AtomicLong();
+    private volatile long lastBytes;
+    private volatile long lastRows;
+    private volatile long lastDurationMs;
+
+    void recordSync(int requestCount, long bytes, int rows, int deleted, long durationMs) {
+        syncs.incrementAndGet();
+        requests.addAndGet(requestCount);
+        bytesReceived.addAndGet(bytes);
+        rowsReceived.addAndGet(rows);
+        tombstones.addAndGet(deleted);
+        lastBytes = bytes;
+        lastRows = rows;
+        lastDurationMs = durationMs;
+    }
+
+    void recordFailure() {
+        failures.incrementAndGet();
+    }
+
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long getRowsReceived() {
+        return rowsReceived.get();
+    }
+
+    public long getTombstones() {
+        return tombstones.get();
+    }
+
+    /**
+     * Byte body pada sinkron terakhir yang berhasil; "[]" (2 byte) jika tidak ada perubahan
+     */
+    public long getLastBytes() {
+        return lastBytes;
+    }
+
+    /**
+     * Baris (termasuk tombstone) pada sinkron terakhir yang berhasil
+     */
+    public long getLastRows() {
+        return lastRows;
+    }
+
+    public long getLastDurationMs() {
+        return lastDurationMs;
+    }
+
+    @Override
+    public String toString() {
+        return "SyncMetrics{syncs=" + syncs + ", lastRows=" + lastRows + ", lastBytes=" + lastBytes
+                + ", rows=" + rowsReceived + ", bytes=" + bytesReceived + ", tombstones=" + tombstones
+                + ", failures=" + failures + '}';
+    }
+}
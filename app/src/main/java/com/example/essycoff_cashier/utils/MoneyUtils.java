@@ -0,0 +1,51 @@
+package com.example.essycoff_cashier.utils;
+
+import com.example.essycoff_cashier.config.AppConfig;
+
+/**
+ * Utility untuk nilai uang dalam satuan rupiah penuh (long)
+ * Semua total, pajak, dan kembalian dihitung dengan bilangan bulat
+ * agar tidak ada selisih pembulatan seperti pada double.
+ */
+public final class MoneyUtils {
+
+    /**
+     * Hitung PPN dari subtotal, dibulatkan ke rupiah terdekat (half up)
+     */
+    public static long calculateTax(long subtotal) {
+        return (subtotal * AppConfig.TAX_RATE_PERCENT + 50) / 100;
+    }
+
+    /**
+     * Konversi nilai desimal (input pengguna atau data lama) ke rupiah penuh
+     */
+    public static long toRupiah(double amount) {
+        return Math.round(amount);
+    }
+
+    /**
+     * Parse input jumlah uang dalam rupiah penuh, contoh: "50000", "50.000", "Rp 50,000"
+     * Titik/koma hanya diterima sebagai pemisah ribuan (tepat tiga digit setelahnya);
+     * bagian desimal seperti "50000.00" ditolak, bukan dibaca sebagai 5.000.000.
+     * @throws NumberFormatException jika format tidak valid
+     */
+    public static long parse(String amount) {
+        String value = amount == null ? "" : amount.trim().replaceFirst("^(?i)rp\\s*", "");
+        if (!value.matches("\\d+|\\d{1,3}([.,]\\d{3})+")) {
+            throw new NumberFormatException("Invalid amount: " + amount);
+        }
+        return Long.parseLong(value.replaceAll("[.,]", ""));
+    }
+
+    /**
+     * Format untuk tampilan, contoh: "Rp 15,000"
+     */
+    public static String format(long amount) {
+        return String.format(AppConfig.CURRENCY_FORMAT_RUPIAH, amount);
+    }
+
+    // Private constructor
+    private MoneyUtils() {
+        throw new UnsupportedOperationException("This is a utility class and cannot be instantiated");
+    }
+}
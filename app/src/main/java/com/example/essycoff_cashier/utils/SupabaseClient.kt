@@ -1,5 +1,6 @@
 package com.example.essycoff_cashier.utils
 
+import com.example.essycoff_cashier.network.HttpClientProvider
 import io.github.jan.supabase.SupabaseClient
 import io.github.jan.supabase.createSupabaseClient
 import io.github.jan.supabase.gotrue.GoTrue
@@ -17,6 +18,9 @@ object SupabaseClient {
     ) {
         install(Postgrest)
         install(GoTrue)
-        httpEngine = OkHttp.create()
+        // Reuse the app-wide OkHttpClient so both clients share one connection pool and dispatcher
+        httpEngine = OkHttp.create {
+            preconfigured = HttpClientProvider.get()
+        }
     }
 }
@@ -0,0 +1,91 @@
+package com.example.essycoff_cashier.viewmodels
+
+import com.example.essycoff_cashier.models.Product
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.FlowPreview
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.debounce
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.mapLatest
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.update
+
+/**
+ * Turns search box and category chip input into one stream of search results.
+ *
+ * Typed queries are debounced; clearing the query and changing the category apply at once.
+ * Identical (trimmed) requests are dropped, and a search still running when newer input
+ * arrives is cancelled, so results can never be published out of order.
+ */
+class ProductSearchPipeline(
+    private val search: suspend (query: String, category: String?) -> List<Product>,
+    private val debounceMs: Long = DEBOUNCE_MS
+) {
+    private val query = MutableStateFlow("")
+    private val category = MutableStateFlow<String?>(null)
+    private val revision = MutableStateFlow(0)
+
+    val metrics = SearchMetrics()
+
+    val currentQuery: String get() = query.value
+    val currentCategory: String? get() = category.value
+
+    fun setQuery(value: String) {
+        if (query.value != value) {
+            metrics.recordInput()
+            query.value = value
+        }
+    }
+
+    fun setCategory(value: String?) {
+        if (category.value != value) {
+            metrics.recordInput()
+            category.value = value
+        }
+    }
+
+    /**
+     * Run the current search again, e.g. after the catalog behind it changed.
+     * Not counted as user input and not debounced; safe to call from any thread.
+     */
+    fun refresh() {
+        revision.update { it + 1 }
+    }
+
+    /**
+     * Search results for the latest input. Collect once (e.g. in viewModelScope); the first
+     * emission is the unfiltered list.
+     * @param onSearchStarted Called before each search that is actually run
+     */
+    @OptIn(FlowPreview::class, ExperimentalCoroutinesApi::class)
+    fun results(onSearchStarted: () -> Unit = {}): Flow<List<Product>> {
+        val typed = query
+            .map { it.trim() }
+            .debounce { if (it.isEmpty()) 0L else debounceMs }
+        return combine(typed, category, revision) { text, selected, rev -> Request(text, selected, rev) }
+            .distinctUntilChanged()
+            .onEach {
+                metrics.recordIssued()
+                onSearchStarted()
+            }
+            .mapLatest { request ->
+                try {
+                    search(request.query, request.category)
+                } catch (e: CancellationException) {
+                    metrics.recordCancelled()
+                    throw e
+                }
+            }
+            .onEach { metrics.recordPublished() }
+    }
+
+    private data class Request(val query: String, val category: String?, val revision: Int)
+
+    companion object {
+        const val DEBOUNCE_MS = 300L
+    }
+}
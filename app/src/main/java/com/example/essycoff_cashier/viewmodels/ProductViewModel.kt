@@ -1,18 +1,32 @@
 package com.example.essycoff_cashier.viewmodels
 
+import android.app.Application
+import androidx.lifecycle.AndroidViewModel
 import androidx.lifecycle.LiveData
 import androidx.lifecycle.MutableLiveData
-import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
+import com.example.essycoff_cashier.database.DatabaseHelper
 import com.example.essycoff_cashier.models.Product
+import com.example.essycoff_cashier.repositories.CatalogCacheStats
+import com.example.essycoff_cashier.repositories.CategoryFacets
 import com.example.essycoff_cashier.repositories.ProductRepository
-import kotlinx.coroutines.flow.MutableStateFlow
-import kotlinx.coroutines.flow.StateFlow
-import kotlinx.coroutines.flow.collectLatest
+import com.example.essycoff_cashier.search.ProductSearchIndex
+import com.example.essycoff_cashier.sync.CatalogSyncer
+import com.example.essycoff_cashier.sync.ProductChangeFeed
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.firstOrNull
+import kotlinx.coroutines.flow.launchIn
+import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
+import kotlinx.coroutines.withContext
 
-class ProductViewModel : ViewModel() {
-    private val repository = ProductRepository()
+class ProductViewModel(application: Application) : AndroidViewModel(application) {
+    private val repository = ProductRepository(
+        DatabaseHelper.getInstance(application),
+        CatalogSyncer.getInstance(application)
+    )
     
     private val _products = MutableLiveData<List<Product>>()
     val products: LiveData<List<Product>> = _products
@@ -20,89 +34,179 @@ class ProductViewModel : ViewModel() {
     private val _categories = MutableLiveData<List<String>>()
     val categories: LiveData<List<String>> = _categories
     
+    private val _categoryFacets = MutableLiveData<List<CategoryFacets.Facet>>()
+    /** Product and sellable counts per category across the whole catalog */
+    val categoryFacets: LiveData<List<CategoryFacets.Facet>> = _categoryFacets
+    
     private val _isLoading = MutableLiveData<Boolean>()
     val isLoading: LiveData<Boolean> = _isLoading
     
     private val _error = MutableLiveData<String>()
     val error: LiveData<String> = _error
     
-    // Search query and category filter
-    private val _searchQuery = MutableStateFlow("")
-    private val _selectedCategory = MutableStateFlow<String?>(null)
+    private val _categoryCounts = MutableLiveData<Map<String, Int>>()
+    /** Products matching the current query per category, for the category chips */
+    val categoryCounts: LiveData<Map<String, Int>> = _categoryCounts
+    
+    // Whole catalog in memory; once loaded, searches never touch SQLite
+    private val searchIndex = ProductSearchIndex()
+    
+    // Search query and category filter, resolved into one stream of results.
+    // Index lookups take well under a millisecond, so only bursts (key repeat, paste) are debounced.
+    private val searchPipeline = ProductSearchPipeline(::runSearch, INDEX_DEBOUNCE_MS)
+    
+    /** Typed input vs. searches actually run, for diagnostics */
+    val searchMetrics: SearchMetrics get() = searchPipeline.metrics
+    
+    /** Catalog cache hit rate and age of the data served, for diagnostics */
+    val catalogStats: CatalogCacheStats get() = repository.catalogStats
+    
+    private val _catalogSyncedAt = MutableLiveData<Long>()
+    /** Epoch ms at which the catalog on screen was last confirmed by the server, 0 if never */
+    val catalogSyncedAt: LiveData<Long> = _catalogSyncedAt
+    
+    private var loadJob: Job? = null
+    
+    // While a query or category is active the grid shows search results, not the catalog
+    private val isSearchActive: Boolean
+        get() = searchPipeline.currentQuery.isNotBlank() || searchPipeline.currentCategory != null
+    
+    // Keeps the index current with stock/price pushes; called on the change feed thread
+    private val changeFeed = ProductChangeFeed.getInstance(application)
+    private val catalogListener = object : ProductChangeFeed.Listener {
+        override fun onProductsChanged(changed: List<Product>, deletedIds: List<String>) {
+            applyLocalChanges(changed, deletedIds)
+        }
+        
+        override fun onCatalogResynced() {
+            viewModelScope.launch {
+                reloadSearchIndex(reload = true)
+                loadCategories()
+            }
+        }
+    }
     
     init {
         loadCategories()
         observeSearchChanges()
+        changeFeed.addListener(catalogListener)
+        viewModelScope.launch { reloadSearchIndex() }
+    }
+    
+    override fun onCleared() {
+        changeFeed.removeListener(catalogListener)
+        super.onCleared()
     }
     
     /**
-     * Observe changes in search query and category filter
+     * Publish results for query and category changes. A single collector means only the
+     * newest search reaches [products]; superseded searches are cancelled by the pipeline.
      */
     private fun observeSearchChanges() {
-        viewModelScope.launch {
-            _searchQuery.collectLatest { query ->
-                searchProducts(query, _selectedCategory.value)
-            }
-        }
-        
-        viewModelScope.launch {
-            _selectedCategory.collectLatest { category ->
-                searchProducts(_searchQuery.value, category)
+        searchPipeline.results(onSearchStarted = { _isLoading.value = true })
+            .onEach { productList ->
+                _products.value = productList
+                _isLoading.value = false
             }
-        }
+            .launchIn(viewModelScope)
     }
     
     /**
      * Update search query
      */
     fun setSearchQuery(query: String) {
-        _searchQuery.value = query
+        searchPipeline.setQuery(query)
     }
     
     /**
      * Update selected category
      */
     fun setSelectedCategory(category: String?) {
-        _selectedCategory.value = category
+        searchPipeline.setCategory(category)
     }
     
     /**
-     * Search products with current query and category filter
+     * Search products with the given query and category filter.
+     * Uses the in-memory index when it is loaded, the local full-text index otherwise.
      */
-    private fun searchProducts(query: String, category: String?) {
-        viewModelScope.launch {
-            _isLoading.value = true
-            try {
-                repository.searchProducts(query, category).collect { productList ->
-                    _products.value = productList
-                    _error.value = ""
-                }
-            } catch (e: Exception) {
-                _error.value = e.message ?: "Error searching products"
-                _products.value = emptyList()
-            } finally {
-                _isLoading.value = false
+    private suspend fun runSearch(query: String, category: String?): List<Product> {
+        if (query.isBlank() && category == null) {
+            // No filter: the whole catalog, not the first SEARCH_LIMIT products by name
+            val catalog = repository.getLocalProducts()
+            if (catalog.isNotEmpty()) {
+                _categoryCounts.value = catalog.groupingBy { it.category }.eachCount()
+                _error.value = ""
+                return catalog
+            }
+        }
+        if (!searchIndex.isEmpty) {
+            val result = withContext(Dispatchers.Default) {
+                searchIndex.search(query, category, SEARCH_LIMIT)
             }
+            _categoryCounts.value = result.categoryCounts
+            _error.value = ""
+            return result.products
+        }
+        return try {
+            val productList = repository.searchProducts(query, category, SEARCH_LIMIT).firstOrNull() ?: emptyList()
+            _error.value = ""
+            productList
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            _error.value = e.message ?: "Error searching products"
+            emptyList()
+        }
+    }
+    
+    /**
+     * Rebuild the search index from the local catalog, then show the catalog or re-run the current search
+     */
+    private suspend fun reloadSearchIndex(reload: Boolean = false) {
+        val catalog = repository.getLocalProducts(reload)
+        withContext(Dispatchers.Default) { searchIndex.replaceAll(catalog) }
+        if (isSearchActive) {
+            searchPipeline.refresh()
+        } else if (catalog.isNotEmpty()) {
+            _products.value = catalog
+        }
+    }
+    
+    /**
+     * Bring the cached catalog, search index and grid in line with rows already written to
+     * SQLite, e.g. stock lowered by a local checkout. Safe to call from any thread.
+     */
+    fun applyLocalChanges(changed: List<Product>, deletedIds: List<String> = emptyList()) {
+        val snapshot = repository.applyLocalChanges(changed, deletedIds)
+        snapshot?.let { postFacets(it.facets) }
+        searchIndex.upsert(changed)
+        searchIndex.remove(deletedIds)
+        if (isSearchActive) {
+            searchPipeline.refresh()
+        } else {
+            snapshot?.let { _products.postValue(it.products) }
         }
     }
     
     /**
-     * Load all available product categories
+     * Load category facets from the cached catalog; no network call once the catalog is synced
      */
     private fun loadCategories() {
         viewModelScope.launch {
-            _isLoading.value = true
             try {
-                val categoriesList = repository.getCategories()
-                _categories.value = categoriesList
+                postFacets(repository.getCategoryFacets())
             } catch (e: Exception) {
                 _error.value = e.message ?: "Error loading categories"
-            } finally {
-                _isLoading.value = false
             }
         }
     }
     
+    // Called from the main thread and from the change feed thread
+    private fun postFacets(facets: CategoryFacets) {
+        _categories.postValue(facets.categories)
+        _categoryFacets.postValue(facets.all())
+    }
+    
     /**
      * Get product by ID
      */
@@ -122,13 +226,31 @@ class ProductViewModel : ViewModel() {
         }
     }
     
+    /**
+     * Show the cached catalog immediately, then the revalidated one if the server had changes.
+     * A newer call replaces a load still waiting on the server.
+     */
     fun loadProducts() {
-        viewModelScope.launch {
+        loadJob?.cancel()
+        loadJob = viewModelScope.launch {
             _isLoading.value = true
             try {
-                val productList = repository.getAllProducts()
-                _products.value = productList
+                repository.observeCatalog().collect { snapshot ->
+                    if (snapshot.products.isNotEmpty()) {
+                        withContext(Dispatchers.Default) { searchIndex.replaceAll(snapshot.products) }
+                    }
+                    if (isSearchActive) {
+                        searchPipeline.refresh()
+                    } else {
+                        _products.value = snapshot.products
+                    }
+                    _catalogSyncedAt.value = snapshot.syncedAt
+                    postFacets(snapshot.facets)
+                    _isLoading.value = false
+                }
                 _error.value = ""
+            } catch (e: CancellationException) {
+                throw e
             } catch (e: Exception) {
                 _error.value = "Error loading products: ${e.message}"
             } finally {
@@ -137,15 +259,8 @@ class ProductViewModel : ViewModel() {
         }
     }
     
-    fun updateProductStock(productId: String, newStock: Int, onComplete: (Boolean) -> Unit) {
-        viewModelScope.launch {
-            try {
-                val success = repository.updateProductStock(productId, newStock)
-                onComplete(success)
-            } catch (e: Exception) {
-                _error.value = "Error updating product: ${e.message}"
-                onComplete(false)
-            }
-        }
+    companion object {
+        private const val SEARCH_LIMIT = 20
+        private const val INDEX_DEBOUNCE_MS = 50L
     }
 }
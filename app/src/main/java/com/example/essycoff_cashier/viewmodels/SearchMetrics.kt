@@ -0,0 +1,49 @@
+package com.example.essycoff_cashier.viewmodels
+
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Counters for [ProductSearchPipeline]: how much typing turned into actual searches
+ */
+class SearchMetrics {
+    private val inputs = AtomicLong()
+    private val issued = AtomicLong()
+    private val cancelled = AtomicLong()
+    private val published = AtomicLong()
+
+    /** Query or category changes made by the user (one per keystroke) */
+    val inputCount: Long get() = inputs.get()
+
+    /** Searches that survived debounce and duplicate filtering and were started */
+    val searchesIssued: Long get() = issued.get()
+
+    /** Started searches abandoned because newer input arrived */
+    val searchesCancelled: Long get() = cancelled.get()
+
+    /** Results delivered to the UI */
+    val resultsPublished: Long get() = published.get()
+
+    /** Searches started per user input; 1.0 would mean one search per keystroke */
+    val searchesPerInput: Double
+        get() = inputCount.let { if (it == 0L) 0.0 else searchesIssued.toDouble() / it }
+
+    internal fun recordInput() {
+        inputs.incrementAndGet()
+    }
+
+    internal fun recordIssued() {
+        issued.incrementAndGet()
+    }
+
+    internal fun recordCancelled() {
+        cancelled.incrementAndGet()
+    }
+
+    internal fun recordPublished() {
+        published.incrementAndGet()
+    }
+
+    override fun toString(): String =
+        "SearchMetrics{inputs=$inputCount, issued=$searchesIssued, cancelled=$searchesCancelled, " +
+            "published=$resultsPublished}"
+}
@@ -0,0 +1,189 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+import com.example.essycoff_cashier.sync.CatalogSyncer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.List;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Sinkron katalog inkremental: sinkron penuh pertama, delta setelah watermark,
+ * tombstone, refresh tanpa perubahan yang hanya menerima "[]", dan penjualan lokal
+ * yang belum terkirim tidak tertimpa stok server.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CatalogSyncTest {
+    private static final String DB_NAME = "catalog_sync_test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+    private MockWebServer server;
+    private CatalogSyncer syncer;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+
+        server = new MockWebServer();
+        server.start();
+        SupabaseClient client = new SupabaseClient(new OkHttpClient(), server.url("/").toString(), "test-key");
+        syncer = new CatalogSyncer(helper, client);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void initialSync_replacesLocalCatalogAndStoresWatermark() throws Exception {
+        server.enqueue(json("[" + row(10, "Kopi Susu", "2024-10-01T08:00:00.5", null) + ","
+                + row(11, "Roti Bakar", "2024-10-01T08:00:00.5", null) + "]"));
+
+        assertTrue(syncer.sync());
+
+        // Produk contoh bawaan database lokal tidak ada di server, jadi ikut dibuang
+        List<Product> products = helper.getProductsByCategory();
+        assertEquals(2, products.size());
+        assertEquals(15000, products.get(0).getPrice());
+
+        SyncState state = helper.getSyncState("products");
+        assertEquals("2024-10-01T08:00:00.5", state.getLastUpdatedAt());
+        assertEquals(11, state.getLastId());
+
+        RecordedRequest request = server.takeRequest();
+        assertNull(request.getRequestUrl().queryParameter("or"));
+        assertEquals("updated_at.asc,id.asc", request.getRequestUrl().queryParameter("order"));
+    }
+
+    @Test
+    public void deltaSync_requestsAfterWatermarkAndAppliesTombstones() throws Exception {
+        server.enqueue(json("[" + row(10, "Kopi Susu", "2024-10-01T08:00:00", null) + ","
+                + row(11, "Roti Bakar", "2024-10-01T08:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+        server.takeRequest();
+
+        server.enqueue(json("[" + row(10, "Kopi Susu Aren", "2024-10-02T09:30:00.123456", null) + ","
+                + row(11, "Roti Bakar", "2024-10-02T09:31:00", "2024-10-02T09:31:00") + ","
+                + row(12, "Es Teh", "2024-10-02T09:32:00", null) + "]"));
+        assertTrue(syncer.sync());
+
+        RecordedRequest delta = server.takeRequest();
+        assertEquals("(updated_at.gt.\"2024-10-01T08:00:00\",and(updated_at.eq.\"2024-10-01T08:00:00\",id.gt.11))",
+                delta.getRequestUrl().queryParameter("or"));
+
+        List<Product> products = helper.getProductsByCategory();
+        assertEquals(2, products.size());
+        assertEquals(1, helper.searchProducts("aren", null, 10).size());
+        assertTrue(helper.searchProducts("roti", null, 10).isEmpty());
+        assertEquals(12, helper.getSyncState("products").getLastId());
+        assertEquals(1, syncer.getMetrics().getTombstones());
+    }
+
+    @Test
+    public void unchangedCatalog_transfersOnlyEmptyArray() throws Exception {
+        server.enqueue(json("[" + row(10, "Kopi Susu", "2024-10-01T08:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+        assertTrue(syncer.getMetrics().getLastBytes() > 2);
+
+        for (int i = 0; i < 5; i++) {
+            server.enqueue(json("[]"));
+            assertTrue(syncer.sync());
+            assertEquals(0, syncer.getMetrics().getLastRows());
+            assertEquals(2, syncer.getMetrics().getLastBytes());
+        }
+        assertEquals(1, helper.getProductsByCategory().size());
+    }
+
+    @Test
+    public void sync_keepsUnsentLocalSalesOffTheServerStock() throws Exception {
+        server.enqueue(json("[" + row(10, "Kopi Susu", "2024-10-01T08:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+
+        // Checkout lokal 3 gelas; outbox belum terkirim
+        Product sold = helper.getProductsByIds(Collections.singleton("10")).get(0);
+        Transaction sale = new Transaction("TRX-OUTBOX-1", "1", "Kasir",
+                Collections.singletonList(new CartItem(sold, 3)), "CASH");
+        sale.setPaidAmount(sale.getTotalAmount());
+        assertTrue(helper.insertTransaction(sale));
+
+        // Server belum tahu penjualan itu dan masih melaporkan stok 20
+        server.enqueue(json("[" + row(10, "Kopi Susu Aren", "2024-10-02T09:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+        assertEquals(17, stockOf("10"));
+
+        // Setelah outbox terkirim, stok server sudah termasuk penjualan itu
+        helper.deleteOutboxEntries(helper.getPendingOutbox(10));
+        server.enqueue(json("[" + row(10, "Kopi Susu Aren", "2024-10-02T09:05:00", null)
+                .replace("\"stock\":20", "\"stock\":17") + "]"));
+        assertTrue(syncer.sync());
+        assertEquals(17, stockOf("10"));
+    }
+
+    @Test
+    public void sync_ignoresDeadLetteredSales() throws Exception {
+        server.enqueue(json("[" + row(10, "Kopi Susu", "2024-10-01T08:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+
+        Product sold = helper.getProductsByIds(Collections.singleton("10")).get(0);
+        Transaction sale = new Transaction("TRX-DEAD-1", "1", "Kasir",
+                Collections.singletonList(new CartItem(sold, 3)), "CASH");
+        sale.setPaidAmount(sale.getTotalAmount());
+        assertTrue(helper.insertTransaction(sale));
+        // Server menolak baris ini; penjualan itu tidak akan pernah mengurangi stok server
+        helper.recordOutboxFailure(helper.getPendingOutbox(10), "400 invalid row", true);
+
+        server.enqueue(json("[" + row(10, "Kopi Susu Aren", "2024-10-02T09:00:00", null) + "]"));
+        assertTrue(syncer.sync());
+        assertEquals(20, stockOf("10"));
+    }
+
+    @Test
+    public void failedSync_keepsLocalCatalogAndWatermark() {
+        int before = helper.getProductsByCategory().size();
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        assertFalse(syncer.sync());
+        assertEquals(before, helper.getProductsByCategory().size());
+        assertNull(helper.getSyncState("products"));
+        assertEquals(1, syncer.getMetrics().getFailures());
+    }
+
+    private int stockOf(String id) {
+        return helper.getProductsByIds(Collections.singleton(id)).get(0).getStock();
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static String row(long id, String name, String updatedAt, String deletedAt) {
+        return "{\"id\":" + id + ",\"name\":\"" + name + "\",\"category\":\"Kopi\",\"price\":15000.00,"
+                + "\"stock\":20,\"is_available\":true,\"image_url\":null,\"description\":\"\","
+                + "\"updated_at\":\"" + updatedAt + "\",\"deleted_at\":"
+                + (deletedAt == null ? "null" : "\"" + deletedAt + "\"") + "}";
+    }
+}
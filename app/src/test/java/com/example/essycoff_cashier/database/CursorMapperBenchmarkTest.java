@@ -0,0 +1,103 @@
+package com.example.essycoff_cashier.database;
+
+import android.database.Cursor;
+import android.database.MatrixCursor;
+
+import com.example.essycoff_cashier.models.Product;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Microbenchmark pemetaan 100k baris produk: lookup index per sel
+ * dibandingkan dengan index yang dicari sekali per query.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CursorMapperBenchmarkTest {
+    private static final int ROWS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    public void mapper_mapsAllColumns() {
+        MatrixCursor cursor = newProductCursor(1);
+        List<Product> products = new ProductMapper(cursor).mapAll();
+
+        assertEquals(1, products.size());
+        Product product = products.get(0);
+        assertEquals("0", product.getId());
+        assertEquals("Produk 0", product.getName());
+        assertEquals(15000L, product.getPrice());
+        assertTrue(product.isAvailable());
+    }
+
+    @Test
+    public void forEach_reusesRowObject() {
+        MatrixCursor cursor = newProductCursor(3);
+        List<Product> seen = new ArrayList<>();
+        new ProductMapper(cursor).forEach(seen::add, true);
+
+        assertEquals(3, seen.size());
+        assertSame(seen.get(0), seen.get(2));
+        assertEquals("Produk 2", seen.get(2).getName());
+    }
+
+    @Test
+    public void benchmark_map100kRows() {
+        MatrixCursor cursor = newProductCursor(ROWS);
+        long perCellBest = Long.MAX_VALUE;
+        long mapperBest = Long.MAX_VALUE;
+
+        for (int round = 0; round < ROUNDS; round++) {
+            cursor.moveToPosition(-1);
+            long start = System.nanoTime();
+            assertEquals(ROWS, mapPerCell(cursor).size());
+            perCellBest = Math.min(perCellBest, System.nanoTime() - start);
+
+            cursor.moveToPosition(-1);
+            start = System.nanoTime();
+            assertEquals(ROWS, new ProductMapper(cursor).mapAll().size());
+            mapperBest = Math.min(mapperBest, System.nanoTime() - start);
+
+            cursor.moveToPosition(-1);
+            int[] count = new int[1];
+            new ProductMapper(cursor).forEach(row -> count[0]++, true);
+            assertEquals(ROWS, count[0]);
+        }
+
+        assertTrue(mapperBest < perCellBest);
+    }
+
+    /**
+     * Pola lama getAllProducts: getColumnIndexOrThrow untuk setiap sel
+     */
+    private static List<Product> mapPerCell(Cursor cursor) {
+        List<Product> products = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            Product product = new Product();
+            product.setId(cursor.getInt(cursor.getColumnIndexOrThrow("id")));
+            product.setName(cursor.getString(cursor.getColumnIndexOrThrow("name")));
+            product.setCategory(cursor.getString(cursor.getColumnIndexOrThrow("category")));
+            product.setPrice(cursor.getLong(cursor.getColumnIndexOrThrow("price")));
+            product.setStock(cursor.getInt(cursor.getColumnIndexOrThrow("stock")));
+            product.setAvailable(cursor.getInt(cursor.getColumnIndexOrThrow("is_available")) == 1);
+            product.setImageUrl(cursor.getString(cursor.getColumnIndexOrThrow("image_url")));
+            product.setDescription(cursor.getString(cursor.getColumnIndexOrThrow("description")));
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static MatrixCursor newProductCursor(int rows) {
+        MatrixCursor cursor = new MatrixCursor(ProductMapper.COLUMNS, rows);
+        for (int i = 0; i < rows; i++) {
+            cursor.addRow(new Object[]{i, "Produk " + i, "Kopi", 15000.0 + i, 100, 1, null, "Deskripsi " + i});
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Throughput checkout untuk keranjang 1-50 item: header dan semua item
+ * harus tersimpan dalam satu transaksi SQLite.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InsertTransactionBenchmarkTest {
+    private static final String TAG = "InsertTxBenchmark";
+    private static final String DB_NAME = "insert_transaction_test.db";
+    private static final int[] BASKET_SIZES = {1, 5, 10, 25, 50};
+    private static final int CHECKOUTS_PER_SIZE = 500;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void insertTransaction_persistsAllItems() {
+        Transaction transaction = newTransaction("TRX-ITEMS", 3);
+        assertTrue(helper.insertTransaction(transaction));
+
+        assertEquals(3, DatabaseUtils.longForQuery(helper.getReadableDatabase(),
+                "SELECT COUNT(*) FROM transaction_items WHERE transaction_id = ?",
+                new String[]{transaction.getId()}));
+    }
+
+    @Test
+    public void insertTransaction_rollsBackHeaderWhenItemFails() {
+        Transaction transaction = newTransaction("TRX-BAD", 2);
+        // quantity 0 melanggar CHECK(quantity > 0) pada transaction_items
+        transaction.getItems().get(1).setQuantity(0);
+
+        assertFalse(helper.insertTransaction(transaction));
+        assertEquals(0, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                "transactions", "transaction_number = ?", new String[]{"TRX-BAD"}));
+    }
+
+    @Test
+    public void benchmark_basketSizes() {
+        int sequence = 0;
+        for (int size : BASKET_SIZES) {
+            long start = System.nanoTime();
+            for (int i = 0; i < CHECKOUTS_PER_SIZE; i++) {
+                assertTrue(helper.insertTransaction(newTransaction("TRX-B" + sequence++, size)));
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            Log.i(TAG, String.format("basket=%2d items: %.0f checkouts/s, %.0f items/s",
+                    size, CHECKOUTS_PER_SIZE / seconds, CHECKOUTS_PER_SIZE * size / seconds));
+        }
+
+        long expectedItems = 0;
+        for (int size : BASKET_SIZES) {
+            expectedItems += (long) size * CHECKOUTS_PER_SIZE;
+        }
+        assertEquals(expectedItems, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "transaction_items"));
+    }
+
+    private static Transaction newTransaction(String number, int itemCount) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = new Product(String.valueOf(i + 1), "Produk " + i, "Kopi", 15000 + i * 1000, 100, true);
+            items.add(new CartItem(product, 1 + (i % 3)));
+        }
+        Transaction transaction = new Transaction(number, "1", "Kasir", items, "CASH");
+        transaction.setPaidAmount(transaction.getTotalAmount());
+        return transaction;
+    }
+}
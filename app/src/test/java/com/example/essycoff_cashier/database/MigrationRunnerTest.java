@@ -0,0 +1,135 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrade database versi 1 yang sudah berisi riwayat penjualan besar
+ * dan pastikan semua langkah migrasi menyimpan datanya.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MigrationRunnerTest {
+    private static final int TRANSACTION_COUNT = 500_000;
+
+    private Context context;
+    private File dbFile;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        dbFile = context.getDatabasePath("migration_test.db");
+        dbFile.getParentFile().mkdirs();
+        context.deleteDatabase(dbFile.getName());
+    }
+
+    @After
+    public void tearDown() {
+        context.deleteDatabase(dbFile.getName());
+    }
+
+    @Test
+    public void upgradeFromBaseline_keepsAllTransactions() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(dbFile, null);
+        DatabaseHelper.createBaselineSchema(db);
+        populateTransactions(db);
+        db.setVersion(1);
+
+        MigrationRunner runner = new MigrationRunner(DatabaseMigrations.all());
+        Map<Integer, Long> timings = runner.migrate(db, 1, DatabaseHelper.DATABASE_VERSION);
+
+        assertEquals(DatabaseHelper.DATABASE_VERSION - 1, timings.size());
+        assertEquals(TRANSACTION_COUNT, DatabaseUtils.queryNumEntries(db, "transactions"));
+
+        // v4: DATETIME teks -> epoch milidetik, REAL -> rupiah penuh
+        Cursor cursor = db.rawQuery("SELECT created_at, typeof(created_at), total_amount, typeof(total_amount)"
+                + " FROM transactions WHERE transaction_number = 'TRX-1'", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals(1704067200000L + 60_000L, cursor.getLong(0));
+        assertEquals("integer", cursor.getString(1));
+        assertEquals(22000L, cursor.getLong(2));
+        assertEquals("integer", cursor.getString(3));
+        cursor.close();
+        db.close();
+    }
+
+    @Test
+    public void helperUpgrade_doesNotDropExistingData() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(dbFile, null);
+        DatabaseHelper.createBaselineSchema(db);
+        db.execSQL("INSERT INTO transactions (transaction_number, cashier_id, subtotal, tax_amount,"
+                + " total_amount, payment_method, payment_amount) VALUES ('TRX-OLD', 1, 10000, 1000, 11000, 'Tunai', 11000)");
+        db.setVersion(1);
+        db.close();
+
+        DatabaseHelper helper = new DatabaseHelper(context, dbFile.getName());
+        SQLiteDatabase upgraded = helper.getReadableDatabase();
+        assertEquals(DatabaseHelper.DATABASE_VERSION, upgraded.getVersion());
+
+        Cursor cursor = upgraded.rawQuery("SELECT transaction_number, typeof(created_at) FROM transactions", null);
+        assertTrue(cursor.moveToFirst());
+        assertEquals("TRX-OLD", cursor.getString(0));
+        assertEquals("integer", cursor.getString(1));
+        cursor.close();
+        helper.close();
+    }
+
+    @Test
+    public void freshInstall_matchesUpgradedSchemaVersion() {
+        DatabaseHelper helper = new DatabaseHelper(context, dbFile.getName());
+        assertEquals(DatabaseHelper.DATABASE_VERSION, helper.getReadableDatabase().getVersion());
+        helper.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void runner_rejectsGapsInVersions() {
+        new MigrationRunner(java.util.Arrays.asList(noop(2), noop(4)));
+    }
+
+    private static Migration noop(int version) {
+        return new Migration(version, "noop") {
+            @Override
+            public void migrate(SQLiteDatabase db) {
+            }
+        };
+    }
+
+    private static void populateTransactions(SQLiteDatabase db) {
+        SQLiteStatement insert = db.compileStatement("INSERT INTO transactions (transaction_number,"
+                + " cashier_id, subtotal, tax_amount, total_amount, payment_method, payment_amount,"
+                + " change_amount, status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, 0, 'completed',"
+                + " datetime('2024-01-01', ? || ' seconds'))");
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < TRANSACTION_COUNT; i++) {
+                insert.bindString(1, "TRX-" + i);
+                insert.bindLong(2, 1 + (i % 2));
+                insert.bindDouble(3, 20000);
+                insert.bindDouble(4, 2000);
+                insert.bindDouble(5, 22000);
+                insert.bindString(6, "Tunai");
+                insert.bindDouble(7, 22000);
+                insert.bindLong(8, i * 60L);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
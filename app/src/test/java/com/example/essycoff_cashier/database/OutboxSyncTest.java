@@ -0,0 +1,210 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+import com.example.essycoff_cashier.sync.OutboxSyncer;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Outbox diisi oleh checkout lalu dikuras ke PostgREST tiruan (MockWebServer)
+ */
+@RunWith(RobolectricTestRunner.class)
+public class OutboxSyncTest {
+    private static final String DB_NAME = "outbox_sync_test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+    private MockWebServer server;
+    private ScheduledExecutorService executor;
+    private OutboxSyncer syncer;
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+
+        server = new MockWebServer();
+        server.start();
+        SupabaseClient client = new SupabaseClient(new OkHttpClient(), server.url("/").toString(), "test-key");
+        executor = Executors.newSingleThreadScheduledExecutor();
+        syncer = new OutboxSyncer(helper, client, executor);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        server.shutdown();
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void checkout_enqueuesInSameTransaction() {
+        assertTrue(helper.insertTransaction(newTransaction("TRX-OUT-1", 2)));
+
+        List<OutboxEntry> pending = helper.getPendingOutbox(10);
+        assertEquals(1, pending.size());
+        assertEquals("TRX-OUT-1", pending.get(0).getDedupKey());
+
+        JsonObject payload = JsonParser.parseString(pending.get(0).getPayload()).getAsJsonObject();
+        assertEquals("Tunai", payload.get("payment_method").getAsString());
+        assertEquals(2, payload.getAsJsonArray("items").size());
+    }
+
+    @Test
+    public void drain_sendsOneOrderedBatch() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(helper.insertTransaction(newTransaction("TRX-OUT-" + i, 1)));
+        }
+        server.enqueue(new MockResponse().setBody("5"));
+
+        assertEquals(OutboxSyncer.DrainResult.DRAINED, syncer.drainNow());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/rest/v1/rpc/ingest_transactions", request.getPath());
+        assertEquals("test-key", request.getHeader("apikey"));
+        JsonArray batch = JsonParser.parseString(request.getBody().readUtf8())
+                .getAsJsonObject().getAsJsonArray("p_batch");
+        assertEquals(5, batch.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("TRX-OUT-" + i, batch.get(i).getAsJsonObject().get("transaction_number").getAsString());
+        }
+
+        assertEquals(0, helper.getPendingOutboxCount());
+        assertEquals(1, syncer.getMetrics().getBatchesSent());
+        assertEquals(5, syncer.getMetrics().getEntriesSent());
+    }
+
+    @Test
+    public void drain_keepsEntriesOnServerErrorAndResendsSameKeys() throws Exception {
+        assertTrue(helper.insertTransaction(newTransaction("TRX-RETRY", 1)));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setBody("0"));
+
+        assertEquals(OutboxSyncer.DrainResult.RETRY_LATER, syncer.drainNow());
+        assertEquals(1, helper.getPendingOutboxCount());
+        assertEquals(1, helper.getPendingOutbox(1).get(0).getAttempts());
+
+        assertEquals(OutboxSyncer.DrainResult.DRAINED, syncer.drainNow());
+        String first = server.takeRequest().getBody().readUtf8();
+        String second = server.takeRequest().getBody().readUtf8();
+        assertEquals(first, second);
+        assertEquals(0, helper.getPendingOutboxCount());
+        assertEquals(1, syncer.getMetrics().getFailedBatches());
+    }
+
+    @Test
+    public void drain_isolatesRejectedEntry() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(helper.insertTransaction(newTransaction("TRX-POISON-" + i, 1)));
+        }
+        // Batch ditolak, lalu dikirim satu per satu: hanya entri kedua yang rusak
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse().setBody("1"));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse().setBody("1"));
+
+        assertEquals(OutboxSyncer.DrainResult.DRAINED, syncer.drainNow());
+        assertEquals(4, server.getRequestCount());
+        assertEquals(0, helper.getPendingOutboxCount());
+        assertEquals(1, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "outbox",
+                "dead = 1 AND dedup_key = ?", new String[]{"TRX-POISON-1"}));
+        assertEquals(1, syncer.getMetrics().getDeadLettered());
+    }
+
+    @Test
+    public void drain_keepsEveryEntryWhenEndpointOrAuthFails() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(helper.insertTransaction(newTransaction("TRX-OUTAGE-" + i, 1)));
+        }
+        // ingest_transactions belum di-deploy / schema cache basi, lalu token ditolak
+        server.enqueue(new MockResponse().setResponseCode(404)
+                .setBody("{\"code\":\"PGRST202\",\"message\":\"Could not find the function\"}"));
+        server.enqueue(new MockResponse().setResponseCode(401).setBody("{\"message\":\"JWT expired\"}"));
+
+        assertEquals(OutboxSyncer.DrainResult.RETRY_LATER, syncer.drainNow());
+        assertEquals(OutboxSyncer.DrainResult.RETRY_LATER, syncer.drainNow());
+        // Tidak dicoba satu per satu dan tidak ada entri yang dibuang
+        assertEquals(2, server.getRequestCount());
+        assertEquals(3, helper.getPendingOutboxCount());
+        assertEquals(0, syncer.getMetrics().getDeadLettered());
+    }
+
+    @Test
+    public void requeueDeadLetters_sendsRejectedEntryAgain() throws Exception {
+        assertTrue(helper.insertTransaction(newTransaction("TRX-REQUEUE", 1)));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        server.enqueue(new MockResponse().setResponseCode(400));
+        assertEquals(OutboxSyncer.DrainResult.DRAINED, syncer.drainNow());
+        assertEquals(0, helper.getPendingOutboxCount());
+
+        // Data di server sudah diperbaiki
+        server.enqueue(new MockResponse().setBody("1"));
+        assertEquals(1, syncer.requeueDeadLetters());
+
+        server.takeRequest();
+        server.takeRequest();
+        RecordedRequest resent = server.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(resent);
+        assertTrue(resent.getBody().readUtf8().contains("TRX-REQUEUE"));
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "outbox") > 0
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(), "outbox"));
+        assertEquals(0, syncer.requeueDeadLetters());
+    }
+
+    @Test
+    public void checkout_doesNotWaitForNetwork() {
+        // Tidak ada response yang disiapkan: request ke server akan menggantung
+        syncer.requestSync();
+        long start = System.nanoTime();
+        for (int i = 0; i < 50; i++) {
+            assertTrue(helper.insertTransaction(newTransaction("TRX-FAST-" + i, 3)));
+            syncer.requestSync();
+        }
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(elapsedMs < 5_000);
+    }
+
+    private static Transaction newTransaction(String number, int itemCount) {
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < itemCount; i++) {
+            Product product = new Product(String.valueOf(1000 + i), "Produk " + i, "Kopi", 15000, 100, true);
+            items.add(new CartItem(product, 1));
+        }
+        Transaction transaction = new Transaction(number, "1", "Kasir", items, "CASH");
+        transaction.setPaidAmount(transaction.getTotalAmount());
+        return transaction;
+    }
+}
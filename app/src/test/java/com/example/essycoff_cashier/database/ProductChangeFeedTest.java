@@ -0,0 +1,228 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.sync.CatalogSyncer;
+import com.example.essycoff_cashier.sync.ChangeFeedMetrics;
+import com.example.essycoff_cashier.sync.ProductChangeFeed;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Perubahan katalog realtime terhadap server websocket lokal yang berbicara protokol Phoenix
+ * seperti Supabase Realtime: join, batch perubahan, reconnect dengan sinkron susulan, dan polling.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProductChangeFeedTest {
+    private static final String DB_NAME = "product_change_feed_test.db";
+    private static final String TOPIC = "realtime:public:products";
+
+    private Context context;
+    private DatabaseHelper helper;
+    private MockWebServer server;
+    private ScheduledExecutorService executor;
+    private ProductChangeFeed feed;
+    private final LinkedBlockingQueue<String> events = new LinkedBlockingQueue<>();
+    private final List<List<Product>> changedBatches = new CopyOnWriteArrayList<>();
+    private final List<List<String>> deletedBatches = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+
+        server = new MockWebServer();
+        server.start();
+        OkHttpClient http = new OkHttpClient();
+        SupabaseClient client = new SupabaseClient(http, server.url("/").toString(), "test-key");
+        executor = Executors.newSingleThreadScheduledExecutor();
+        feed = new ProductChangeFeed(http, server.url("/realtime/v1/websocket").toString(), "test-key",
+                helper, new CatalogSyncer(helper, client), executor);
+        feed.addListener(new ProductChangeFeed.Listener() {
+            @Override
+            public void onProductsChanged(List<Product> changed, List<String> deletedIds) {
+                changedBatches.add(changed);
+                deletedBatches.add(deletedIds);
+                events.add("changed");
+            }
+
+            @Override
+            public void onCatalogResynced() {
+                events.add("resynced");
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        feed.stop();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdown();
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void pushedChanges_areBatchedAndReconnectResumesFromWatermark() throws Exception {
+        FakeRealtime first = new FakeRealtime();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(first));
+        server.enqueue(json("[" + row(10, "Kopi Susu", 15000, "2024-10-01T08:00:00", null) + ","
+                + row(11, "Roti Bakar", 15000, "2024-10-01T08:00:00", null) + "]"));
+
+        feed.start();
+        assertEquals("resynced", events.poll(5, TimeUnit.SECONDS));
+        JsonObject join = first.joins.poll(5, TimeUnit.SECONDS);
+        assertEquals(TOPIC, join.get("topic").getAsString());
+        assertEquals("products", join.getAsJsonObject("payload").getAsJsonObject("config")
+                .getAsJsonArray("postgres_changes").get(0).getAsJsonObject().get("table").getAsString());
+
+        // Tiga perubahan berdekatan dari terminal/admin lain
+        first.push(change("UPDATE", row(10, "Kopi Susu", 17000, "2024-10-02T10:00:00", null)));
+        first.push(change("UPDATE", row(11, "Roti Bakar", 15000, "2024-10-02T10:00:01", "2024-10-02T10:00:01")));
+        first.push(change("INSERT", row(12, "Es Teh", 8000, "2024-10-02T10:00:02", null)));
+
+        assertEquals("changed", events.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, changedBatches.size());
+        assertEquals(2, changedBatches.get(0).size());
+        assertEquals(Arrays.asList("11"), deletedBatches.get(0));
+
+        List<Product> stored = helper.getProductsByIds(Arrays.asList("10", "11", "12"));
+        assertEquals(2, stored.size());
+        assertEquals(17000, findProduct(stored, "10").getPrice());
+        assertNotNull(findProduct(stored, "12"));
+        // Perubahan realtime tidak menggeser watermark sinkron inkremental
+        assertEquals("2024-10-01T08:00:00", helper.getSyncState("products").getLastUpdatedAt());
+
+        // Server memutus koneksi; perubahan selama terputus diambil lewat sinkron susulan
+        FakeRealtime second = new FakeRealtime();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(second));
+        server.enqueue(json("[" + row(13, "Teh Tarik", 12000, "2024-10-02T11:00:00", null) + "]"));
+        first.socket.close(1001, "restart");
+
+        assertEquals("resynced", events.poll(5, TimeUnit.SECONDS));
+        assertNotNull(second.joins.poll(5, TimeUnit.SECONDS));
+        assertEquals(1, helper.getProductsByIds(Arrays.asList("13")).size());
+
+        server.takeRequest();
+        assertNull(server.takeRequest().getRequestUrl().queryParameter("or"));
+        server.takeRequest();
+        RecordedRequest catchUp = server.takeRequest();
+        String filter = catchUp.getRequestUrl().queryParameter("or");
+        assertTrue(filter, filter.contains("updated_at.gt.\"2024-10-01T08:00:00\""));
+        assertTrue(filter, filter.contains("id.gt.11"));
+
+        ChangeFeedMetrics metrics = feed.getMetrics();
+        assertEquals(2, metrics.getConnects());
+        assertEquals(1, metrics.getDisconnects());
+        assertEquals(3, metrics.getChangesReceived());
+        assertEquals(1, metrics.getBatchesApplied());
+        assertEquals(2, metrics.getCatchUpSyncs());
+    }
+
+    @Test
+    public void unreachableRealtime_fallsBackToPollingUntilReconnected() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(json("[" + row(10, "Kopi Susu", 15000, "2024-10-01T08:00:00", null) + "]"));
+        FakeRealtime realtime = new FakeRealtime();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(realtime));
+        server.enqueue(json("[]"));
+
+        feed.start();
+
+        // Reconnect pertama gagal, jadi katalog di-poll sekali sebelum mencoba lagi
+        assertEquals("resynced", events.poll(5, TimeUnit.SECONDS));
+        assertNotNull(realtime.joins.poll(10, TimeUnit.SECONDS));
+        assertEquals(1, helper.getProductsByIds(Arrays.asList("10")).size());
+
+        ChangeFeedMetrics metrics = feed.getMetrics();
+        assertEquals(1, metrics.getFallbackPolls());
+        assertEquals(0, metrics.getDisconnects());
+    }
+
+    private static Product findProduct(List<Product> products, String id) {
+        for (Product product : products) {
+            if (product.getId().equals(id)) {
+                return product;
+            }
+        }
+        return null;
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json").setBody(body);
+    }
+
+    private static String row(long id, String name, long price, String updatedAt, String deletedAt) {
+        return "{\"id\":" + id + ",\"name\":\"" + name + "\",\"category\":\"Kopi\",\"price\":" + price + ".00,"
+                + "\"stock\":20,\"is_available\":true,\"image_url\":null,\"description\":\"\","
+                + "\"updated_at\":\"" + updatedAt + "\",\"deleted_at\":"
+                + (deletedAt == null ? "null" : "\"" + deletedAt + "\"") + "}";
+    }
+
+    private static String change(String type, String record) {
+        return "{\"topic\":\"" + TOPIC + "\",\"event\":\"postgres_changes\",\"ref\":null,\"payload\":{\"data\":{"
+                + "\"schema\":\"public\",\"table\":\"products\",\"type\":\"" + type + "\","
+                + "\"commit_timestamp\":\"2024-10-02T10:00:02Z\",\"record\":" + record + ",\"old_record\":{}}}}";
+    }
+
+    /**
+     * Sisi server Realtime: membalas join dan heartbeat, dan bisa mengirim perubahan
+     */
+    private static class FakeRealtime extends WebSocketListener {
+        final LinkedBlockingQueue<JsonObject> joins = new LinkedBlockingQueue<>();
+        volatile WebSocket socket;
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response) {
+            socket = webSocket;
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text) {
+            JsonObject message = JsonParser.parseString(text).getAsJsonObject();
+            String event = message.get("event").getAsString();
+            if ("phx_join".equals(event) || "heartbeat".equals(event)) {
+                webSocket.send("{\"topic\":\"" + message.get("topic").getAsString() + "\",\"event\":\"phx_reply\","
+                        + "\"payload\":{\"status\":\"ok\",\"response\":{}},\"ref\":\""
+                        + message.get("ref").getAsString() + "\"}");
+            }
+            if ("phx_join".equals(event)) {
+                joins.add(message);
+            }
+        }
+
+        void push(String message) {
+            socket.send(message);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.Product;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pencarian produk lewat products_fts: prefix, tanpa aksen, banyak kata,
+ * filter kategori, sinkron dengan perubahan tabel, dan cepat pada 10k produk.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ProductSearchTest {
+    private static final String DB_NAME = "product_search_test.db";
+    private static final int CATALOG_SIZE = 10_000;
+    private static final String[] CATEGORIES = {"Kopi", "Makanan", "Minuman", "Lainnya"};
+    private static final String[] WORDS = {"Aren", "Susu", "Vanilla", "Caramel", "Hazelnut", "Matcha",
+            "Coklat", "Pandan", "Keju", "Pisang", "Jahe", "Lemon"};
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+        // Mulai dari katalog kosong, tanpa produk contoh bawaan
+        helper.getWritableDatabase().delete("products", null, null);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void search_matchesPrefixAccentsAndMultipleTokens() {
+        addProduct("Café Latte", "Kopi", "Espresso dengan susu segar");
+        addProduct("Latte Aren", "Kopi", "Gula aren asli");
+        addProduct("Roti Bakar", "Makanan", "Selai coklat");
+
+        List<Product> accent = helper.searchProducts("cafe", null, 20);
+        assertEquals(1, accent.size());
+        assertEquals("Café Latte", accent.get(0).getName());
+
+        List<Product> prefix = helper.searchProducts("lat", null, 20);
+        assertEquals(2, prefix.size());
+        // Nama yang diawali kata yang dicari muncul lebih dulu
+        assertEquals("Latte Aren", prefix.get(0).getName());
+
+        List<Product> multi = helper.searchProducts("caf  LAT!", null, 20);
+        assertEquals(1, multi.size());
+
+        // Kata yang hanya ada di deskripsi tetap ditemukan
+        assertEquals("Roti Bakar", helper.searchProducts("selai", null, 20).get(0).getName());
+    }
+
+    @Test
+    public void search_appliesCategoryFilter() {
+        addProduct("Es Coklat", "Minuman", "");
+        addProduct("Roti Coklat", "Makanan", "");
+
+        List<Product> drinks = helper.searchProducts("coklat", "Minuman", 20);
+        assertEquals(1, drinks.size());
+        assertEquals("Es Coklat", drinks.get(0).getName());
+    }
+
+    @Test
+    public void index_followsUpdatesAndDeletes() {
+        long id = addProduct("Teh Tarik", "Minuman", "");
+        assertEquals(1, helper.searchProducts("tarik", null, 20).size());
+
+        Product product = helper.searchProducts("tarik", null, 20).get(0);
+        product.setName("Teh Manis");
+        helper.updateProduct(product);
+        assertTrue(helper.searchProducts("tarik", null, 20).isEmpty());
+        assertEquals(1, helper.searchProducts("manis", null, 20).size());
+
+        helper.deleteProduct((int) id);
+        assertTrue(helper.searchProducts("manis", null, 20).isEmpty());
+    }
+
+    @Test
+    public void ftsQuery_dropsOperatorsAndEmptyInput() {
+        assertEquals("caf* lat*", DatabaseHelper.toFtsQuery("  Caf \"lat\" ", null));
+        assertEquals("name:es* name:kopi*", DatabaseHelper.toFtsQuery("es-kopi", "name"));
+        assertNull(DatabaseHelper.toFtsQuery(" * - ", null));
+        assertNull(DatabaseHelper.toFtsQuery(null, null));
+    }
+
+    @Test
+    public void search_onTenThousandProducts_isSingleDigitMillis() {
+        populateCatalog();
+        String[] queries = {"ar", "susu", "van lat", "mat", "coklat keju", "pis", "lemon"};
+
+        // Pemanasan: page cache SQLite dan JIT
+        for (String query : queries) {
+            helper.searchProducts(query, null, 20);
+        }
+
+        int runs = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            for (String query : queries) {
+                helper.searchProducts(query, i % 2 == 0 ? null : CATEGORIES[i % CATEGORIES.length], 20);
+                runs++;
+            }
+        }
+        double avgMs = (System.nanoTime() - start) / 1e6 / runs;
+        assertTrue("average search took " + avgMs + " ms", avgMs < 10);
+    }
+
+    private long addProduct(String name, String category, String description) {
+        Product product = new Product(null, name, category, 15000, 10, true);
+        product.setDescription(description);
+        return helper.addProduct(product);
+    }
+
+    private void populateCatalog() {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (int i = 0; i < CATALOG_SIZE; i++) {
+                String name = WORDS[i % WORDS.length] + " " + WORDS[(i / WORDS.length) % WORDS.length]
+                        + " Latte " + i;
+                addProduct(name, CATEGORIES[i % CATEGORIES.length], "Varian " + WORDS[(i * 7) % WORDS.length]);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+}
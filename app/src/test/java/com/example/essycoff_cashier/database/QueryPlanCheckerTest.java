@@ -0,0 +1,68 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Query riwayat, laporan, dan detail item tidak boleh jatuh ke full table scan.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class QueryPlanCheckerTest {
+    private static final String DB_NAME = "query_plan_test.db";
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void hotQueries_useIndexes() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        for (Map.Entry<String, Object[]> entry : QueryPlanChecker.hotQueries().entrySet()) {
+            List<String> scans = QueryPlanChecker.findFullScans(db,
+                    (String) entry.getValue()[0], (String[]) entry.getValue()[1]);
+            assertTrue(entry.getKey() + " falls back to " + scans, scans.isEmpty());
+        }
+    }
+
+    @Test
+    public void checker_flagsUnindexedQuery() {
+        SQLiteDatabase db = helper.getReadableDatabase();
+        List<String> scans = QueryPlanChecker.findFullScans(db,
+                "SELECT * FROM transactions WHERE notes = ?", new String[]{"x"});
+        assertFalse(scans.isEmpty());
+    }
+
+    @Test
+    public void isFullScan_recognisesPlanFormats() {
+        assertTrue(QueryPlanChecker.isFullScan("SCAN transactions"));
+        assertTrue(QueryPlanChecker.isFullScan("SCAN TABLE transactions"));
+        assertTrue(QueryPlanChecker.isFullScan("USE TEMP B-TREE FOR ORDER BY"));
+        assertFalse(QueryPlanChecker.isFullScan("SCAN transactions USING INDEX idx_transactions_created_at"));
+        assertFalse(QueryPlanChecker.isFullScan("SEARCH transaction_items USING INDEX idx_transaction_items_transaction (transaction_id=?)"));
+    }
+}
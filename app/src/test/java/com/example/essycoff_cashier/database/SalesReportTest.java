@@ -0,0 +1,126 @@
+package com.example.essycoff_cashier.database;
+
+import com.example.essycoff_cashier.models.SalesReport;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Laporan penjualan lewat function get_sales_report: satu GET kecil per rentang waktu
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SalesReportTest {
+    private static final String REPORT = "{\"from_ms\":1727740800000,\"to_ms\":1730419200000,"
+            + "\"total_sales\":35200000,\"transaction_count\":1260,"
+            + "\"payment_methods\":[{\"payment_method\":\"Tunai\",\"transaction_count\":900,\"total_sales\":24000000},"
+            + "{\"payment_method\":\"E-Wallet\",\"transaction_count\":360,\"total_sales\":11200000}],"
+            + "\"top_products\":[{\"product_name\":\"Cappuccino\",\"category\":\"Kopi\",\"quantity\":410,\"revenue\":9020000}],"
+            + "\"top_categories\":[{\"category\":\"Kopi\",\"quantity\":980,\"revenue\":22100000}]}";
+
+    private MockWebServer server;
+    private SupabaseClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new SupabaseClient(new OkHttpClient(), server.url("/").toString(), "test-key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void salesReport_isOneSmallGetWithTypedResult() throws Exception {
+        server.enqueue(new MockResponse().setHeader("Content-Type", "application/json").setBody(REPORT));
+
+        SalesReport report = awaitReport(1727740800000L, 1730419200000L);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("GET", request.getMethod());
+        assertEquals("/rest/v1/rpc/get_sales_report", request.getRequestUrl().encodedPath());
+        assertEquals("1727740800000", request.getRequestUrl().queryParameter("p_from_ms"));
+        assertEquals("5", request.getRequestUrl().queryParameter("p_top_limit"));
+
+        assertEquals(35200000, report.getTotalSales());
+        assertEquals(1260, report.getTransactionCount());
+        assertEquals(27937, report.getAverageTransaction());
+        assertEquals(2, report.getPaymentMethods().size());
+        assertEquals("Tunai", report.getPaymentMethods().get(0).getPaymentMethod());
+        assertEquals("Cappuccino", report.getTopProducts().get(0).getProductName());
+        assertEquals("Kopi", report.getTopCategories().get(0).getCategory());
+    }
+
+    @Test
+    public void emptyRange_hasZeroAverageAndEmptyLists() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"total_sales\":0,\"transaction_count\":0,"
+                + "\"payment_methods\":[],\"top_products\":[],\"top_categories\":[]}"));
+
+        SalesReport report = awaitReport(0, 1);
+
+        assertEquals(0, report.getAverageTransaction());
+        assertTrue(report.getTopProducts().isEmpty());
+    }
+
+    @Test
+    public void readOnlyRpc_doesNotDetachInFlightSelects() throws Exception {
+        server.enqueue(new MockResponse().setBody("[]"));
+        server.enqueue(new MockResponse().setBody(REPORT));
+        CountDownLatch selected = new CountDownLatch(1);
+        client.select("products", "order=name", Object.class, new SupabaseClient.SupabaseCallback<List<Object>>() {
+            @Override
+            public void onSuccess(List<Object> result) {
+                selected.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                selected.countDown();
+            }
+        });
+        assertTrue(selected.await(5, TimeUnit.SECONDS));
+
+        awaitReport(0, 1);
+
+        assertEquals(0, client.getSelectReads().getInvalidations());
+    }
+
+    private SalesReport awaitReport(long fromMs, long toMs) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<SalesReport> result = new AtomicReference<>();
+        AtomicReference<String> error = new AtomicReference<>();
+        client.getSalesReport(fromMs, toMs, 5, new SupabaseClient.SupabaseCallback<SalesReport>() {
+            @Override
+            public void onSuccess(SalesReport report) {
+                result.set(report);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertNull(error.get());
+        return result.get();
+    }
+}
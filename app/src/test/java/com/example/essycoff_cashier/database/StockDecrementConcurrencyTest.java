@@ -0,0 +1,117 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabaseLockedException;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.CartItem;
+import com.example.essycoff_cashier.models.Product;
+import com.example.essycoff_cashier.models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Beberapa thread checkout produk yang sama: stok tidak boleh negatif
+ * dan jumlah penjualan yang berhasil harus sama dengan stok awal.
+ * Setiap thread memakai helper (koneksi) sendiri ke file yang sama, jadi yang diuji adalah
+ * UPDATE bersyarat di SQLite, bukan lock Java pada insertTransaction.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class StockDecrementConcurrencyTest {
+    private static final String DB_NAME = "stock_concurrency_test.db";
+    private static final int INITIAL_STOCK = 50;
+    private static final int THREADS = 8;
+    private static final int CHECKOUTS_PER_THREAD = 20;
+
+    private Context context;
+    private DatabaseHelper helper;
+    private String productId;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+
+        Product product = new Product(null, "Espresso", "Kopi", 15000, INITIAL_STOCK, true);
+        productId = String.valueOf(helper.addProduct(product));
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void concurrentCheckouts_neverOversell() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        AtomicInteger sequence = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            executor.execute(() -> {
+                DatabaseHelper connection = new DatabaseHelper(context, DB_NAME);
+                try {
+                    start.await();
+                    for (int i = 0; i < CHECKOUTS_PER_THREAD; i++) {
+                        Transaction sale = newSale("TRX-C" + sequence.incrementAndGet());
+                        while (true) {
+                            try {
+                                if (connection.insertTransaction(sale)) {
+                                    sold.incrementAndGet();
+                                }
+                                break;
+                            } catch (InsufficientStockException e) {
+                                rejected.incrementAndGet();
+                                break;
+                            } catch (SQLiteDatabaseLockedException e) {
+                                // Koneksi lain masih memegang lock tulis; belum ada yang berubah, coba lagi
+                            }
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    connection.close();
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(THREADS * CHECKOUTS_PER_THREAD - INITIAL_STOCK, rejected.get());
+        assertEquals(0, DatabaseUtils.longForQuery(helper.getReadableDatabase(),
+                "SELECT stock FROM products WHERE id = ?", new String[]{productId}));
+        // Penjualan yang ditolak tidak meninggalkan header transaksi
+        assertEquals(INITIAL_STOCK, DatabaseUtils.queryNumEntries(helper.getReadableDatabase(),
+                "transactions", "transaction_number LIKE 'TRX-C%'", null));
+    }
+
+    private Transaction newSale(String number) {
+        Product product = new Product(productId, "Espresso", "Kopi", 15000, INITIAL_STOCK, true);
+        Transaction transaction = new Transaction(number, "1", "Kasir",
+                Collections.singletonList(new CartItem(product, 1)), "CASH");
+        transaction.setPaidAmount(transaction.getTotalAmount());
+        return transaction;
+    }
+}
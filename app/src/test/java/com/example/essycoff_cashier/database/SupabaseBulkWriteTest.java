@@ -0,0 +1,197 @@
+package com.example.essycoff_cashier.database;
+
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Bulk insert/upsert: pemecahan chunk per ukuran byte, header PostgREST,
+ * hasil per chunk, dan perbandingan throughput dengan insert satu baris per request.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SupabaseBulkWriteTest {
+    private static final int ROWS = 500;
+
+    private MockWebServer server;
+    private SupabaseClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new SupabaseClient(new OkHttpClient(), server.url("/").toString(), "test-key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void chunkRows_respectsByteLimitAndKeepsEveryRow() {
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add("{\"id\":" + i + ",\"name\":\"Produk ké-" + i + "\"}");
+        }
+
+        List<SupabaseClient.Chunk> chunks = SupabaseClient.chunkRows(rows, 300);
+        int total = 0;
+        for (SupabaseClient.Chunk chunk : chunks) {
+            assertTrue(chunk.bytes <= 300);
+            assertEquals(chunk.bytes, chunk.json.getBytes(StandardCharsets.UTF_8).length);
+            assertEquals(chunk.rows, JsonParser.parseString(chunk.json).getAsJsonArray().size());
+            total += chunk.rows;
+        }
+        assertTrue(chunks.size() > 1);
+        assertEquals(100, total);
+
+        // Baris yang lebih besar dari batas tetap terkirim sendirian
+        assertEquals(1, SupabaseClient.chunkRows(Collections.singletonList(rows.get(0)), 4).size());
+    }
+
+    @Test
+    public void bulkUpsert_sendsMergeDuplicatesAndReportsEachChunk() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(201));
+        server.enqueue(new MockResponse().setResponseCode(409).setBody("{\"message\":\"conflict\"}"));
+        server.enqueue(new MockResponse().setResponseCode(201));
+
+        List<Row> rows = rows(30);
+        int rowBytes = new com.google.gson.Gson().toJson(rows.get(0)).length() + 1;
+        List<SupabaseClient.ChunkResult> seen = Collections.synchronizedList(new ArrayList<>());
+        SupabaseClient.BulkResult result = await(callback ->
+                client.bulkWrite("transactions", rows, "transaction_number", rowBytes * 10 + 2,
+                        collecting(seen, callback)));
+
+        assertEquals(3, result.getChunks().size());
+        assertEquals(3, seen.size());
+        assertFalse(result.isSuccessful());
+        assertEquals(409, result.getChunks().get(1).getHttpCode());
+        assertEquals(20, result.getRowsWritten());
+
+        RecordedRequest first = server.takeRequest();
+        assertEquals("/rest/v1/transactions?on_conflict=transaction_number", first.getPath());
+        assertEquals("resolution=merge-duplicates,return=minimal", first.getHeader("Prefer"));
+        assertEquals(10, JsonParser.parseString(first.getBody().readUtf8()).getAsJsonArray().size());
+    }
+
+    @Test
+    public void throughput_bulkVersusOneRowPerCall() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(201).setBody("{}");
+            }
+        });
+        List<Row> rows = rows(ROWS);
+
+        long start = System.nanoTime();
+        CountDownLatch done = new CountDownLatch(ROWS);
+        AtomicInteger failures = new AtomicInteger();
+        for (Row row : rows) {
+            // Jalur lama: satu POST per baris
+            client.insert("transactions", row, new SupabaseClient.SupabaseCallback<Row>() {
+                @Override
+                public void onSuccess(Row result) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String error) {
+                    failures.incrementAndGet();
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        long singleMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int singleRequests = server.getRequestCount();
+
+        start = System.nanoTime();
+        SupabaseClient.BulkResult result = await(callback -> client.bulkInsert("transactions", rows, callback));
+        long bulkMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        int bulkRequests = server.getRequestCount() - singleRequests;
+
+        assertEquals(0, failures.get());
+        assertTrue(result.isSuccessful());
+        assertEquals(ROWS, result.getRowsWritten());
+        assertTrue(bulkRequests < singleRequests);
+        assertTrue(bulkMs < singleMs);
+    }
+
+    private interface BulkCall {
+        void start(SupabaseClient.BulkCallback callback);
+    }
+
+    private static SupabaseClient.BulkResult await(BulkCall call) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<SupabaseClient.BulkResult> result = new AtomicReference<>();
+        call.start(collecting(new ArrayList<>(), new SupabaseClient.BulkCallback() {
+            @Override
+            public void onChunk(SupabaseClient.ChunkResult chunk) {
+            }
+
+            @Override
+            public void onComplete(SupabaseClient.BulkResult bulkResult) {
+                result.set(bulkResult);
+                done.countDown();
+            }
+        }));
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private static SupabaseClient.BulkCallback collecting(List<SupabaseClient.ChunkResult> seen,
+                                                          SupabaseClient.BulkCallback delegate) {
+        return new SupabaseClient.BulkCallback() {
+            @Override
+            public void onChunk(SupabaseClient.ChunkResult result) {
+                seen.add(result);
+                delegate.onChunk(result);
+            }
+
+            @Override
+            public void onComplete(SupabaseClient.BulkResult result) {
+                delegate.onComplete(result);
+            }
+        };
+    }
+
+    private static List<Row> rows(int count) {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Row row = new Row();
+            row.transaction_number = String.format("TRX-20241001-T01-%06d", i);
+            row.total_amount = 22000;
+            row.payment_method = "Tunai";
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    static class Row {
+        String transaction_number;
+        long total_amount;
+        String payment_method;
+    }
+}
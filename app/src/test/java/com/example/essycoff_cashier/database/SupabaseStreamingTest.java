@@ -0,0 +1,182 @@
+package com.example.essycoff_cashier.database;
+
+import com.google.gson.Gson;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * select/selectEach men-decode body sebagai stream: hasil sama dengan cara lama
+ * (body -> String -> fromJson) tetapi tanpa salinan body utuh, diukur pada payload 50k baris.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SupabaseStreamingTest {
+    private static final int ROWS = 50_000;
+
+    private MockWebServer server;
+    private OkHttpClient httpClient;
+    private SupabaseClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        httpClient = new OkHttpClient();
+        client = new SupabaseClient(httpClient, server.url("/").toString(), "test-key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void select_decodesRowsAndReportsMalformedBody() throws Exception {
+        server.enqueue(json(payload(3)));
+        server.enqueue(json("[{\"id\":1,"));
+
+        List<Row> rows = awaitSelect();
+        assertEquals(3, rows.size());
+        assertEquals("TRX-000002", rows.get(2).transactionNumber);
+        assertEquals(22000, rows.get(2).totalAmount);
+
+        try {
+            awaitSelect();
+            fail("malformed body must be reported through onError");
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().startsWith("Error parsing response"));
+        }
+    }
+
+    @Test
+    public void benchmark_fiftyThousandRows_bufferedVersusStreaming() throws Exception {
+        String body = payload(ROWS);
+
+        // Pemanasan JIT dan adapter Gson untuk ketiga jalur
+        server.enqueue(json(body));
+        readBuffered();
+        server.enqueue(json(body));
+        client.selectEach("transactions", null, Row.class, row -> { });
+
+        server.enqueue(json(body));
+        long before = allocatedBytes();
+        int bufferedRows = readBuffered().size();
+        long buffered = allocatedBytes() - before;
+
+        server.enqueue(json(body));
+        List<Row> collected = new ArrayList<>();
+        before = allocatedBytes();
+        client.selectEach("transactions", null, Row.class, collected::add);
+        long streamedList = allocatedBytes() - before;
+
+        server.enqueue(json(body));
+        AtomicLong total = new AtomicLong();
+        before = allocatedBytes();
+        SupabaseClient.SelectStats stats = client.selectEach("transactions", null, Row.class,
+                row -> total.addAndGet(row.totalAmount));
+        long perRow = allocatedBytes() - before;
+
+        assertEquals(ROWS, bufferedRows);
+        assertEquals(ROWS, collected.size());
+        assertEquals(ROWS, stats.getRows());
+        assertEquals(body.length(), stats.getBytes());
+        assertEquals(22000L * ROWS, total.get());
+        // Jalur lama menambah minimal dua salinan body (byte[] dan String) di atas objek baris
+        assertTrue(streamedList < buffered);
+        assertTrue(perRow < buffered);
+    }
+
+    /**
+     * Cara lama: seluruh body menjadi String lalu di-parse sekaligus
+     */
+    private List<Row> readBuffered() throws Exception {
+        Request request = new Request.Builder().url(server.url("/rest/v1/transactions")).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            String responseBody = response.body().string();
+            return new Gson().fromJson(responseBody, TypeToken.getParameterized(List.class, Row.class).getType());
+        }
+    }
+
+    private List<Row> awaitSelect() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<List<Row>> rows = new AtomicReference<>();
+        AtomicReference<String> error = new AtomicReference<>();
+        client.select("transactions", "order=id", Row.class, new SupabaseClient.SupabaseCallback<List<Row>>() {
+            @Override
+            public void onSuccess(List<Row> result) {
+                rows.set(result);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error.set(message);
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        if (error.get() != null) {
+            throw new IllegalStateException(error.get());
+        }
+        return rows.get();
+    }
+
+    @SuppressWarnings("restriction")
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static MockResponse json(String body) {
+        return new MockResponse().setHeader("Content-Type", "application/json")
+                .setBody(new Buffer().writeUtf8(body));
+    }
+
+    private static String payload(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i)
+                    .append(",\"transaction_number\":\"").append(String.format("TRX-%06d", i))
+                    .append("\",\"payment_method\":\"Tunai\",\"total_amount\":22000")
+                    .append(",\"status\":\"completed\",\"notes\":null}");
+        }
+        return json.append(']').toString();
+    }
+
+    static class Row {
+        long id;
+        @SerializedName("transaction_number")
+        String transactionNumber;
+        @SerializedName("payment_method")
+        String paymentMethod;
+        @SerializedName("total_amount")
+        long totalAmount;
+        String status;
+        String notes;
+    }
+}
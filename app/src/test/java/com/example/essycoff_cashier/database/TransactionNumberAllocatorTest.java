@@ -0,0 +1,146 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Nomor transaksi tidak boleh terulang: antar thread, antar terminal,
+ * setelah restart aplikasi, dan saat hari berganti.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TransactionNumberAllocatorTest {
+    private static final String DB_NAME = "transaction_number_test.db";
+    private static final int THREADS = 16;
+    private static final int NUMBERS_PER_THREAD = 250_000;
+    private static final long NOW = 1727753400000L;
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void concurrentAllocation_producesNoDuplicates() throws Exception {
+        TransactionNumberAllocator allocator = new TransactionNumberAllocator(new InMemoryBlockStore(), "T01");
+        long[] sequences = allocateConcurrently(allocator);
+
+        Arrays.sort(sequences);
+        for (int i = 1; i < sequences.length; i++) {
+            assertNotEquals("duplicate sequence " + sequences[i], sequences[i - 1], sequences[i]);
+        }
+    }
+
+    @Test
+    public void concurrentAllocation_withSQLiteStore_producesNoDuplicates() throws Exception {
+        TransactionNumberAllocator allocator = helper.getTransactionNumberAllocator();
+        long[] sequences = allocateConcurrently(allocator);
+
+        Arrays.sort(sequences);
+        for (int i = 1; i < sequences.length; i++) {
+            assertNotEquals("duplicate sequence " + sequences[i], sequences[i - 1], sequences[i]);
+        }
+    }
+
+    @Test
+    public void restart_continuesAfterPersistedBlock() {
+        TransactionNumberAllocator first = new TransactionNumberAllocator(new SQLiteBlockStore(helper), "T01", 10);
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 25; i++) {
+            assertTrue(numbers.add(first.next(NOW)));
+        }
+
+        // Allocator baru (seperti setelah aplikasi di-restart) tidak memakai ulang blok lama
+        TransactionNumberAllocator second = new TransactionNumberAllocator(new SQLiteBlockStore(helper), "T01", 10);
+        for (int i = 0; i < 25; i++) {
+            assertTrue(numbers.add(second.next(NOW)));
+        }
+    }
+
+    @Test
+    public void differentTerminals_neverCollide() {
+        InMemoryBlockStore store = new InMemoryBlockStore();
+        TransactionNumberAllocator a = new TransactionNumberAllocator(store, "AAA111");
+        TransactionNumberAllocator b = new TransactionNumberAllocator(store, "BBB222");
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(numbers.add(a.next(NOW)));
+            assertTrue(numbers.add(b.next(NOW)));
+        }
+    }
+
+    @Test
+    public void newDay_restartsSequence() {
+        TransactionNumberAllocator allocator = new TransactionNumberAllocator(new InMemoryBlockStore(), "T01");
+        String today = allocator.next(NOW);
+        String tomorrow = allocator.next(NOW + TimeUnit.DAYS.toMillis(1));
+
+        assertTrue(today.endsWith("-T01-000001"));
+        assertTrue(tomorrow.endsWith("-T01-000001"));
+        assertNotEquals(today, tomorrow);
+    }
+
+    @Test
+    public void terminalId_isStableAcrossCalls() {
+        String terminalId = helper.getTerminalId();
+        assertEquals(6, terminalId.length());
+        assertEquals(terminalId, helper.getTerminalId());
+    }
+
+    /**
+     * Semua thread mulai bersamaan; kembalikan nomor urut dari setiap nomor transaksi
+     */
+    private static long[] allocateConcurrently(TransactionNumberAllocator allocator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        @SuppressWarnings("unchecked")
+        Future<long[]>[] futures = new Future[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            futures[t] = executor.submit(() -> {
+                long[] local = new long[NUMBERS_PER_THREAD];
+                start.await();
+                for (int i = 0; i < NUMBERS_PER_THREAD; i++) {
+                    String number = allocator.next(NOW);
+                    local[i] = Long.parseLong(number.substring(number.lastIndexOf('-') + 1));
+                }
+                return local;
+            });
+        }
+
+        start.countDown();
+        long[] all = new long[THREADS * NUMBERS_PER_THREAD];
+        for (int t = 0; t < THREADS; t++) {
+            System.arraycopy(futures[t].get(), 0, all, t * NUMBERS_PER_THREAD, NUMBERS_PER_THREAD);
+        }
+        executor.shutdown();
+        return all;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.essycoff_cashier.database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.example.essycoff_cashier.models.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Halaman riwayat harus memakan waktu kurang lebih sama
+ * baik tabel berisi 1 ribu maupun 1 juta transaksi.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class TransactionPageScalingTest {
+    private static final String DB_NAME = "transaction_page_test.db";
+    private static final int PAGE_SIZE = 30;
+    private static final int PAGES_MEASURED = 50;
+    private static final long START_MILLIS = 1704067200000L; // 2024-01-01 00:00 UTC
+
+    private Context context;
+    private DatabaseHelper helper;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        context.deleteDatabase(DB_NAME);
+        helper = new DatabaseHelper(context, DB_NAME);
+    }
+
+    @After
+    public void tearDown() {
+        helper.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void pages_walkWholeHistoryWithoutDuplicates() {
+        populate(0, 1_000);
+        Set<String> seen = new HashSet<>();
+        long previousCreatedAt = Long.MAX_VALUE;
+        TransactionPage.Key key = null;
+        do {
+            TransactionPage page = helper.getTransactionsPage(null, key, PAGE_SIZE);
+            for (Transaction transaction : page.getItems()) {
+                assertTrue(seen.add(transaction.getId()));
+                assertTrue(transaction.getCreatedAt() <= previousCreatedAt);
+                previousCreatedAt = transaction.getCreatedAt();
+            }
+            key = page.getNextKey();
+        } while (key != null);
+        assertEquals(1_000, seen.size());
+    }
+
+    @Test
+    public void filters_applyToEveryPage() {
+        populate(0, 1_000);
+        TransactionFilter filter = new TransactionFilter()
+                .setCashierId(2)
+                .setPaymentMethod("CASH")
+                .setCreatedRange(START_MILLIS, START_MILLIS + 6 * 3_600_000L);
+        int total = 0;
+        TransactionPage.Key key = null;
+        do {
+            TransactionPage page = helper.getTransactionsPage(filter, key, PAGE_SIZE);
+            for (Transaction transaction : page.getItems()) {
+                assertEquals(2, transaction.getCashierId());
+                assertEquals("Tunai", transaction.getPaymentMethod());
+            }
+            total += page.getItems().size();
+            key = page.getNextKey();
+        } while (key != null);
+        // 6 jam x 60 transaksi/jam, separuhnya milik kasir 2 dan separuhnya tunai
+        assertEquals(90, total);
+    }
+
+    @Test
+    public void summary_coversEveryMatchingRowNotJustLoadedPages() {
+        populate(0, 1_000);
+        helper.getWritableDatabase().execSQL("UPDATE transactions SET status = 'cancelled'"
+                + " WHERE transaction_number = 'TRX-P0'");
+        TransactionFilter filter = new TransactionFilter()
+                .setCashierId(1)
+                .setCreatedRange(START_MILLIS, START_MILLIS + 6 * 3_600_000L);
+
+        TransactionSummary summary = helper.getTransactionSummary(filter);
+
+        // 360 transaksi dalam 6 jam, separuhnya milik kasir 1; yang dibatalkan tetap dihitung
+        // sebagai transaksi tetapi tidak masuk total penjualan
+        assertEquals(180, summary.getTransactionCount());
+        assertEquals(179 * 22000L, summary.getCompletedTotal());
+        assertTrue(summary.getTransactionCount() > PAGE_SIZE);
+    }
+
+    @Test
+    public void pageLatency_independentOfTableSize() {
+        populate(0, 1_000);
+        long smallNanos = measureDeepPages();
+
+        populate(1_000, 1_000_000);
+        long largeNanos = measureDeepPages();
+
+        // Toleransi lebar untuk noise JVM, tetapi jauh di bawah pertumbuhan linear (1000x)
+        assertTrue(largeNanos < smallNanos * 5 + 50_000_000L);
+    }
+
+    /**
+     * Ukur halaman pertama sampai ke-50 dengan filter kasir, yang memakai index komposit
+     */
+    private long measureDeepPages() {
+        TransactionFilter filter = new TransactionFilter().setCashierId(1);
+        TransactionPage.Key key = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < PAGES_MEASURED; i++) {
+            TransactionPage page = helper.getTransactionsPage(filter, key, PAGE_SIZE);
+            key = page.getNextKey();
+            if (key == null) {
+                break;
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Isi transaksi [from, to): satu transaksi per menit, kasir dan metode bergantian
+     */
+    private void populate(int from, int to) {
+        SQLiteDatabase db = helper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement("INSERT INTO transactions (transaction_number,"
+                + " cashier_id, subtotal, tax_amount, total_amount, payment_method, payment_amount,"
+                + " change_amount, status, created_at) VALUES (?, ?, 20000, 2000, 22000, ?, 22000, 0,"
+                + " 'completed', ?)");
+        db.beginTransaction();
+        try {
+            for (int i = from; i < to; i++) {
+                insert.bindString(1, "TRX-P" + i);
+                insert.bindLong(2, 1 + (i % 2));
+                insert.bindString(3, (i / 2) % 2 == 0 ? "Tunai" : "E-Wallet");
+                insert.bindLong(4, START_MILLIS + i * 60_000L);
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        insert.close();
+    }
+}
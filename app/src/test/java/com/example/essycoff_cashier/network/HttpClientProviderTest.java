@@ -0,0 +1,148 @@
+package com.example.essycoff_cashier.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.tls.HandshakeCertificates;
+import okhttp3.tls.HeldCertificate;
+
+import static org.junit.Assert.*;
+
+/**
+ * Transport bersama lewat TLS + HTTP/2 (MockWebServer dengan sertifikat lokal):
+ * latensi request dingin vs hangat, multiplexing satu koneksi, dan prewarm.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class HttpClientProviderTest {
+    private static final int WARM_REQUESTS = 20;
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        HeldCertificate certificate = new HeldCertificate.Builder()
+                .addSubjectAlternativeName("localhost")
+                .build();
+        HandshakeCertificates serverCertificates = new HandshakeCertificates.Builder()
+                .heldCertificate(certificate)
+                .build();
+        HandshakeCertificates clientCertificates = new HandshakeCertificates.Builder()
+                .addTrustedCertificate(certificate.certificate())
+                .build();
+
+        server = new MockWebServer();
+        server.useHttps(serverCertificates.sslSocketFactory(), false);
+        server.setProtocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setBody("[]");
+            }
+        });
+        server.start();
+
+        client = HttpClientProvider.newBuilder()
+                .sslSocketFactory(clientCertificates.sslSocketFactory(), clientCertificates.trustManager())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+        server.shutdown();
+    }
+
+    @Test
+    public void coldVersusWarmLatency() throws Exception {
+        long coldNanos = timeRequest();
+        long warmNanos = 0;
+        for (int i = 0; i < WARM_REQUESTS; i++) {
+            warmNanos += timeRequest();
+        }
+        double coldMs = coldNanos / 1e6;
+        double warmMs = warmNanos / 1e6 / WARM_REQUESTS;
+
+        assertTrue(warmMs < coldMs);
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    @Test
+    public void concurrentRequests_multiplexOverOneConnection() throws Exception {
+        int requests = 30;
+        CountDownLatch done = new CountDownLatch(requests);
+        AtomicInteger http2 = new AtomicInteger();
+        for (int i = 0; i < requests; i++) {
+            client.newCall(new Request.Builder().url(server.url("/rest/v1/products?id=eq." + i)).build())
+                    .enqueue(new Callback() {
+                        @Override
+                        public void onFailure(Call call, IOException e) {
+                            done.countDown();
+                        }
+
+                        @Override
+                        public void onResponse(Call call, Response response) {
+                            if (response.protocol() == Protocol.HTTP_2) {
+                                http2.incrementAndGet();
+                            }
+                            response.close();
+                            done.countDown();
+                        }
+                    });
+        }
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+
+        assertEquals(requests, http2.get());
+        // Koneksi kedua hanya mungkin muncul jika dua request membuka koneksi bersamaan sebelum
+        // negosiasi HTTP/2 selesai; OkHttp lalu menggabungkannya kembali ke satu koneksi
+        assertTrue(client.connectionPool().connectionCount() <= 2);
+    }
+
+    @Test
+    public void prewarm_opensConnectionBeforeFirstRequest() throws Exception {
+        HttpClientProvider.prewarm(client, server.url("/").toString());
+        RecordedRequest warmup = server.takeRequest(10, TimeUnit.SECONDS);
+        assertEquals("HEAD", warmup.getMethod());
+        // Tunggu sampai koneksi kembali ke pool
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (client.connectionPool().idleConnectionCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        timeRequest();
+        RecordedRequest first = server.takeRequest();
+        // Nomor urut > 0: request pertama memakai koneksi yang sudah dibuka prewarm
+        assertTrue(first.getSequenceNumber() > 0);
+        assertEquals(1, client.connectionPool().connectionCount());
+    }
+
+    private long timeRequest() throws Exception {
+        Request request = new Request.Builder().url(server.url("/rest/v1/products")).build();
+        long start = System.nanoTime();
+        try (Response response = client.newCall(request).execute()) {
+            response.body().string();
+            assertEquals(Protocol.HTTP_2, response.protocol());
+        }
+        return System.nanoTime() - start;
+    }
+}
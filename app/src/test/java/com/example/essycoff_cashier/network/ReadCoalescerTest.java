@@ -0,0 +1,160 @@
+package com.example.essycoff_cashier.network;
+
+import com.example.essycoff_cashier.database.SupabaseClient;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Penggabungan request identik, hasil yang tidak disimpan, invalidate setelah penulisan,
+ * dan penerapannya pada SupabaseClient.select.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ReadCoalescerTest {
+
+    @Test
+    public void concurrentIdenticalLoads_runLoaderOnce() throws Exception {
+        ReadCoalescer<String> reads = new ReadCoalescer<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> reads.get("products?order=name", () -> {
+                    loads.incrementAndGet();
+                    release.await(5, TimeUnit.SECONDS);
+                    return "rows";
+                })));
+            }
+            // Beri waktu semua thread masuk sebelum loader pertama selesai
+            Thread.sleep(200);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("rows", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(1, reads.getLoads());
+        assertEquals(7, reads.getCoalesced());
+    }
+
+    @Test
+    public void completedLoadIsNotReused() throws Exception {
+        ReadCoalescer<String> reads = new ReadCoalescer<>("test");
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", reads.get("k", () -> "v" + loads.incrementAndGet()));
+        assertEquals("v2", reads.get("k", () -> "v" + loads.incrementAndGet()));
+
+        assertEquals(2, reads.getLoads());
+        assertEquals(0, reads.getCoalesced());
+    }
+
+    @Test
+    public void failureIsFollowedByFreshLoad() throws Exception {
+        ReadCoalescer<String> reads = new ReadCoalescer<>("test");
+        try {
+            reads.get("k", () -> {
+                throw new IOException("offline");
+            });
+            fail();
+        } catch (IOException expected) {
+            assertEquals("offline", expected.getMessage());
+        }
+        assertEquals("ok", reads.get("k", () -> "ok"));
+    }
+
+    @Test
+    public void invalidateDuringLoad_laterReadDoesNotJoinIt() throws Exception {
+        ReadCoalescer<String> reads = new ReadCoalescer<>("test");
+        AtomicReference<String> afterWrite = new AtomicReference<>();
+        String stale = reads.get("products?all", () -> {
+            // Penulisan selesai saat pembacaan lama masih berjalan
+            reads.invalidate("products?");
+            afterWrite.set(reads.get("products?all", () -> "after-write"));
+            return "before-write";
+        });
+
+        assertEquals("before-write", stale);
+        assertEquals("after-write", afterWrite.get());
+        assertEquals(2, reads.getLoads());
+        assertEquals(1, reads.getInvalidations());
+    }
+
+    @Test
+    public void supabaseSelect_coalescesConcurrentReadsOnly() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            SupabaseClient client = new SupabaseClient(new OkHttpClient(), server.url("/").toString(), "test-key");
+            server.enqueue(new MockResponse().setBody("[{\"name\":\"Kopi Susu\"}]").setBodyDelay(200, TimeUnit.MILLISECONDS));
+
+            // onResume dan swipe-refresh hampir bersamaan
+            CountDownLatch both = new CountDownLatch(2);
+            AtomicReference<List<Row>> first = new AtomicReference<>();
+            AtomicReference<List<Row>> second = new AtomicReference<>();
+            client.select("transactions", "order=created_at.desc", Row.class, callback(first, both));
+            client.select("transactions", "order=created_at.desc", Row.class, callback(second, both));
+            assertTrue(both.await(5, TimeUnit.SECONDS));
+            assertEquals(1, server.getRequestCount());
+            assertSame(first.get(), second.get());
+
+            // Setelah selesai tidak ada hasil yang disimpan: select berikutnya ke server lagi
+            server.enqueue(new MockResponse().setBody("[]"));
+            CountDownLatch reloaded = new CountDownLatch(1);
+            AtomicReference<List<Row>> fresh = new AtomicReference<>();
+            client.select("transactions", "order=created_at.desc", Row.class, callback(fresh, reloaded));
+            assertTrue(reloaded.await(5, TimeUnit.SECONDS));
+            assertEquals(2, server.getRequestCount());
+            assertTrue(fresh.get().isEmpty());
+
+            ReadCoalescer<?> stats = client.getSelectReads();
+            assertEquals(2, stats.getLoads());
+            assertEquals(1, stats.getCoalesced());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static SupabaseClient.SupabaseCallback<List<Row>> callback(AtomicReference<List<Row>> result,
+                                                                      CountDownLatch done) {
+        return new SupabaseClient.SupabaseCallback<List<Row>>() {
+            @Override
+            public void onSuccess(List<Row> rows) {
+                result.set(rows);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String error) {
+                done.countDown();
+            }
+        };
+    }
+
+    static class Row {
+        String name;
+    }
+}
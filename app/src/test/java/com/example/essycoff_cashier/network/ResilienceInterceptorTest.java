@@ -0,0 +1,183 @@
+package com.example.essycoff_cashier.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Retry, deadline, dan circuit breaker terhadap server lokal yang sengaja dibuat gagal
+ * (503, koneksi diputus, dan server yang tidak pernah menjawab).
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ResilienceInterceptorTest {
+    private static final MediaType JSON = MediaType.get("application/json");
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void idempotentRead_retriesThroughTransientFailures() throws Exception {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(3, 10, 50, 5_000, 10, 60_000);
+        OkHttpClient client = newClient(resilience, 1_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        server.enqueue(new MockResponse().setBody("[]"));
+
+        try (Response response = client.newCall(get("/rest/v1/products")).execute()) {
+            assertEquals(200, response.code());
+            assertEquals("[]", response.body().string());
+        }
+
+        NetworkMetrics metrics = resilience.getMetrics();
+        assertEquals(3, server.getRequestCount());
+        assertEquals(1, metrics.getCalls());
+        assertEquals(2, metrics.getRetries());
+        assertEquals(0, metrics.getFailures());
+    }
+
+    @Test
+    public void plainInsert_isNeverResent() throws Exception {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(3, 10, 50, 5_000, 10, 60_000);
+        OkHttpClient client = newClient(resilience, 1_000);
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(503));
+        server.enqueue(new MockResponse().setResponseCode(201));
+
+        Request insert = new Request.Builder()
+                .url(server.url("/rest/v1/transactions"))
+                .post(RequestBody.create("{\"transaction_number\":\"ESC-1\"}", JSON))
+                .build();
+        try (Response response = client.newCall(insert).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+        assertEquals(0, resilience.getMetrics().getRetries());
+
+        // Upsert menimpa baris yang sama, jadi boleh dikirim ulang
+        Request upsert = insert.newBuilder()
+                .header("Prefer", "resolution=merge-duplicates,return=minimal")
+                .build();
+        try (Response response = client.newCall(upsert).execute()) {
+            assertEquals(201, response.code());
+        }
+        assertEquals(3, server.getRequestCount());
+    }
+
+    @Test
+    public void unresponsiveServer_failsWithinDeadline() throws Exception {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(3, 10, 50, 5_000, 10, 60_000);
+        OkHttpClient client = newClient(resilience, 200);
+        for (int i = 0; i < 4; i++) {
+            server.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        }
+
+        Request request = get("/rest/v1/products").newBuilder()
+                .tag(Deadline.class, Deadline.after(500, TimeUnit.MILLISECONDS))
+                .build();
+        long start = System.nanoTime();
+        try {
+            client.newCall(request).execute().close();
+            fail("server never answers");
+        } catch (InterruptedIOException expected) {
+            // timeout percobaan terakhir atau deadline habis
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        NetworkMetrics metrics = resilience.getMetrics();
+        assertTrue(elapsedMs < 1_000);
+        assertTrue(metrics.getTimeouts() >= 2);
+        assertEquals(1, metrics.getFailures());
+    }
+
+    @Test
+    public void failingHost_opensBreakerThenRecoversAfterProbe() throws Exception {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(0, 10, 50, 5_000, 3, 300);
+        OkHttpClient client = newClient(resilience, 1_000);
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setResponseCode(503));
+        }
+        for (int i = 0; i < 3; i++) {
+            client.newCall(get("/rest/v1/products")).execute().close();
+        }
+        String host = server.url("/").host();
+        assertEquals(CircuitBreaker.State.OPEN, resilience.getBreakerState(host));
+
+        // Terbuka: ditolak tanpa menyentuh server
+        long start = System.nanoTime();
+        try {
+            client.newCall(get("/rest/v1/products")).execute().close();
+            fail("breaker is open");
+        } catch (CircuitOpenException expected) {
+            assertEquals(host, expected.getHost());
+        }
+        long failFastMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(failFastMs < 100);
+        assertEquals(3, server.getRequestCount());
+
+        Thread.sleep(350);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, resilience.getBreakerState(host));
+        server.enqueue(new MockResponse().setBody("[]"));
+        try (Response response = client.newCall(get("/rest/v1/products")).execute()) {
+            assertEquals(200, response.code());
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, resilience.getBreakerState(host));
+
+        NetworkMetrics metrics = resilience.getMetrics();
+        assertEquals(1, metrics.getBreakerTrips());
+        assertEquals(1, metrics.getShortCircuited());
+    }
+
+    @Test
+    public void halfOpenProbeFailure_reopensBreaker() throws IOException {
+        ResilienceInterceptor resilience = new ResilienceInterceptor(0, 10, 50, 5_000, 1, 0);
+        OkHttpClient client = newClient(resilience, 1_000);
+        server.enqueue(new MockResponse().setResponseCode(502));
+        server.enqueue(new MockResponse().setResponseCode(502));
+
+        client.newCall(get("/rest/v1/products")).execute().close();
+        client.newCall(get("/rest/v1/products")).execute().close();
+
+        assertEquals(2, resilience.getMetrics().getBreakerTrips());
+    }
+
+    private OkHttpClient newClient(ResilienceInterceptor resilience, long attemptTimeoutMs) {
+        return HttpClientProvider.newBuilder(resilience)
+                .connectTimeout(attemptTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(attemptTimeoutMs, TimeUnit.MILLISECONDS)
+                .writeTimeout(attemptTimeoutMs, TimeUnit.MILLISECONDS)
+                // Hanya interceptor yang boleh mengulang, supaya jumlah request di server bisa dihitung
+                .retryOnConnectionFailure(false)
+                .build();
+    }
+
+    private Request get(String path) {
+        return new Request.Builder().url(server.url(path)).build();
+    }
+}
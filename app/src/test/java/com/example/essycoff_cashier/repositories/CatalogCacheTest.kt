@@ -0,0 +1,154 @@
+package com.example.essycoff_cashier.repositories
+
+import com.example.essycoff_cashier.models.Product
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.runTest
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Stale-while-revalidate catalog: cached rows first, server changes second, offline keeps the cache.
+ */
+class CatalogCacheTest {
+    private var now = 10_000_000L
+    private val events = mutableListOf<String>()
+
+    // Local rows and the server's next answer; refresh() "syncs" by copying server rows to disk
+    private var disk = listOf(product("1", "Americano"), product("2", "Latte"))
+    private var diskSyncedAt = now - 3_600_000L
+    private var diskVersion = 1
+    private var server: List<Product>? = null
+    private var offline = false
+
+    private val source = object : CatalogCache.Source {
+        override fun readLocal(): List<Product> {
+            events += "disk"
+            return disk
+        }
+
+        override fun localSyncedAt(): Long = diskSyncedAt
+
+        override fun localVersion(): String = "v$diskVersion"
+
+        override fun refresh(): Boolean {
+            events += "refresh"
+            if (offline) return false
+            diskSyncedAt = now
+            val rows = server ?: return true
+            disk = rows
+            diskVersion++
+            server = null
+            return true
+        }
+    }
+
+    private val cache = CatalogCache(source, clock = { now })
+
+    @Test
+    fun coldStart_emitsDiskRowsBeforeAskingTheServer() = runTest {
+        server = listOf(product("1", "Americano"), product("2", "Latte"), product("3", "Mocha"))
+
+        val snapshots = cache.catalog().onEach { events += "emit ${it.products.size}" }.toList()
+
+        assertEquals(listOf("disk", "emit 2", "refresh", "disk", "emit 3"), events)
+        assertEquals(CatalogCache.Origin.DISK, snapshots[0].origin)
+        assertEquals(3_600_000L, snapshots[0].ageMs(now))
+        assertEquals(CatalogCache.Origin.NETWORK, snapshots[1].origin)
+        assertEquals(0L, snapshots[1].ageMs(now))
+    }
+
+    @Test
+    fun offline_keepsServingTheCachedCatalog() = runTest {
+        offline = true
+
+        val snapshots = cache.catalog().toList()
+
+        assertEquals(1, snapshots.size)
+        assertEquals(2, snapshots[0].products.size)
+        val stats = cache.stats
+        assertEquals(1, stats.diskHitCount)
+        assertEquals(1, stats.revalidationFailureCount)
+        assertEquals(1.0, stats.hitRate, 0.0001)
+        assertEquals(3_600_000L, stats.lastServedAgeMs)
+    }
+
+    @Test
+    fun freshSnapshot_isServedFromMemoryWithoutRevalidating() = runTest {
+        cache.catalog().toList()
+        events.clear()
+        now += 5_000
+
+        val snapshots = cache.catalog().toList()
+
+        assertEquals(listOf<String>(), events)
+        assertEquals(CatalogCache.Origin.MEMORY, snapshots.single().origin)
+        assertEquals(5_000L, snapshots.single().ageMs(now))
+        assertEquals(1, cache.stats.memoryHitCount)
+        assertEquals(1, cache.stats.freshCount)
+
+        // Past the max age the memory snapshot is still served first, then checked
+        now += CatalogCache.MAX_AGE_MS
+        cache.catalog().toList()
+        assertEquals(listOf("refresh"), events)
+    }
+
+    @Test
+    fun nothingCachedAndOffline_emitsEmptyCatalog() = runTest {
+        disk = emptyList()
+        offline = true
+
+        val snapshot = cache.catalog().first()
+
+        assertTrue(snapshot.products.isEmpty())
+        assertEquals(1, cache.stats.missCount)
+        assertEquals(0.0, cache.stats.hitRate, 0.0001)
+        assertNull(cache.cached())
+    }
+
+    @Test
+    fun apply_patchesMemorySnapshotInCatalogOrder() = runTest {
+        cache.catalog().toList()
+        events.clear()
+
+        cache.apply(listOf(product("3", "Cappuccino"), product("2", "Latte Dingin")), listOf("1"))
+
+        val names = cache.cached()!!.products.map { it.name }
+        assertEquals(listOf("Cappuccino", "Latte Dingin"), names)
+        assertEquals(listOf<String>(), events)
+    }
+
+    @Test
+    fun syncRunElsewhere_isPickedUpByTheNextRevalidation() = runTest {
+        cache.catalog().toList()
+        // Another screen syncs on its own; the cache's own sync afterwards finds nothing new
+        disk = listOf(product("1", "Americano"), product("2", "Latte"), product("3", "Mocha"))
+        diskVersion++
+        diskSyncedAt = now
+        now += CatalogCache.MAX_AGE_MS
+
+        val snapshots = cache.catalog().toList()
+
+        assertEquals(listOf(2, 3), snapshots.map { it.products.size })
+        assertEquals(CatalogCache.Origin.NETWORK, snapshots[1].origin)
+        assertEquals(3, cache.cached()!!.products.size)
+    }
+
+    @Test
+    fun checkoutPatch_survivesAnUnchangedRevalidation() = runTest {
+        cache.catalog().toList()
+        cache.apply(listOf(Product("1", "Americano", "Kopi", 15000L, 7, true)), emptyList())
+        now += CatalogCache.MAX_AGE_MS
+
+        val snapshots = cache.catalog().toList()
+
+        assertEquals(1, snapshots.size)
+        assertEquals(7, cache.cached()!!.products.first { it.id == "1" }.stock)
+        assertEquals(now, cache.cached()!!.syncedAt)
+    }
+
+    private fun product(id: String, name: String) = Product(id, name, "Kopi", 15000L, 10, true)
+}
@@ -0,0 +1,79 @@
+package com.example.essycoff_cashier.repositories
+
+import com.example.essycoff_cashier.models.Product
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertNull
+import org.junit.Assert.assertTrue
+import org.junit.Test
+
+/**
+ * Category counts kept with the cached catalog: built once, then adjusted per changed row.
+ */
+class CategoryFacetsTest {
+
+    @Test
+    fun of_countsProductsAndSellableProductsPerCategory() {
+        val facets = CategoryFacets.of(listOf(
+            product("1", "Latte", "Kopi", stock = 5),
+            product("2", "Americano", "Kopi", stock = 0),
+            product("3", "Donat", "Makanan", stock = 3, available = false),
+            product("4", "Es Teh", "Minuman", stock = 9)))
+
+        assertEquals(listOf("Kopi", "Makanan", "Minuman"), facets.categories)
+        assertEquals(CategoryFacets.Facet("Kopi", 2, 1), facets["Kopi"])
+        assertFalse(facets["Makanan"]!!.isAvailable)
+        assertTrue(facets["Minuman"]!!.isAvailable)
+    }
+
+    @Test
+    fun plus_matchesRebuildAfterStockCategoryAndDeleteChanges() {
+        val latte = product("1", "Latte", "Kopi", stock = 1)
+        val donat = product("2", "Donat", "Makanan", stock = 3)
+        val facets = CategoryFacets.of(listOf(latte, donat))
+
+        val soldOut = product("1", "Latte", "Kopi", stock = 0)
+        val teh = product("3", "Teh Tarik", "Minuman", stock = 4)
+        val updated = facets.plus(listOf(latte to soldOut, null to teh, donat to null))
+
+        assertEquals(CategoryFacets.of(listOf(soldOut, teh)), updated)
+        assertEquals(CategoryFacets.Facet("Kopi", 1, 0), updated["Kopi"])
+        // Last product of a category removed: the category disappears
+        assertNull(updated["Makanan"])
+        // The original is untouched
+        assertEquals(CategoryFacets.Facet("Makanan", 1, 1), facets["Makanan"])
+    }
+
+    @Test
+    fun catalogCachePush_updatesFacetsWithoutReadingDisk() {
+        var diskReads = 0
+        val catalog = (1..2000).map { product("$it", "Menu $it", "Kategori ${it % 12}", stock = 10) }
+        val cache = CatalogCache(object : CatalogCache.Source {
+            override fun readLocal(): List<Product> {
+                diskReads++
+                return catalog
+            }
+
+            override fun localSyncedAt(): Long = System.currentTimeMillis()
+
+            override fun localVersion(): String = "v1"
+
+            override fun refresh(): Boolean = true
+        })
+        assertEquals(12, cache.cached()!!.facets.size)
+
+        // Product 12 sells out and product 24 moves to a new category
+        val patched = cache.apply(
+            listOf(product("12", "Menu 12", "Kategori 0", stock = 0), product("24", "Menu 24", "Musiman", stock = 2)),
+            listOf("36"))!!
+
+        assertEquals(1, diskReads)
+        assertEquals(CategoryFacets.of(patched.products), patched.facets)
+        assertEquals(CategoryFacets.Facet("Kategori 0", 164, 163), patched.facets["Kategori 0"])
+        assertEquals(CategoryFacets.Facet("Musiman", 1, 1), patched.facets["Musiman"])
+        assertEquals(patched.facets, cache.cached()!!.facets)
+    }
+
+    private fun product(id: String, name: String, category: String, stock: Int, available: Boolean = true) =
+        Product(id, name, category, 15000L, stock, available)
+}
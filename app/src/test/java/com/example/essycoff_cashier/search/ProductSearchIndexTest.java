@@ -0,0 +1,159 @@
+package com.example.essycoff_cashier.search;
+
+import com.example.essycoff_cashier.models.Product;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Pencarian produk di memori: prefix, salah ketik, facet kategori, pembaruan
+ * inkremental, dan benchmark katalog 20k produk.
+ */
+public class ProductSearchIndexTest {
+    private static final int CATALOG_SIZE = 20_000;
+    private static final String[] BASES = {"Cappuccino", "Café Latte", "Americano", "Espresso", "Mocha",
+            "Croissant", "Donat", "Roti Bakar", "Teh Tarik", "Es Teh", "Matcha Latte", "Kopi Susu"};
+    private static final String[] CATEGORIES = {"Kopi", "Kopi", "Kopi", "Kopi", "Kopi",
+            "Makanan", "Makanan", "Makanan", "Minuman", "Minuman", "Minuman", "Kopi"};
+    private static final String[] VARIANTS = {"Original", "Karamel", "Vanila", "Hazelnut", "Gula Aren",
+            "Pandan", "Cokelat", "Keju"};
+    private static final String[] SIZES = {"Kecil", "Sedang", "Besar"};
+
+    @Test
+    public void prefixAndAccents_matchShortFragments() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(Arrays.asList(
+                product("1", "Cappuccino", "Kopi"),
+                product("2", "Café Latte", "Kopi"),
+                product("3", "Croissant", "Makanan"),
+                product("4", "Es Kopi Latte", "Kopi"),
+                product("5", "Latte Dingin", "Kopi")));
+
+        assertEquals(names("Cappuccino"), names(index.search("capp", null, 20).getProducts()));
+        // Nama yang diawali kata query lebih dulu
+        assertEquals(names("Latte Dingin", "Café Latte", "Es Kopi Latte"),
+                names(index.search("lat", null, 20).getProducts()));
+        assertEquals(names("Café Latte"), names(index.search("cafe lat", null, 20).getProducts()));
+        assertEquals(5, index.search("", null, 20).getTotalMatches());
+    }
+
+    @Test
+    public void typo_findsClosestTerm() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(Arrays.asList(
+                product("1", "Croissant", "Makanan"),
+                product("2", "Cappuccino", "Kopi"),
+                product("3", "Roti Bakar", "Makanan")));
+
+        assertEquals(names("Croissant"), names(index.search("kroisan", null, 20).getProducts()));
+        assertEquals(names("Cappuccino"), names(index.search("capucino", null, 20).getProducts()));
+        assertTrue(index.search("xyz", null, 20).getProducts().isEmpty());
+    }
+
+    @Test
+    public void categoryFacets_countMatchesBeforeCategoryFilter() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(Arrays.asList(
+                product("1", "Kopi Susu", "Kopi"),
+                product("2", "Es Kopi Susu", "Minuman"),
+                product("3", "Susu Cokelat", "Minuman"),
+                product("4", "Roti Susu", "Makanan")));
+
+        ProductSearchIndex.SearchResult result = index.search("susu", "Minuman", 20);
+
+        assertEquals(2, result.getTotalMatches());
+        assertEquals(Integer.valueOf(1), result.getCategoryCounts().get("Kopi"));
+        assertEquals(Integer.valueOf(2), result.getCategoryCounts().get("Minuman"));
+        assertEquals(Integer.valueOf(1), result.getCategoryCounts().get("Makanan"));
+    }
+
+    @Test
+    public void upsertAndRemove_updateTermsIncrementally() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.replaceAll(Arrays.asList(product("1", "Mocha", "Kopi"), product("2", "Donat", "Makanan")));
+
+        // Produk diganti nama: kata lama harus hilang dari kamus
+        index.upsert(Collections.singletonList(product("1", "Teh Tarik", "Minuman")));
+        assertTrue(index.search("mocha", null, 20).getProducts().isEmpty());
+        assertEquals(names("Teh Tarik"), names(index.search("teh ta", null, 20).getProducts()));
+
+        index.remove(Collections.singletonList("2"));
+        assertTrue(index.search("donat", null, 20).getProducts().isEmpty());
+        assertEquals(1, index.size());
+        // teh, tarik, minuman
+        assertEquals(3, index.termCount());
+    }
+
+    @Test
+    public void benchmark_20kCatalog() {
+        List<Product> catalog = catalog(CATALOG_SIZE);
+        ProductSearchIndex index = new ProductSearchIndex();
+
+        long start = System.nanoTime();
+        index.replaceAll(catalog);
+        long buildNs = System.nanoTime() - start;
+
+        // Fragmen seperti yang diketik barista, termasuk salah ketik
+        String[] queries = {"c", "ca", "cap", "capp", "lat", "latte kar", "kroisan", "gula ar", "mocca", "teh", ""};
+        int rounds = 200;
+        long searchNs = 0;
+        for (int round = 0; round < rounds; round++) {
+            for (String query : queries) {
+                long t = System.nanoTime();
+                ProductSearchIndex.SearchResult result = index.search(query, null, 20);
+                long elapsed = System.nanoTime() - t;
+                if (round > 10) {
+                    searchNs += elapsed;
+                }
+                assertFalse(query, result.getProducts().isEmpty());
+            }
+        }
+        double avgUs = searchNs / 1e3 / ((rounds - 11) * queries.length);
+
+        // Sepuluh produk berubah (push stok/harga) dibanding membangun ulang seluruh index
+        List<Product> changed = new ArrayList<>(catalog.subList(0, 10));
+        start = System.nanoTime();
+        index.upsert(changed);
+        long upsertNs = System.nanoTime() - start;
+
+        assertEquals(CATALOG_SIZE, index.size());
+        assertEquals("Croissant", index.search("kroisan", null, 1).getProducts().get(0).getName().split(" ")[0]);
+        assertTrue(avgUs < 20_000);
+        assertTrue(upsertNs < buildNs);
+    }
+
+    private static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int base = i % BASES.length;
+            String name = BASES[base] + " " + VARIANTS[(i / BASES.length) % VARIANTS.length] + " "
+                    + SIZES[(i / (BASES.length * VARIANTS.length)) % SIZES.length] + " " + i;
+            Product product = product(String.valueOf(i), name, CATEGORIES[base]);
+            product.setDescription("Menu nomor " + i);
+            products.add(product);
+        }
+        return products;
+    }
+
+    private static Product product(String id, String name, String category) {
+        return new Product(id, name, category, 15000, 10, true);
+    }
+
+    private static List<String> names(String... names) {
+        return Arrays.asList(names);
+    }
+
+    private static List<String> names(List<Product> products) {
+        List<String> names = new ArrayList<>();
+        for (Product product : products) {
+            names.add(product.getName());
+        }
+        return names;
+    }
+}
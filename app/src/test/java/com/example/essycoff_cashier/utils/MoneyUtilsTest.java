@@ -0,0 +1,47 @@
+package com.example.essycoff_cashier.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Input jumlah bayar: pemisah ribuan diterima, bagian desimal ditolak.
+ */
+public class MoneyUtilsTest {
+
+    @Test
+    public void parse_acceptsPlainAndGroupedRupiah() {
+        assertEquals(22000L, MoneyUtils.parse("22000"));
+        assertEquals(22000L, MoneyUtils.parse("22.000"));
+        assertEquals(1500000L, MoneyUtils.parse("1,500,000"));
+        assertEquals(15000L, MoneyUtils.parse("Rp 15,000"));
+        assertEquals(50000L, MoneyUtils.parse(" 50000 "));
+    }
+
+    @Test
+    public void parse_rejectsFractionalPart() {
+        // Dulu semua non-digit dibuang: "22000.00" terbaca 2.200.000
+        assertInvalid("22000.00");
+        assertInvalid("50000,5");
+        assertInvalid("22.00");
+    }
+
+    @Test
+    public void parse_rejectsMalformedInput() {
+        assertInvalid(null);
+        assertInvalid("");
+        assertInvalid("Rp");
+        assertInvalid("-5000");
+        assertInvalid("12.3456");
+        assertInvalid("1..000");
+    }
+
+    private static void assertInvalid(String input) {
+        try {
+            MoneyUtils.parse(input);
+            fail("Expected NumberFormatException for " + input);
+        } catch (NumberFormatException expected) {
+            // ok
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.essycoff_cashier.viewmodels
+
+import com.example.essycoff_cashier.models.Product
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.advanceTimeBy
+import kotlinx.coroutines.test.advanceUntilIdle
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import org.junit.Assert.assertEquals
+import org.junit.Test
+
+/**
+ * Search input handling with virtual time: fast typing, stale searches and duplicate input.
+ */
+@OptIn(ExperimentalCoroutinesApi::class)
+class ProductSearchPipelineTest {
+    private val searched = mutableListOf<String>()
+
+    // Every search takes 500 ms (longer than the debounce) and returns one product named after the request
+    private val pipeline = ProductSearchPipeline(search = { query, category ->
+        searched += "$query|$category"
+        delay(SEARCH_MS)
+        listOf(Product("1", "$query|$category", "Kopi", 0L, 1, true))
+    })
+
+    @Test
+    fun fastTyping_runsOneSearchForTheFinalQuery() = runTest {
+        val results = mutableListOf<String>()
+        val collector = launch { pipeline.results().collect { results += it.first().name } }
+        advanceUntilIdle()
+
+        // 80 ms between keystrokes, well under the debounce window
+        for (end in 1.."cappuccino".length) {
+            pipeline.setQuery("cappuccino".substring(0, end))
+            advanceTimeBy(80)
+        }
+        advanceUntilIdle()
+        collector.cancel()
+
+        assertEquals(listOf("|null", "cappuccino|null"), searched)
+        assertEquals(listOf("|null", "cappuccino|null"), results)
+        val metrics = pipeline.metrics
+        assertEquals(10, metrics.inputCount)
+        assertEquals(2, metrics.searchesIssued)
+        assertEquals(0.2, metrics.searchesPerInput, 0.0001)
+    }
+
+    @Test
+    fun newerInput_cancelsRunningSearch() = runTest {
+        val results = mutableListOf<String>()
+        val collector = launch { pipeline.results().collect { results += it.first().name } }
+        advanceUntilIdle()
+
+        pipeline.setQuery("kopi")
+        advanceTimeBy(ProductSearchPipeline.DEBOUNCE_MS + 50)
+        // The "kopi" search is now running; the next keystroke arrives before it finishes
+        pipeline.setQuery("kopi s")
+        advanceUntilIdle()
+        collector.cancel()
+
+        assertEquals(listOf("|null", "kopi|null", "kopi s|null"), searched)
+        assertEquals(listOf("|null", "kopi s|null"), results)
+        assertEquals(1, pipeline.metrics.searchesCancelled)
+        assertEquals(2, pipeline.metrics.resultsPublished)
+    }
+
+    @Test
+    fun duplicateQuery_isDroppedAndCategoryAppliesImmediately() = runTest {
+        val results = mutableListOf<String>()
+        val collector = launch { pipeline.results().collect { results += it.first().name } }
+        advanceUntilIdle()
+
+        pipeline.setQuery("latte")
+        advanceUntilIdle()
+        pipeline.setQuery("latte ")
+        advanceUntilIdle()
+        assertEquals(2, searched.size)
+
+        // Category chips are not debounced
+        pipeline.setCategory("Kopi")
+        runCurrent()
+        assertEquals("latte|Kopi", searched.last())
+        advanceUntilIdle()
+        collector.cancel()
+
+        assertEquals(listOf("|null", "latte|null", "latte|Kopi"), results)
+    }
+
+    companion object {
+        private const val SEARCH_MS = 500L
+    }
+}
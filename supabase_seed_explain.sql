@@ -0,0 +1,188 @@
+-- EssyCoff POS - Seed dan EXPLAIN untuk skema transaksi berpartisi
+-- Jalankan di Postgres lokal (13 atau lebih baru), JANGAN di project Supabase produksi:
+--   createdb essycoff_bench
+--   psql -d essycoff_bench -v ON_ERROR_STOP=1 -f supabase_seed_explain.sql
+-- Script membuat stub untuk hal yang hanya ada di Supabase (role anon/authenticated dan
+-- auth.role()), menjalankan supabase_setup.sql, mengisi transaksi 12 bulan, lalu mencetak
+-- EXPLAIN (ANALYZE, BUFFERS) untuk query riwayat, laporan, dan item. Terakhir script memindahkan
+-- transaksi dari partisi default ke partisi baru dan gagal jika nomor atau item ikut hilang.
+-- Hal yang perlu dicek di output: "Subplans Removed" / hanya satu partisi yang dibaca,
+-- "Index Only Scan" dengan "Heap Fetches: 0", dan tidak ada "Seq Scan" pada transactions_*.
+
+\set ON_ERROR_STOP on
+\set transaction_count 200000
+
+-- Stub Supabase
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_roles WHERE rolname = 'anon') THEN
+        CREATE ROLE anon NOLOGIN;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_roles WHERE rolname = 'authenticated') THEN
+        CREATE ROLE authenticated NOLOGIN;
+    END IF;
+END;
+$$;
+
+CREATE SCHEMA IF NOT EXISTS auth;
+CREATE OR REPLACE FUNCTION auth.role() RETURNS TEXT AS $$
+    SELECT 'authenticated'::TEXT;
+$$ LANGUAGE sql STABLE;
+
+\ir supabase_setup.sql
+
+-- Partisi untuk 12 bulan terakhir (setup hanya membuat mulai bulan lalu)
+SELECT create_transaction_partitions((CURRENT_DATE - INTERVAL '12 months')::DATE, 12);
+
+-- Seed transaksi: tersebar rata selama ~330 hari, 4 metode pembayaran, 2% dibatalkan
+\timing on
+INSERT INTO transactions (transaction_number, cashier_id, subtotal, tax_amount, total_amount,
+                          payment_method, payment_amount, change_amount, status, created_at)
+SELECT
+    'BENCH-' || lpad(g::TEXT, 8, '0'),
+    CASE WHEN g % 3 = 0
+        THEN (SELECT id FROM users WHERE username = 'manager')
+        ELSE (SELECT id FROM users WHERE username = 'staff') END,
+    amount,
+    amount / 10,
+    amount + amount / 10,
+    (ARRAY['Tunai', 'Kartu Debit', 'Kartu Kredit', 'E-Wallet'])[1 + g % 4],
+    amount + amount / 10,
+    0,
+    CASE WHEN g % 50 = 0 THEN 'cancelled' ELSE 'completed' END,
+    date_trunc('day', CURRENT_TIMESTAMP)::TIMESTAMP
+        - (g % 330) * INTERVAL '1 day'
+        + (7 * 60 + g % (14 * 60)) * INTERVAL '1 minute'
+FROM generate_series(1, :transaction_count) AS g,
+     LATERAL (SELECT ((1 + g % 5) * 15000)::DECIMAL(10,2) AS amount) a;
+
+-- Dua item per transaksi dari 18 produk contoh
+INSERT INTO transaction_items (transaction_id, product_id, product_name, quantity, unit_price, subtotal)
+SELECT t.id, p.id, p.name, q.quantity, p.price, p.price * q.quantity
+FROM transactions t
+CROSS JOIN (VALUES (0), (7)) AS k(shift)
+JOIN products p ON p.id = (SELECT MIN(id) FROM products) + (t.id + k.shift) % 18
+CROSS JOIN LATERAL (SELECT 1 + (t.id + k.shift) % 3 AS quantity) q
+WHERE t.transaction_number LIKE 'BENCH-%';
+
+SELECT refresh_daily_sales();
+
+-- Visibility map terisi supaya index-only scan tidak perlu ke heap
+VACUUM ANALYZE transactions, transaction_numbers, transaction_items;
+ANALYZE daily_sales_mv;
+\timing off
+
+SELECT relname AS partition, n_live_tup AS rows
+FROM pg_stat_user_tables
+WHERE relname LIKE 'transactions\_%'
+ORDER BY relname;
+
+\echo '=== Riwayat kasir: 50 transaksi terbaru (idx_transactions_cashier_history) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT transaction_number, total_amount, payment_method, status, created_at
+FROM transactions
+WHERE cashier_id = (SELECT id FROM users WHERE username = 'staff')
+ORDER BY created_at DESC
+LIMIT 50;
+
+\echo '=== Laporan bulan ini per metode pembayaran (partisi dipangkas, idx_transactions_completed_date) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT payment_method, COUNT(*), SUM(total_amount)
+FROM transactions
+WHERE status = 'completed'
+  AND created_at >= date_trunc('month', CURRENT_DATE)::TIMESTAMP
+  AND created_at < (date_trunc('month', CURRENT_DATE) + INTERVAL '1 month')::TIMESTAMP
+GROUP BY payment_method;
+
+\echo '=== Produk terlaris bulan lalu (join ke idx_transaction_items_transaction) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT ti.product_name, SUM(ti.quantity) AS quantity, SUM(ti.subtotal) AS revenue
+FROM transactions t
+JOIN transaction_items ti ON ti.transaction_id = t.id
+WHERE t.status = 'completed'
+  AND t.created_at >= (date_trunc('month', CURRENT_DATE) - INTERVAL '1 month')::TIMESTAMP
+  AND t.created_at < date_trunc('month', CURRENT_DATE)::TIMESTAMP
+GROUP BY ti.product_name
+ORDER BY revenue DESC
+LIMIT 5;
+
+\echo '=== Item satu transaksi (struk) ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT product_id, product_name, quantity, subtotal
+FROM transaction_items
+WHERE transaction_id = (SELECT transaction_id FROM transaction_numbers WHERE transaction_number = 'BENCH-00123456');
+
+\echo '=== Cek idempotensi ingest: cari nomor transaksi di semua partisi lewat registry ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT transaction_id, created_at FROM transaction_numbers WHERE transaction_number = 'BENCH-00123456';
+
+\echo '=== Tren 90 hari dari materialized view ==='
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT sale_date, SUM(transaction_count) AS transactions, SUM(total_sales) AS sales
+FROM daily_sales_mv
+WHERE sale_date >= CURRENT_DATE - 90
+GROUP BY sale_date
+ORDER BY sale_date;
+
+\echo '=== get_sales_report sebulan: waktu eksekusi dan ukuran JSON ==='
+\timing on
+SELECT octet_length(get_sales_report(
+           (extract(epoch FROM date_trunc('month', CURRENT_DATE)) * 1000)::BIGINT,
+           (extract(epoch FROM date_trunc('month', CURRENT_DATE) + INTERVAL '1 month') * 1000)::BIGINT
+       )::TEXT) AS report_bytes;
+SELECT refresh_daily_sales();
+\timing off
+
+\echo '=== Pindah dari partisi default: registry nomor dan item transaksi harus tetap utuh ==='
+-- Transaksi bulan yang belum punya partisi (2 tahun ke depan) masuk partisi default; saat
+-- partisinya dibuat, baris itu dipindahkan dan tidak boleh kehilangan nomor maupun item.
+INSERT INTO transactions (transaction_number, cashier_id, subtotal, tax_amount, total_amount,
+                          payment_method, payment_amount, change_amount, status, created_at)
+SELECT 'MOVE-' || lpad(g::TEXT, 4, '0'), NULL, 15000, 1500, 16500, 'Tunai', 16500, 0, 'completed',
+       (date_trunc('month', CURRENT_DATE) + INTERVAL '24 months' + g * INTERVAL '1 hour')::TIMESTAMP
+FROM generate_series(1, 100) AS g;
+
+INSERT INTO transaction_items (transaction_id, product_id, product_name, quantity, unit_price, subtotal)
+SELECT n.transaction_id, p.id, p.name, 1, p.price, p.price
+FROM transaction_numbers n
+CROSS JOIN (VALUES (0), (1)) AS k(shift)
+JOIN products p ON p.id = (SELECT MIN(id) FROM products) + k.shift
+WHERE n.transaction_number LIKE 'MOVE-%';
+
+DO $$
+DECLARE
+    move_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '24 months')::DATE;
+    numbers_before BIGINT;
+    items_before BIGINT;
+    numbers_after BIGINT;
+    items_after BIGINT;
+    in_default BIGINT;
+BEGIN
+    SELECT COUNT(*) INTO numbers_before FROM transaction_numbers WHERE transaction_number LIKE 'MOVE-%';
+    SELECT COUNT(*) INTO items_before FROM transaction_items ti
+        JOIN transaction_numbers n ON n.transaction_id = ti.transaction_id
+        WHERE n.transaction_number LIKE 'MOVE-%';
+
+    PERFORM create_transaction_partitions(move_month, 1);
+
+    SELECT COUNT(*) INTO numbers_after FROM transaction_numbers WHERE transaction_number LIKE 'MOVE-%';
+    SELECT COUNT(*) INTO items_after FROM transaction_items ti
+        JOIN transaction_numbers n ON n.transaction_id = ti.transaction_id
+        WHERE n.transaction_number LIKE 'MOVE-%';
+    SELECT COUNT(*) INTO in_default FROM transactions_default WHERE transaction_number LIKE 'MOVE-%';
+
+    RAISE NOTICE 'nomor % -> %, item % -> %, sisa di default %',
+        numbers_before, numbers_after, items_before, items_after, in_default;
+    IF numbers_before <> 100 OR items_before <> 200 THEN
+        RAISE EXCEPTION 'Seed pemindahan tidak lengkap: % nomor, % item', numbers_before, items_before;
+    END IF;
+    IF numbers_after <> numbers_before OR items_after <> items_before OR in_default <> 0 THEN
+        RAISE EXCEPTION 'Pemindahan partisi kehilangan data: nomor % -> %, item % -> %, sisa di default %',
+            numbers_before, numbers_after, items_before, items_after, in_default;
+    END IF;
+END;
+$$;
+
+-- Transaksi yang dipindahkan tetap bisa dihapus biasa: nomor dan itemnya ikut terhapus
+DELETE FROM transactions WHERE transaction_number = 'MOVE-0001';
+SELECT COUNT(*) AS registry_rows_left FROM transaction_numbers WHERE transaction_number = 'MOVE-0001';
@@ -30,13 +30,24 @@ CREATE TABLE IF NOT EXISTS products (
     image_url VARCHAR(255),
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    deleted_at TIMESTAMP
 );
 
+-- Tombstone untuk sinkron inkremental kasir (database yang dibuat sebelum kolom ini ada)
+ALTER TABLE products ADD COLUMN IF NOT EXISTS deleted_at TIMESTAMP;
+
 -- Create Transactions Table
+-- Dipartisi per bulan menurut created_at: laporan dan riwayat yang dibatasi rentang waktu hanya
+-- membaca partisi bulan terkait, dan bulan lama bisa di-detach/arsip per partisi.
+-- Primary key tabel berpartisi wajib memuat created_at, jadi keunikan transaction_number dan
+-- foreign key dari transaction_items dijaga oleh tabel transaction_numbers di bawah.
+-- Database yang dibuat sebelum partisi ada perlu dimigrasi manual (isi ulang lewat INSERT ... SELECT).
+CREATE SEQUENCE IF NOT EXISTS transactions_id_seq;
+
 CREATE TABLE IF NOT EXISTS transactions (
-    id SERIAL PRIMARY KEY,
-    transaction_number VARCHAR(50) UNIQUE NOT NULL,
+    id INTEGER NOT NULL DEFAULT nextval('transactions_id_seq'),
+    transaction_number VARCHAR(50) NOT NULL,
     cashier_id INTEGER REFERENCES users(id) ON DELETE SET NULL,
     subtotal DECIMAL(10,2) NOT NULL CHECK (subtotal >= 0),
     tax_amount DECIMAL(10,2) NOT NULL CHECK (tax_amount >= 0),
@@ -46,13 +57,28 @@ CREATE TABLE IF NOT EXISTS transactions (
     change_amount DECIMAL(10,2) DEFAULT 0 CHECK (change_amount >= 0),
     status VARCHAR(20) DEFAULT 'completed' CHECK (status IN ('pending', 'completed', 'cancelled')),
     notes TEXT,
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Partisi default menampung transaksi di luar partisi bulanan yang sudah dibuat (misalnya
+-- kasir yang lama offline), sehingga insert tidak pernah ditolak karena partisinya belum ada
+CREATE TABLE IF NOT EXISTS transactions_default PARTITION OF transactions DEFAULT;
+
+-- Create Transaction Number Registry
+-- Satu baris per transaksi dari semua partisi: menjamin transaction_number unik (dasar
+-- idempotensi ingest_transactions) dan menjadi target foreign key transaction_items.
+-- Diisi otomatis oleh trigger register_transaction_number.
+CREATE TABLE IF NOT EXISTS transaction_numbers (
+    transaction_number VARCHAR(50) PRIMARY KEY,
+    transaction_id INTEGER UNIQUE NOT NULL DEFAULT nextval('transactions_id_seq'),
+    created_at TIMESTAMP NOT NULL
 );
 
 -- Create Transaction Items Table
 CREATE TABLE IF NOT EXISTS transaction_items (
     id SERIAL PRIMARY KEY,
-    transaction_id INTEGER REFERENCES transactions(id) ON DELETE CASCADE,
+    transaction_id INTEGER REFERENCES transaction_numbers(transaction_id) ON DELETE CASCADE,
     product_id INTEGER REFERENCES products(id) ON DELETE SET NULL,
     product_name VARCHAR(100) NOT NULL, -- Store product name for historical data
     quantity INTEGER NOT NULL CHECK (quantity > 0),
@@ -101,10 +127,21 @@ CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
 CREATE INDEX IF NOT EXISTS idx_products_category ON products(category);
 CREATE INDEX IF NOT EXISTS idx_products_available ON products(is_available);
-CREATE INDEX IF NOT EXISTS idx_transactions_cashier ON transactions(cashier_id);
+-- Sinkron katalog kasir: updated_at > watermark, urut (updated_at, id)
+CREATE INDEX IF NOT EXISTS idx_products_updated_at ON products(updated_at, id);
+-- Index pada tabel berpartisi otomatis dibuat di setiap partisi, termasuk partisi baru.
+-- Kolom INCLUDE membuat query riwayat/laporan cukup dibaca dari index (index-only scan).
+-- Riwayat kasir: WHERE cashier_id = ? ORDER BY created_at DESC LIMIT n
+CREATE INDEX IF NOT EXISTS idx_transactions_cashier_history ON transactions(cashier_id, created_at DESC)
+    INCLUDE (transaction_number, total_amount, payment_method, status);
+-- Riwayat semua kasir dan filter rentang waktu umum
 CREATE INDEX IF NOT EXISTS idx_transactions_date ON transactions(created_at);
-CREATE INDEX IF NOT EXISTS idx_transactions_status ON transactions(status);
-CREATE INDEX IF NOT EXISTS idx_transaction_items_transaction ON transaction_items(transaction_id);
+-- Laporan (get_sales_report, daily_sales_mv): hanya transaksi completed dalam rentang waktu
+CREATE INDEX IF NOT EXISTS idx_transactions_completed_date ON transactions(created_at)
+    INCLUDE (id, total_amount, payment_method) WHERE status = 'completed';
+-- Item per transaksi dan agregasi produk terlaris tanpa membaca heap
+CREATE INDEX IF NOT EXISTS idx_transaction_items_transaction ON transaction_items(transaction_id)
+    INCLUDE (product_id, product_name, quantity, subtotal);
 CREATE INDEX IF NOT EXISTS idx_transaction_items_product ON transaction_items(product_id);
 
 -- Create Updated At Trigger Function
@@ -116,6 +153,19 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
+-- Create Product Soft Delete Trigger Function
+-- DELETE pada products diubah menjadi tombstone (deleted_at diisi, updated_at ikut naik)
+-- agar terminal yang sinkron inkremental tahu produk itu harus dihapus dari cache lokalnya.
+-- Baris asli tetap ada, jadi riwayat transaction_items tidak kehilangan product_id.
+CREATE OR REPLACE FUNCTION soft_delete_product()
+RETURNS TRIGGER AS $$
+BEGIN
+    UPDATE products SET deleted_at = CURRENT_TIMESTAMP
+    WHERE id = OLD.id AND deleted_at IS NULL;
+    RETURN NULL;
+END;
+$$ language 'plpgsql';
+
 -- Create Password Hash Trigger Function
 -- Function ini akan otomatis meng-hash password saat insert atau update
 CREATE OR REPLACE FUNCTION hash_password()
@@ -133,6 +183,230 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
+-- Create Transaction Number Registry Trigger Function
+-- Setiap insert ke transactions (langsung maupun lewat ingest) dicatat di transaction_numbers.
+-- Nomor yang sudah dipakai transaksi lain ditolak seperti UNIQUE constraint biasa; baris yang
+-- sudah dipesan ingest_transactions untuk id yang sama diterima.
+-- Menghapus transaksi ikut menghapus nomornya, dan lewat foreign key juga item-itemnya,
+-- kecuali saat create_transaction_partitions memindahkan baris ke partisi baru (flag
+-- essycoff.moving_partition): transaksinya tidak hilang, jadi nomor dan item tetap.
+CREATE OR REPLACE FUNCTION register_transaction_number()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        IF current_setting('essycoff.moving_partition', true) = 'on' THEN
+            RETURN OLD;
+        END IF;
+        DELETE FROM transaction_numbers WHERE transaction_id = OLD.id;
+        RETURN OLD;
+    END IF;
+
+    INSERT INTO transaction_numbers (transaction_number, transaction_id, created_at)
+    VALUES (NEW.transaction_number, NEW.id, NEW.created_at)
+    ON CONFLICT (transaction_number) DO NOTHING;
+
+    IF NOT FOUND AND NOT EXISTS (
+        SELECT 1 FROM transaction_numbers
+        WHERE transaction_number = NEW.transaction_number AND transaction_id = NEW.id
+    ) THEN
+        RAISE EXCEPTION 'Nomor transaksi % sudah dipakai', NEW.transaction_number
+            USING ERRCODE = 'unique_violation';
+    END IF;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
+-- Create Transaction Partition Function
+-- Buat partisi bulanan transactions_YYYY_MM untuk p_months bulan mulai bulan p_from.
+-- Partisi yang sudah ada dilewati. Transaksi bulan itu yang sempat masuk partisi default
+-- dipindahkan dulu, karena ATTACH ditolak selama default masih berisi baris rentang tersebut.
+-- DELETE dari default memicu trigger unregister_transaction_number; selama pemindahan trigger
+-- itu dilewati lewat flag lokal transaksi, supaya registry nomor dan item transaksi tidak ikut terhapus.
+-- Jalankan berkala (misalnya pg_cron tiap awal bulan) agar selalu ada partisi beberapa bulan ke depan:
+--   SELECT cron.schedule('transaction-partitions', '0 1 1 * *', 'SELECT create_transaction_partitions(CURRENT_DATE, 3)');
+CREATE OR REPLACE FUNCTION create_transaction_partitions(p_from DATE, p_months INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    month_start DATE;
+    month_end DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    FOR i IN 0 .. p_months - 1 LOOP
+        month_start := (date_trunc('month', p_from) + make_interval(months => i))::DATE;
+        month_end := (month_start + INTERVAL '1 month')::DATE;
+        partition_name := 'transactions_' || to_char(month_start, 'YYYY_MM');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+        EXECUTE format('CREATE TABLE %I (LIKE transactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                       partition_name);
+        PERFORM set_config('essycoff.moving_partition', 'on', true);
+        EXECUTE format('WITH moved AS (DELETE FROM transactions_default
+                                       WHERE created_at >= %L AND created_at < %L RETURNING *)
+                        INSERT INTO %I SELECT * FROM moved',
+                       month_start, month_end, partition_name);
+        PERFORM set_config('essycoff.moving_partition', 'off', true);
+        EXECUTE format('ALTER TABLE transactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, month_start, month_end);
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ language 'plpgsql';
+
+-- Partisi dari bulan lalu sampai 12 bulan ke depan
+SELECT create_transaction_partitions((CURRENT_DATE - INTERVAL '1 month')::DATE, 14);
+
+-- Create Stock Adjustment Function
+-- Ubah stok secara relatif (delta) agar beberapa terminal tidak saling menimpa.
+-- UPDATE bersyarat: jika stok akan menjadi negatif, tidak ada baris yang berubah
+-- dan function melempar error sehingga penjualan melebihi stok ditolak.
+CREATE OR REPLACE FUNCTION adjust_product_stock(p_product_id INTEGER, p_delta INTEGER)
+RETURNS INTEGER AS $$
+DECLARE
+    new_stock INTEGER;
+BEGIN
+    UPDATE products
+    SET stock = stock + p_delta
+    WHERE id = p_product_id AND stock + p_delta >= 0
+    RETURNING stock INTO new_stock;
+
+    IF NOT FOUND THEN
+        RAISE EXCEPTION 'Stok tidak mencukupi untuk produk %', p_product_id
+            USING ERRCODE = 'check_violation';
+    END IF;
+
+    RETURN new_stock;
+END;
+$$ language 'plpgsql';
+
+-- Create Transaction Ingest Function
+-- Dipanggil oleh outbox aplikasi kasir: satu request berisi banyak transaksi (JSON array).
+-- Idempotent: transaction_number dipesan dulu di transaction_numbers; transaksi yang nomornya
+-- sudah ada dilewati beserta item dan pengurangan stoknya, jadi batch yang dikirim ulang
+-- setelah timeout tidak dobel.
+-- Penjualan sudah terjadi di kasir, jadi stok server dikurangi sampai paling rendah 0.
+CREATE OR REPLACE FUNCTION ingest_transactions(p_batch JSONB)
+RETURNS INTEGER AS $$
+DECLARE
+    tx JSONB;
+    item JSONB;
+    new_id INTEGER;
+    tx_created_at TIMESTAMP;
+    inserted INTEGER := 0;
+BEGIN
+    FOR tx IN SELECT value FROM jsonb_array_elements(p_batch) WITH ORDINALITY ORDER BY ordinality LOOP
+        new_id := NULL;
+        tx_created_at := to_timestamp((tx->>'created_at')::BIGINT / 1000.0);
+
+        INSERT INTO transaction_numbers (transaction_number, created_at)
+        VALUES (tx->>'transaction_number', tx_created_at)
+        ON CONFLICT (transaction_number) DO NOTHING
+        RETURNING transaction_id INTO new_id;
+
+        IF new_id IS NULL THEN
+            CONTINUE;
+        END IF;
+        inserted := inserted + 1;
+
+        INSERT INTO transactions (id, transaction_number, cashier_id, subtotal, tax_amount, total_amount,
+                                  payment_method, payment_amount, change_amount, status, notes, created_at)
+        VALUES (
+            new_id,
+            tx->>'transaction_number',
+            (SELECT id FROM users WHERE id = (tx->>'cashier_id')::INTEGER),
+            (tx->>'subtotal')::DECIMAL,
+            (tx->>'tax_amount')::DECIMAL,
+            (tx->>'total_amount')::DECIMAL,
+            tx->>'payment_method',
+            (tx->>'payment_amount')::DECIMAL,
+            COALESCE((tx->>'change_amount')::DECIMAL, 0),
+            COALESCE(tx->>'status', 'completed'),
+            tx->>'notes',
+            tx_created_at
+        );
+
+        FOR item IN SELECT value FROM jsonb_array_elements(COALESCE(tx->'items', '[]'::JSONB)) LOOP
+            INSERT INTO transaction_items (transaction_id, product_id, product_name, quantity, unit_price, subtotal)
+            VALUES (
+                new_id,
+                (SELECT id FROM products WHERE id = (item->>'product_id')::INTEGER),
+                item->>'product_name',
+                (item->>'quantity')::INTEGER,
+                (item->>'unit_price')::DECIMAL,
+                (item->>'subtotal')::DECIMAL
+            );
+
+            UPDATE products
+            SET stock = GREATEST(stock - (item->>'quantity')::INTEGER, 0)
+            WHERE id = (item->>'product_id')::INTEGER;
+        END LOOP;
+    END LOOP;
+
+    RETURN inserted;
+END;
+$$ language 'plpgsql';
+
+-- Create Sales Report Function
+-- Ringkasan penjualan rentang [p_from_ms, p_to_ms) (epoch milidetik, seperti created_at di
+-- aplikasi) dalam satu panggilan: total, jumlah transaksi, pembagian per metode pembayaran,
+-- serta produk dan kategori terlaris. Agregasi dilakukan di server, jadi laporan sebulan
+-- hanya beberapa ratus byte JSON, bukan semua baris transaksi.
+-- STABLE: PostgREST mengizinkan GET /rest/v1/rpc/get_sales_report?p_from_ms=...&p_to_ms=...
+CREATE OR REPLACE FUNCTION get_sales_report(p_from_ms BIGINT, p_to_ms BIGINT, p_top_limit INTEGER DEFAULT 5)
+RETURNS JSONB AS $$
+    WITH completed AS (
+        -- Parameter yang dikonversi, bukan kolomnya, agar partisi bisa dipangkas dan
+        -- idx_transactions_completed_date tetap dipakai
+        SELECT id, total_amount, payment_method
+        FROM transactions
+        WHERE status = 'completed'
+          AND created_at >= to_timestamp(p_from_ms / 1000.0)::TIMESTAMP
+          AND created_at < to_timestamp(p_to_ms / 1000.0)::TIMESTAMP
+    ),
+    items AS (
+        SELECT ti.product_name, COALESCE(p.category, 'Lainnya') AS category, ti.quantity, ti.subtotal
+        FROM transaction_items ti
+        JOIN completed c ON c.id = ti.transaction_id
+        LEFT JOIN products p ON p.id = ti.product_id
+    )
+    SELECT jsonb_build_object(
+        'from_ms', p_from_ms,
+        'to_ms', p_to_ms,
+        'total_sales', (SELECT COALESCE(ROUND(SUM(total_amount)), 0)::BIGINT FROM completed),
+        'transaction_count', (SELECT COUNT(*) FROM completed),
+        'payment_methods', COALESCE((
+            SELECT jsonb_agg(jsonb_build_object(
+                       'payment_method', payment_method,
+                       'transaction_count', transaction_count,
+                       'total_sales', total_sales) ORDER BY total_sales DESC)
+            FROM (SELECT payment_method, COUNT(*) AS transaction_count,
+                         ROUND(SUM(total_amount))::BIGINT AS total_sales
+                  FROM completed GROUP BY payment_method) pm
+        ), '[]'::JSONB),
+        'top_products', COALESCE((
+            SELECT jsonb_agg(jsonb_build_object(
+                       'product_name', product_name,
+                       'category', category,
+                       'quantity', quantity,
+                       'revenue', revenue) ORDER BY revenue DESC)
+            FROM (SELECT product_name, category, SUM(quantity) AS quantity,
+                         ROUND(SUM(subtotal))::BIGINT AS revenue
+                  FROM items GROUP BY product_name, category
+                  ORDER BY revenue DESC LIMIT p_top_limit) tp
+        ), '[]'::JSONB),
+        'top_categories', COALESCE((
+            SELECT jsonb_agg(jsonb_build_object(
+                       'category', category,
+                       'quantity', quantity,
+                       'revenue', revenue) ORDER BY revenue DESC)
+            FROM (SELECT category, SUM(quantity) AS quantity, ROUND(SUM(subtotal))::BIGINT AS revenue
+                  FROM items GROUP BY category
+                  ORDER BY revenue DESC LIMIT p_top_limit) tc
+        ), '[]'::JSONB)
+    );
+$$ LANGUAGE sql STABLE;
+
 -- Create Triggers for Updated At
 CREATE TRIGGER update_users_updated_at BEFORE UPDATE ON users
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
@@ -140,6 +414,16 @@ CREATE TRIGGER update_users_updated_at BEFORE UPDATE ON users
 CREATE TRIGGER update_products_updated_at BEFORE UPDATE ON products
     FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 
+CREATE TRIGGER soft_delete_products BEFORE DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION soft_delete_product();
+
+-- Create Transaction Number Registry Triggers
+CREATE TRIGGER register_transaction_number BEFORE INSERT ON transactions
+    FOR EACH ROW EXECUTE FUNCTION register_transaction_number();
+
+CREATE TRIGGER unregister_transaction_number AFTER DELETE ON transactions
+    FOR EACH ROW EXECUTE FUNCTION register_transaction_number();
+
 -- Create Password Hash Trigger
 -- Trigger ini akan otomatis meng-hash password sebelum insert atau update
 CREATE TRIGGER hash_user_password BEFORE INSERT OR UPDATE ON users
@@ -150,12 +434,29 @@ ALTER TABLE users ENABLE ROW LEVEL SECURITY;
 ALTER TABLE products ENABLE ROW LEVEL SECURITY;
 ALTER TABLE transactions ENABLE ROW LEVEL SECURITY;
 ALTER TABLE transaction_items ENABLE ROW LEVEL SECURITY;
+ALTER TABLE transaction_numbers ENABLE ROW LEVEL SECURITY;
 
 -- Allow all operations for authenticated users (you can customize this based on your needs)
 CREATE POLICY "Allow all for authenticated users" ON users FOR ALL USING (auth.role() = 'authenticated');
 CREATE POLICY "Allow all for authenticated users" ON products FOR ALL USING (auth.role() = 'authenticated');
 CREATE POLICY "Allow all for authenticated users" ON transactions FOR ALL USING (auth.role() = 'authenticated');
 CREATE POLICY "Allow all for authenticated users" ON transaction_items FOR ALL USING (auth.role() = 'authenticated');
+CREATE POLICY "Allow all for authenticated users" ON transaction_numbers FOR ALL USING (auth.role() = 'authenticated');
+
+-- Realtime Publication for Products
+-- Terminal kasir berlangganan postgres_changes pada products (ProductChangeFeed), sehingga
+-- perubahan stok dan harga langsung sampai tanpa polling. Perubahan yang terlewat saat
+-- terminal offline diambil lewat sinkron inkremental (updated_at), bukan dari Realtime.
+-- Publication supabase_realtime hanya ada di Supabase; di Postgres biasa blok ini dilewati.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_publication WHERE pubname = 'supabase_realtime')
+       AND NOT EXISTS (SELECT 1 FROM pg_publication_tables
+                       WHERE pubname = 'supabase_realtime' AND schemaname = 'public' AND tablename = 'products') THEN
+        ALTER PUBLICATION supabase_realtime ADD TABLE products;
+    END IF;
+END;
+$$;
 
 -- Create Views for Reports
 CREATE OR REPLACE VIEW daily_sales AS
@@ -182,6 +483,34 @@ WHERE t.status = 'completed'
 GROUP BY p.id, p.name, p.category
 ORDER BY total_revenue DESC;
 
+-- Create Daily Sales Materialized View
+-- Total harian per metode pembayaran yang sudah dihitung: grafik/laporan berbulan-bulan membaca
+-- beberapa ratus baris ini, bukan semua transaksi. Tidak real-time; diperbarui oleh
+-- refresh_daily_sales() (get_sales_report tetap membaca data langsung untuk angka hari ini).
+CREATE MATERIALIZED VIEW IF NOT EXISTS daily_sales_mv AS
+SELECT
+    DATE(created_at) AS sale_date,
+    payment_method,
+    COUNT(*) AS transaction_count,
+    SUM(total_amount) AS total_sales
+FROM transactions
+WHERE status = 'completed'
+GROUP BY DATE(created_at), payment_method;
+
+-- Wajib untuk REFRESH ... CONCURRENTLY, yang tidak memblokir pembaca selama refresh
+CREATE UNIQUE INDEX IF NOT EXISTS idx_daily_sales_mv_key ON daily_sales_mv(sale_date, payment_method);
+
+-- Create Daily Sales Refresh Function
+-- Bisa dipanggil lewat RPC atau dijadwalkan, misalnya tiap 15 menit:
+--   SELECT cron.schedule('refresh-daily-sales', '*/15 * * * *', 'SELECT refresh_daily_sales()');
+-- SECURITY DEFINER: REFRESH hanya boleh dijalankan pemilik materialized view
+CREATE OR REPLACE FUNCTION refresh_daily_sales()
+RETURNS VOID AS $$
+BEGIN
+    REFRESH MATERIALIZED VIEW CONCURRENTLY daily_sales_mv;
+END;
+$$ LANGUAGE plpgsql SECURITY DEFINER SET search_path = public;
+
 -- Grant necessary permissions
 GRANT USAGE ON SCHEMA public TO anon, authenticated;
 GRANT ALL ON ALL TABLES IN SCHEMA public TO anon, authenticated;
@@ -192,5 +521,8 @@ COMMENT ON TABLE users IS 'Tabel pengguna sistem (staff dan manager)';
 COMMENT ON TABLE products IS 'Tabel produk yang dijual di kedai kopi';
 COMMENT ON TABLE transactions IS 'Tabel transaksi penjualan';
 COMMENT ON TABLE transaction_items IS 'Tabel detail item dalam setiap transaksi';
+COMMENT ON TABLE transaction_numbers IS 'Registry nomor transaksi unik untuk semua partisi transactions';
+COMMENT ON MATERIALIZED VIEW daily_sales_mv IS 'Total penjualan harian per metode pembayaran (refresh_daily_sales)';
 COMMENT ON VIEW daily_sales IS 'View untuk laporan penjualan harian';
 COMMENT ON VIEW product_sales IS 'View untuk laporan penjualan per produk';
+COMMENT ON FUNCTION get_sales_report(BIGINT, BIGINT, INTEGER) IS 'Ringkasan penjualan satu rentang waktu untuk layar laporan';